@@ -1,6 +1,8 @@
 package dev.webserver;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.webserver.auth.password.BoundedPasswordEncoder;
+import dev.webserver.auth.password.PasswordHashingExecutor;
 import dev.webserver.exception.ExceptionResponse;
 import dev.webserver.jwt.RefreshTokenFilter;
 import dev.webserver.user.repository.UserRepository;
@@ -19,9 +21,10 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
@@ -82,6 +85,10 @@ public class SecurityConfig {
     private String samesite;
     @Value(value = "${cors.ui.domain}")
     private String corsdomain;
+    @Value(value = "${auth.password.algorithm:bcrypt}")
+    private String algorithm;
+    @Value(value = "${auth.password.strength:15}")
+    private int strength;
     @Value("/${api.endpoint.baseurl}")
     private String baseurl;
     @Value("${spring.profiles.active}")
@@ -95,15 +102,29 @@ public class SecurityConfig {
                 .orElseThrow(() -> new UsernameNotFoundException(username + " not found"));
     }
 
+    /**
+     * Stores a password re-hashed on login because its hash is weaker than the
+     * configured {@code auth.password} settings.
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService(UserRepository repository) {
+        return (user, encoded) -> {
+            repository.updatePasswordByPrincipal(user.getUsername(), encoded);
+            return User.withUserDetails(user).password(encoded).build();
+        };
+    }
+
     @Bean
     public AuthenticationManager manager(
             UserDetailsService service,
+            UserDetailsPasswordService passwordService,
             PasswordEncoder encoder,
             @Qualifier(value = "authenticationEventPublisher") AuthenticationEventPublisher publisher
     ) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(service);
         provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(passwordService);
 
         ProviderManager manager = new ProviderManager(provider);
         manager.setAuthenticationEventPublisher(publisher);
@@ -121,9 +142,13 @@ public class SecurityConfig {
         return serializer;
     }
 
+    /**
+     * Passwords are hashed on a bounded executor so logins cannot starve other requests
+     * of cpu. See {@link BoundedPasswordEncoder}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(15);
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor executor) {
+        return new BoundedPasswordEncoder(BoundedPasswordEncoder.delegating(algorithm, strength), executor);
     }
 
     @Bean
@@ -0,0 +1,74 @@
+package dev.webserver.auth.password;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+
+/**
+ * A {@link PasswordEncoder} that hashes and verifies passwords on the
+ * {@link PasswordHashingExecutor}.
+ * <p>
+ * {@link #upgradeEncoding(String)} is cheap and runs on the calling thread. When it
+ * returns true after a successful login, {@code DaoAuthenticationProvider} re-hashes the
+ * password and stores it through a {@code UserDetailsPasswordService}, so the hash cost or
+ * algorithm can be changed without forcing users to reset their password.
+ */
+public final class BoundedPasswordEncoder implements PasswordEncoder {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an encoder that hashes new passwords with {@code algorithm}, prefixing each
+     * hash with its algorithm id, e.g. {@code {bcrypt}$2a$15$...}. Hashes stored before ids
+     * were introduced are verified as bcrypt and upgraded to the prefixed form on the next
+     * successful login. A bcrypt hash with a lower cost than {@code strength} is upgraded
+     * the same way.
+     *
+     * @param algorithm either {@link #BCRYPT} or {@link #PBKDF2}.
+     * @param strength bcrypt cost of new hashes.
+     * @throws IllegalArgumentException if {@code algorithm} is not supported.
+     */
+    public static PasswordEncoder delegating(final String algorithm, final int strength) {
+        final var bcrypt = new BCryptPasswordEncoder(strength);
+        final Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT, bcrypt,
+                PBKDF2, Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()
+        );
+
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("unsupported password algorithm " + algorithm);
+        }
+
+        final var encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return executor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(final String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+}
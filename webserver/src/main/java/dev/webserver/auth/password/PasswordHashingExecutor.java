@@ -0,0 +1,105 @@
+package dev.webserver.auth.password;
+
+import dev.webserver.exception.CustomServerError;
+import dev.webserver.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small pool of platform threads, isolated from the virtual
+ * threads serving requests.
+ * <p>
+ * Hashing is deliberately expensive. Without a bound, a burst of logins on virtual
+ * threads occupies every core and starves unrelated requests such as checkout. The pool
+ * holds {@code auth.password.threads} threads, defaulting to half the available
+ * processors, and at most {@code auth.password.queue-capacity} hashes wait for a thread.
+ * A hash submitted whilst the queue is full is rejected straight away with a
+ * {@link TooManyRequestsException}, which is returned to the client as a 429.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    @Autowired
+    public PasswordHashingExecutor(Environment env, MeterRegistry registry) {
+        this(
+                env.getProperty(
+                        "auth.password.threads",
+                        Integer.class,
+                        Math.max(1, Runtime.getRuntime().availableProcessors() / 2)
+                ),
+                env.getProperty("auth.password.queue-capacity", Integer.class, 32),
+                registry
+        );
+    }
+
+    public PasswordHashingExecutor(int threads, int queueCapacity, MeterRegistry registry) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("threads and queue capacity must be greater than 0");
+        }
+
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("password hashes rejected because the queue was full")
+                .register(registry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("password hashes running")
+                .register(registry);
+        Gauge.builder("auth.password.hash.queued", executor, e -> e.getQueue().size())
+                .description("password hashes waiting for a thread")
+                .register(registry);
+    }
+
+    /**
+     * Runs {@code task} on the pool and waits for its result.
+     *
+     * @throws TooManyRequestsException if the queue is full.
+     */
+    public <T> T execute(final Supplier<T> task) {
+        final Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("too many requests. kindly try again shortly");
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CustomServerError(e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CustomServerError("interrupted whilst hashing password");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
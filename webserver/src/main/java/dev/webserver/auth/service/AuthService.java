@@ -9,10 +9,13 @@ import dev.webserver.enumeration.RoleEnum;
 import dev.webserver.exception.DuplicateException;
 import dev.webserver.external.log.ILogEventPublisher;
 import dev.webserver.jwt.JwtService;
+import dev.webserver.jwt.TokenRefresher;
 import dev.webserver.user.entity.ClientRole;
 import dev.webserver.user.entity.SarreBrandUser;
 import dev.webserver.user.repository.UserRepository;
 import dev.webserver.user.repository.UserRoleRepository;
+import dev.webserver.util.CacheInvalidationEvent;
+import dev.webserver.util.CustomUtil;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -21,6 +24,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -31,10 +35,8 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static dev.webserver.enumeration.RoleEnum.CLIENT;
@@ -62,6 +64,7 @@ public class AuthService {
     private final AuthenticationManager authManager;
     private final JwtService tokenService;
     private final ILogEventPublisher publisher;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Method called by either {@link WorkerAuthController}
@@ -97,6 +100,8 @@ public class AuthService {
      * Responsible for registering a new worker. Logic is throw an error if client
      * has a role of Worker or else add ROLE worker to client.
      *
+     * Roles cached by {@link TokenRefresher} are cleared once the new role commits.
+     *
      * @param dto contains the necessary details to create a {@link SarreBrandUser}.
      * @throws DuplicateException when user principal exists and has a role of worker.
      */
@@ -112,6 +117,7 @@ public class AuthService {
         SarreBrandUser userToSave = optional.orElseGet(() -> createUser(dto));
 
         this.roleRepository.save(new ClientRole(WORKER, userToSave));
+        this.eventPublisher.publishEvent(new CacheInvalidationEvent(this, TokenRefresher.CACHE));
     }
 
     /**
@@ -218,14 +224,12 @@ public class AuthService {
      * @return boolean true if jwt contains a valid cookie else false.
      */
     private boolean validateCookies(HttpServletRequest request, HttpServletResponse response, RoleEnum role) {
-        Cookie[] cookies = request.getCookies();
-        if (cookies == null) return false;
-
-        Optional<Cookie> first = Arrays.stream(cookies)
-                .filter(cookie -> cookie.getName().equals(jsessionid) && tokenService.matchesRole(cookie, role))
-                .findFirst();
+        boolean valid = tokenService.jwt(request)
+                .filter(jwt -> tokenService.matchesRole(jwt, role))
+                .isPresent();
 
-        first.ifPresent(cookie -> {
+        if (valid) {
+            Cookie cookie = CustomUtil.cookie(request, jsessionid);
             cookie.setValue(cookie.getValue());
             cookie.setHttpOnly(true);
             cookie.setMaxAge(cookie.getMaxAge());
@@ -233,9 +237,9 @@ public class AuthService {
 
             // add cookie to response
             response.addCookie(cookie);
-        });
+        }
 
-        return first.isPresent();
+        return valid;
     }
 
 }
\ No newline at end of file
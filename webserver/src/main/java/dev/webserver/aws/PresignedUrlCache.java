@@ -0,0 +1,173 @@
+package dev.webserver.aws;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded in-memory cache of aws pre-signed urls keyed by bucket and object key.
+ * <p>
+ * A pre-signed url is valid for {@link #signatureDuration}. A cached url is reused until
+ * it is within {@link #refreshBeforeExpiry} of expiring, after which a new url is signed.
+ * This guarantees a url handed to a client is valid for at least {@link #refreshBeforeExpiry}.
+ * When the cache holds more than {@link #maxSize} entries, expired entries are removed
+ * first followed by the entries closest to expiring.
+ */
+final class PresignedUrlCache {
+
+    private record Key(String bucket, String key) { }
+
+    private record Entry(String url, Instant refreshAt) { }
+
+    private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final Duration signatureDuration;
+    private final Duration refreshBeforeExpiry;
+    private final int maxSize;
+    private final Clock clock;
+
+    PresignedUrlCache(Duration signatureDuration, Duration refreshBeforeExpiry, int maxSize, Clock clock) {
+        if (refreshBeforeExpiry.compareTo(signatureDuration) >= 0) {
+            throw new IllegalArgumentException("refresh before expiry must be less than signature duration");
+        }
+        this.signatureDuration = signatureDuration;
+        this.refreshBeforeExpiry = refreshBeforeExpiry;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    Duration signatureDuration() {
+        return signatureDuration;
+    }
+
+    /**
+     * Returns a cached pre-signed url if it is not close to expiring else
+     * {@code signer} is invoked and the url it returns is cached. A blank url
+     * returned by {@code signer} signals an error and it is never cached.
+     *
+     * @param bucket is the bucket name.
+     * @param key is the object key.
+     * @param signer signs a new url valid for {@link #signatureDuration}.
+     * @return a pre-signed url.
+     */
+    String get(final String bucket, final String key, final Supplier<String> signer) {
+        final Key k = new Key(bucket, key);
+        final Instant now = clock.instant();
+        final Entry entry = cache.get(k);
+
+        if (entry != null && now.isBefore(entry.refreshAt())) {
+            hits.increment();
+            return entry.url();
+        }
+
+        misses.increment();
+        final String url = signer.get();
+
+        if (url == null || url.isBlank()) {
+            return url;
+        }
+
+        cache.put(k, new Entry(url, now.plus(signatureDuration).minus(refreshBeforeExpiry)));
+
+        if (cache.size() > maxSize) {
+            evict(now);
+        }
+
+        return url;
+    }
+
+    /**
+     * Removes the cached pre-signed url of every object key in {@code keys}.
+     */
+    void invalidate(final String bucket, final Collection<String> keys) {
+        keys.forEach(key -> cache.remove(new Key(bucket, key)));
+    }
+
+    void invalidateAll() {
+        cache.clear();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    /**
+     * Registers cache size, hits, misses and evictions to {@code registry}.
+     */
+    void bindTo(final MeterRegistry registry) {
+        Gauge.builder("s3.presigned.cache.size", cache, Map::size)
+                .description("number of cached pre-signed urls")
+                .register(registry);
+        FunctionCounter.builder("s3.presigned.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("s3.presigned.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("s3.presigned.cache.evictions", evictions, LongAdder::sum)
+                .register(registry);
+    }
+
+    /**
+     * Removes entries due for a refresh. If the cache is still over capacity, entries
+     * closest to expiring are removed until the cache is at 90% of {@link #maxSize} so
+     * the next few inserts do not trigger another pass.
+     */
+    private synchronized void evict(final Instant now) {
+        if (cache.size() <= maxSize) {
+            return;
+        }
+
+        cache.entrySet().removeIf(e -> {
+            final boolean expired = !now.isBefore(e.getValue().refreshAt());
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+
+        final int target = (int) (maxSize * 0.9);
+        final int excess = cache.size() - target;
+
+        if (excess <= 0) {
+            return;
+        }
+
+        cache.entrySet().stream()
+                .sorted(Comparator.comparing(e -> e.getValue().refreshAt()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(k -> {
+                    if (cache.remove(k) != null) {
+                        evictions.increment();
+                    }
+                });
+    }
+
+}
@@ -1,6 +1,7 @@
 package dev.webserver.aws;
 
 import dev.webserver.exception.CustomServerError;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +15,7 @@ import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignReques
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
 import java.io.File;
+import java.time.Clock;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
@@ -26,14 +28,27 @@ public class S3Service {
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
     private final boolean profile;
+    private final PresignedUrlCache cache;
 
-    public S3Service (S3Client s3Client, S3Presigner s3Presigner, Environment env) {
+    public S3Service (S3Client s3Client, S3Presigner s3Presigner, Environment env, MeterRegistry registry) {
         this.s3Client = s3Client;
         this.s3Presigner = s3Presigner;
 
         String active = env.getProperty("spring.profiles.active", "default");
 
         this.profile = active.endsWith("test");
+
+        long duration = env.getProperty("aws.presigned.signature-duration", Long.class, 30L);
+        long refresh = env.getProperty("aws.presigned.refresh-before-expiry", Long.class, 5L);
+        int maxSize = env.getProperty("aws.presigned.cache.max-size", Integer.class, 2000);
+
+        this.cache = new PresignedUrlCache(
+                Duration.ofMinutes(duration),
+                Duration.ofMinutes(refresh),
+                maxSize,
+                Clock.systemUTC()
+        );
+        this.cache.bindTo(registry);
     }
 
     public void uploadToS3(File file, Map<String, String> metadata, String bucket, String key) {
@@ -62,10 +77,14 @@ public class S3Service {
         }
     }
 
+    /**
+     * Deletes object(s) from s3 and removes their cached pre-signed urls.
+     * */
     public void deleteFromS3(List<ObjectIdentifier> keys, String bucket) {
         if (profile) {
             return;
         }
+        this.cache.invalidate(bucket, keys.stream().map(ObjectIdentifier::key).toList());
         this.deleteFromS3Impl(keys, bucket);
     }
 
@@ -88,7 +107,8 @@ public class S3Service {
     }
 
     /**
-     * Returns a pre-signed url from s3.
+     * Returns a pre-signed url from s3. A previously signed url is reused until
+     * it is close to expiring.
      *
      * @param bucket is the bucket name.
      * @param key is the object key.
@@ -98,7 +118,7 @@ public class S3Service {
         if (profile) {
             return "";
         }
-        return preSignedUrlImpl(bucket, key);
+        return cache.get(bucket, key, () -> preSignedUrlImpl(bucket, key));
     }
 
     /**
@@ -116,7 +136,7 @@ public class S3Service {
                 .build();
 
         GetObjectPresignRequest getObjectPresignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofMinutes(30))
+                .signatureDuration(cache.signatureDuration())
                 .getObjectRequest(getObjectRequest)
                 .build();
         try {
@@ -3,8 +3,8 @@ package dev.webserver.cart.controller;
 import dev.webserver.cart.dto.CartDTO;
 import dev.webserver.cart.response.CartResponse;
 import dev.webserver.cart.service.CartService;
+import dev.webserver.cart.session.CartSession;
 import dev.webserver.enumeration.SarreCurrency;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -29,23 +29,23 @@ class CartController {
     @GetMapping(produces = APPLICATION_JSON_VALUE)
     public CompletableFuture<List<CartResponse>> cartItems(
             @RequestParam(name = "currency", defaultValue = "ngn") String currency,
-            HttpServletRequest req,
+            CartSession session,
             HttpServletResponse res
     ) {
         SarreCurrency s = SarreCurrency.valueOf(currency.toUpperCase());
-        return this.cartService.cartItems(s, req, res);
+        return this.cartService.cartItems(s, session, res);
     }
 
     @ResponseStatus(CREATED)
     @PostMapping(consumes = APPLICATION_JSON_VALUE)
-    public void create(@Valid @RequestBody CartDTO dto, HttpServletRequest req) {
-        cartService.create(dto, req);
+    public void create(@Valid @RequestBody CartDTO dto, CartSession session) {
+        cartService.create(dto, session);
     }
 
     @ResponseStatus(OK)
     @DeleteMapping
-    public void delete(@NotNull @RequestParam(name = "sku") String sku, HttpServletRequest req) {
-        this.cartService.deleteFromCart(req, sku);
+    public void delete(@NotNull @RequestParam(name = "sku") String sku, CartSession session) {
+        this.cartService.deleteFromCart(session, sku);
     }
 
 }
\ No newline at end of file
@@ -7,7 +7,10 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-@Table(name = "cart_item")
+@Table(
+        name = "cart_item",
+        uniqueConstraints = @UniqueConstraint(name = "cart_item_session_sku_uk", columnNames = {"session_id", "sku_id"})
+)
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
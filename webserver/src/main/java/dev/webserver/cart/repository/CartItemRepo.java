@@ -2,30 +2,58 @@ package dev.webserver.cart.repository;
 
 import dev.webserver.cart.entity.CartItem;
 import dev.webserver.cart.entity.ShoppingSession;
-import dev.webserver.enumeration.SarreCurrency;
 import dev.webserver.payment.projection.RaceConditionCartPojo;
-import dev.webserver.payment.projection.TotalPojo;
+import dev.webserver.product.entity.ProductSku;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface CartItemRepo extends JpaRepository<CartItem, Long> {
 
+    /**
+     * Adds a {@link ProductSku} to a {@link ShoppingSession}, or replaces its qty if the
+     * {@link ProductSku} is already in the cart, in a single statement. Relies on the
+     * unique constraint on {@code cart_item(session_id, sku_id)}.
+     *
+     * @param sessionId primary key of the {@link ShoppingSession}.
+     * @return 0 if no {@link ShoppingSession} exists for {@code sessionId}.
+     * */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+    INSERT INTO cart_item (qty, session_id, sku_id)
+    SELECT :qty, s.session_id, :skuId
+    FROM shopping_session s
+    WHERE s.session_id = :sessionId
+    ON DUPLICATE KEY UPDATE qty = :qty
+    """)
+    int upsertCartItem(long sessionId, long skuId, int qty);
+
+    /**
+     * Same as {@link #upsertCartItem(long, long, int)} but the {@link ShoppingSession}
+     * is identified by its cookie, for a session created in the same transaction.
+     * */
     @Transactional
     @Modifying(flushAutomatically = true, clearAutomatically = true)
-    @Query("UPDATE CartItem c SET c.qty = :qty WHERE c.cartId = :id")
-    void updateCartItemQtyByCartId(long id, int qty);
+    @Query(nativeQuery = true, value = """
+    INSERT INTO cart_item (qty, session_id, sku_id)
+    SELECT :qty, s.session_id, :skuId
+    FROM shopping_session s
+    WHERE s.cookie = :cookie
+    ON DUPLICATE KEY UPDATE qty = :qty
+    """)
+    int upsertCartItemByCookie(String cookie, long skuId, int qty);
 
     @Transactional
     @Modifying(flushAutomatically = true, clearAutomatically = true)
-    @Query("DELETE FROM CartItem c WHERE c.shoppingSession.cookie = :cookie AND c.productSku.sku = :sku")
-    void deleteCartItemByCookieAndSku(String cookie, String sku);
+    @Query("DELETE FROM CartItem c WHERE c.shoppingSession.shoppingSessionId = :id AND c.productSku.sku = :sku")
+    void deleteCartItemByShoppingSessionIdAndSku(long id, String sku);
 
     /**
      * Deletes all {@link CartItem} associated to a
@@ -37,41 +65,13 @@ public interface CartItemRepo extends JpaRepository<CartItem, Long> {
     void deleteCartItemsByShoppingSessionId(long id);
 
     /**
-     * @param sessionId is associated to every device.
-     * @return List of {@link TotalPojo} which are select items needed
-     * to calculate the total in a users cart. The select items are
-     * qty, price, and weight.
+     * Deletes all {@link CartItem} associated to any of the
+     * {@link ShoppingSession} primary keys.
      * */
-    @Query("""
-    SELECT
-    c.qty AS qty,
-    pc.price AS price,
-    p.weight AS weight
-    FROM CartItem c
-    INNER JOIN ShoppingSession s ON c.shoppingSession.shoppingSessionId = s.shoppingSessionId
-    INNER JOIN ProductSku ps ON c.productSku.skuId = ps.skuId
-    INNER JOIN ProductDetail d ON ps.productDetail.productDetailId = d.productDetailId
-    INNER JOIN Product p ON d.product.productId = p.productId
-    INNER JOIN PriceCurrency pc ON p.productId = pc.product.productId
-    WHERE s.shoppingSessionId = :sessionId AND pc.currency = :currency
-    """)
-    List<TotalPojo> amountToPayForAllCartItemsForShoppingSession(long sessionId, SarreCurrency currency);
-
-    @Query("""
-    SELECT
-    p.skuId AS productSkuId,
-    p.sku AS productSkuSku,
-    p.size AS productSkuSize,
-    p.inventory AS productSkuInventory,
-    c.cartId AS cartItemId,
-    c.qty AS cartItemQty,
-    s.shoppingSessionId AS shoppingSessionId
-    FROM CartItem c
-    INNER JOIN ShoppingSession s ON c.shoppingSession.shoppingSessionId = s.shoppingSessionId
-    INNER JOIN ProductSku p ON c.productSku.skuId = p.skuId
-    WHERE s.shoppingSessionId = :id
-    """)
-    List<RaceConditionCartPojo> cartItemsByShoppingSessionId(long id);
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem c WHERE c.shoppingSession.shoppingSessionId IN (:ids)")
+    int deleteCartItemsByShoppingSessionIds(Collection<Long> ids);
 
     @Query("""
     SELECT
@@ -82,13 +82,4 @@ public interface CartItemRepo extends JpaRepository<CartItem, Long> {
     WHERE o.reference = :reference
     """)
     List<RaceConditionCartPojo> cartItemsByOrderReservationReference(String reference);
-
-    @Query("""
-    SELECT c FROM CartItem c
-    INNER JOIN ShoppingSession s ON c.shoppingSession.shoppingSessionId = s.shoppingSessionId
-    INNER JOIN ProductSku sk ON c.productSku.skuId = sk.skuId
-    WHERE s.shoppingSessionId = :id AND sk.sku = :sku
-    """)
-    Optional<CartItem> cartItemByShoppingSessionIdAndProductSkuSku(long id, String sku);
-
-}
\ No newline at end of file
+}
@@ -3,12 +3,14 @@ package dev.webserver.cart.repository;
 import dev.webserver.cart.entity.ShoppingSession;
 import dev.webserver.cart.projection.CartPojo;
 import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.payment.projection.CheckoutSnapshotPojo;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -19,14 +21,72 @@ public interface ShoppingSessionRepo extends JpaRepository<ShoppingSession, Long
     @Query("SELECT s FROM ShoppingSession s WHERE s.cookie = :cookie")
     Optional<ShoppingSession> shoppingSessionByCookie(String cookie);
 
+    @Query("SELECT s.shoppingSessionId FROM ShoppingSession s WHERE s.cookie = :cookie")
+    Optional<Long> shoppingSessionIdByCookie(String cookie);
+
+    /**
+     * Returns a {@link ShoppingSession} alongside every item in its cart in one query.
+     * Each row contains the cart item qty, the inventory of its sku and the price and
+     * weight of its product in {@code currency}. Cart items are left joined so a
+     * {@link ShoppingSession} with an empty cart returns one row without cart item
+     * properties, and an unknown primary key returns no rows.
+     *
+     * @param id is the primary key of a {@link ShoppingSession}.
+     * @param currency of the price of every cart item.
+     * @return a {@link List} of {@link CheckoutSnapshotPojo}.
+     */
+    @Query("""
+    SELECT
+    s AS session,
+    s.shoppingSessionId AS shoppingSessionId,
+    c.cartId AS cartItemId,
+    c.qty AS cartItemQty,
+    c.qty AS qty,
+    sk.skuId AS productSkuId,
+    sk.sku AS productSkuSku,
+    sk.size AS productSkuSize,
+    sk.inventory AS productSkuInventory,
+    p.weight AS weight,
+    pc.price AS price
+    FROM ShoppingSession s
+    LEFT JOIN CartItem c ON s.shoppingSessionId = c.shoppingSession.shoppingSessionId
+    LEFT JOIN ProductSku sk ON c.productSku.skuId = sk.skuId
+    LEFT JOIN ProductDetail d ON sk.productDetail.productDetailId = d.productDetailId
+    LEFT JOIN Product p ON d.product.productId = p.productId
+    LEFT JOIN PriceCurrency pc ON p.productId = pc.product.productId AND pc.currency = :currency
+    WHERE s.shoppingSessionId = :id
+    """)
+    List<CheckoutSnapshotPojo> checkoutSnapshotByShoppingSessionId(long id, SarreCurrency currency);
+
+    /**
+     * Creates a {@link ShoppingSession} for {@code cookie} if none exists, else extends
+     * the existing one's expiry to {@code expireAt} if it is later. Relies on the unique
+     * constraint on {@code shopping_session.cookie}, so concurrent first requests of a
+     * device never create two sessions.
+     * */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+    INSERT INTO shopping_session (cookie, created_at, expire_at)
+    VALUES (:cookie, :createdAt, :expireAt)
+    ON DUPLICATE KEY UPDATE expire_at = GREATEST(expire_at, :expireAt)
+    """)
+    void upsertShoppingSession(String cookie, Date createdAt, Date expireAt);
+
+    /**
+     * Extends the expiry of every {@link ShoppingSession} in {@code ids} to {@code d}.
+     * A session that already expires after {@code d} is left untouched.
+     *
+     * @return the number of {@link ShoppingSession} updated.
+     * */
     @Transactional
     @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query(value = """
     UPDATE ShoppingSession s
     SET s.expireAt = :d
-    WHERE s.cookie = :cookie
+    WHERE s.shoppingSessionId IN (:ids) AND s.expireAt < :d
     """)
-    void updateShoppingSessionExpiry(String cookie, Date d);
+    int updateShoppingSessionsExpiry(Collection<Long> ids, Date d);
 
     @Query(value = """
     SELECT
@@ -48,12 +108,35 @@ public interface ShoppingSessionRepo extends JpaRepository<ShoppingSession, Long
     INNER JOIN ProductDetail d ON ps.productDetail.productDetailId = d.productDetailId
     INNER JOIN Product p ON d.product.productId = p.productId
     INNER JOIN PriceCurrency cur ON p.productId = cur.product.productId
-    WHERE s.cookie = :cookie AND cur.currency = :currency
+    WHERE s.shoppingSessionId = :id AND cur.currency = :currency
     GROUP BY p.uuid, s.shoppingSessionId, p.defaultKey, p.name, cur.currency, cur.price, d.colour, ps.size, ps.sku, c.qty
     """)
-    List<CartPojo> cartItemsByCookieValue(SarreCurrency currency, String cookie);
+    List<CartPojo> cartItemsByShoppingSessionId(SarreCurrency currency, long id);
 
-    @Query("SELECT s FROM ShoppingSession s WHERE s.expireAt <= :d")
-    List<ShoppingSession> allExpiredShoppingSession(Date d);
+    /**
+     * Returns the primary keys of at most {@code size} expired {@link ShoppingSession}s whose
+     * primary key is greater than {@code lastId}, in ascending order. The rows are locked until
+     * the transaction completes so a concurrent update to a session's expiry waits for its
+     * deletion. Rows locked by another transaction are skipped.
+     *
+     * @param date sessions expiring on or before this date are returned.
+     * @param lastId is the last primary key returned by the previous call or 0.
+     * @param size is the max number of primary keys to return.
+     * @return a {@link List} of {@link ShoppingSession} primary keys.
+     * */
+    @Query(nativeQuery = true, value = """
+    SELECT s.session_id
+    FROM shopping_session s
+    WHERE s.expire_at <= :date AND s.session_id > :lastId
+    ORDER BY s.session_id
+    LIMIT :size
+    FOR UPDATE SKIP LOCKED
+    """)
+    List<Long> lockExpiredShoppingSessionIds(Date date, long lastId, int size);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ShoppingSession s WHERE s.shoppingSessionId IN (:ids)")
+    int deleteShoppingSessionsByIds(Collection<Long> ids);
 
-}
\ No newline at end of file
+}
@@ -7,6 +7,8 @@ import dev.webserver.cart.entity.ShoppingSession;
 import dev.webserver.cart.repository.CartItemRepo;
 import dev.webserver.cart.repository.ShoppingSessionRepo;
 import dev.webserver.cart.response.CartResponse;
+import dev.webserver.cart.session.CartSession;
+import dev.webserver.cart.session.ShoppingSessionExpiryExtender;
 import dev.webserver.enumeration.SarreCurrency;
 import dev.webserver.exception.CustomInvalidFormatException;
 import dev.webserver.exception.CustomNotFoundException;
@@ -14,9 +16,9 @@ import dev.webserver.exception.OutOfStockException;
 import dev.webserver.product.entity.Product;
 import dev.webserver.product.entity.ProductSku;
 import dev.webserver.product.service.ProductSkuService;
+import dev.webserver.util.AsynchronousTasks;
 import dev.webserver.util.CustomUtil;
 import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -65,19 +67,23 @@ public class CartService {
     private final CartItemRepo cartItemRepo;
     private final ProductSkuService productSKUService;
     private final S3Service s3Service;
+    private final AsynchronousTasks asynchronousTasks;
+    private final ShoppingSessionExpiryExtender expiryExtender;
 
     /**
      * Updates the expiration of a cookie if it is within the expiration period.
      * If the cookie is valid and is within {@link #bound}, cookie is updated and
-     * sent back in the response.
+     * sent back in the response. The {@link ShoppingSession} expiry is extended in the
+     * background by {@link ShoppingSessionExpiryExtender}.
      *
-     * @param res    the HttpServletResponse object to add the updated cookie to
-     * @param cookie the Cookie object to validate and update
+     * @param res     the HttpServletResponse object to add the updated cookie to
+     * @param session the {@link CartSession} containing the cookie to validate and update
      * @throws CustomInvalidFormatException if the cookie value is invalid or cannot
      * be parsed.
      */
-    public void validateCookieExpiration(HttpServletResponse res, Cookie cookie) {
+    public void validateCookieExpiration(HttpServletResponse res, CartSession session) {
         try {
+            Cookie cookie = session.cookie();
             String[] arr = cookie.getValue().split(split);
 
             Date now = CustomUtil.toUTC(new Date());
@@ -98,8 +104,9 @@ public class CartService {
                 String value = arr[0] + CustomUtil
                         .toUTC(Date.from(expiration)).toInstant().getEpochSecond();
 
-                this.shoppingSessionRepo
-                        .updateShoppingSessionExpiry(arr[0], CustomUtil.toUTC(Date.from(expiration)));
+                if (session.hasSession()) {
+                    this.expiryExtender.extend(session.sessionId(), expiration);
+                }
 
                 // cookie
                 cookie.setValue(value);
@@ -123,7 +130,7 @@ public class CartService {
      * response.
      *
      * @param currency the currency for which cart items should be retrieved.
-     * @param req the HttpServletRequest object to retrieve the cart cookie.
+     * @param session the {@link CartSession} of the request.
      * @param res the HttpServletResponse object to add the new cart cookie if needed.
      * @return a {@link CompletableFuture} containing a list of {@link CartResponse} objects
      * representing the {@link CartItem}.
@@ -131,12 +138,10 @@ public class CartService {
      */
     public CompletableFuture<List<CartResponse>> cartItems(
             SarreCurrency currency,
-            HttpServletRequest req,
+            CartSession session,
             HttpServletResponse res
     ) {
-        Cookie cookie = CustomUtil.cookie(req, CARTCOOKIE);
-
-        if (cookie == null) {
+        if (!session.hasCookie()) {
             // cookie value
             Instant expiration = Instant.now().plus(expire, DAYS);
             long maxAgeInSeconds = Instant.now().until(expiration, ChronoUnit.SECONDS);
@@ -154,12 +159,14 @@ public class CartService {
             return CompletableFuture.completedFuture(List.of());
         }
 
-        validateCookieExpiration(res, cookie);
+        validateCookieExpiration(res, session);
 
-        String[] arr = cookie.getValue().split(split);
+        if (!session.hasSession()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
 
         var futures = shoppingSessionRepo
-                .cartItemsByCookieValue(currency, arr[0])
+                .cartItemsByShoppingSessionId(currency, session.sessionId())
                 .stream()
                 .map(db -> (Supplier<CartResponse>) () -> new CartResponse(
                         db.getUuid(),
@@ -176,16 +183,15 @@ public class CartService {
                 ))
                 .toList();
 
-        return CustomUtil.asynchronousTasks(futures, CartService.class)
-                .thenApply(v -> v.stream().map(Supplier::get).toList());
+        return asynchronousTasks.all(futures, CartService.class);
     }
 
     /**
      * Adds a {@link ProductSku} to a user's shopping cart by creating or updating a
      * {@link ShoppingSession}.
      * <p>
-     * Retrieves a unique cookie associated to a user's device from the {@link HttpServletRequest}.
-     * This cookie is used to identify the user's {@link ShoppingSession}.
+     * The user's {@link ShoppingSession} is identified by the unique cookie associated
+     * to the user's device, resolved to a {@link CartSession} once per request.
      * <p>
      * If the specified {@link ProductSku} does not exist, a {@link CustomNotFoundException}
      * is thrown. If the {@link Product} is out of stock
@@ -194,17 +200,15 @@ public class CartService {
      *
      * @param dto the {@link CartDTO} containing information about the {@link ProductSku}
      *            and quantity.
-     * @param req the {@link HttpServletRequest} containing the unique cookie associated with
-     *            the user's device.
+     * @param session the {@link CartSession} of the unique cookie associated with the
+     *                user's device.
      * @throws CustomNotFoundException      if the specified {@link ProductSku} does not exist.
      * @throws OutOfStockException          if the {@link ProductSku} is out of stock or the
      * requested quantity exceeds available inventory.
      * @throws CustomInvalidFormatException if the cookie is invalid.
      */
-    public void create(CartDTO dto, HttpServletRequest req) {
-        Cookie cookie = CustomUtil.cookie(req, CARTCOOKIE);
-
-        if (cookie == null) {
+    public void create(CartDTO dto, CartSession session) {
+        if (!session.hasCookie()) {
             throw new CustomNotFoundException("No cookie found. Kindly refresh window");
         }
 
@@ -216,79 +220,50 @@ public class CartService {
             throw new OutOfStockException("Product or selected quantity is out of stock.");
         }
 
-        String[] arr = cookie.getValue().split(split);
-
-        Optional<ShoppingSession> session = shoppingSessionRepo.shoppingSessionByCookie(arr[0]);
-
-        if (session.isEmpty()) {
-            try {
-                long parsed = Long.parseLong(arr[1]);
-                createNewShoppingSession(
-                        arr[0],
-                        Date.from(Instant.ofEpochSecond(parsed)),
-                        dto.qty(),
-                        productSku
-                );
-            } catch (RuntimeException ex) {
-                log.error("create method , {}", ex.getMessage());
-                throw new CustomInvalidFormatException("invalid cookie");
-            }
-        } else {
-            addToExistingShoppingSession(session.get(), dto.qty(), productSku);
+        if (session.hasSession()
+                && cartItemRepo.upsertCartItem(session.sessionId(), productSku.getSkuId(), dto.qty()) > 0) {
+            return;
         }
-    }
 
-    /**
-     * Creates a new shopping session
-     */
-    private void createNewShoppingSession(String cookie, Date expiration, int qty, ProductSku sku) {
-        var session = this.shoppingSessionRepo.save(
-                new ShoppingSession(
-                        cookie,
-                        CustomUtil.toUTC(new Date()),
-                        CustomUtil.toUTC(expiration),
-                        new HashSet<>(),
-                        new HashSet<>()
-                )
-        );
+        final Date expiration;
+        try {
+            String[] arr = session.cookie().getValue().split(split);
+            expiration = Date.from(Instant.ofEpochSecond(Long.parseLong(arr[1])));
+        } catch (RuntimeException ex) {
+            log.error("create method , {}", ex.getMessage());
+            throw new CustomInvalidFormatException("invalid cookie");
+        }
 
-        this.cartItemRepo.save(new CartItem(qty, session, sku));
+        createShoppingSessionAndAddToCart(session.value(), expiration, dto.qty(), productSku);
     }
 
     /**
-     * Creates or updates a CartItem
+     * Creates the {@link ShoppingSession} of {@code cookie} if it does not exist and adds
+     * the {@link ProductSku} to it. Both statements are upserts, so concurrent first
+     * requests of the same device neither fail nor create duplicate rows.
      */
-    private void addToExistingShoppingSession(ShoppingSession session, int qty, ProductSku sku) {
-        var optional = cartItemRepo
-                .cartItemByShoppingSessionIdAndProductSkuSku(
-                        session.shoppingSessionId(),
-                        sku.getSku()
-                );
-
-        if (optional.isEmpty()) {
-            this.cartItemRepo.save(new CartItem(qty, session, sku));
-        } else {
-            this.cartItemRepo.updateCartItemQtyByCartId(optional.get().getCartId(), qty);
-        }
+    private void createShoppingSessionAndAddToCart(String cookie, Date expiration, int qty, ProductSku sku) {
+        this.shoppingSessionRepo.upsertShoppingSession(
+                cookie,
+                CustomUtil.toUTC(new Date()),
+                CustomUtil.toUTC(expiration)
+        );
+        this.cartItemRepo.upsertCartItemByCookie(cookie, sku.getSkuId(), qty);
     }
 
     /**
      * Deletes a {@link CartItem} from associated to a {@link ShoppingSession}.
      *
-     * @param req the HttpServletRequest object containing a unique cookie for
-     *            every device that visit out application.
+     * @param session the {@link CartSession} of the unique cookie for every
+     *                device that visit out application.
      * @param sku unique {@link ProductSku}.
      * */
-    public void deleteFromCart(HttpServletRequest req, String sku) {
-        Cookie cookie = CustomUtil.cookie(req, CARTCOOKIE);
-
-        if (cookie == null) {
+    public void deleteFromCart(CartSession session, String sku) {
+        if (!session.hasSession()) {
             return;
         }
 
-        String[] arr = cookie.getValue().split(split);
-
-        this.cartItemRepo.deleteCartItemByCookieAndSku(arr[0], sku);
+        this.cartItemRepo.deleteCartItemByShoppingSessionIdAndSku(session.sessionId(), sku);
     }
 
 }
\ No newline at end of file
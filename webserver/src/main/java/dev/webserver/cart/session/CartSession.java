@@ -0,0 +1,27 @@
+package dev.webserver.cart.session;
+
+import dev.webserver.cart.entity.ShoppingSession;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * The cart cookie of a request resolved to its {@link ShoppingSession}.
+ *
+ * @param cookie the cart cookie, null if the request has none.
+ * @param value the part of the cookie value stored in {@link ShoppingSession}, null if
+ *              the request has no cart cookie.
+ * @param sessionId primary key of the {@link ShoppingSession}, null if none exists for
+ *                  the cookie.
+ */
+public record CartSession(Cookie cookie, String value, Long sessionId) {
+
+    static final CartSession NONE = new CartSession(null, null, null);
+
+    public boolean hasCookie() {
+        return cookie != null;
+    }
+
+    public boolean hasSession() {
+        return sessionId != null;
+    }
+
+}
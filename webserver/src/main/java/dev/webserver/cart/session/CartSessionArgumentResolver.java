@@ -0,0 +1,36 @@
+package dev.webserver.cart.session;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Injects the {@link CartSession} of the current request into controller methods.
+ */
+@Component
+@RequiredArgsConstructor
+class CartSessionArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final ShoppingSessionResolver resolver;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CartSession.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(
+            MethodParameter parameter,
+            ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest,
+            WebDataBinderFactory binderFactory
+    ) {
+        return resolver.resolve(webRequest.getNativeRequest(HttpServletRequest.class));
+    }
+
+}
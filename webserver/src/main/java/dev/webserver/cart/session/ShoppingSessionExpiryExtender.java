@@ -0,0 +1,118 @@
+package dev.webserver.cart.session;
+
+import dev.webserver.cart.entity.ShoppingSession;
+import dev.webserver.cart.repository.ShoppingSessionRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for {@link ShoppingSession} expiry extensions.
+ * <p>
+ * {@link #extend(long, Instant)} only records the requested expiry in memory, so a
+ * cart view never writes to the db. Repeated extensions of the same session collapse
+ * into the latest one. Every {@code cart.session.expiry.flush-interval} seconds, and on
+ * shutdown, pending extensions are written with one UPDATE per distinct expiry.
+ * <p>
+ * Expiries are rounded up to the minute, so extensions requested within the same minute
+ * share a single UPDATE. Rounding up keeps a session alive at least as long as its cookie.
+ */
+@Component
+public class ShoppingSessionExpiryExtender {
+
+    private static final Logger log = LoggerFactory.getLogger(ShoppingSessionExpiryExtender.class);
+
+    static final int MAX_IDS_PER_UPDATE = 500;
+
+    private final Map<Long, Instant> pending = new ConcurrentHashMap<>();
+
+    private final ShoppingSessionRepo repository;
+    private final Counter extensions;
+    private final Counter writes;
+
+    public ShoppingSessionExpiryExtender(ShoppingSessionRepo repository, MeterRegistry registry) {
+        this.repository = repository;
+        this.extensions = Counter.builder("cart.session.expiry.extensions")
+                .description("shopping session expiry extensions requested")
+                .register(registry);
+        this.writes = Counter.builder("cart.session.expiry.writes")
+                .description("UPDATE statements issued to extend shopping session expiry")
+                .register(registry);
+        Gauge.builder("cart.session.expiry.pending", pending, Map::size)
+                .description("shopping sessions waiting for their expiry to be extended")
+                .register(registry);
+    }
+
+    /**
+     * Queues the expiry of a {@link ShoppingSession} to be extended to {@code expireAt}.
+     *
+     * @param sessionId primary key of the {@link ShoppingSession}.
+     * @param expireAt the new expiry. An earlier expiry than one already pending is ignored.
+     */
+    public void extend(final long sessionId, final Instant expireAt) {
+        final Instant rounded = expireAt.truncatedTo(ChronoUnit.MINUTES).equals(expireAt)
+                ? expireAt
+                : expireAt.truncatedTo(ChronoUnit.MINUTES).plus(1, ChronoUnit.MINUTES);
+
+        pending.merge(sessionId, rounded, (a, b) -> a.isAfter(b) ? a : b);
+        extensions.increment();
+    }
+
+    /**
+     * Writes every pending extension. An extension that fails to write is queued again
+     * unless a later one was requested in the meantime.
+     */
+    @Scheduled(
+            initialDelayString = "${cart.session.expiry.flush-interval:5}",
+            fixedDelayString = "${cart.session.expiry.flush-interval:5}",
+            timeUnit = TimeUnit.SECONDS
+    )
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        final Map<Instant, List<Long>> byExpiry = new HashMap<>();
+
+        for (final Long id : pending.keySet()) {
+            final Instant expireAt = pending.remove(id);
+            if (expireAt != null) {
+                byExpiry.computeIfAbsent(expireAt, k -> new ArrayList<>()).add(id);
+            }
+        }
+
+        byExpiry.forEach((expireAt, ids) -> {
+            for (int i = 0; i < ids.size(); i += MAX_IDS_PER_UPDATE) {
+                final List<Long> chunk = ids.subList(i, Math.min(i + MAX_IDS_PER_UPDATE, ids.size()));
+                try {
+                    repository.updateShoppingSessionsExpiry(chunk, Date.from(expireAt));
+                    writes.increment();
+                } catch (RuntimeException e) {
+                    log.warn("error extending shopping session expiry {}", e.getMessage());
+                    chunk.forEach(id -> pending.merge(id, expireAt, (a, b) -> a.isAfter(b) ? a : b));
+                }
+            }
+        });
+    }
+
+    int pending() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+}
@@ -0,0 +1,145 @@
+package dev.webserver.cart.session;
+
+import dev.webserver.cart.entity.ShoppingSession;
+import dev.webserver.cart.repository.ShoppingSessionRepo;
+import dev.webserver.util.CustomUtil;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the cart cookie of a request to its {@link ShoppingSession} primary key.
+ * <p>
+ * The cookie is parsed and resolved once per request, the result is stored as a
+ * request attribute. Across requests, cookie to primary key mappings are held in a
+ * process cache for {@code cart.session.cache.ttl} seconds. Only existing sessions are
+ * cached, and a session is evicted as soon as it is deleted, so a cached primary key
+ * never outlives its {@link ShoppingSession} on this node.
+ */
+@Component
+public class ShoppingSessionResolver {
+
+    private static final String ATTRIBUTE = ShoppingSessionResolver.class.getName();
+
+    private record Entry(long sessionId, Instant expiresAt) { }
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private final ShoppingSessionRepo repository;
+    private final String name;
+    private final String split;
+    private final Duration ttl;
+    private final int maxSize;
+    private final Clock clock;
+
+    @Autowired
+    public ShoppingSessionResolver(ShoppingSessionRepo repository, Environment env) {
+        this(
+                repository,
+                env.getProperty("cart.cookie.name", "CARTCOOKIE"),
+                env.getProperty("cart.split", "%"),
+                Duration.ofSeconds(env.getProperty("cart.session.cache.ttl", Long.class, 60L)),
+                env.getProperty("cart.session.cache.max-size", Integer.class, 10000),
+                Clock.systemUTC()
+        );
+    }
+
+    ShoppingSessionResolver(
+            ShoppingSessionRepo repository,
+            String name,
+            String split,
+            Duration ttl,
+            int maxSize,
+            Clock clock
+    ) {
+        this.repository = repository;
+        this.name = name;
+        this.split = split;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the {@link CartSession} of {@code req}, reading the db at most once per
+     * request and only if the cookie is not cached.
+     */
+    public CartSession resolve(final HttpServletRequest req) {
+        if (req.getAttribute(ATTRIBUTE) instanceof CartSession session) {
+            return session;
+        }
+
+        final Cookie cookie = CustomUtil.cookie(req, name);
+        final CartSession session;
+
+        if (cookie == null) {
+            session = CartSession.NONE;
+        } else {
+            final String value = cookie.getValue().split(split)[0];
+            session = new CartSession(cookie, value, sessionId(value));
+        }
+
+        req.setAttribute(ATTRIBUTE, session);
+        return session;
+    }
+
+    /**
+     * Removes every cached cookie of the deleted {@link ShoppingSession}s.
+     *
+     * @param ids primary keys of deleted {@link ShoppingSession}s.
+     */
+    public void evict(final Collection<Long> ids) {
+        if (ids.isEmpty() || cache.isEmpty()) {
+            return;
+        }
+        final Set<Long> set = new HashSet<>(ids);
+        cache.values().removeIf(entry -> set.contains(entry.sessionId()));
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private Long sessionId(final String value) {
+        final Entry entry = cache.get(value);
+
+        if (entry != null && clock.instant().isBefore(entry.expiresAt())) {
+            return entry.sessionId();
+        }
+
+        final Long id = repository.shoppingSessionIdByCookie(value).orElse(null);
+
+        if (id == null) {
+            cache.remove(value);
+        } else {
+            put(value, id);
+        }
+
+        return id;
+    }
+
+    private void put(final String value, final long sessionId) {
+        final Instant now = clock.instant();
+
+        if (cache.size() >= maxSize) {
+            cache.values().removeIf(entry -> !now.isBefore(entry.expiresAt()));
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+        }
+
+        cache.put(value, new Entry(sessionId, now.plus(ttl)));
+    }
+
+}
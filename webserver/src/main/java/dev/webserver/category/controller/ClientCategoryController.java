@@ -1,15 +1,14 @@
 package dev.webserver.category.controller;
 
-import dev.webserver.category.response.CategoryResponse;
 import dev.webserver.category.service.ClientCategoryService;
 import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.product.response.ProductCursorResponse;
 import dev.webserver.product.response.ProductResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.http.HttpStatus.OK;
@@ -23,8 +22,8 @@ public class ClientCategoryController {
 
     @ResponseStatus(OK)
     @GetMapping(produces = "application/json")
-    public List<CategoryResponse> allCategories() {
-        return service.allCategories();
+    public byte[] allCategories() {
+        return service.allCategoriesJson();
     }
 
     @ResponseStatus(OK)
@@ -39,4 +38,22 @@ public class ClientCategoryController {
                 .allProductsByCategoryId(SarreCurrency.valueOf(currency), id, page, Math.min(size, 20));
     }
 
+    @ResponseStatus(OK)
+    @GetMapping(path = "/products/cursor", produces = "application/json")
+    public CompletableFuture<ProductCursorResponse> allProductsByCategoryIdAndCursor(
+            @NotNull @RequestParam(name = "category_id") Long id,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "currency", defaultValue = "NGN") String currency,
+            @RequestParam(name = "slice", defaultValue = "false") Boolean slice
+    ) {
+        return service.allProductsByCategoryId(
+                SarreCurrency.valueOf(currency.toUpperCase()),
+                id,
+                cursor,
+                Math.max(1, Math.min(size, 20)),
+                slice
+        );
+    }
+
 }
@@ -2,7 +2,6 @@ package dev.webserver.category.controller;
 
 import dev.webserver.category.dto.CategoryDTO;
 import dev.webserver.category.dto.UpdateCategoryDTO;
-import dev.webserver.category.response.WorkerCategoryResponse;
 import dev.webserver.category.service.WorkerCategoryService;
 import dev.webserver.enumeration.SarreCurrency;
 import dev.webserver.product.response.ProductResponse;
@@ -25,8 +24,8 @@ public class WorkerCategoryController {
 
     @ResponseStatus(OK)
     @GetMapping(produces = "application/json")
-    public WorkerCategoryResponse allCategories() {
-        return this.service.allCategories();
+    public byte[] allCategories() {
+        return this.service.allCategoriesJson();
     }
 
     @ResponseStatus(OK)
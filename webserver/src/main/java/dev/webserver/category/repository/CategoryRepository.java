@@ -84,23 +84,18 @@ public interface CategoryRepository extends JpaRepository<ProductCategory, Long>
     void updateCategoryParentIdBasedOnCategoryId(long categoryId, long parentId);
 
     /**
-     * Using Common Table Expression (CTE) in native sql query, we recursively update the is_visible
-     * property of {@link ProductCategory} to false.
+     * Updates the is_visible property of every descendant of the {@link ProductCategory}
+     * with {@code categoryId} to false, found in {@code category_closure}.
      *
-     * @param categoryId is all {@link ProductCategory} who have their parent_category_id equalling.
+     * @param categoryId is the primary key of the {@link ProductCategory} whose descendants are hidden.
      * */
     @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Transactional
     @Query(nativeQuery = true, value = """
-    WITH RECURSIVE category (id) AS
-    (
-        SELECT c.category_id FROM product_category AS c WHERE c.parent_category_id = :categoryId
-        UNION ALL
-        SELECT pc.category_id FROM category cat INNER JOIN product_category pc ON cat.id = pc.parent_category_id
-    )
-    UPDATE product_category c, (SELECT rec.id FROM category rec) AS rec
+    UPDATE product_category c
+    INNER JOIN category_closure cc ON c.category_id = cc.descendant_id
     SET c.is_visible = 0
-    WHERE c.category_id = rec.id
+    WHERE cc.ancestor_id = :categoryId AND cc.depth > 0
     """)
     void updateAllChildrenVisibilityToFalse(long categoryId);
 
@@ -124,46 +119,72 @@ public interface CategoryRepository extends JpaRepository<ProductCategory, Long>
     );
 
     /**
-     * Using native sql query, we retrieve a paginated list of {@link Product}s based on the specified
-     * {@link ProductCategory} and its children, filtered by currency, inventory availability, and visibility.
-     * <p/>
-     * We use Common Table Expression (CTE) to recursively fetch the specified {@link ProductCategory} and
-     * all its subcategories. With the obtained categories, we retrieve all products associated with them.
+     * Adds the {@link ProductCategory} with {@code categoryId} to {@code category_closure}
+     * as its own ancestor and as a descendant of every ancestor of its parent.
+     * <p>
+     * {@code category_closure} rows are written only by {@code WorkerCategoryService}
+     * create and update. A {@link ProductCategory} saved any other way has no rows, so it
+     * and its {@link Product}s are missing from every query joining
+     * {@code category_closure}, until this method is called.
      *
-     * @param categoryId The primary key of {@link ProductCategory}.
-     * @param currency The currency in which prices are displayed, represented by a {@link SarreCurrency} enum
-     *                 value.
-     * @param page The pagination information, represented by a {@link Pageable} object.
-     * @return Leveraging Spring Data Projection, a paginated {@link Page} containing {@link ProductPojo} objects.
+     * @param categoryId The primary key of a newly saved {@link ProductCategory}.
      * */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
     @Query(nativeQuery = true, value = """
-    WITH RECURSIVE category (id) AS
-    (
-        SELECT c.category_id FROM product_category AS c WHERE c.category_id = :categoryId
-        UNION ALL
-        SELECT pc.category_id FROM category cat INNER JOIN product_category pc ON cat.id = pc.parent_category_id
-    )
-    SELECT
-    p.uuid AS uuid,
-    p.name AS name,
-    p.description AS description,
-    p.default_image_key AS image,
-    pr.currency AS currency,
-    pr.price AS price
-    FROM category c1
-    INNER JOIN product p ON c1.id = p.category_id
-    INNER JOIN price_currency pr ON p.product_id = pr.product_id
-    INNER JOIN product_detail d ON p.product_id = d.product_id
-    INNER JOIN product_sku s ON d.detail_id = s.detail_id
-    WHERE pr.currency = :#{#currency.name()} AND s.inventory > 0 AND d.is_visible = TRUE
-    GROUP BY p.uuid, p.name, p.description, p.default_image_key, pr.currency, pr.price
+    INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+    SELECT :categoryId, :categoryId, 0
+    UNION ALL
+    SELECT cc.ancestor_id, c.category_id, cc.depth + 1
+    FROM product_category c
+    INNER JOIN category_closure cc ON c.parent_category_id = cc.descendant_id
+    WHERE c.category_id = :categoryId
     """)
-    Page<ProductPojo> allProductsByCategoryIdWhereInStockAndIsVisible(
-            long categoryId,
-            SarreCurrency currency,
-            Pageable page
+    void saveCategoryClosure(@Param(value = "categoryId") long categoryId);
+
+    /**
+     * Detaches the subtree of the {@link ProductCategory} with {@code categoryId} from its
+     * ancestors, keeping the pairs within the subtree.
+     * */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(nativeQuery = true, value = """
+    DELETE a FROM category_closure a
+    INNER JOIN category_closure d ON a.descendant_id = d.descendant_id
+    LEFT JOIN category_closure x ON x.ancestor_id = d.ancestor_id AND x.descendant_id = a.ancestor_id
+    WHERE d.ancestor_id = :categoryId AND x.ancestor_id IS NULL
+    """)
+    void deleteCategoryClosureAncestors(@Param(value = "categoryId") long categoryId);
+
+    /**
+     * Attaches the subtree of the {@link ProductCategory} with {@code categoryId} below the
+     * {@link ProductCategory} with {@code parentId} and every ancestor of it.
+     * */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(nativeQuery = true, value = """
+    INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+    SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1
+    FROM category_closure a
+    INNER JOIN category_closure d ON d.ancestor_id = :categoryId
+    WHERE a.descendant_id = :parentId
+    """)
+    void saveCategoryClosureAncestors(
+            @Param(value = "categoryId") long categoryId,
+            @Param(value = "parentId") long parentId
     );
 
+    /**
+     * Returns 1 if the {@link ProductCategory} with {@code descendantId} is the
+     * {@link ProductCategory} with {@code ancestorId} or below it, else 0.
+     * */
+    @Query(nativeQuery = true, value = """
+    SELECT COUNT(*)
+    FROM category_closure cc
+    WHERE cc.ancestor_id = :ancestorId AND cc.descendant_id = :descendantId
+    """)
+    int isDescendant(@Param(value = "ancestorId") long ancestorId, @Param(value = "descendantId") long descendantId);
+
     /**
      * Retrieves all {@link ProductCategory} objects. Then maps the
      * objects to a {@link CategoryPojo} using Spring Data Projection.
@@ -0,0 +1,168 @@
+package dev.webserver.category.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.webserver.category.entity.ProductCategory;
+import dev.webserver.category.projection.CategoryPojo;
+import dev.webserver.category.repository.CategoryRepository;
+import dev.webserver.category.response.CategoryResponse;
+import dev.webserver.category.response.WorkerCategoryResponse;
+import dev.webserver.exception.CustomServerError;
+import dev.webserver.util.CacheInvalidationEvent;
+import dev.webserver.util.CustomUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds an immutable snapshot of the {@link ProductCategory} tree.
+ * <p>
+ * The snapshot contains the tree of visible categories served to clients, the table
+ * and full tree served to workers, and both pre-serialized to json. It is built on
+ * first read and rebuilt when a change to {@link ProductCategory} commits, after which
+ * the new snapshot is swapped in. Reads never block on such a rebuild, they return the
+ * previous snapshot until the new one is in place. A snapshot older than
+ * {@code category.tree.ttl} minutes is rebuilt by the next read, which bounds how long
+ * a node that did not handle a change serves a stale tree. Reads made while that read
+ * rebuilds return the expired snapshot. Only the very first reads wait for a snapshot.
+ */
+@Component
+class CategoryTree {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryTree.class);
+
+    static final String CACHE = "category";
+
+    record Snapshot(
+            List<CategoryResponse> visible,
+            byte[] visibleJson,
+            WorkerCategoryResponse all,
+            byte[] allJson
+    ) { }
+
+    private record Entry(Snapshot snapshot, Instant expiresAt) { }
+
+    private final CategoryRepository repository;
+    private final ObjectMapper mapper;
+    private final Duration ttl;
+    private final Clock clock;
+    private final AtomicReference<Entry> entry = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    @Autowired
+    CategoryTree(
+            CategoryRepository repository,
+            ObjectMapper mapper,
+            @Value(value = "${category.tree.ttl:5}") long ttl
+    ) {
+        this(repository, mapper, Duration.ofMinutes(ttl), Clock.systemUTC());
+    }
+
+    CategoryTree(CategoryRepository repository, ObjectMapper mapper, Duration ttl, Clock clock) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be greater than 0");
+        }
+        this.repository = repository;
+        this.mapper = mapper;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the current snapshot, building it if none exists. If it has expired, the
+     * first caller rebuilds it while every other caller gets the expired snapshot.
+     */
+    Snapshot snapshot() {
+        final Entry current = entry.get();
+
+        if (current == null) {
+            return initialise();
+        }
+
+        if (clock.instant().isBefore(current.expiresAt()) || !refreshing.compareAndSet(false, true)) {
+            return current.snapshot();
+        }
+
+        try {
+            return rebuild();
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot once a change to {@link ProductCategory} made on this or,
+     * through a relay, another node commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCacheInvalidation(final CacheInvalidationEvent event) {
+        if (CACHE.equals(event.cache())) {
+            rebuild();
+        }
+    }
+
+    synchronized Snapshot rebuild() {
+        final Snapshot next = build();
+        entry.set(new Entry(next, clock.instant().plus(ttl)));
+        return next;
+    }
+
+    private synchronized Snapshot initialise() {
+        final Entry current = entry.get();
+        return current != null ? current.snapshot() : rebuild();
+    }
+
+    private Snapshot build() {
+        final List<CategoryPojo> categories = repository.allCategories();
+
+        final List<CategoryResponse> visible = CustomUtil.createCategoryHierarchy(categories.stream()
+                .filter(CategoryPojo::statusImpl)
+                .map(p -> new CategoryResponse(p.getId(), p.getParent(), p.getName(), p.statusImpl()))
+                .toList());
+
+        final var all = new WorkerCategoryResponse(
+                categories.stream().map(CategoryResponse::workerList).toList(),
+                CustomUtil.createCategoryHierarchy(categories.stream()
+                        .map(p -> new CategoryResponse(p.getId(), p.getParent(), p.getName(), p.statusImpl()))
+                        .toList())
+        );
+
+        try {
+            return new Snapshot(
+                    freeze(visible),
+                    mapper.writeValueAsBytes(visible),
+                    new WorkerCategoryResponse(freeze(all.table()), freeze(all.hierarchy())),
+                    mapper.writeValueAsBytes(all)
+            );
+        } catch (JsonProcessingException e) {
+            log.error("error serializing category tree {}", e.getMessage());
+            throw new CustomServerError("error retrieving categories");
+        }
+    }
+
+    /**
+     * Returns a deep copy of {@code list} where every list of children is unmodifiable.
+     */
+    private static List<CategoryResponse> freeze(final List<CategoryResponse> list) {
+        return list.stream()
+                .map(c -> new CategoryResponse(
+                        c.categoryId(),
+                        c.parentId(),
+                        c.name(),
+                        c.visible(),
+                        c.children() == null ? null : freeze(c.children())
+                ))
+                .toList();
+    }
+
+}
@@ -2,13 +2,14 @@ package dev.webserver.category.service;
 
 import dev.webserver.aws.S3Service;
 import dev.webserver.category.entity.ProductCategory;
-import dev.webserver.category.projection.CategoryPojo;
-import dev.webserver.category.repository.CategoryRepository;
 import dev.webserver.category.response.CategoryResponse;
 import dev.webserver.enumeration.SarreCurrency;
 import dev.webserver.product.projection.ProductPojo;
+import dev.webserver.product.repository.ProductListingRepo;
+import dev.webserver.product.response.ProductCursorResponse;
 import dev.webserver.product.response.ProductResponse;
-import dev.webserver.util.CustomUtil;
+import dev.webserver.util.AsynchronousTasks;
+import dev.webserver.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -27,21 +28,24 @@ public class ClientCategoryService {
     @Value(value = "${aws.bucket}")
     private String BUCKET;
 
-    private final CategoryRepository repository;
     private final S3Service service;
+    private final AsynchronousTasks asynchronousTasks;
+    private final CategoryTree tree;
+    private final ProductListingRepo listingRepo;
 
     /**
-     * Returns a {@link List} of {@link CategoryResponse}.
+     * Returns an unmodifiable {@link List} of visible {@link CategoryResponse}
+     * from the cached {@link CategoryTree}.
      * */
     public List<CategoryResponse> allCategories() {
-        var list = this.repository
-                .allCategories()
-                .stream()
-                .filter(CategoryPojo::statusImpl)
-                .map(p -> new CategoryResponse(p.getId(), p.getParent(), p.getName(), p.statusImpl()))
-                .toList();
+        return tree.snapshot().visible();
+    }
 
-        return CustomUtil.createCategoryHierarchy(list);
+    /**
+     * Returns {@link #allCategories()} pre-serialized to json.
+     * */
+    public byte[] allCategoriesJson() {
+        return tree.snapshot().visibleJson();
     }
 
     /**
@@ -61,20 +65,50 @@ public class ClientCategoryService {
             int page,
             int size
     ) {
-        var pageOfProducts = this.repository
-                .allProductsByCategoryIdWhereInStockAndIsVisible(categoryId, currency, PageRequest.of(page, size));
+        var pageOfProducts = this.listingRepo
+                .listingsByCategoryId(categoryId, currency, PageRequest.of(page, size));
 
-        var futures = createTasks(pageOfProducts);
+        var futures = createTasks(pageOfProducts.getContent());
 
-        return CustomUtil.asynchronousTasks(futures, ClientCategoryService.class)
+        return asynchronousTasks.all(futures, ClientCategoryService.class)
                 .thenApply(v -> new PageImpl<>(
-                        v.stream().map(Supplier::get).toList(),
+                        v,
                         pageOfProducts.getPageable(),
                         pageOfProducts.getTotalElements()
                 ));
     }
 
-    private List<Supplier<ProductResponse>> createTasks(Page<ProductPojo> page) {
+    /**
+     * Asynchronously retrieves a slice of {@link ProductResponse} objects by a
+     * {@link ProductCategory}, continuing after {@code cursor}.
+     *
+     * @param currency    The currency in which prices are displayed.
+     * @param categoryId  The primary key of a {@link ProductCategory}.
+     * @param cursor      The token returned with the previous slice, null or blank for the first.
+     * @param size        The slice size.
+     * @param slice       If true, the total number of products is not counted.
+     * @return A {@link CompletableFuture} representing a {@link ProductCursorResponse}.
+     */
+    public CompletableFuture<ProductCursorResponse> allProductsByCategoryId(
+            SarreCurrency currency,
+            long categoryId,
+            String cursor,
+            int size,
+            boolean slice
+    ) {
+        // one more row than requested tells if there is a next slice
+        var after = KeysetCursor.decode(cursor);
+        var rows = this.listingRepo.listingsByCategoryIdAfter(categoryId, currency, after, size + 1);
+
+        var content = rows.size() > size ? rows.subList(0, size) : rows;
+        var next = rows.size() > size ? KeysetCursor.encode(content.getLast().getId()) : null;
+        Long total = slice ? null : this.listingRepo.countListingsByCategoryId(categoryId, currency);
+
+        return asynchronousTasks.all(createTasks(content), ClientCategoryService.class)
+                .thenApply(v -> new ProductCursorResponse(v, next, total));
+    }
+
+    private List<Supplier<ProductResponse>> createTasks(List<? extends ProductPojo> page) {
         return page.stream()
                 .map(p -> (Supplier<ProductResponse>) () -> new ProductResponse(
                         p.getUuid(),
@@ -5,23 +5,28 @@ import dev.webserver.category.dto.CategoryDTO;
 import dev.webserver.category.dto.UpdateCategoryDTO;
 import dev.webserver.category.entity.ProductCategory;
 import dev.webserver.category.repository.CategoryRepository;
-import dev.webserver.category.response.CategoryResponse;
 import dev.webserver.category.response.WorkerCategoryResponse;
 import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.exception.CustomInvalidFormatException;
 import dev.webserver.exception.CustomNotFoundException;
 import dev.webserver.exception.DuplicateException;
 import dev.webserver.exception.ResourceAttachedException;
 import dev.webserver.product.response.ProductResponse;
-import dev.webserver.util.CustomUtil;
+import dev.webserver.product.service.ProductListingService;
+import dev.webserver.product.service.ProductSearchIndex;
+import dev.webserver.util.AsynchronousTasks;
+import dev.webserver.util.CacheInvalidationEvent;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
@@ -40,26 +45,25 @@ public class WorkerCategoryService {
 
     private final CategoryRepository repository;
     private final S3Service service;
+    private final AsynchronousTasks asynchronousTasks;
+    private final CategoryTree tree;
+    private final ApplicationEventPublisher publisher;
+    private final ProductListingService listingService;
 
     /**
-     * Returns a list {@link WorkerCategoryResponse}
+     * Returns a {@link WorkerCategoryResponse} from the cached {@link CategoryTree}.
      * */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public WorkerCategoryResponse allCategories() {
-        var category = this.repository.allCategories();
-
-        // table
-        var table = category
-                .stream()
-                .map(CategoryResponse::workerList)
-                .toList();
-
-        // hierarchy
-        var hierarchy = category
-                .stream()
-                .map(p -> new CategoryResponse(p.getId(), p.getParent(), p.getName(), p.statusImpl()))
-                .toList();
+        return tree.snapshot().all();
+    }
 
-        return new WorkerCategoryResponse(table, CustomUtil.createCategoryHierarchy(hierarchy));
+    /**
+     * Returns {@link #allCategories()} pre-serialized to json.
+     * */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public byte[] allCategoriesJson() {
+        return tree.snapshot().allJson();
     }
 
     /**
@@ -94,9 +98,9 @@ public class WorkerCategoryService {
                 .toList();
 
 
-        return CustomUtil.asynchronousTasks(futures, WorkerCategoryService.class)
+        return asynchronousTasks.all(futures, WorkerCategoryService.class)
                 .thenApply(v -> new PageImpl<>(
-                        v.stream().map(Supplier::get).toList(),
+                        v,
                         pageOfProducts.getPageable(),
                         pageOfProducts.getTotalElements()
                 ));
@@ -121,7 +125,9 @@ public class WorkerCategoryService {
                 ? parentCategoryIsNull(dto)
                 : parentCategoryNotNull(dto);
 
-        this.repository.save(category);
+        var saved = this.repository.save(category);
+        this.repository.saveCategoryClosure(saved.getCategoryId());
+        publisher.publishEvent(new CacheInvalidationEvent(this, CategoryTree.CACHE));
     }
 
     private ProductCategory parentCategoryIsNull(CategoryDTO dto) {
@@ -150,6 +156,8 @@ public class WorkerCategoryService {
      * @param dto {@link  UpdateCategoryDTO}.
      * @throws DuplicateException is thrown if name exists, and it is not associated to
      * categoryId.
+     * @throws CustomInvalidFormatException if dto.parentId is the category or one of its
+     * descendants.
      * */
     public void update(UpdateCategoryDTO dto) {
         boolean bool = this.repository
@@ -164,12 +172,24 @@ public class WorkerCategoryService {
         }
 
         if (dto.parentId() != null) {
+            if (repository.isDescendant(dto.id(), dto.parentId()) > 0) {
+                throw new CustomInvalidFormatException("a category cannot be moved below itself");
+            }
+
             repository
                     .updateCategoryParentIdBasedOnCategoryId(dto.id(), dto.parentId());
+            // the subtree keeps its internal pairs and is re-attached below the new parent
+            repository.deleteCategoryClosureAncestors(dto.id());
+            repository.saveCategoryClosureAncestors(dto.id(), dto.parentId());
         }
 
         this.repository
                 .update(dto.name().trim(), dto.visible(), dto.id());
+        // name and visibility are denormalized into every listing below the category
+        listingService.refreshByCategory(dto.id());
+        publisher.publishEvent(new CacheInvalidationEvent(this, CategoryTree.CACHE));
+        // products are searchable by category name
+        publisher.publishEvent(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE));
     }
 
     /**
@@ -186,6 +206,7 @@ public class WorkerCategoryService {
             log.error("tried deleting a category with children attached {}", e.getMessage());
             throw new ResourceAttachedException("resource attached to category");
         }
+        publisher.publishEvent(new CacheInvalidationEvent(this, CategoryTree.CACHE));
     }
 
     public ProductCategory findById(final long id) {
@@ -1,7 +1,7 @@
 package dev.webserver.checkout;
 
+import dev.webserver.cart.session.CartSession;
 import dev.webserver.enumeration.SarreCurrency;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,10 +24,10 @@ public class CheckoutController {
     public Checkout checkout(
             @NotNull @RequestParam("country") String country,
             @NotNull @RequestParam("currency") String currency,
-            HttpServletRequest req
+            CartSession session
     ) {
         SarreCurrency c = SarreCurrency.valueOf(currency.toUpperCase());
-        return service.checkout(req, country, c);
+        return service.checkout(session, country, c);
     }
 
 }
@@ -2,42 +2,32 @@ package dev.webserver.checkout;
 
 import dev.webserver.cart.entity.CartItem;
 import dev.webserver.cart.entity.ShoppingSession;
-import dev.webserver.cart.repository.CartItemRepo;
 import dev.webserver.cart.repository.ShoppingSessionRepo;
+import dev.webserver.cart.session.CartSession;
 import dev.webserver.enumeration.SarreCurrency;
 import dev.webserver.exception.CustomNotFoundException;
+import dev.webserver.payment.projection.CheckoutSnapshotPojo;
 import dev.webserver.shipping.entity.ShipSetting;
 import dev.webserver.shipping.service.ShippingService;
 import dev.webserver.tax.Tax;
 import dev.webserver.tax.TaxService;
 import dev.webserver.util.CustomUtil;
-import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class CheckoutService {
 
-    @Setter
-    @Value("${cart.cookie.name}")
-    private String CARTCOOKIE;
-    @Setter
-    @Value(value = "${cart.split}")
-    private String SPLIT;
-
     private final ShippingService shippingService;
     private final TaxService taxService;
     private final ShoppingSessionRepo shoppingSessionRepo;
-    private final CartItemRepo cartItemRepo;
 
     /**
      * Generates checkout information based on a user's country and selected currency.
@@ -48,23 +38,20 @@ public class CheckoutService {
      * a {@link Checkout} object containing the shipping price, tax information, and total
      * amount in the users choice of currency.
      *
-     * @param req      The {@link HttpServletRequest} representing the user's request.
+     * @param session  The {@link CartSession} of the user's request.
      * @param country  The country entered by the user during checkout.
      * @param currency The currency selected by the user for checkout.
      * @return A {@link Checkout} object containing objects needed to be sent to the UI.
      * @throws CustomNotFoundException If any required information is missing or invalid.
      */
-    public Checkout checkout(final HttpServletRequest req, final String country, final SarreCurrency currency) {
-        final CustomObject obj = validateCurrentShoppingSession(req, country);
-
-        final var list = this.cartItemRepo
-                .amountToPayForAllCartItemsForShoppingSession(obj.session().shoppingSessionId(), currency);
+    public Checkout checkout(final CartSession session, final String country, final SarreCurrency currency) {
+        final CustomObject obj = validateCurrentShoppingSession(session, country, currency);
 
         final BigDecimal shipCost = currency.equals(SarreCurrency.USD)
                 ? obj.ship().usdPrice()
                 : obj.ship().ngnPrice();
 
-        final CheckoutPair subtotal = CustomUtil.cartItemsTotalAndTotalWeight(list);
+        final CheckoutPair subtotal = CustomUtil.cartItemsTotalAndTotalWeight(obj.cartItems());
 
         final BigDecimal total = CustomUtil
                 .calculateTotal(
@@ -94,42 +81,48 @@ public class CheckoutService {
     }
 
     /**
-     * Creates a {@link CustomObject} based on the provided {@link HttpServletRequest} and
-     * country.
+     * Creates a {@link CustomObject} based on the provided {@link CartSession},
+     * country and currency.
      * <p>
-     * This method retrieves custom cookie from the HttpServletRequest to find associated
-     * {@link ShoppingSession} for the device. It then retrieves the associated {@link CartItem}(s)
-     * and checks if the cart is empty. Next, it retrieves the shipping information based
-     * on the provided country. Finally, it retrieves the tax information. Using this
-     * information, it constructs and returns a {@link CustomObject} containing the
-     * {@link ShoppingSession}, {@link CartItem}, {@link ShipSetting}, and {@link Tax}.
+     * This method reads the {@link ShoppingSession} the cart cookie resolved to in one
+     * query alongside every {@link CartItem}, the
+     * inventory of its sku and its price and weight in {@code currency}. It then checks if
+     * the cart is empty. Finally, it retrieves the {@link ShipSetting} of the provided
+     * country and the {@link Tax}. Using this information, it constructs and returns a
+     * {@link CustomObject} containing the {@link ShoppingSession}, {@link CartItem},
+     * {@link ShipSetting}, and {@link Tax}.
      *
-     * @param req     The HttpServletRequest containing the {@link ShoppingSession} cookie.
-     * @param country The country for which {@link ShipSetting} information is retrieved.
+     * @param session  The {@link CartSession} the cart cookie resolved to.
+     * @param country  The country for which {@link ShipSetting} information is retrieved.
+     * @param currency The currency of the price of every {@link CartItem}.
      * @return A {@link CustomObject} containing the {@link ShoppingSession}, {@link CartItem}(s),
      * {@link ShipSetting}, and {@link Tax}.
-     * @throws CustomNotFoundException If custom cookie does not contain in
-     *                                 {@link HttpServletRequest}, the {@link ShoppingSession} is
-     *                                 invalid, or {@link CartItem} is empty.
+     * @throws CustomNotFoundException If the request has no cart cookie, the
+     *                                 {@link ShoppingSession} is invalid, or {@link CartItem}
+     *                                 is empty.
      */
-    public CustomObject validateCurrentShoppingSession(final HttpServletRequest req, final String country) {
-        final Cookie cookie = CustomUtil.cookie(req, CARTCOOKIE);
-
-        if (cookie == null) {
+    public CustomObject validateCurrentShoppingSession(
+            final CartSession cartSession,
+            final String country,
+            final SarreCurrency currency
+    ) {
+        if (!cartSession.hasCookie()) {
             throw new CustomNotFoundException("no cookie found. kindly refresh window");
         }
 
-        final var optional = shoppingSessionRepo
-                .shoppingSessionByCookie(cookie.getValue().split(SPLIT)[0]);
+        final var rows = !cartSession.hasSession()
+                ? List.<CheckoutSnapshotPojo>of()
+                : shoppingSessionRepo.checkoutSnapshotByShoppingSessionId(cartSession.sessionId(), currency);
 
-        if (optional.isEmpty()) {
+        if (rows.isEmpty()) {
             throw new CustomNotFoundException("invalid shopping session");
         }
 
-        final ShoppingSession session = optional.get();
+        final ShoppingSession session = rows.getFirst().getSession();
 
-        final var carts = cartItemRepo
-                .cartItemsByShoppingSessionId(session.shoppingSessionId());
+        final var carts = rows.stream()
+                .filter(row -> row.getCartItemId() != null)
+                .toList();
 
         if (carts.isEmpty()) {
             throw new CustomNotFoundException("cart is empty");
@@ -1,7 +1,7 @@
 package dev.webserver.checkout;
 
 import dev.webserver.cart.entity.ShoppingSession;
-import dev.webserver.payment.projection.RaceConditionCartPojo;
+import dev.webserver.payment.projection.CheckoutSnapshotPojo;
 import dev.webserver.shipping.entity.ShipSetting;
 import dev.webserver.tax.Tax;
 
@@ -10,7 +10,7 @@ import java.util.List;
 
 public record CustomObject(
         ShoppingSession session,
-        List<RaceConditionCartPojo> cartItems,
+        List<CheckoutSnapshotPojo> cartItems,
         ShipSetting ship,
         Tax tax
 ) implements Serializable { }
\ No newline at end of file
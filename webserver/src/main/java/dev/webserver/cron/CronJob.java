@@ -3,68 +3,71 @@ package dev.webserver.cron;
 import com.fasterxml.jackson.databind.JsonNode;
 import dev.webserver.cart.entity.CartItem;
 import dev.webserver.cart.entity.ShoppingSession;
-import dev.webserver.cart.repository.CartItemRepo;
-import dev.webserver.cart.repository.ShoppingSessionRepo;
-import dev.webserver.external.ThirdPartyPaymentService;
 import dev.webserver.external.log.ILogEventPublisher;
 import dev.webserver.payment.entity.OrderReservation;
 import dev.webserver.payment.repository.OrderReservationRepo;
 import dev.webserver.payment.service.PaymentDetailService;
 import dev.webserver.product.entity.ProductSku;
 import dev.webserver.product.repository.ProductSkuRepo;
+import dev.webserver.product.service.ProductListingService;
 import dev.webserver.util.CustomUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestClient;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static dev.webserver.enumeration.ReservationStatus.PENDING;
 import static org.springframework.http.HttpStatus.*;
 
+/**
+ * Scheduled clean up of expired {@link ShoppingSession}s and {@link OrderReservation}s.
+ * <p>
+ * Methods are not transactional as a whole. Remote calls to Paystack are made outside
+ * a transaction and each outcome is committed in its own short transaction.
+ */
 @Component
-@Transactional(rollbackFor = Exception.class)
 class CronJob {
 
     private static final Logger log = LoggerFactory.getLogger(CronJob.class);
 
-    private final RestClient restClient;
     private final ProductSkuRepo skuRepo;
+    private final ProductListingService listingService;
     private final OrderReservationRepo reservationRepo;
-    private final ShoppingSessionRepo sessionRepo;
-    private final CartItemRepo cartItemRepo;
+    private final ShoppingSessionSweeper sessionSweeper;
+    private final PaystackVerifier verifier;
     private final PaymentDetailService paymentDetailService;
-    private final String secretKey;
     private final ILogEventPublisher publisher;
+    private final TransactionTemplate template;
 
     public CronJob(
-            RestClient.Builder clientBuilder,
             ProductSkuRepo skuRepo,
+            ProductListingService listingService,
             OrderReservationRepo reservationRepo,
-            ShoppingSessionRepo sessionRepo,
-            CartItemRepo cartItemRepo,
+            ShoppingSessionSweeper sessionSweeper,
+            PaystackVerifier verifier,
             PaymentDetailService paymentDetailService,
-            ThirdPartyPaymentService paymentService,
-            ILogEventPublisher publisher
+            ILogEventPublisher publisher,
+            PlatformTransactionManager transactionManager
     ) {
         this.skuRepo = skuRepo;
+        this.listingService = listingService;
         this.reservationRepo = reservationRepo;
-        this.sessionRepo = sessionRepo;
-        this.cartItemRepo = cartItemRepo;
+        this.sessionSweeper = sessionSweeper;
+        this.verifier = verifier;
         this.paymentDetailService = paymentDetailService;
-        this.secretKey = paymentService.payStackCredentials().secretKey();
-        this.restClient = clientBuilder.build();
         this.publisher = publisher;
+        this.template = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -78,27 +81,21 @@ class CronJob {
     }
 
     /**
-     * Deletes all expired {@link ShoppingSession} instances and their associated {@link CartItem}.
-     * This method retrieves all expired {@link ShoppingSession} instances from the repository
-     * using the current date as a reference point. For each expired session, it deletes all
-     * {@link CartItem} associated with that session and then deletes the session itself.
+     * Deletes all expired {@link ShoppingSession} instances and their associated {@link CartItem}
+     * using the current date as a reference point. Sessions are deleted in batches, each in its
+     * own transaction, see {@link ShoppingSessionSweeper}.
      */
-    @Transactional(rollbackFor = Exception.class)
     public void onDeleteShoppingSessions() {
-        sessionRepo.allExpiredShoppingSession(CustomUtil.toUTC(new Date()))
-                .forEach(session -> {
-                    this.cartItemRepo.deleteCartItemsByShoppingSessionId(
-                            session.shoppingSessionId());
-                    this.sessionRepo.deleteById(session.shoppingSessionId());
-                });
+        sessionSweeper.sweep(CustomUtil.toUTC(new Date()));
     }
 
     /**
      * Retrieves all expired {@link OrderReservation}s with a pending status for deletion.
-     * After the {@link OrderReservation}s have been retrieved, update the inventory of
-     * associated {@link ProductSku}s since the user did
-     * not complete the purchase within the allotted time. After the update has been performed,
-     * deletion of {@link OrderReservation} is performed.
+     * The {@link OrderReservation}s are grouped by reference and each reference is verified
+     * once with Paystack. If the payment was not completed within the allotted time, the
+     * inventory of every associated {@link ProductSku} is updated and the
+     * {@link OrderReservation}s are deleted. If the payment was successful, the purchase is
+     * recorded which consumes the {@link OrderReservation}s.
      * Note: The timeout for every payment session in Paystack is 600 seconds or 10 minutes.
      * @see
      * <a href="https://paystack.com/docs/api/integration/#update-timeout">updating the timeout</a>.
@@ -107,85 +104,69 @@ class CronJob {
         var date = CustomUtil
                 .toUTC(Date.from(Instant.now().plus(5, ChronoUnit.MINUTES)));
 
-        var reservations = reservationRepo.allPendingExpiredReservations(date, PENDING);
-
-        onResponseFromPaystack(reservations)
+        var reservations = reservationRepo.allPendingExpiredReservations(date, PENDING)
                 .stream()
-                .filter(reservation -> onSuccess(reservation) || reservation.status().equals(BAD_REQUEST) || reservation.status().equals(NOT_FOUND))
-                .forEach(obj -> {
-                    if (obj.status().equals(OK)) {
-                        JsonNode data = obj.node().get("data");
-                        JsonNode metadata = data.get("metadata");
-                        String email = metadata.get("email").asText();
-                        String reference = data.get("reference").textValue();
-
-                        if (!paymentDetailService.paymentDetailExists(email, reference)) {
-                            paymentDetailService.onSuccessfulPayment(data);
-                            publisher.publishPurchase(metadata.get("name").asText(), email);
-                        }
-                    }
-
-                    skuRepo.updateProductSkuInventoryByAddingToExistingInventory(
-                            obj.reservation().getProductSku().getSku(),
-                            obj.reservation().getQty()
-                    );
-
-                    reservationRepo.deleteById(obj.reservation().getReservationId());
-                });
+                .collect(Collectors.groupingBy(OrderReservation::getReference, LinkedHashMap::new, Collectors.toList()));
+
+        // each reference is reconciled as soon as it is verified
+        verifier.verify(reservations, obj -> {
+            if (!onSuccess(obj) && !obj.status().equals(BAD_REQUEST) && !obj.status().equals(NOT_FOUND)) {
+                return;
+            }
+
+            try {
+                onVerified(obj);
+            } catch (RuntimeException e) {
+                // retried on the next run
+                log.error("error reconciling reservations with reference {} {}", obj.reference(), e.getMessage());
+            }
+        });
     }
 
     /**
-     * Leveraging multithreading, function validates the status of expired {@link OrderReservation}s
-     * from Paystack.
-     *
-     * @param reservations The {@link List} of expired {@link OrderReservation} objects to validate.
-     * @return A {@link List} of {@link CustomCronJobObject} which contains validated
-     * {@link OrderReservation}s.
-     * @see <a href="https://paystack.com/docs/payments/verify-payments/">documentation</a>
+     * Commits the outcome of a verified reference in its own transaction. A notification
+     * of a purchase is published after the transaction commits.
      */
-    private List<CustomCronJobObject> onResponseFromPaystack(
-            final List<OrderReservation> reservations
-    ) {
-        var futures = reservations.stream()
-                .map(reservation -> (Supplier<CustomCronJobObject>) () -> {
-                    var uri = UriComponentsBuilder
-                            .fromUriString("https://api.paystack.co/transaction/verify")
-                            .pathSegment(reservation.getReference())
-                            .build()
-                            .toUri();
-
-                    try {
-                        var node = restClient
-                                .get()
-                                .uri(uri)
-                                .header("Authorization", "Bearer %s".formatted(secretKey))
-                                .retrieve()
-                                .body(JsonNode.class);
-
-                        return new CustomCronJobObject(reservation, node, OK);
-                    } catch (Exception e) {
-                        var status = switch (e) {
-                            case HttpClientErrorException.BadRequest ignored1 -> BAD_REQUEST;
-                            case HttpClientErrorException.NotFound ignored2 -> NOT_FOUND;
-                            case HttpClientErrorException.Forbidden ignored3 -> FORBIDDEN;
-                            case HttpClientErrorException.Unauthorized ignored4 -> UNAUTHORIZED;
-                            default -> INTERNAL_SERVER_ERROR;
-                        };
-
-                        log.error("Status is %s \nMessage %s".formatted(status, e.getMessage()));
-
-                        return new CustomCronJobObject(reservation, null, status);
-                    }
-                })
-                .toList();
-
-        return CustomUtil.asynchronousTasks(futures, CronJob.class)
-                .thenApply(c -> c.stream().map(Supplier::get).toList())
-                .join();
+    private void onVerified(final CustomCronJobObject obj) {
+        final JsonNode metadata = template.execute(status -> {
+            final List<Long> ids = obj.reservations().stream()
+                    .map(OrderReservation::getReservationId)
+                    .toList();
+
+            if (onSuccess(obj)) {
+                JsonNode data = obj.node().get("data");
+                JsonNode meta = data.get("metadata");
+                String email = meta.get("email").asText();
+
+                if (!paymentDetailService.paymentDetailExists(email, obj.reference())) {
+                    // saves OrderDetails and deletes OrderReservations of reference
+                    paymentDetailService.onSuccessfulPayment(data);
+                    return meta;
+                }
+
+                // purchase already recorded, inventory stays deducted
+                reservationRepo.deleteOrderReservationsByIds(ids);
+                return null;
+            }
+
+            final Map<Long, Integer> inventory = new LinkedHashMap<>();
+            obj.reservations()
+                    .forEach(r -> inventory.merge(r.getProductSku().getSkuId(), r.getQty(), Integer::sum));
+
+            skuRepo.batchUpdateProductSkuInventoryByAddingToExistingInventory(CustomUtil.toJsonArray(inventory));
+            listingService.refreshStock(inventory.keySet());
+            reservationRepo.deleteOrderReservationsByIds(ids);
+
+            return null;
+        });
+
+        if (metadata != null) {
+            publisher.publishPurchase(metadata.get("name").asText(), metadata.get("email").asText());
+        }
     }
 
     /**
-     * Filters successful {@link OrderReservation}.
+     * Filters a reference whose payment was successful.
      * */
     private boolean onSuccess(CustomCronJobObject obj) {
         return obj.status().equals(OK)
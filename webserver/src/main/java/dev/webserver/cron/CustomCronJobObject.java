@@ -4,4 +4,10 @@ import com.fasterxml.jackson.databind.JsonNode;
 import dev.webserver.payment.entity.OrderReservation;
 import org.springframework.http.HttpStatus;
 
-record CustomCronJobObject (OrderReservation reservation, JsonNode node, HttpStatus status) { }
\ No newline at end of file
+import java.util.List;
+
+/**
+ * The response from Paystack on verifying a transaction {@code reference} and
+ * every expired {@link OrderReservation} made with that reference.
+ * */
+record CustomCronJobObject (String reference, List<OrderReservation> reservations, JsonNode node, HttpStatus status) { }
\ No newline at end of file
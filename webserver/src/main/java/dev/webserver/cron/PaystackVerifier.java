@@ -0,0 +1,147 @@
+package dev.webserver.cron;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.webserver.external.ThirdPartyPaymentService;
+import dev.webserver.payment.entity.OrderReservation;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static org.springframework.http.HttpStatus.*;
+
+/**
+ * Verifies the status of transactions with Paystack.
+ * <p>
+ * Requests are executed on a dedicated executor of {@code paystack.verify.max-concurrency}
+ * threads and at most {@code paystack.verify.rate-per-second} requests are started every
+ * second, so a large backlog of expired reservations does not get rate limited by Paystack
+ * nor hold the permits of the application wide {@code AsynchronousTasks}. There is no
+ * batch-wide timeout, each outcome is handed to the caller as soon as its request
+ * completes so a slow request never discards the outcomes already received.
+ *
+ * @see <a href="https://paystack.com/docs/payments/verify-payments/">documentation</a>
+ */
+@Component
+class PaystackVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(PaystackVerifier.class);
+
+    private final RestClient restClient;
+    private final ThirdPartyPaymentService paymentService;
+    private final ExecutorService executor;
+    private final TokenBucket bucket;
+
+    public PaystackVerifier(
+            RestClient.Builder clientBuilder,
+            ThirdPartyPaymentService paymentService,
+            Environment env
+    ) {
+        this.restClient = clientBuilder.build();
+        this.paymentService = paymentService;
+
+        int concurrency = env.getProperty("paystack.verify.max-concurrency", Integer.class, 5);
+        int rate = env.getProperty("paystack.verify.rate-per-second", Integer.class, 10);
+
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("max concurrency must be greater than 0");
+        }
+
+        this.executor = Executors
+                .newFixedThreadPool(concurrency, Thread.ofVirtual().name("paystack-verify-", 0).factory());
+        this.bucket = new TokenBucket(rate, rate);
+    }
+
+    /**
+     * Validates the status of expired {@link OrderReservation}s with Paystack. Every
+     * reference is verified once regardless of the number of {@link OrderReservation}s
+     * made with it.
+     *
+     * @param reservations expired {@link OrderReservation}s grouped by their reference.
+     * @param onVerified receives a {@link CustomCronJobObject} for each reference on the
+     *                   calling thread, in the order the requests complete.
+     */
+    void verify(
+            final Map<String, List<OrderReservation>> reservations,
+            final Consumer<CustomCronJobObject> onVerified
+    ) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+
+        final String secretKey = paymentService.payStackCredentials().secretKey();
+
+        final CompletionService<CustomCronJobObject> service = new ExecutorCompletionService<>(executor);
+        final List<Future<CustomCronJobObject>> futures = new ArrayList<>(reservations.size());
+        reservations.forEach((reference, list) -> futures.add(service.submit(() -> verify(reference, list, secretKey))));
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                onVerified.accept(service.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+        } catch (ExecutionException e) {
+            // verify(String, List, String) returns an outcome for every exception
+            log.error("error verifying references with paystack {}", e.getMessage());
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private CustomCronJobObject verify(
+            final String reference,
+            final List<OrderReservation> reservations,
+            final String secretKey
+    ) {
+        var uri = UriComponentsBuilder
+                .fromUriString("https://api.paystack.co/transaction/verify")
+                .pathSegment(reference)
+                .build()
+                .toUri();
+
+        try {
+            bucket.acquire();
+
+            var node = restClient
+                    .get()
+                    .uri(uri)
+                    .header("Authorization", "Bearer %s".formatted(secretKey))
+                    .retrieve()
+                    .body(JsonNode.class);
+
+            return new CustomCronJobObject(reference, reservations, node, OK);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new CustomCronJobObject(reference, reservations, null, INTERNAL_SERVER_ERROR);
+        } catch (Exception e) {
+            var status = switch (e) {
+                case HttpClientErrorException.BadRequest ignored1 -> BAD_REQUEST;
+                case HttpClientErrorException.NotFound ignored2 -> NOT_FOUND;
+                case HttpClientErrorException.Forbidden ignored3 -> FORBIDDEN;
+                case HttpClientErrorException.Unauthorized ignored4 -> UNAUTHORIZED;
+                default -> INTERNAL_SERVER_ERROR;
+            };
+
+            log.error("Reference %s \nStatus is %s \nMessage %s".formatted(reference, status, e.getMessage()));
+
+            return new CustomCronJobObject(reference, reservations, null, status);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,150 @@
+package dev.webserver.cron;
+
+import dev.webserver.cart.entity.CartItem;
+import dev.webserver.cart.entity.ShoppingSession;
+import dev.webserver.cart.repository.CartItemRepo;
+import dev.webserver.cart.repository.ShoppingSessionRepo;
+import dev.webserver.cart.session.ShoppingSessionResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired {@link ShoppingSession}s and their {@link CartItem}s in batches.
+ * <p>
+ * Expired sessions are read by primary key in ascending order, at most
+ * {@code cron.shopping-session.batch-size} at a time. Each batch is locked, bulk
+ * deleted and committed in its own transaction so neither the number of expired
+ * sessions held in memory nor the duration locks are held grows with the backlog.
+ * Deleted sessions are evicted from {@link ShoppingSessionResolver} once their batch commits.
+ */
+@Component
+class ShoppingSessionSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ShoppingSessionSweeper.class);
+
+    private record Batch(List<Long> ids, int cartItems, long lastId) {
+        int sessions() {
+            return ids.size();
+        }
+    }
+
+    private final ShoppingSessionRepo sessionRepo;
+    private final CartItemRepo cartItemRepo;
+    private final ShoppingSessionResolver resolver;
+    private final TransactionTemplate template;
+    private final int batchSize;
+
+    private final Counter deletedSessions;
+    private final Counter deletedCartItems;
+    private final Timer batchTimer;
+    private final AtomicLong progress = new AtomicLong();
+
+    public ShoppingSessionSweeper(
+            ShoppingSessionRepo sessionRepo,
+            CartItemRepo cartItemRepo,
+            ShoppingSessionResolver resolver,
+            PlatformTransactionManager transactionManager,
+            Environment env,
+            MeterRegistry registry
+    ) {
+        this.sessionRepo = sessionRepo;
+        this.cartItemRepo = cartItemRepo;
+        this.resolver = resolver;
+        this.batchSize = env.getProperty("cron.shopping-session.batch-size", Integer.class, 500);
+
+        // a batch must commit on its own even when called within a transaction
+        this.template = new TransactionTemplate(transactionManager);
+        this.template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.deletedSessions = Counter.builder("cron.shopping.sessions.deleted")
+                .description("number of expired shopping sessions deleted")
+                .register(registry);
+        this.deletedCartItems = Counter.builder("cron.cart.items.deleted")
+                .description("number of cart items deleted with expired shopping sessions")
+                .register(registry);
+        this.batchTimer = Timer.builder("cron.shopping.sessions.sweep.batch")
+                .description("time taken to delete a batch of expired shopping sessions")
+                .register(registry);
+        Gauge.builder("cron.shopping.sessions.sweep.progress", progress, AtomicLong::get)
+                .description("number of expired shopping sessions deleted by the current or last sweep")
+                .register(registry);
+    }
+
+    /**
+     * Deletes every {@link ShoppingSession} that expires on or before {@code date}
+     * alongside its {@link CartItem}s.
+     *
+     * @param date is the reference point for expired sessions.
+     * @return the number of {@link ShoppingSession}s deleted.
+     */
+    long sweep(final Date date) {
+        final long start = System.nanoTime();
+        progress.set(0);
+
+        long lastId = 0;
+        int batches = 0;
+
+        while (true) {
+            final long cursor = lastId;
+            final Batch batch = batchTimer.record(() -> template.execute(status -> deleteBatch(date, cursor)));
+
+            if (batch == null || batch.sessions() == 0) {
+                break;
+            }
+
+            // evicted once committed so a cached session cannot be read back before the delete
+            resolver.evict(batch.ids());
+
+            batches++;
+            lastId = batch.lastId();
+            progress.addAndGet(batch.sessions());
+            deletedSessions.increment(batch.sessions());
+            deletedCartItems.increment(batch.cartItems());
+
+            if (batch.sessions() < batchSize) {
+                break;
+            }
+        }
+
+        final long deleted = progress.get();
+        if (deleted > 0) {
+            final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            log.info("deleted {} expired shopping sessions in {} batches and {} ms, {} per second",
+                    deleted,
+                    batches,
+                    elapsed.toMillis(),
+                    deleted * 1000 / Math.max(1, elapsed.toMillis())
+            );
+        }
+
+        return deleted;
+    }
+
+    private Batch deleteBatch(final Date date, final long lastId) {
+        final List<Long> ids = sessionRepo.lockExpiredShoppingSessionIds(date, lastId, batchSize);
+
+        if (ids.isEmpty()) {
+            return new Batch(List.of(), 0, lastId);
+        }
+
+        final int cartItems = cartItemRepo.deleteCartItemsByShoppingSessionIds(ids);
+        sessionRepo.deleteShoppingSessionsByIds(ids);
+
+        return new Batch(ids, cartItems, ids.getLast());
+    }
+
+}
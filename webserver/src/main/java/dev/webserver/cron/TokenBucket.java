@@ -0,0 +1,64 @@
+package dev.webserver.cron;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket rate limiter. The bucket holds at most {@link #capacity} tokens
+ * and is refilled at {@code permitsPerSecond}. A caller takes a token before making
+ * a request and waits if the bucket is empty.
+ * <p>
+ * Tokens are reserved rather than polled, the bucket goes into debt and each caller
+ * waits until its token would have been refilled. This keeps callers in arrival
+ * order without a retry loop.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+
+    private double tokens;
+    private long last;
+
+    TokenBucket(double permitsPerSecond, int capacity) {
+        this(permitsPerSecond, capacity, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int capacity, LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("permits per second and capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.nanoTime = nanoTime;
+        this.tokens = capacity;
+        this.last = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes a token, blocking until it is available.
+     *
+     * @throws InterruptedException if the current thread is interrupted whilst waiting.
+     */
+    void acquire() throws InterruptedException {
+        final long wait = reserve();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Reserves a token.
+     *
+     * @return nanoseconds to wait before the reserved token can be used.
+     */
+    synchronized long reserve() {
+        final long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - last) * tokensPerNano);
+        last = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+}
@@ -0,0 +1,5 @@
+package dev.webserver.enumeration;
+
+public enum WebhookInboxStatus {
+    PENDING, PROCESSED, FAILED
+}
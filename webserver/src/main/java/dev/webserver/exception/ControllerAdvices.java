@@ -3,6 +3,7 @@ package dev.webserver.exception;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -48,6 +49,14 @@ class ControllerAdvices {
         return new ResponseEntity<>(res, PAYLOAD_TOO_LARGE);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ExceptionResponse> tooManyRequestsException(Exception ex) {
+        var res = new ExceptionResponse(ex.getMessage(), TOO_MANY_REQUESTS);
+        return ResponseEntity.status(TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(res);
+    }
+
     @ExceptionHandler({S3Exception.class, CustomServerError.class})
     public ResponseEntity<ExceptionResponse> awsException(Exception ex) {
         var res = new ExceptionResponse(ex.getMessage(), INTERNAL_SERVER_ERROR);
@@ -6,24 +6,109 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 @Service
 @RequiredArgsConstructor
 public class ThirdPartyPaymentService {
 
     private static final Logger log = LoggerFactory.getLogger(ThirdPartyPaymentService.class);
 
+    /**
+     * Minimum time between two on demand refreshes. Prevents invalid webhooks
+     * from turning into a call to aws secrets manager each.
+     * */
+    static final Duration ON_DEMAND_REFRESH_INTERVAL = Duration.ofMinutes(1);
+
     private final SecretsManagerClient managerClient;
     private final ObjectMapper objectMapper;
     private final Environment env;
 
+    private final AtomicReference<PaymentCredentialObj> credentials = new AtomicReference<>();
+    private volatile Instant lastRefresh = Instant.EPOCH;
+
     /**
-     * returns PayStack pub and secret keys
+     * returns PayStack pub and secret keys. Keys stored in aws secrets manager are
+     * retrieved once and cached in memory, see {@link #scheduledRefresh()} and
+     * {@link #refreshPayStackCredentials()}.
      * */
     public final PaymentCredentialObj payStackCredentials() {
+        final PaymentCredentialObj local = localCredentials();
+        if (local != null) {
+            return local;
+        }
+
+        final PaymentCredentialObj cached = credentials.get();
+        return cached != null ? cached : load(false);
+    }
+
+    /**
+     * Retrieves PayStack credentials from aws secrets manager, bypassing the cache.
+     * Called when a webhook signature does not match, as the secret key might have
+     * been rotated. Calls made within {@link #ON_DEMAND_REFRESH_INTERVAL} of the last
+     * refresh return the cached credentials.
+     *
+     * @return the latest PayStack credentials.
+     * */
+    public final PaymentCredentialObj refreshPayStackCredentials() {
+        final PaymentCredentialObj local = localCredentials();
+        if (local != null) {
+            return local;
+        }
+
+        return load(true);
+    }
+
+    /**
+     * Refreshes PayStack credentials in the background so a rotated secret is picked up
+     * without a remote call on the checkout or webhook path.
+     * */
+    @Scheduled(
+            initialDelayString = "${paystack.credentials.refresh:30}",
+            fixedRateString = "${paystack.credentials.refresh:30}",
+            timeUnit = TimeUnit.MINUTES
+    )
+    public void scheduledRefresh() {
+        if (localCredentials() != null) {
+            return;
+        }
+
+        try {
+            credentials.set(impl(awsSecretId(), PaymentCredentialObj.class));
+            lastRefresh = Instant.now();
+            log.info("successfully refreshed paystack credentials");
+        } catch (CustomServerError e) {
+            // keep serving the cached credentials
+            log.error("error refreshing paystack credentials in the background");
+        }
+    }
+
+    private synchronized PaymentCredentialObj load(final boolean force) {
+        final PaymentCredentialObj cached = credentials.get();
+
+        if (cached != null && (!force || Instant.now().isBefore(lastRefresh.plus(ON_DEMAND_REFRESH_INTERVAL)))) {
+            return cached;
+        }
+
+        final PaymentCredentialObj obj = impl(awsSecretId(), PaymentCredentialObj.class);
+        credentials.set(obj);
+        lastRefresh = Instant.now();
+        return obj;
+    }
+
+    /**
+     * Returns PayStack credentials from properties when running tests or when they are
+     * set, else null meaning credentials have to be retrieved from aws secrets manager.
+     * */
+    private PaymentCredentialObj localCredentials() {
         String profile = this.env.getProperty("spring.profiles.active", "default");
         String pubKey = this.env.getProperty("paystack.pub.key", "");
         String secretKey = this.env.getProperty("paystack.secret.key", "");
@@ -35,10 +120,11 @@ public class ThirdPartyPaymentService {
             return new PaymentCredentialObj(pubKey, secretKey);
         }
 
-        String awsSecretId = this.env
-                .getProperty("aws.paystack.secret.id", "paystack-credentials");
+        return null;
+    }
 
-        return impl(awsSecretId, PaymentCredentialObj.class);
+    private String awsSecretId() {
+        return this.env.getProperty("aws.paystack.secret.id", "paystack-credentials");
     }
 
     final <T> T impl(String secretId, Class<T> clazz) {
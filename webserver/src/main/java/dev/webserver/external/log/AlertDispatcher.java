@@ -0,0 +1,273 @@
+package dev.webserver.external.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends alerts to discord off the calling thread.
+ * <p>
+ * {@link #offer(String, Supplier)} never blocks. Alerts are held in a bounded lock-free
+ * queue of at most {@code application.log.alert.capacity} entries, an alert offered
+ * whilst the queue is full is dropped and counted. Alerts with the same fingerprint that
+ * are waiting to be sent are merged into one with an occurrence count.
+ * <p>
+ * A single background thread drains the queue every {@code application.log.alert.flush-interval}
+ * milliseconds, formats each alert and coalesces them into as few discord messages as the
+ * 2000 character limit allows. An unreachable discord therefore only delays alerts, it
+ * never adds latency to the thread that raised them.
+ */
+@Component
+class AlertDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertDispatcher.class);
+
+    static final int MAX_LENGTH = 2000;
+
+    /**
+     * An alert waiting to be sent. {@link #occurrences} is set to -1 once the sender
+     * takes the alert, after which duplicates start a new alert.
+     */
+    private static final class Alert {
+        private final String fingerprint;
+        private final Supplier<String> body;
+        private final AtomicInteger occurrences = new AtomicInteger(1);
+
+        private Alert(String fingerprint, Supplier<String> body) {
+            this.fingerprint = fingerprint;
+            this.body = body;
+        }
+
+        private boolean increment() {
+            int count;
+            do {
+                count = occurrences.get();
+                if (count < 0) {
+                    return false;
+                }
+            } while (!occurrences.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private int close() {
+            return occurrences.getAndSet(-1);
+        }
+    }
+
+    private final Queue<Alert> queue = new ConcurrentLinkedQueue<>();
+    private final Map<String, Alert> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final RestClient restClient;
+    private final URI discord;
+    private final boolean enabled;
+    private final int capacity;
+    private final ScheduledExecutorService sender;
+
+    private final Counter dropped;
+    private final Counter deduplicated;
+    private final Counter sent;
+    private final Counter failed;
+
+    @Autowired
+    AlertDispatcher(RestClient.Builder builder, Environment env, MeterRegistry registry) {
+        this(
+                builder.requestFactory(requestFactory()).build(),
+                env.getProperty("application.log.webhook.discord", "discord"),
+                !env.getProperty("spring.profiles.active", "default").endsWith("test"),
+                env.getProperty("application.log.alert.capacity", Integer.class, 1024),
+                Duration.ofMillis(env.getProperty("application.log.alert.flush-interval", Long.class, 2000L)),
+                registry
+        );
+    }
+
+    AlertDispatcher(
+            RestClient restClient,
+            String discord,
+            boolean enabled,
+            int capacity,
+            Duration interval,
+            MeterRegistry registry
+    ) {
+        this.restClient = restClient;
+        this.discord = URI.create(discord);
+        this.enabled = enabled;
+        this.capacity = capacity;
+
+        this.dropped = Counter.builder("log.alerts.dropped")
+                .description("alerts dropped because the queue was full")
+                .register(registry);
+        this.deduplicated = Counter.builder("log.alerts.deduplicated")
+                .description("alerts merged into a pending alert with the same fingerprint")
+                .register(registry);
+        this.sent = Counter.builder("log.alerts.sent")
+                .description("discord messages sent")
+                .register(registry);
+        this.failed = Counter.builder("log.alerts.failed")
+                .description("discord messages that could not be sent")
+                .register(registry);
+        Gauge.builder("log.alerts.pending", size, AtomicInteger::get)
+                .description("alerts waiting to be sent")
+                .register(registry);
+
+        this.sender = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("alert-dispatcher")
+                .daemon(true)
+                .factory());
+        this.sender.scheduleWithFixedDelay(this::flush, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static SimpleClientHttpRequestFactory requestFactory() {
+        var factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(Duration.ofSeconds(5));
+        factory.setReadTimeout(Duration.ofSeconds(10));
+        return factory;
+    }
+
+    /**
+     * Queues an alert without blocking.
+     *
+     * @param fingerprint identifies duplicate alerts.
+     * @param body formats the alert, invoked on the sender thread.
+     * @return false if the alert was dropped because the queue is full.
+     */
+    boolean offer(final String fingerprint, final Supplier<String> body) {
+        while (true) {
+            final Alert existing = pending.get(fingerprint);
+
+            if (existing != null) {
+                if (existing.increment()) {
+                    deduplicated.increment();
+                    return true;
+                }
+                // taken by the sender
+                pending.remove(fingerprint, existing);
+                continue;
+            }
+
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                dropped.increment();
+                return false;
+            }
+
+            final Alert alert = new Alert(fingerprint, body);
+
+            if (pending.putIfAbsent(fingerprint, alert) == null) {
+                queue.offer(alert);
+                return true;
+            }
+
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Sends every queued alert. Invoked on the sender thread.
+     */
+    void flush() {
+        final List<String> messages = new ArrayList<>();
+
+        Alert alert;
+        while ((alert = queue.poll()) != null) {
+            pending.remove(alert.fingerprint, alert);
+            final int occurrences = alert.close();
+            size.decrementAndGet();
+
+            try {
+                final String body = alert.body.get();
+                messages.add(occurrences > 1 ? "%s\n### occurred %d times".formatted(body, occurrences) : body);
+            } catch (RuntimeException e) {
+                log.warn("error formatting alert {}", e.getMessage());
+            }
+        }
+
+        if (messages.isEmpty() || !enabled) {
+            return;
+        }
+
+        for (final String content : coalesce(messages)) {
+            try {
+                restClient.post()
+                        .uri(discord)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(new DiscordPayload(content))
+                        .retrieve()
+                        .toBodilessEntity();
+                sent.increment();
+            } catch (RuntimeException e) {
+                // logged without the exception so it is not sent back to discord
+                failed.increment();
+                log.warn("error sending alert to discord {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Joins messages into as few as possible without exceeding {@link #MAX_LENGTH}.
+     * A message longer than {@link #MAX_LENGTH} is sent on its own and truncated.
+     */
+    static List<String> coalesce(final List<String> messages) {
+        final List<String> batches = new ArrayList<>();
+        final StringBuilder current = new StringBuilder();
+
+        for (final String m : messages) {
+            final String message = m.length() > MAX_LENGTH ? m.substring(0, MAX_LENGTH - 3) + "..." : m;
+
+            if (!current.isEmpty() && current.length() + 1 + message.length() > MAX_LENGTH) {
+                batches.add(current.toString());
+                current.setLength(0);
+            }
+            if (!current.isEmpty()) {
+                current.append('\n');
+            }
+            current.append(message);
+        }
+
+        if (!current.isEmpty()) {
+            batches.add(current.toString());
+        }
+
+        return batches;
+    }
+
+    int pending() {
+        return size.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdown();
+        try {
+            if (sender.awaitTermination(5, TimeUnit.SECONDS)) {
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
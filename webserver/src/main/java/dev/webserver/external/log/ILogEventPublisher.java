@@ -4,6 +4,7 @@ import java.util.Queue;
 
 /**
  * Interface for publishing log events and user actions to a third-party service.
+ * Implementations must not block the caller on the third-party service.
  */
 public interface ILogEventPublisher {
 
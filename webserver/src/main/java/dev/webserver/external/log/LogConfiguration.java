@@ -11,14 +11,14 @@ import org.springframework.context.annotation.Configuration;
 @RequiredArgsConstructor
 class LogConfiguration {
 
-    private final LogEventPublisher publisher;
+    private final AlertDispatcher dispatcher;
 
     @PostConstruct
     public void registerCustomAppender() {
         final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
         final Logger log = context.getLogger(Logger.ROOT_LOGGER_NAME);
 
-        final LogImpl obj = new LogImpl(publisher);
+        final LogImpl obj = new LogImpl(dispatcher);
         obj.setContext(context);
         obj.start();
 
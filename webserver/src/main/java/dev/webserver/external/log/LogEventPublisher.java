@@ -1,25 +1,26 @@
 package dev.webserver.external.log;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedDeque;
 
 @Component
 @RequiredArgsConstructor
 class LogEventPublisher implements ILogEventPublisher {
 
-    private final ApplicationEventPublisher publisher;
+    private final AlertDispatcher dispatcher;
 
     @Override
     public void publishLog(final Queue<String> deque) {
-        publisher.publishEvent(new LogEvent(this, deque));
+        String message;
+        while ((message = deque.poll()) != null) {
+            final String body = message;
+            dispatcher.offer(body, () -> body);
+        }
     }
 
     @Override
@@ -32,7 +33,7 @@ class LogEventPublisher implements ILogEventPublisher {
                 ### <--- Name: %s ---> <--- Email: %s --->
                 """.formatted(date, time, name, email);
 
-        publisher.publishEvent(new LogEvent(this, new ConcurrentLinkedDeque<>(List.of(message))));
+        dispatcher.offer(message, () -> message);
     }
 
 }
@@ -2,6 +2,7 @@ package dev.webserver.external.log;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
 import ch.qos.logback.classic.spi.ThrowableProxyUtil;
 import ch.qos.logback.core.AppenderBase;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,50 +11,56 @@ import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
-import java.util.LinkedHashSet;
-import java.util.Queue;
-import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedDeque;
 
+/**
+ * Forwards every event logged with an exception to {@link AlertDispatcher}. Only the
+ * request url is read on the logging thread, the message and stack trace are formatted
+ * on the dispatcher thread.
+ */
 @RequiredArgsConstructor
 class LogImpl extends AppenderBase<ILoggingEvent> {
 
-    private static final Queue<String> queue = new ConcurrentLinkedDeque<>();
-    private static final Set<String> set = Collections.synchronizedSet(new LinkedHashSet<>());
-
-    private final LogEventPublisher publisher;
+    private final AlertDispatcher dispatcher;
 
     @Override
     protected void append(ILoggingEvent event) {
         final IThrowableProxy proxy = event.getThrowableProxy();
 
-        if (proxy != null) {
-            final LocalDateTime utc = LocalDateTime.now(ZoneOffset.UTC);
+        if (proxy == null) {
+            return;
+        }
+
+        final String url = requestUrl();
+
+        // the event is formatted on the dispatcher thread
+        event.prepareForDeferredProcessing();
+
+        dispatcher.offer(fingerprint(event, proxy), () -> {
+            final LocalDateTime utc = LocalDateTime.ofInstant(Instant.ofEpochMilli(event.getTimeStamp()), ZoneOffset.UTC);
             final String date = utc.toLocalDate().format(DateTimeFormatter.ofPattern("E dd MMMM uuuu"));
             final String time = utc.toLocalTime().format(DateTimeFormatter.ofPattern("H:m a"));
-            final String url = requestUrl();
 
-            final String message = """
+            return """
                     ## __**%s**__ on %s at %s @everyone
                     ### Request Url %s
                     ### Exception -> %s
                     ```%s```
                     """.formatted(event.getLevel(), date, time, url, event.getFormattedMessage(), ThrowableProxyUtil.asString(proxy));
+        });
+    }
 
-            if (!set.contains(message)) {
-                queue.add(message);
-                set.add(message);
-                publisher.publishLog(queue);
-            }
-        }
-
-        queue.clear();
-        set.clear();
-        queue.clear();
+    /**
+     * Events logged from the same place with the same exception share a fingerprint
+     * regardless of the message, which often contains ids.
+     */
+    private static String fingerprint(final ILoggingEvent event, final IThrowableProxy proxy) {
+        final StackTraceElementProxy[] frames = proxy.getStackTraceElementProxyArray();
+        final String frame = frames == null || frames.length == 0 ? "" : frames[0].getSTEAsString();
+        return "%s|%s|%s|%s".formatted(event.getLevel(), event.getLoggerName(), proxy.getClassName(), frame);
     }
 
     private String requestUrl() {
@@ -0,0 +1,75 @@
+package dev.webserver.jwt;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers tokens {@link #delegate} has already verified so the same jwt is not
+ * signature verified again, e.g. by {@code BearerTokenAuthenticationFilter} after
+ * {@link RefreshTokenFilter} decoded it, or on the next request of the same user.
+ * <p>
+ * A cached token is only returned while it has not expired, after which it is verified
+ * again by {@link #delegate}. Tokens that fail verification are never cached. The cache
+ * holds at most {@link #maxSize} tokens and must be cleared by {@link #clear()} whenever
+ * the verification keys change.
+ */
+final class CachingJwtDecoder implements JwtDecoder {
+
+    private final Map<String, Jwt> cache = new ConcurrentHashMap<>();
+
+    private final JwtDecoder delegate;
+    private final int maxSize;
+    private final Clock clock;
+
+    CachingJwtDecoder(JwtDecoder delegate, int maxSize, Clock clock) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    @Override
+    public Jwt decode(final String token) throws JwtException {
+        if (token == null) {
+            return delegate.decode(null);
+        }
+
+        final Jwt cached = cache.get(token);
+        final Instant now = clock.instant();
+
+        if (cached != null && isValid(cached, now)) {
+            return cached;
+        }
+
+        final Jwt jwt = delegate.decode(token);
+
+        if (cache.size() >= maxSize) {
+            cache.values().removeIf(entry -> !isValid(entry, now));
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+        }
+
+        cache.put(token, jwt);
+        return jwt;
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private static boolean isValid(final Jwt jwt, final Instant now) {
+        final Instant expiresAt = jwt.getExpiresAt();
+        return expiresAt != null && now.isBefore(expiresAt);
+    }
+
+}
@@ -1,25 +1,25 @@
 package dev.webserver.jwt;
 
-import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
-import jakarta.servlet.http.Cookie;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
 
-import java.util.Arrays;
+import java.time.Clock;
+import java.util.stream.Collectors;
 
 /**
  * For Jwt config details
@@ -28,22 +28,53 @@ import java.util.Arrays;
 @Configuration
 public class JwtConfig {
 
-    private static final RSAKey rsaKey = JwtUtil.GENERATERSAKEY();
-
     @Value(value = "${server.servlet.session.cookie.name}")
     private String JSESSIONID;
     @Value(value = "${jwt.claim}")
     private String CLAIM;
+    @Value(value = "${jwt.cache.max-size:1024}")
+    private int CACHE_SIZE;
 
+    /**
+     * Signs with the active key of {@link JwtKeyStore}, stamping its {@code kid} in the
+     * jwt header.
+     */
     @Bean
-    public JwtEncoder jwtEncoder() {
-        JWKSource<SecurityContext> source = new ImmutableJWKSet<>(new JWKSet(rsaKey));
-        return new NimbusJwtEncoder(source);
+    public JwtEncoder jwtEncoder(JwtKeyStore store) {
+        return new NimbusJwtEncoder(store.signingKey());
     }
 
+    /**
+     * Verifies with whichever key of {@link JwtKeyStore} matches the {@code kid} of a jwt,
+     * so jwts signed before a rotation stay valid whilst their key is published.
+     * <p>
+     * Verified tokens are cached so a jwt is signature verified at most once per request
+     * and not again on later requests until it expires. The cache is cleared whenever the
+     * keys change so a jwt signed with a removed key is not accepted from the cache.
+     */
     @Bean
-    public JwtDecoder jwtDecoder() throws JOSEException {
-        return NimbusJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build();
+    public JwtDecoder jwtDecoder(JwtKeyStore store) {
+        var caching = new CachingJwtDecoder(verifier(store), CACHE_SIZE, Clock.systemUTC());
+        store.onRotation(caching::clear);
+        return caching;
+    }
+
+    /**
+     * Verifies every jwt it is given, accepting any of {@link JwtKeyStore#ALGORITHMS}.
+     */
+    static JwtDecoder verifier(JwtKeyStore store) {
+        var algorithms = JwtKeyStore.ALGORITHMS.stream()
+                .map(algorithm -> JWSAlgorithm.parse(algorithm.getName()))
+                .collect(Collectors.toSet());
+
+        var processor = new DefaultJWTProcessor<SecurityContext>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, store.verificationKeys()));
+        // claims are validated by the decoder
+        processor.setJWTClaimsSetVerifier((claims, context) -> {});
+
+        var decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefault());
+        return decoder;
     }
 
     @Bean
@@ -64,25 +95,15 @@ public class JwtConfig {
      * @see <a href="https://docs.spring.io/spring-security/reference/servlet/oauth2/resource-server/bearer-tokens.html">documentation</a>
      */
     @Bean
-    public BearerTokenResolver bearerTokenResolver(JwtDecoder decoder, JwtService service) {
-        return new BearerResolver(JSESSIONID, decoder, service);
+    public BearerTokenResolver bearerTokenResolver(JwtService service) {
+        return new BearerResolver(service);
     }
 
-    private record BearerResolver(
-            String JSESSIONID,
-            JwtDecoder decoder,
-            JwtService service
-    ) implements BearerTokenResolver {
+    private record BearerResolver(JwtService service) implements BearerTokenResolver {
         @Override
         public String resolve(HttpServletRequest request) {
-            Cookie[] cookies = request.getCookies();
-            // ternary operator
-            return cookies == null ? null : Arrays
-                    .stream(cookies)
-                    .filter(cookie -> cookie.getName().equals(JSESSIONID))
-                    .filter(this.service::_isTokenNoneExpired)
-                    .map(Cookie::getValue)
-                    .findFirst()
+            return service.jwt(request)
+                    .map(Jwt::getTokenValue)
                     .orElse(null);
         }
     }
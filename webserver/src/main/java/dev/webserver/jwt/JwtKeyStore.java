@@ -0,0 +1,259 @@
+package dev.webserver.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds the keys jwts are signed and verified with.
+ * <p>
+ * Keys are read as a JWK set, either from the resource at {@code jwt.keys.location}, e.g.
+ * a mounted secret file, or from the json in {@code jwt.keys.value}, e.g. an environment
+ * variable populated from a secret manager. Every key must have a {@code kid}. Jwts are
+ * signed with the key whose id is {@code jwt.keys.active-kid}, or the first key if unset,
+ * and verified with any key in the set. Every node configured with the same set accepts
+ * every other node's jwts, and jwts survive restarts.
+ * <p>
+ * To rotate, publish a set with the new key first and the old key kept, so jwts signed
+ * with the old key remain valid. Remove the old key once its last jwt has expired, i.e.
+ * after {@code server.servlet.session.cookie.max-age}. The set is reloaded every
+ * {@code jwt.keys.reload} minutes, so a rotation needs no restart.
+ * <p>
+ * Jwts are signed with {@code jwt.algorithm}, either RS256 or ES256, and the active key
+ * must suit it, i.e. an RSA key or a P-256 EC key. ES256 signs faster than RS256 and its
+ * signature is a quarter of the size, shrinking the jwt cookie, but verifies slower, see
+ * {@code JwtAlgorithmBenchmark}. Jwts signed with either algorithm are verified, so the
+ * algorithm is switched the same way a key is rotated.
+ * <p>
+ * When no key is configured, e.g. in development, a single key is generated the first
+ * time one is needed rather than at startup. Jwts signed with it do not survive a restart.
+ */
+@Component
+public class JwtKeyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyStore.class);
+
+    /**
+     * Algorithms jwts may be signed and verified with.
+     */
+    static final Set<SignatureAlgorithm> ALGORITHMS = Set.of(SignatureAlgorithm.RS256, SignatureAlgorithm.ES256);
+
+    /**
+     * @param verification every key, public parts only.
+     * @param signing the active key.
+     */
+    record Keys(JWKSet verification, JWK signing) {
+        boolean sameAs(final Keys other) {
+            return signing.equals(other.signing) && verification.getKeys().equals(other.verification.getKeys());
+        }
+    }
+
+    private final Supplier<String> source;
+    private final String activeKid;
+    private final SignatureAlgorithm algorithm;
+    private final Function<SignatureAlgorithm, JWK> generator;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Keys keys;
+
+    @Autowired
+    public JwtKeyStore(ResourceLoader loader, Environment env) {
+        this(
+                source(loader, env.getProperty("jwt.keys.location", ""), env.getProperty("jwt.keys.value", "")),
+                env.getProperty("jwt.keys.active-kid", ""),
+                env.getProperty("jwt.algorithm", SignatureAlgorithm.class, SignatureAlgorithm.RS256),
+                JwtUtil::GENERATEKEY
+        );
+    }
+
+    /**
+     * @param source returns the JWK set json, or null if none is configured.
+     * @param activeKid id of the signing key, blank to sign with the first key.
+     * @param algorithm jwts are signed with.
+     * @param generator creates a key for {@code algorithm} when {@code source} returns null.
+     * @throws IllegalArgumentException if {@code algorithm} is not one of {@link #ALGORITHMS}.
+     */
+    JwtKeyStore(
+            Supplier<String> source,
+            String activeKid,
+            SignatureAlgorithm algorithm,
+            Function<SignatureAlgorithm, JWK> generator
+    ) {
+        if (!ALGORITHMS.contains(algorithm)) {
+            throw new IllegalArgumentException("unsupported jwt algorithm " + algorithm);
+        }
+        this.source = source;
+        this.activeKid = activeKid;
+        this.algorithm = algorithm;
+        this.generator = generator;
+    }
+
+    private static Supplier<String> source(ResourceLoader loader, String location, String value) {
+        if (!location.isBlank()) {
+            return () -> {
+                try (var in = loader.getResource(location).getInputStream()) {
+                    return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    throw new IllegalStateException("unable to read jwt keys from " + location, e);
+                }
+            };
+        }
+        return () -> value.isBlank() ? null : value;
+    }
+
+    /**
+     * Algorithm jwts are signed with.
+     */
+    public SignatureAlgorithm algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Keys used to verify jwts.
+     */
+    public JWKSource<SecurityContext> verificationKeys() {
+        return (selector, context) -> selector.select(keys().verification());
+    }
+
+    /**
+     * The single key used to sign jwts.
+     */
+    public JWKSource<SecurityContext> signingKey() {
+        return (selector, context) -> selector.select(new JWKSet(keys().signing()));
+    }
+
+    /**
+     * Registers {@code listener} to run whenever the keys change, e.g. to discard jwts
+     * verified with a key that was removed.
+     */
+    public void onRotation(final Runnable listener) {
+        listeners.add(listener);
+    }
+
+    Keys keys() {
+        final Keys current = keys;
+        return current != null ? current : initialise();
+    }
+
+    private synchronized Keys initialise() {
+        if (keys == null) {
+            keys = load();
+        }
+        return keys;
+    }
+
+    /**
+     * Re-reads the configured keys. A set that cannot be read or parsed is logged and the
+     * current keys are kept.
+     */
+    @Scheduled(
+            initialDelayString = "${jwt.keys.reload:5}",
+            fixedDelayString = "${jwt.keys.reload:5}",
+            timeUnit = TimeUnit.MINUTES
+    )
+    public void reload() {
+        final Keys current = keys;
+        if (current == null) {
+            return;
+        }
+
+        final Keys next;
+        try {
+            next = read();
+        } catch (RuntimeException e) {
+            log.error("unable to reload jwt keys, keeping current keys. {}", e.getMessage());
+            return;
+        }
+
+        if (next == null || next.sameAs(current)) {
+            return;
+        }
+
+        synchronized (this) {
+            keys = next;
+        }
+        log.info("jwt keys rotated, signing with kid {}", next.signing().getKeyID());
+        listeners.forEach(Runnable::run);
+    }
+
+    private Keys load() {
+        final Keys loaded = read();
+        if (loaded != null) {
+            log.info("jwt keys loaded, signing with kid {}", loaded.signing().getKeyID());
+            return loaded;
+        }
+
+        log.warn("no jwt keys configured, generating a key. jwts will not survive a restart");
+        final JWK generated = generator.apply(algorithm);
+        return new Keys(new JWKSet(generated.toPublicJWK()), generated);
+    }
+
+    private Keys read() {
+        final String json = source.get();
+        if (json == null) {
+            return null;
+        }
+
+        final JWKSet set;
+        try {
+            set = JWKSet.parse(json);
+        } catch (ParseException e) {
+            throw new IllegalStateException("invalid jwt key set " + e.getMessage(), e);
+        }
+
+        if (set.isEmpty()) {
+            throw new IllegalStateException("jwt key set is empty");
+        }
+
+        for (final JWK jwk : set.getKeys()) {
+            if (jwk.getKeyID() == null || jwk.getKeyID().isBlank()) {
+                throw new IllegalStateException("every jwt key must have a kid");
+            }
+        }
+
+        final JWK signing = activeKid.isBlank() ? set.getKeys().getFirst() : set.getKeyByKeyId(activeKid);
+
+        if (signing == null) {
+            throw new IllegalStateException("no jwt key with kid " + activeKid);
+        }
+        if (!signing.isPrivate()) {
+            throw new IllegalStateException("jwt key %s has no private key".formatted(signing.getKeyID()));
+        }
+        if (!signs(signing, JWSAlgorithm.parse(algorithm.getName()))) {
+            throw new IllegalStateException("jwt key %s cannot sign %s".formatted(signing.getKeyID(), algorithm));
+        }
+
+        return new Keys(set.toPublicJWKSet(), signing);
+    }
+
+    private static boolean signs(final JWK key, final JWSAlgorithm algorithm) {
+        if (JWSAlgorithm.Family.RSA.contains(algorithm)) {
+            return key instanceof RSAKey;
+        }
+        return key instanceof ECKey ec && Curve.forJWSAlgorithm(algorithm).contains(ec.getCurve());
+    }
+
+}
@@ -1,13 +1,13 @@
 package dev.webserver.jwt;
 
 import dev.webserver.enumeration.RoleEnum;
+import dev.webserver.util.CustomUtil;
 import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jwt.*;
@@ -16,6 +16,7 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static java.time.temporal.ChronoUnit.SECONDS;
@@ -26,7 +27,7 @@ import static java.time.temporal.ChronoUnit.SECONDS;
 @Setter
 public class JwtService {
 
-    private static final Logger log = LoggerFactory.getLogger(JwtService.class.getName());
+    private static final String ATTRIBUTE = JwtService.class.getName() + ".jwt";
 
     @Value(value = "${server.servlet.session.cookie.max-age}")
     private int maxage; // seconds
@@ -34,11 +35,14 @@ public class JwtService {
     private String claim;
     @Value("${spring.application.name}")
     private String application;
+    @Value(value = "${server.servlet.session.cookie.name}")
+    private String jsessionid;
 
     private int boundToSendRefreshToken = 15; // minutes
 
     private final JwtEncoder jwtEncoder;
     private final JwtDecoder jwtDecoder;
+    private final JwtKeyStore keyStore;
 
     /**
      * Generates a jwt token
@@ -62,66 +66,72 @@ public class JwtService {
                 .claim(claim, role)
                 .build();
 
-        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+        // the active key of keyStore only signs its own algorithm
+        JwsHeader header = JwsHeader.with(keyStore.algorithm()).build();
+
+        return jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
     }
 
     /**
-     * Validates if jwt token is valid and it matches chosen role
+     * Returns the verified jwt in the {@code JSESSIONID} cookie of {@code request}. The
+     * cookie is decoded at most once per request, every later call returns the result
+     * stored as a request attribute.
+     *
+     * @return empty if the request has no jwt cookie or the jwt is invalid or expired.
      * */
-    public boolean matchesRole(@NotNull final Cookie cookie, @NotNull final RoleEnum role) {
+    @SuppressWarnings("unchecked")
+    public Optional<Jwt> jwt(@NotNull final HttpServletRequest request) {
+        if (request.getAttribute(ATTRIBUTE) instanceof Optional<?> decoded) {
+            return (Optional<Jwt>) decoded;
+        }
+
+        final Optional<Jwt> decoded = Optional.ofNullable(CustomUtil.cookie(request, jsessionid))
+                .map(Cookie::getValue)
+                .flatMap(this::decode);
+
+        request.setAttribute(ATTRIBUTE, decoded);
+        return decoded;
+    }
+
+    private Optional<Jwt> decode(final String token) {
         try {
-            return jwtDecoder
-                    .decode(cookie.getValue())
-                    .getClaims()
-                    .entrySet()
-                    .stream()
-                    .filter(entry -> claim.equals(entry.getKey()))
-                    .map(Map.Entry::getValue)
-                    .filter(value -> value instanceof List<?>)
-                    .map(value -> (List<?>) value)
-                    .flatMap(List::stream)
-                    .filter(item -> item instanceof String)
-                    .map(item -> (String) item)
-                    .anyMatch(roleName -> roleName.equals(role.name()));
-        } catch (JwtException | NullPointerException e) {
-            return false;
+            return Optional.of(jwtDecoder.decode(token));
+        } catch (JwtException e) {
+            return Optional.empty();
         }
     }
 
     /**
-     * Simply validates if token is expired or not
+     * Validates if jwt matches chosen role
      * */
-    public boolean _isTokenNoneExpired(@NotNull final Cookie cookie) {
-        try {
-            this.jwtDecoder.decode(cookie.getValue());
-            return true;
-        } catch (JwtException ex) {
-            return false;
-        }
+    public boolean matchesRole(@NotNull final Jwt jwt, @NotNull final RoleEnum role) {
+        return jwt.getClaims()
+                .entrySet()
+                .stream()
+                .filter(entry -> claim.equals(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .filter(value -> value instanceof List<?>)
+                .map(value -> (List<?>) value)
+                .flatMap(List::stream)
+                .filter(item -> item instanceof String)
+                .map(item -> (String) item)
+                .anyMatch(roleName -> roleName.equals(role.name()));
     }
 
     /**
      * Returns true if token is within expiration bound
      *
-     * @param cookie of type jakarta.servlet.http.Cookie
+     * @param jwt a verified jwt
      * @return boolean
      * */
-    public boolean refreshTokenNeeded(@NotNull final Cookie cookie) {
-        try {
-            Jwt jwt = jwtDecoder.decode(cookie.getValue()); // throws an error if jwt is not valid
-            var expiresAt = jwt.getExpiresAt();
-            var now = Instant.now();
-            var bound = now.plus(boundToSendRefreshToken, MINUTES);
-            assert expiresAt != null;
-            return expiresAt.isAfter(now) && expiresAt.isBefore(bound);
-        } catch (JwtException | NullPointerException e) {
-            log.error("JWT exception %s, %s".formatted(e.getMessage(), RefreshTokenFilter.class));
+    public boolean refreshTokenNeeded(@NotNull final Jwt jwt) {
+        var expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
             return false;
         }
+        var now = Instant.now();
+        var bound = now.plus(boundToSendRefreshToken, MINUTES);
+        return expiresAt.isAfter(now) && expiresAt.isBefore(bound);
     }
 
-    public String extractSubject(final Cookie cookie) {
-        return jwtDecoder.decode(cookie.getValue()).getSubject();
-    }
-
-}
\ No newline at end of file
+}
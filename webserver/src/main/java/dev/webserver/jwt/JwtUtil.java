@@ -1,6 +1,11 @@
 package dev.webserver.jwt;
 
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
@@ -36,6 +41,27 @@ public record JwtUtil() {
                 .build();
     }
 
+    /**
+     * Generate a com.nimbusds.jose.jwk.JWK at runtime that signs with {@code algorithm}
+     *
+     * @throws IllegalArgumentException if {@code algorithm} is not RS256 or ES256.
+     * */
+    public static JWK GENERATEKEY(final SignatureAlgorithm algorithm) {
+        return switch (algorithm) {
+            case RS256 -> GENERATERSAKEY();
+            case ES256 -> {
+                try {
+                    yield new ECKeyGenerator(Curve.P_256)
+                            .keyID(UUID.randomUUID().toString())
+                            .generate();
+                } catch (JOSEException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            default -> throw new IllegalArgumentException("unsupported jwt algorithm " + algorithm);
+        };
+    }
+
     public static String substringAfter(final String str, final String separator) {
         if (str == null || str.isEmpty()) {
             return str;
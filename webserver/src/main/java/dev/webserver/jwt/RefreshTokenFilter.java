@@ -1,5 +1,6 @@
 package dev.webserver.jwt;
 
+import dev.webserver.util.CustomUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -7,13 +8,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
 
 @Component
 @RequiredArgsConstructor
@@ -27,13 +25,14 @@ public class RefreshTokenFilter extends OncePerRequestFilter {
     private int maxage;
 
     private final JwtService tokenService;
-    private final UserDetailsService userDetailsService;
+    private final TokenRefresher tokenRefresher;
 
     /**
      * The objective of this filter is to replace JSESSIONID if jwt is
      * within expiration time.
      * Note: For each request, there can only be one valid jwt as
-     * logic to validate this is done in AuthService class.
+     * logic to validate this is done in AuthService class. The jwt is decoded
+     * once by {@link JwtService#jwt} and reused by every later consumer.
      * */
     @Override
     protected void doFilterInternal(
@@ -41,25 +40,20 @@ public class RefreshTokenFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain
     ) throws ServletException, IOException {
-        Cookie[] cookies = request.getCookies();
-
         // Base case
-        if (cookies == null || request.getRequestURI().endsWith("logout")) {
+        if (request.getCookies() == null || request.getRequestURI().endsWith("logout")) {
             filterChain.doFilter(request, response);
             return;
         }
 
         // validate refresh token is needed
-        Arrays.stream(cookies)
-                .filter(cookie -> cookie.getName().equals(jsessionid) && tokenService.refreshTokenNeeded(cookie))
-                .findFirst()
-                .ifPresent(cookie -> {
-                    String principal = tokenService.extractSubject(cookie);
-                    var userDetails = userDetailsService.loadUserByUsername(principal);
-
-                    String jwt = tokenService.generateToken(UsernamePasswordAuthenticationToken.authenticated(principal, null, userDetails.getAuthorities()));
+        tokenService.jwt(request)
+                .filter(tokenService::refreshTokenNeeded)
+                .ifPresent(decoded -> {
+                    String jwt = tokenRefresher.refresh(decoded.getSubject());
 
                     // update cookie
+                    Cookie cookie = CustomUtil.cookie(request, jsessionid);
                     cookie.setValue(jwt);
                     cookie.setMaxAge(maxage);
                     cookie.setHttpOnly(true);
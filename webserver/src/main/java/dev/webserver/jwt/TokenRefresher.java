@@ -0,0 +1,194 @@
+package dev.webserver.jwt;
+
+import dev.webserver.util.CacheInvalidationEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.time.temporal.ChronoUnit.MINUTES;
+
+/**
+ * Mints the jwt that replaces one within {@link JwtService#getBoundToSendRefreshToken()}
+ * of expiring.
+ * <p>
+ * The authorities of a principal are cached for {@code jwt.refresh.user-ttl} seconds
+ * so a refresh does not load the user from the db. Concurrent refreshes of the same
+ * principal wait on a single mint, and the minted jwt is handed to every later refresh
+ * of that principal until it is itself due a refresh. A principal therefore gets one
+ * new jwt per refresh window however many requests it sends.
+ * <p>
+ * Both caches are cleared once a change to a user's roles commits.
+ */
+@Component
+public class TokenRefresher {
+
+    public static final String CACHE = "user-details";
+
+    private record Authorities(Collection<? extends GrantedAuthority> authorities, Instant expiresAt) { }
+
+    private record Minted(String token, Instant expiresAt) { }
+
+    private final Map<String, Authorities> authorities = new ConcurrentHashMap<>();
+    private final Map<String, Minted> minted = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Minted>> inflight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final UserDetailsService userDetailsService;
+    private final JwtService jwtService;
+    private final Duration ttl;
+    private final int maxSize;
+    private final Clock clock;
+
+    @Autowired
+    public TokenRefresher(UserDetailsService userDetailsService, JwtService jwtService, Environment env) {
+        this(
+                userDetailsService,
+                jwtService,
+                Duration.ofSeconds(env.getProperty("jwt.refresh.user-ttl", Long.class, 60L)),
+                env.getProperty("jwt.refresh.max-size", Integer.class, 1024),
+                Clock.systemUTC()
+        );
+    }
+
+    TokenRefresher(
+            UserDetailsService userDetailsService,
+            JwtService jwtService,
+            Duration ttl,
+            int maxSize,
+            Clock clock
+    ) {
+        this.userDetailsService = userDetailsService;
+        this.jwtService = jwtService;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a jwt for {@code principal} that is not yet due a refresh, minting one only
+     * if no other request of {@code principal} already did.
+     *
+     * @throws org.springframework.security.core.userdetails.UsernameNotFoundException if
+     * {@code principal} no longer exists.
+     */
+    public String refresh(final String principal) {
+        final Minted current = minted.get(principal);
+        if (current != null && isFresh(current)) {
+            return current.token();
+        }
+
+        final CompletableFuture<Minted> mine = new CompletableFuture<>();
+        final CompletableFuture<Minted> other = inflight.putIfAbsent(principal, mine);
+
+        if (other != null) {
+            try {
+                return other.join().token();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            final Minted next = mint(principal);
+            mine.complete(next);
+            return next.token();
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(principal, mine);
+        }
+    }
+
+    /**
+     * Clears cached authorities and minted jwts once a change to a user's roles commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCacheInvalidation(final CacheInvalidationEvent event) {
+        if (CACHE.equals(event.cache())) {
+            generation.incrementAndGet();
+            authorities.clear();
+            minted.clear();
+        }
+    }
+
+    private Minted mint(final String principal) {
+        final Minted current = minted.get(principal);
+        if (current != null && isFresh(current)) {
+            return current;
+        }
+
+        final long gen = generation.get();
+        final Instant now = clock.instant();
+        final String token = jwtService.generateToken(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities(principal, now, gen))
+        );
+
+        final Minted next = new Minted(token, now.plusSeconds(jwtService.getMaxage()));
+
+        // a jwt minted with roles read before an invalidation is returned but not shared
+        if (gen == generation.get()) {
+            bound(minted, now, Minted::expiresAt);
+            minted.put(principal, next);
+        }
+
+        return next;
+    }
+
+    private Collection<? extends GrantedAuthority> authorities(
+            final String principal,
+            final Instant now,
+            final long gen
+    ) {
+        final Authorities cached = authorities.get(principal);
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            return cached.authorities();
+        }
+
+        final var loaded = List.copyOf(userDetailsService.loadUserByUsername(principal).getAuthorities());
+        if (gen == generation.get()) {
+            bound(authorities, now, Authorities::expiresAt);
+            authorities.put(principal, new Authorities(loaded, now.plus(ttl)));
+        }
+        return loaded;
+    }
+
+    private boolean isFresh(final Minted minted) {
+        return clock.instant()
+                .plus(jwtService.getBoundToSendRefreshToken(), MINUTES)
+                .isBefore(minted.expiresAt());
+    }
+
+    private <T> void bound(
+            final Map<String, T> map,
+            final Instant now,
+            final Function<T, Instant> expiresAt
+    ) {
+        if (map.size() >= maxSize) {
+            map.values().removeIf(value -> !now.isBefore(expiresAt.apply(value)));
+            if (map.size() >= maxSize) {
+                map.clear();
+            }
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package dev.webserver.payment.controller;
 
+import dev.webserver.cart.session.CartSession;
 import dev.webserver.enumeration.SarreCurrency;
 import dev.webserver.payment.response.PaymentResponse;
 import dev.webserver.payment.service.RaceConditionService;
@@ -29,10 +30,10 @@ public class PaymentController {
     public PaymentResponse raceCondition(
             @NotNull @NotEmpty @RequestParam(name = "currency") String currency,
             @NotNull @NotEmpty @RequestParam(name = "country") String country,
-            HttpServletRequest req
+            CartSession session
     ) {
         var sc = SarreCurrency.valueOf(currency.toUpperCase());
-        return this.raceConditionService.raceCondition(req, country, sc);
+        return this.raceConditionService.raceCondition(session, country, sc);
     }
 
     /**
@@ -0,0 +1,64 @@
+package dev.webserver.payment.entity;
+
+import dev.webserver.enumeration.WebhookInboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * A verified Paystack webhook waiting to be, or already, processed. At most one is stored
+ * per reference, so a webhook Paystack retries is stored once.
+ */
+@Table(name = "webhook_inbox",
+        indexes = @Index(
+                name = "IX_webhook_inbox_status_next_attempt_at",
+                columnList = "status, next_attempt_at"
+        )
+)
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class WebhookInbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "inbox_id", nullable = false, unique = true)
+    private Long inboxId;
+
+    @Column(nullable = false, unique = true)
+    private String reference;
+
+    @Column(nullable = false, length = 50)
+    private String event;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String payload;
+
+    @Column(nullable = false, length = 10)
+    @Enumerated(EnumType.STRING)
+    private WebhookInboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "received_at", nullable = false)
+    private Date receivedAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Date nextAttemptAt;
+
+    @Column(name = "processed_at")
+    private Date processedAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+}
@@ -0,0 +1,14 @@
+package dev.webserver.payment.projection;
+
+import dev.webserver.cart.entity.ShoppingSession;
+
+/**
+ * A row of everything needed to checkout a {@link ShoppingSession}, i.e. a cart item,
+ * the inventory of its sku and its price and weight in the currency of the checkout.
+ * A session with an empty cart is a single row where every cart item property is null.
+ */
+public interface CheckoutSnapshotPojo extends RaceConditionCartPojo, TotalPojo {
+
+    ShoppingSession getSession();
+
+}
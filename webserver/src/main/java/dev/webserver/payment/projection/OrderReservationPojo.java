@@ -8,6 +8,7 @@ public interface OrderReservationPojo {
     Integer getReservationQty();
 
     // ProductSku
+    Long getProductSkuId();
     String getProductSkuSku();
 
 }
@@ -0,0 +1,15 @@
+package dev.webserver.payment.projection;
+
+// Spring Data Projection
+public interface SkuInventoryPojo {
+
+    // ProductSku
+    Long getSkuId();
+    String getSku();
+    String getSize();
+    Integer getInventory();
+
+    // Product
+    String getName();
+
+}
@@ -14,6 +14,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -23,84 +24,6 @@ import java.util.List;
 @Repository
 public interface OrderReservationRepo extends JpaRepository<OrderReservation, Long> {
 
-    /**
-     * Updates a {@link ProductSku} by adding to its existing inventory and replaces
-     * the qty of a {@link OrderReservation}.
-     *
-     * @param productSkuQty is the number of type int to be added to a
-     * {@link ProductSku} inventory.
-     * @param reservationQty replaces a {@link OrderReservation} qty.
-     * @param expire replaces the expire_at property of a {@link ShoppingSession}.
-     * @param cookie is a unique string property of {@link ShoppingSession}
-     *               that is unique to every device that visits our application. It
-     *               is needed to find the {@link OrderReservation} and
-     *               {@link ProductSku} associated to the device.
-     * @param sku is a unique string for every {@link ProductSku}. It is needed
-     *            to find the associated {@link ProductSku} to update
-     * @param status is of {@link ReservationStatus} and it always has to be PENDING.
-     * */
-    @Transactional
-    @Modifying(flushAutomatically = true, clearAutomatically = true)
-    @Query(nativeQuery = true, value = """
-    UPDATE product_sku s
-    INNER JOIN order_reservation o ON s.sku_id = o.sku_id
-    INNER JOIN shopping_session sh ON o.session_id = sh.session_id
-    SET
-    s.inventory = (s.inventory - :productSkuQty),
-    o.qty = :reservationQty,
-    o.reference = :reference,
-    o.expire_at = :expire
-    WHERE s.sku = :sku AND sh.cookie = :cookie AND o.status = :#{#status.name()}
-    """)
-    void deductFromProductSkuInventoryAndReplaceReservationQty(
-            int productSkuQty,
-            int reservationQty,
-            String reference,
-            Date expire,
-            String cookie,
-            String sku,
-            @Param(value = "status") ReservationStatus status
-    );
-
-    /**
-     * Updates a {@link ProductSku} by adding to its existing inventory and replaces
-     * the qty of a {@link OrderReservation}.
-     *
-     * @param productSkuQty is the number of type int to be added to a
-     * {@link ProductSku} inventory.
-     * @param reservationQty replaces a {@link OrderReservation} qty.
-     * @param expire replaces the expire_at property of a {@link ShoppingSession}.
-     * @param cookie is a unique string property of {@link ShoppingSession}
-     *               that is unique to every device that visits our application. It
-     *               is needed to find the {@code OrderReservation} and
-     *               {@link ProductSku} associated to the device.
-     * @param sku is a unique string for every {@link ProductSku}. It is needed
-     *            to find the associated {@link ProductSku} to update
-     * @param status is of {@link ReservationStatus} and it always has to be PENDING.
-     * */
-    @Transactional
-    @Modifying(flushAutomatically = true, clearAutomatically = true)
-    @Query(nativeQuery = true, value = """
-    UPDATE product_sku s
-    INNER JOIN order_reservation o ON s.sku_id = o.sku_id
-    INNER JOIN shopping_session sh ON o.session_id = sh.session_id
-    SET
-    s.inventory = (s.inventory + :productSkuQty),
-    o.qty = :reservationQty,
-    o.reference = :reference,
-    o.expire_at = :expire
-    WHERE sh.cookie = :cookie AND s.sku = :sku AND o.status = :#{#status.name()}
-    """)
-    void addToProductSkuInventoryAndReplaceReservationQty(
-            int productSkuQty,
-            int reservationQty,
-            String reference,
-            Date expire,
-            String cookie,
-            String sku,
-            @Param(value = "status") ReservationStatus status
-    );
-
     @Query("""
     SELECT o FROM OrderReservation o
     JOIN FETCH o.productSku
@@ -117,6 +40,7 @@ public interface OrderReservationRepo extends JpaRepository<OrderReservation, Lo
     SELECT
     o.reservationId AS reservationId,
     o.qty AS reservationQty,
+    p.skuId AS productSkuId,
     p.sku AS productSkuSku
     FROM OrderReservation o
     INNER JOIN FETCH ProductSku p ON o.productSku.skuId = p.skuId
@@ -148,19 +72,65 @@ public interface OrderReservationRepo extends JpaRepository<OrderReservation, Lo
     """)
     List<PaymentDetailPojo> allReservationsByReference(String reference);
 
+    /**
+     * Saves multiple {@link OrderReservation} in a single statement.
+     *
+     * @param reference is the unique string shared by every {@link OrderReservation}
+     *                  created during a checkout.
+     * @param status is of {@link ReservationStatus} and it always has to be PENDING.
+     * @param date is when the {@link OrderReservation}s expire.
+     * @param sessionId is the primary key of the {@link ShoppingSession}.
+     * @param json is a json array in the format {@code [{"id":1,"qty":2}]} where
+     *             id is a {@link ProductSku} primary key and qty is the reserved qty.
+     * */
     @Transactional
     @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query(nativeQuery = true, value = """
     INSERT INTO order_reservation(reference, qty, status, expire_at, sku_id, session_id)
-    VALUE (:reference, :qty, :#{#status.name()}, :date, :skuId, :sessionId);
+    SELECT :reference, j.qty, :#{#status.name()}, :date, j.id, :sessionId
+    FROM JSON_TABLE(
+        :json,
+        '$[*]' COLUMNS (id BIGINT PATH '$.id', qty INT PATH '$.qty')
+    ) AS j
     """)
-    void saveOrderReservation(
+    void batchSaveOrderReservation(
             String reference,
-            int qty,
-            ReservationStatus status,
+            @Param(value = "status") ReservationStatus status,
             Date date,
-            long skuId,
-            long sessionId
+            long sessionId,
+            String json
     );
 
+    /**
+     * Replaces the qty, reference and expiration of multiple {@link OrderReservation}
+     * in a single statement.
+     *
+     * @param reference replaces every {@link OrderReservation} reference.
+     * @param expire replaces every {@link OrderReservation} expire_at.
+     * @param json is a json array in the format {@code [{"id":1,"qty":2}]} where
+     *             id is a {@link OrderReservation} primary key and qty replaces its qty.
+     * */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+    UPDATE order_reservation o
+    INNER JOIN JSON_TABLE(
+        :json,
+        '$[*]' COLUMNS (id BIGINT PATH '$.id', qty INT PATH '$.qty')
+    ) AS j ON o.reservation_id = j.id
+    SET
+    o.qty = j.qty,
+    o.reference = :reference,
+    o.expire_at = :expire
+    """)
+    void batchUpdateOrderReservation(String reference, Date expire, String json);
+
+    /**
+     * Deletes all {@link OrderReservation} whose primary key is in {@code ids}.
+     * */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OrderReservation o WHERE o.reservationId IN (:ids)")
+    void deleteOrderReservationsByIds(Collection<Long> ids);
+
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package dev.webserver.payment.repository;
+
+import dev.webserver.enumeration.WebhookInboxStatus;
+import dev.webserver.payment.entity.WebhookInbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WebhookInboxRepo extends JpaRepository<WebhookInbox, Long> {
+
+    /**
+     * Stores a webhook as PENDING unless a webhook with the same {@code reference} is
+     * already stored.
+     *
+     * @return 1 if the webhook was stored, 0 if it is a duplicate.
+     * */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+    INSERT INTO webhook_inbox (reference, event, payload, status, attempts, received_at, next_attempt_at)
+    VALUES (:reference, :event, :payload, 'PENDING', 0, :receivedAt, :receivedAt)
+    ON DUPLICATE KEY UPDATE reference = reference
+    """)
+    int saveWebhookIfAbsent(String reference, String event, String payload, Date receivedAt);
+
+    /**
+     * Locks up to {@code limit} PENDING webhooks due at {@code now}, oldest first. Rows
+     * locked by another node are skipped rather than waited on. Must be called within a
+     * transaction, which holds the locks until it ends.
+     * */
+    @Query(nativeQuery = true, value = """
+    SELECT * FROM webhook_inbox w
+    WHERE w.status = 'PENDING' AND w.next_attempt_at <= :now
+    ORDER BY w.next_attempt_at
+    LIMIT :limit
+    FOR UPDATE SKIP LOCKED
+    """)
+    List<WebhookInbox> dueWebhooks(Date now, int limit);
+
+    /**
+     * Postpones the next attempt of webhooks being processed so no other node claims them
+     * unless processing does not finish by {@code until}.
+     * */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WebhookInbox w SET w.nextAttemptAt = :until WHERE w.inboxId IN (:ids)")
+    int leaseWebhooks(Collection<Long> ids, Date until);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+    UPDATE WebhookInbox w
+    SET w.status = :status, w.processedAt = :processedAt, w.lastError = null
+    WHERE w.inboxId = :id
+    """)
+    int updateWebhookProcessed(long id, Date processedAt, WebhookInboxStatus status);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+    UPDATE WebhookInbox w
+    SET w.status = :status, w.attempts = :attempts, w.nextAttemptAt = :nextAttemptAt, w.lastError = :lastError
+    WHERE w.inboxId = :id
+    """)
+    int updateWebhookAttempt(
+            long id,
+            int attempts,
+            Date nextAttemptAt,
+            WebhookInboxStatus status,
+            String lastError
+    );
+
+    @Query("SELECT MIN(w.receivedAt) FROM WebhookInbox w WHERE w.status = :status")
+    Optional<Date> oldestWebhookReceivedAt(WebhookInboxStatus status);
+
+    @Query("SELECT COUNT(w) FROM WebhookInbox w WHERE w.status = :status")
+    long webhookCountByStatus(WebhookInboxStatus status);
+
+}
@@ -9,7 +9,7 @@ import dev.webserver.payment.dto.PayloadMapper;
 import dev.webserver.payment.entity.OrderDetail;
 import dev.webserver.payment.projection.OrderPojo;
 import dev.webserver.payment.repository.OrderDetailRepository;
-import dev.webserver.util.CustomUtil;
+import dev.webserver.util.AsynchronousTasks;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.slf4j.Logger;
@@ -18,6 +18,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -35,18 +36,18 @@ public class OrderService {
 
     private final OrderDetailRepository repository;
     private final S3Service s3Service;
+    private final AsynchronousTasks asynchronousTasks;
 
     /**
      * Retrieves the order history asynchronously for the currently authenticated user.
      * <p>
      * This method first retrieves a list of transformed {@link OrderDetail}
      * to {@link OrderPojo} from the database based on the authenticated
-     * user's principal, then processes each order to create a list of {@link CompletableFuture} tasks.
-     * Each {@link CompletableFuture} task reads the {@link OrderPojo}
-     * property getDetail, parses it into a {@link PayloadMapper} array, and asynchronously fetches pre-signed
-     * URLs for associated keys from the S3 service. The resulting {@link PayloadMapper} array is then combined
-     * with other order details to form an {@link OrderHistoryDTO} object. Finally, all {@link CompletableFuture}
-     * tasks are executed concurrently to retrieve the order history efficiently.
+     * user's principal, then parses each {@link OrderPojo} property getDetail into a
+     * {@link PayloadMapper} array. Pre-signed URLs for every key across all orders are
+     * fetched from the S3 service concurrently in a single batch of tasks. Each resulting
+     * {@link PayloadMapper} array is then combined with other order details to form an
+     * {@link OrderHistoryDTO} object.
      *
      * @return A {@link CompletableFuture} containing a list of {@link OrderHistoryDTO} objects, representing
      * the order history for the currently authenticated user.
@@ -56,47 +57,55 @@ public class OrderService {
     public CompletableFuture<List<OrderHistoryDTO>> orderHistory() {
         String principal = SecurityContextHolder.getContext().getAuthentication().getName();
 
-        var jobs = repository
-                .orderHistoryByPrincipal(principal)
-                .stream()
-                .map(db -> CompletableFuture.supplyAsync(() -> {
-                    try {
-                        var array = new ObjectMapper()
-                                .readValue(db.getDetail(), PayloadMapper[].class);
-
-                        var supplierList = Arrays.stream(array)
-                                .map(a -> (Supplier<PayloadMapper>) () ->
-                                        new PayloadMapper(a.name(), s3Service.preSignedUrl(BUCKET, a.key()), a.colour())
-                                )
-                                .toList();
-
-                        PayloadMapper[] asyncResponse = CustomUtil
-                                .asynchronousTasks(supplierList, OrderService.class)
-                                .thenApply(v -> v.stream().map(Supplier::get).toArray(PayloadMapper[]::new)) //
-                                .join();
-
-                        return new OrderHistoryDTO(
+        var orders = repository.orderHistoryByPrincipal(principal);
+
+        final ObjectMapper mapper = new ObjectMapper();
+        final List<PayloadMapper[]> payloads = new ArrayList<>(orders.size());
+
+        for (var db : orders) {
+            try {
+                payloads.add(mapper.readValue(db.getDetail(), PayloadMapper[].class));
+            } catch (JsonProcessingException e) {
+                log.error("error retrieving customer %s order history \n %s"
+                        .formatted(principal, e.getMessage()));
+                throw new CustomServerError(
+                        """
+                        An error occurred retrieving your order history.
+                        Please reach out to our customer service.
+                        """
+                );
+            }
+        }
+
+        var futures = payloads.stream()
+                .flatMap(Arrays::stream)
+                .map(a -> (Supplier<PayloadMapper>) () ->
+                        new PayloadMapper(a.name(), s3Service.preSignedUrl(BUCKET, a.key()), a.colour())
+                )
+                .toList();
+
+        return asynchronousTasks.all(futures, OrderService.class)
+                .thenApply(mappers -> {
+                    final List<OrderHistoryDTO> list = new ArrayList<>(orders.size());
+                    int offset = 0;
+
+                    for (int i = 0; i < orders.size(); i++) {
+                        var db = orders.get(i);
+                        int count = payloads.get(i).length;
+
+                        list.add(new OrderHistoryDTO(
                                 db.getTime().getTime(),
                                 db.getCurrency(),
                                 db.getTotal(),
                                 db.getPaymentId(),
-                                asyncResponse
-                        );
-                    } catch (JsonProcessingException e) {
-                        log.error("error retrieving customer %s order history \n %s"
-                                .formatted(principal, e.getMessage()));
-                        throw new CustomServerError(
-                                """
-                                An error occurred retrieving your order history.
-                                Please reach out to our customer service.
-                                """
-                        );
+                                mappers.subList(offset, offset + count).toArray(PayloadMapper[]::new)
+                        ));
+
+                        offset += count;
                     }
-                }))
-                .toList();
 
-        return CustomUtil.asynchronousTasks(jobs, OrderService.class)
-                .thenApply(v -> jobs.stream().map(CompletableFuture::join).toList());
+                    return list;
+                });
     }
 
-}
\ No newline at end of file
+}
@@ -2,7 +2,7 @@ package dev.webserver.payment.service;
 
 import dev.webserver.cart.entity.CartItem;
 import dev.webserver.cart.entity.ShoppingSession;
-import dev.webserver.cart.repository.CartItemRepo;
+import dev.webserver.cart.session.CartSession;
 import dev.webserver.checkout.CheckoutService;
 import dev.webserver.checkout.CustomObject;
 import dev.webserver.enumeration.SarreCurrency;
@@ -11,14 +11,15 @@ import dev.webserver.exception.OutOfStockException;
 import dev.webserver.payment.entity.OrderReservation;
 import dev.webserver.payment.projection.OrderReservationPojo;
 import dev.webserver.payment.projection.RaceConditionCartPojo;
+import dev.webserver.payment.projection.SkuInventoryPojo;
 import dev.webserver.payment.repository.OrderReservationRepo;
 import dev.webserver.payment.response.PaymentResponse;
 import dev.webserver.product.entity.ProductSku;
 import dev.webserver.product.repository.ProductSkuRepo;
+import dev.webserver.product.service.ProductListingService;
 import dev.webserver.shipping.entity.ShipSetting;
 import dev.webserver.external.ThirdPartyPaymentService;
 import dev.webserver.util.CustomUtil;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.slf4j.Logger;
@@ -32,6 +33,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -57,7 +59,7 @@ public class RaceConditionService {
     private long bound;
 
     private final ProductSkuRepo productSkuRepo;
-    private final CartItemRepo cartItemRepo;
+    private final ProductListingService listingService;
     private final OrderReservationRepo reservationRepo;
     private final ThirdPartyPaymentService thirdPartyService;
     private final CheckoutService checkoutService;
@@ -73,23 +75,23 @@ public class RaceConditionService {
      * oversold. The method also generates payment information based on the user's
      * country and selected currency, preparing the response for payment.
      *
-     * @param req The HttpServletRequest passed from the PaymentController.
+     * @param session The {@link CartSession} passed from the PaymentController.
      * @param country The country of the user would like to ship to which corresponds
      *                to {@link ShipSetting}.
      * @param currency The currency selected for the payment, of type SarreCurrency.
      * @return A PaymentResponse containing payment details for the user.
-     * @throws CustomNotFoundException If custom cookie does not contain in {@link HttpServletRequest},
+     * @throws CustomNotFoundException If the request has no cart cookie,
      * the {@link ShoppingSession} is invalid, or {@link CartItem} is empty.
      * @throws OutOfStockException If {@link CartItem} quantity is greater {@link ProductSku} inventory.
      * @throws JpaSystemException if {@link ProductSku} property 'inventory' is negative.
      */
     public PaymentResponse raceCondition(
-            final HttpServletRequest req,
+            final CartSession session,
             final String country,
             final SarreCurrency currency
     ) {
         final CustomObject obj = checkoutService
-                .validateCurrentShoppingSession(req, country.toLowerCase().trim());
+                .validateCurrentShoppingSession(session, country.toLowerCase().trim(), currency);
 
         final var reservations = reservationRepo
                 .allPendingNoneExpiredReservationsAssociatedToShoppingSession(
@@ -107,12 +109,9 @@ public class RaceConditionService {
 
         raceConditionImpl(reference, reservations, obj.cartItems(), toExpire, obj.session());
 
-        final var list = this.cartItemRepo
-                .amountToPayForAllCartItemsForShoppingSession(obj.session().shoppingSessionId(), currency);
-
         final BigDecimal total = CustomUtil
                 .calculateTotal(
-                        CustomUtil.cartItemsTotalAndTotalWeight(list).total(),
+                        CustomUtil.cartItemsTotalAndTotalWeight(obj.cartItems()).total(),
                         obj.tax().rate(),
                         currency.equals(SarreCurrency.USD)
                                 ? obj.ship().usdPrice()
@@ -143,6 +142,9 @@ public class RaceConditionService {
      * of corresponding {@link ProductSku} items. It creates {@link OrderReservation} for
      * the items in the cart to ensure that they are not oversold. If any inconsistency occurs,
      * such as inventory becoming negative, it throws an {@link OutOfStockException}.
+     * <p>
+     * Regardless of the number of items in the user's cart, the inventory is deducted in
+     * one statement and the {@link OrderReservation}s are saved in one statement.
      *
      * @param reservations A list of existing {@code OrderReservations} associated with
      *                     the {@link ShoppingSession}.
@@ -154,39 +156,20 @@ public class RaceConditionService {
     void raceConditionImpl(
             final String reference,
             final List<OrderReservationPojo> reservations,
-            final List<RaceConditionCartPojo> carts,
+            final List<? extends RaceConditionCartPojo> carts,
             final Date toExpire,
             final ShoppingSession session
     ) {
         try {
-            if (reservations.isEmpty()) {
-                for (var cart : carts) {
-                    onCartItemQtyGreaterThanProductSkuInventory(cart);
-
-                    this.productSkuRepo.updateProductSkuInventoryBySubtractingFromExistingInventory(
-                            cart.getProductSkuSku(),
-                            cart.getCartItemQty()
-                    );
-                    reservationRepo.saveOrderReservation(
-                            reference,
-                            cart.getCartItemQty(),
-                            PENDING,
-                            toExpire,
-                            cart.getProductSkuId(),
-                            cart.getShoppingSessionId()
-                    );
-                }
-            } else {
-                final Map<String, OrderReservationPojo> map = reservations.stream()
-                        .collect(Collectors.toMap(OrderReservationPojo::getProductSkuSku, pojo -> pojo));
-                onPendingReservationsNotEmpty(
-                        reference,
-                        session,
-                        toExpire,
-                        map,
-                        carts
-                );
-            }
+            final Map<String, OrderReservationPojo> map = reservations.stream()
+                    .collect(Collectors.toMap(OrderReservationPojo::getProductSkuSku, pojo -> pojo));
+            onPendingReservationsNotEmpty(
+                    reference,
+                    session,
+                    toExpire,
+                    map,
+                    carts
+            );
         } catch (OutOfStockException e) {
             log.error(e.getMessage());
             throw new OutOfStockException(e.getMessage());
@@ -196,28 +179,20 @@ public class RaceConditionService {
         }
     }
 
-    private void onCartItemQtyGreaterThanProductSkuInventory(final RaceConditionCartPojo cart) {
-        if (cart.getCartItemQty() > cart.getProductSkuInventory()) {
-            final var optional = productSkuRepo
-                    .productByProductSku(cart.getProductSkuSku());
-
-            final String name = optional.isPresent() ? optional.get().getName() : "";
-
-            throw new OutOfStockException("%s %s is out of stock"
-                    .formatted(name, cart.getProductSkuSize()));
-        }
-    }
-
     /**
      * Handles scenarios when pending reservations exist for items in the user's cart.
      * <p>
      * This method serves as the last line of defense against race conditions
      * or overselling by updating existing reservations and ensuring consistency
-     * between cart items and order reservations. It applies the logic of
-     * adjusting inventory quantities and replacing reservation quantities based
-     * on the current state of the cart items and existing reservations.
+     * between cart items and order reservations. It computes, for every
+     * {@link ProductSku}, the difference between the qty in the user's cart and
+     * the qty already reserved. The associated {@link ProductSku}s are locked and
+     * validated in one query before the inventory difference is applied in one
+     * statement. New, updated and removed {@link OrderReservation}s are each
+     * written in one statement.
      *
-     * @param reference a unique property for
+     * @param reference a unique property for every {@link OrderReservation} created
+     *                  or updated during a checkout.
      * @param session The {@link ShoppingSession} associated with the user's
      *                device.
      * @param toExpire The expiration date for the reservations.
@@ -226,7 +201,8 @@ public class RaceConditionService {
      * @param cartItems A list of {@link CartItem} representing items in the
      *                  user's cart.
      * @throws OutOfStockException if {@link CartItem} property qty is greater
-     * than {@code ProductSku} property inventory.
+     * than {@code ProductSku} property inventory. The message contains every
+     * {@link ProductSku} that is out of stock.
      * @throws JpaSystemException if {@link ProductSku} property 'inventory' is negative.
      * */
     void onPendingReservationsNotEmpty(
@@ -234,62 +210,110 @@ public class RaceConditionService {
             final ShoppingSession session,
             final Date toExpire,
             final Map<String, OrderReservationPojo> reservations,
-            final List<RaceConditionCartPojo> cartItems
+            final List<? extends RaceConditionCartPojo> cartItems
     ) {
+        // ProductSku id to qty to deduct from inventory. A negative qty is added back.
+        final Map<Long, Integer> inventory = new LinkedHashMap<>();
+        // ProductSku id to qty of OrderReservations to create.
+        final Map<Long, Integer> create = new LinkedHashMap<>();
+        // OrderReservation id to qty of OrderReservations to update.
+        final Map<Long, Integer> update = new LinkedHashMap<>();
+
         for (var cart : cartItems) {
-            onCartItemQtyGreaterThanProductSkuInventory(cart);
-
-            if (reservations.containsKey(cart.getProductSkuSku())) {
-                final OrderReservationPojo reservation = reservations.get(cart.getProductSkuSku());
-
-                if (cart.getCartItemQty() > reservation.getReservationQty()) {
-                    this.reservationRepo
-                            .deductFromProductSkuInventoryAndReplaceReservationQty(
-                                    cart.getCartItemQty() - reservation.getReservationQty(),
-                                    cart.getCartItemQty(),
-                                    reference,
-                                    toExpire,
-                                    session.cookie(),
-                                    cart.getProductSkuSku(),
-                                    PENDING
-                            );
-                } else if (cart.getCartItemQty() < reservation.getReservationQty()) {
-                    this.reservationRepo
-                            .addToProductSkuInventoryAndReplaceReservationQty(
-                                    reservation.getReservationQty() - cart.getCartItemQty(),
-                                    cart.getCartItemQty(),
-                                    reference,
-                                    toExpire,
-                                    session.cookie(),
-                                    cart.getProductSkuSku(),
-                                    PENDING
-                            );
-                }
+            final OrderReservationPojo reservation = reservations.remove(cart.getProductSkuSku());
 
-                reservations.remove(cart.getProductSkuSku());
+            if (reservation == null) {
+                inventory.merge(cart.getProductSkuId(), cart.getCartItemQty(), Integer::sum);
+                create.merge(cart.getProductSkuId(), cart.getCartItemQty(), Integer::sum);
             } else {
-                this.productSkuRepo.updateProductSkuInventoryBySubtractingFromExistingInventory(
-                        cart.getProductSkuSku(),
-                        cart.getCartItemQty()
-                );
-                reservationRepo.saveOrderReservation(
-                        reference,
-                        cart.getCartItemQty(),
-                        PENDING,
-                        toExpire,
-                        cart.getProductSkuId(),
-                        cart.getShoppingSessionId()
-                );
+                final int difference = cart.getCartItemQty() - reservation.getReservationQty();
+                if (difference != 0) {
+                    inventory.merge(cart.getProductSkuId(), difference, Integer::sum);
+                }
+                update.put(reservation.getReservationId(), cart.getCartItemQty());
             }
         }
 
-        for (final Map.Entry<String, OrderReservationPojo> entry : reservations.entrySet()) {
-            final OrderReservationPojo reservation = entry.getValue();
-            this.productSkuRepo.updateProductSkuInventoryByAddingToExistingInventory(
-                    reservation.getProductSkuSku(),
-                    reservation.getReservationQty()
+        // items no longer in the user's cart
+        for (final OrderReservationPojo reservation : reservations.values()) {
+            inventory.merge(reservation.getProductSkuId(), -reservation.getReservationQty(), Integer::sum);
+        }
+
+        inventory.values().removeIf(qty -> qty == 0);
+
+        if (!inventory.isEmpty()) {
+            onCartItemQtyGreaterThanProductSkuInventory(inventory);
+
+            final int updated = productSkuRepo
+                    .batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(
+                            CustomUtil.toJsonArray(inventory));
+
+            if (updated != inventory.size()) {
+                throw new OutOfStockException("an item in your cart is out of stock");
+            }
+
+            listingService.refreshStock(inventory.keySet());
+        }
+
+        if (!update.isEmpty()) {
+            reservationRepo.batchUpdateOrderReservation(reference, toExpire, CustomUtil.toJsonArray(update));
+        }
+
+        if (!create.isEmpty()) {
+            reservationRepo.batchSaveOrderReservation(
+                    reference,
+                    PENDING,
+                    toExpire,
+                    session.shoppingSessionId(),
+                    CustomUtil.toJsonArray(create)
             );
-            this.reservationRepo.deleteById(reservation.getReservationId());
+        }
+
+        if (!reservations.isEmpty()) {
+            reservationRepo.deleteOrderReservationsByIds(
+                    reservations.values().stream().map(OrderReservationPojo::getReservationId).toList());
+        }
+    }
+
+    /**
+     * Locks every {@link ProductSku} in {@code inventory} and validates there is
+     * enough inventory for the qty to be deducted.
+     *
+     * @param inventory {@link ProductSku} id to the qty to be deducted.
+     * @throws OutOfStockException listing every {@link ProductSku} with insufficient
+     * inventory.
+     * */
+    private void onCartItemQtyGreaterThanProductSkuInventory(final Map<Long, Integer> inventory) {
+        // qty added back to the inventory cannot be out of stock
+        final List<Long> deduct = inventory.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        if (deduct.isEmpty()) {
+            return;
+        }
+
+        final Map<Long, SkuInventoryPojo> locked = productSkuRepo
+                .lockProductSkusBySkuIds(deduct)
+                .stream()
+                .collect(Collectors.toMap(SkuInventoryPojo::getSkuId, pojo -> pojo));
+
+        final List<String> outOfStock = inventory.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .filter(entry -> !locked.containsKey(entry.getKey())
+                        || entry.getValue() > locked.get(entry.getKey()).getInventory())
+                .map(entry -> {
+                    final SkuInventoryPojo pojo = locked.get(entry.getKey());
+                    return pojo == null
+                            ? "an item in your cart"
+                            : "%s %s".formatted(pojo.getName(), pojo.getSize());
+                })
+                .toList();
+
+        if (!outOfStock.isEmpty()) {
+            throw new OutOfStockException("%s %s out of stock"
+                    .formatted(String.join(", ", outOfStock), outOfStock.size() == 1 ? "is" : "are"));
         }
     }
 
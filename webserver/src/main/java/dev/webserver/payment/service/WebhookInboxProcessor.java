@@ -0,0 +1,249 @@
+package dev.webserver.payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.webserver.enumeration.WebhookInboxStatus;
+import dev.webserver.exception.CustomServerError;
+import dev.webserver.external.log.ILogEventPublisher;
+import dev.webserver.payment.entity.WebhookInbox;
+import dev.webserver.payment.repository.WebhookInboxRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the purchases of webhooks stored by {@link WebhookService}.
+ * <p>
+ * Every {@code paystack.webhook.inbox.poll-interval} seconds, due webhooks are claimed in
+ * batches of {@code paystack.webhook.inbox.batch-size}. A claim locks the rows with
+ * {@code SKIP LOCKED} and leases them for {@code paystack.webhook.inbox.lease} seconds,
+ * so concurrent nodes claim different webhooks and a node that dies mid-batch only delays
+ * its webhooks until the lease runs out. Each webhook is processed in its own transaction
+ * that records the purchase and marks the webhook PROCESSED, so a purchase is recorded
+ * once even if processing is repeated. A purchase already recorded by {@code CronJob} is
+ * not recorded again.
+ * <p>
+ * A webhook that fails is retried after {@code paystack.webhook.inbox.backoff} seconds,
+ * doubled on every attempt up to an hour. After {@code paystack.webhook.inbox.max-attempts}
+ * attempts it is marked FAILED and logged as an error.
+ */
+@Component
+public class WebhookInboxProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookInboxProcessor.class);
+
+    static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final WebhookInboxRepo inboxRepo;
+    private final PaymentDetailService paymentDetailService;
+    private final ILogEventPublisher publisher;
+    private final TransactionTemplate template;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration lease;
+    private final Clock clock;
+
+    private final Counter processed;
+    private final Counter retried;
+    private final Counter failed;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lag = new AtomicLong();
+
+    @Autowired
+    public WebhookInboxProcessor(
+            WebhookInboxRepo inboxRepo,
+            PaymentDetailService paymentDetailService,
+            ILogEventPublisher publisher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry,
+            Environment env
+    ) {
+        this(
+                inboxRepo,
+                paymentDetailService,
+                publisher,
+                transactionManager,
+                registry,
+                env.getProperty("paystack.webhook.inbox.batch-size", Integer.class, 50),
+                env.getProperty("paystack.webhook.inbox.max-attempts", Integer.class, 10),
+                Duration.ofSeconds(env.getProperty("paystack.webhook.inbox.backoff", Long.class, 30L)),
+                Duration.ofSeconds(env.getProperty("paystack.webhook.inbox.lease", Long.class, 300L)),
+                Clock.systemUTC()
+        );
+    }
+
+    WebhookInboxProcessor(
+            WebhookInboxRepo inboxRepo,
+            PaymentDetailService paymentDetailService,
+            ILogEventPublisher publisher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry registry,
+            int batchSize,
+            int maxAttempts,
+            Duration backoff,
+            Duration lease,
+            Clock clock
+    ) {
+        this.inboxRepo = inboxRepo;
+        this.paymentDetailService = paymentDetailService;
+        this.publisher = publisher;
+        this.template = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.lease = lease;
+        this.clock = clock;
+
+        this.processed = Counter.builder("payment.webhook.inbox.processed")
+                .description("webhooks whose purchase was recorded")
+                .register(registry);
+        this.retried = Counter.builder("payment.webhook.inbox.retried")
+                .description("webhooks that failed and will be retried")
+                .register(registry);
+        this.failed = Counter.builder("payment.webhook.inbox.failed")
+                .description("webhooks that exhausted their attempts")
+                .register(registry);
+        Gauge.builder("payment.webhook.inbox.pending", pending, AtomicLong::get)
+                .description("webhooks waiting to be processed as of the last poll")
+                .register(registry);
+        Gauge.builder("payment.webhook.inbox.lag", lag, AtomicLong::get)
+                .description("seconds the oldest pending webhook has waited as of the last poll")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Processes every due webhook, then records the backlog that is left.
+     */
+    @Scheduled(
+            initialDelayString = "${paystack.webhook.inbox.poll-interval:2}",
+            fixedDelayString = "${paystack.webhook.inbox.poll-interval:2}",
+            timeUnit = TimeUnit.SECONDS
+    )
+    public void drain() {
+        List<WebhookInbox> batch;
+        do {
+            batch = claim();
+            batch.forEach(this::process);
+        } while (batch.size() >= batchSize);
+
+        final Instant now = clock.instant();
+        pending.set(inboxRepo.webhookCountByStatus(WebhookInboxStatus.PENDING));
+        lag.set(inboxRepo.oldestWebhookReceivedAt(WebhookInboxStatus.PENDING)
+                .map(receivedAt -> Math.max(0, Duration.between(receivedAt.toInstant(), now).toSeconds()))
+                .orElse(0L));
+    }
+
+    private List<WebhookInbox> claim() {
+        final Instant now = clock.instant();
+        return template.execute(status -> {
+            final List<WebhookInbox> due = inboxRepo.dueWebhooks(Date.from(now), batchSize);
+            if (!due.isEmpty()) {
+                inboxRepo.leaseWebhooks(due.stream().map(WebhookInbox::getInboxId).toList(), Date.from(now.plus(lease)));
+            }
+            return due;
+        });
+    }
+
+    /**
+     * Records the purchase of {@code inbox} and marks it PROCESSED in one transaction. A
+     * notification of the purchase is published after the transaction commits.
+     */
+    void process(final WebhookInbox inbox) {
+        final JsonNode metadata;
+        try {
+            metadata = template.execute(status -> {
+                final JsonNode data = data(inbox);
+                final JsonNode meta = data.get("metadata");
+                final boolean recorded = paymentDetailService
+                        .paymentDetailExists(meta.get("email").asText(), inbox.getReference());
+
+                if (!recorded) {
+                    paymentDetailService.onSuccessfulPayment(data);
+                }
+
+                inboxRepo.updateWebhookProcessed(
+                        inbox.getInboxId(),
+                        Date.from(clock.instant()),
+                        WebhookInboxStatus.PROCESSED
+                );
+                return recorded ? null : meta;
+            });
+        } catch (RuntimeException e) {
+            retry(inbox, e);
+            return;
+        }
+
+        processed.increment();
+        if (metadata != null) {
+            publisher.publishPurchase(metadata.get("name").asText(), metadata.get("email").asText());
+        }
+    }
+
+    private void retry(final WebhookInbox inbox, final RuntimeException cause) {
+        final int attempts = inbox.getAttempts() + 1;
+        final String error = cause.getMessage() == null ? cause.getClass().getSimpleName() : cause.getMessage();
+
+        final WebhookInboxStatus status;
+        if (attempts >= maxAttempts) {
+            status = WebhookInboxStatus.FAILED;
+            failed.increment();
+            log.error("webhook {} failed after {} attempts {}", inbox.getReference(), attempts, error);
+        } else {
+            status = WebhookInboxStatus.PENDING;
+            retried.increment();
+            log.warn("webhook {} failed attempt {} {}", inbox.getReference(), attempts, error);
+        }
+
+        try {
+            inboxRepo.updateWebhookAttempt(
+                    inbox.getInboxId(),
+                    attempts,
+                    Date.from(clock.instant().plus(backoff(attempts))),
+                    status,
+                    error.length() > 255 ? error.substring(0, 255) : error
+            );
+        } catch (RuntimeException e) {
+            // retried once the lease runs out
+            log.error("error recording attempt of webhook {} {}", inbox.getReference(), e.getMessage());
+        }
+    }
+
+    /**
+     * Delay before the attempt after {@code attempts} failed ones.
+     */
+    Duration backoff(final int attempts) {
+        final int shift = Math.min(attempts - 1, 30);
+        final Duration delay = backoff.multipliedBy(1L << shift);
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private static JsonNode data(final WebhookInbox inbox) {
+        try {
+            return mapper.readTree(inbox.getPayload()).get("data");
+        } catch (JsonProcessingException e) {
+            throw new CustomServerError("invalid webhook payload " + e.getOriginalMessage());
+        }
+    }
+
+}
@@ -2,9 +2,10 @@ package dev.webserver.payment.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import dev.webserver.exception.CustomServerError;
-import dev.webserver.external.log.ILogEventPublisher;
+import dev.webserver.payment.repository.WebhookInboxRepo;
 import dev.webserver.payment.util.WebHookUtil;
 import dev.webserver.payment.util.WebhookConstruct;
+import dev.webserver.util.CustomUtil;
 import dev.webserver.external.ThirdPartyPaymentService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Date;
 
 @Service
 @RequiredArgsConstructor
@@ -25,11 +27,12 @@ public class WebhookService {
     private static final Logger log = LoggerFactory.getLogger(WebhookService.class);
 
     private final ThirdPartyPaymentService thirdPartyService;
-    private final PaymentDetailService paymentDetailService;
-    private final ILogEventPublisher publisher;
+    private final WebhookInboxRepo inboxRepo;
 
     /**
-     * Processes a payment received via webhook from Paystack.
+     * Verifies a payment received via webhook from Paystack and stores it in the inbox to
+     * be processed by {@link WebhookInboxProcessor}, so Paystack is acknowledged without
+     * waiting on the purchase to be recorded. A webhook Paystack retries is stored once.
      * Reference <a href="https://paystack.com/docs/payments/webhooks/">documentation</a>
      *
      * @param req the {@link HttpServletRequest} containing the webhook data.
@@ -41,22 +44,34 @@ public class WebhookService {
             log.info("webhook received");
             String body = WebHookUtil.httpServletRequestToString(req);
 
-            WebhookConstruct pair = WebHookUtil
-                    .validateRequestFromPayStack(thirdPartyService.payStackCredentials().secretKey(), body);
+            final String signature = req.getHeader("x-paystack-signature");
+            final String secretKey = thirdPartyService.payStackCredentials().secretKey();
 
-            if (!pair.validate().toLowerCase().equals(req.getHeader("x-paystack-signature"))) {
-                log.error("invalid request from paystack");
-                throw new CustomServerError("invalid webhook from paystack");
+            WebhookConstruct pair = WebHookUtil.validateRequestFromPayStack(secretKey, body);
+
+            if (!pair.validate().toLowerCase().equals(signature)) {
+                // secret key might have been rotated since it was cached
+                final String refreshed = thirdPartyService.refreshPayStackCredentials().secretKey();
+
+                if (!refreshed.equals(secretKey)) {
+                    pair = WebHookUtil.validateRequestFromPayStack(refreshed, body);
+                }
+
+                if (!pair.validate().toLowerCase().equals(signature)) {
+                    log.error("invalid request from paystack");
+                    throw new CustomServerError("invalid webhook from paystack");
+                }
             }
 
             JsonNode data = pair.node().get("data");
-            if (pair.node().get("event").textValue().equals("charge.success")
-                    && data.get("status").textValue().equals("success")
-            ) {
-                onSuccessWebHook(data);
-                JsonNode metadata = data.get("metadata");
-                publisher.publishPurchase(metadata.get("name").asText(), metadata.get("email").asText());
-                log.info("successfully performed business logic on successful webhook request.");
+            String event = pair.node().get("event").textValue();
+            if (event.equals("charge.success") && data.get("status").textValue().equals("success")) {
+                String reference = data.get("reference").textValue();
+                if (inboxRepo.saveWebhookIfAbsent(reference, event, body, CustomUtil.toUTC(new Date())) == 0) {
+                    log.info("duplicate webhook for reference {}", reference);
+                } else {
+                    log.info("webhook stored for reference {}", reference);
+                }
             } else {
                 log.info("failed payment");
             }
@@ -72,14 +87,4 @@ public class WebhookService {
         }
     }
 
-    /**
-     * Processes the webhook data when a payment is successful.
-     *
-     * @param data contains details of a successful payment.
-     * @throws CustomServerError if there is an error occurs transforming data to a custom object.
-     */
-    void onSuccessWebHook(JsonNode data) {
-        paymentDetailService.onSuccessfulPayment(data);
-    }
-
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package dev.webserver.product.controller;
 
 import dev.webserver.enumeration.SarreCurrency;
 import dev.webserver.product.response.DetailResponse;
+import dev.webserver.product.response.ProductCursorResponse;
 import dev.webserver.product.response.ProductResponse;
 import dev.webserver.product.service.ClientProductService;
 import jakarta.validation.constraints.NotNull;
@@ -33,6 +34,18 @@ public class ClientProductController {
         return this.service.allProductsByCurrency(sc, page, Math.min(size, 20));
     }
 
+    @ResponseStatus(OK)
+    @GetMapping(path = "/cursor", produces = APPLICATION_JSON_VALUE)
+    public CompletableFuture<ProductCursorResponse> allProductsByCursor(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") Integer size,
+            @RequestParam(name = "currency", defaultValue = "ngn") String currency,
+            @RequestParam(name = "slice", defaultValue = "false") Boolean slice
+    ) {
+        var sc = SarreCurrency.valueOf(currency.toUpperCase());
+        return this.service.allProductsByCurrency(sc, cursor, Math.max(1, Math.min(size, 20)), slice);
+    }
+
     @ResponseStatus(OK)
     @GetMapping(path = "/find", produces = APPLICATION_JSON_VALUE)
     public CompletableFuture<Page<ProductResponse>> search(
@@ -0,0 +1,87 @@
+package dev.webserver.product.entity;
+
+import dev.webserver.enumeration.SarreCurrency;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Read model of a {@link Product} in one currency as listed on the storefront. Rows are
+ * never written through Hibernate; they are re-computed from {@link Product},
+ * {@link PriceCurrency}, {@link ProductDetail}, {@link ProductSku} and the category tree
+ * whenever one of them changes, so a listing reads a single table.
+ * <p>
+ * The products below a category are found by joining {@code categoryId} with the
+ * category's descendants in {@code category_closure}. {@code inStock} is true if a
+ * visible {@link ProductDetail} has a {@link ProductSku} with inventory.
+ */
+@Table(name = "product_listing",
+        indexes = {
+                @Index(
+                        name = "IX_product_listing_currency_stock_visible_product",
+                        columnList = "currency, in_stock, is_visible, product_id"
+                ),
+                @Index(
+                        name = "IX_product_listing_category_currency_stock_product",
+                        columnList = "category_id, currency, in_stock, product_id"
+                )
+        }
+)
+@Entity
+@Immutable
+@IdClass(ProductListing.Key.class)
+@NoArgsConstructor
+@Getter
+public class ProductListing {
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Id
+    @Enumerated(value = EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private SarreCurrency currency;
+
+    @Column(length = 36, nullable = false)
+    private String uuid;
+
+    @Column(length = 50, nullable = false)
+    private String name;
+
+    @Column(length = 1000, nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 20, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "image_key", nullable = false)
+    private String imageKey;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(length = 50, nullable = false)
+    private String category;
+
+    @Column(name = "is_visible", nullable = false)
+    private boolean isVisible;
+
+    @Column(name = "in_stock", nullable = false)
+    private boolean inStock;
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long productId;
+        private SarreCurrency currency;
+    }
+
+}
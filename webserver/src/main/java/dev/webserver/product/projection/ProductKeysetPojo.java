@@ -0,0 +1,13 @@
+package dev.webserver.product.projection;
+
+import dev.webserver.product.entity.Product;
+
+/**
+ * Using Spring Data Projection, {@link ProductKeysetPojo}
+ * maps a {@link Product} of a keyset paginated listing
+ * along with its primary key, which the next slice
+ * continues after.
+ * */
+public interface ProductKeysetPojo extends ProductPojo {
+    Long getId();
+}
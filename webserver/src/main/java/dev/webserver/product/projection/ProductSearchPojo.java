@@ -0,0 +1,21 @@
+package dev.webserver.product.projection;
+
+import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.product.entity.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Using Spring Data Projection, {@link ProductSearchPojo}
+ * maps a {@link Product} and one of its prices as indexed
+ * for search.
+ * */
+public interface ProductSearchPojo {
+    String getUuid();
+    String getName();
+    String getImage();
+    String getCategory();
+    SarreCurrency getCurrency();
+    BigDecimal getPrice();
+    Integer getInventory(); // highest inventory of any sku
+}
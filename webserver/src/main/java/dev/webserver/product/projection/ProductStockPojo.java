@@ -0,0 +1,13 @@
+package dev.webserver.product.projection;
+
+import dev.webserver.product.entity.Product;
+
+/**
+ * Using Spring Data Projection, {@link ProductStockPojo}
+ * maps a {@link Product} uuid to the highest inventory of
+ * any of its skus.
+ * */
+public interface ProductStockPojo {
+    String getUuid();
+    Integer getInventory(); // highest inventory of any sku
+}
@@ -0,0 +1,243 @@
+package dev.webserver.product.repository;
+
+import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.product.entity.Product;
+import dev.webserver.product.entity.ProductListing;
+import dev.webserver.product.entity.ProductSku;
+import dev.webserver.product.projection.ProductKeysetPojo;
+import dev.webserver.product.projection.ProductPojo;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * contains native query
+ * */
+@Repository
+public interface ProductListingRepo extends JpaRepository<ProductListing, ProductListing.Key> {
+
+    /**
+     * Computes the {@link ProductListing} rows of {@link Product}s from the source tables.
+     * A query appends its own WHERE clause.
+     * */
+    String LISTING = """
+    INSERT INTO product_listing
+    (product_id, currency, uuid, name, description, price, image_key, category_id, category, is_visible, in_stock)
+    SELECT
+    p.product_id,
+    pr.currency,
+    p.uuid,
+    p.name,
+    COALESCE(p.description, ''),
+    pr.price,
+    p.default_image_key,
+    cat.category_id,
+    cat.name,
+    COALESCE(cat.is_visible, FALSE),
+    EXISTS (
+        SELECT 1
+        FROM product_detail d
+        INNER JOIN product_sku s ON d.detail_id = s.detail_id
+        WHERE d.product_id = p.product_id AND d.is_visible = TRUE AND s.inventory > 0
+    )
+    FROM product p
+    INNER JOIN product_category cat ON p.category_id = cat.category_id
+    INNER JOIN price_currency pr ON p.product_id = pr.product_id
+    """;
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+    DELETE l FROM product_listing l
+    INNER JOIN product p ON l.product_id = p.product_id
+    WHERE p.uuid = :uuid
+    """)
+    void deleteListingsByProductUuid(@Param(value = "uuid") String uuid);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = LISTING + "WHERE p.uuid = :uuid")
+    void saveListingsByProductUuid(@Param(value = "uuid") String uuid);
+
+    /**
+     * Deletes the {@link ProductListing}s of the category with {@code categoryId} and of
+     * its descendants, leaving every other row unlocked.
+     * */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+    DELETE FROM product_listing
+    WHERE category_id IN (SELECT cc.descendant_id FROM category_closure cc WHERE cc.ancestor_id = :categoryId)
+    """)
+    void deleteListingsByCategoryId(@Param(value = "categoryId") long categoryId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = LISTING + """
+    WHERE cat.category_id IN (SELECT cc.descendant_id FROM category_closure cc WHERE cc.ancestor_id = :categoryId)
+    """)
+    void saveListingsByCategoryId(@Param(value = "categoryId") long categoryId);
+
+    /**
+     * Re-computes the in stock flag of the {@link Product}s of the {@link ProductSku}s
+     * whose primary key is in {@code ids}. Only rows whose flag changes are written.
+     *
+     * @param ids primary keys of {@link ProductSku}.
+     * @return the number of {@link ProductListing} rows updated.
+     * */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+    UPDATE product_listing l
+    INNER JOIN (
+        SELECT
+        d.product_id AS product_id,
+        EXISTS (
+            SELECT 1
+            FROM product_detail vd
+            INNER JOIN product_sku vs ON vd.detail_id = vs.detail_id
+            WHERE vd.product_id = d.product_id AND vd.is_visible = TRUE AND vs.inventory > 0
+        ) AS in_stock
+        FROM product_sku s
+        INNER JOIN product_detail d ON s.detail_id = d.detail_id
+        WHERE s.sku_id IN (:ids)
+        GROUP BY d.product_id
+    ) AS x ON l.product_id = x.product_id
+    SET l.in_stock = x.in_stock
+    WHERE l.in_stock <> x.in_stock
+    """)
+    int updateListingStockBySkuIds(@Param(value = "ids") Collection<Long> ids);
+
+    /**
+     * Returns a {@link Page} of in stock {@link Product}s of visible categories.
+     * */
+    @Query(nativeQuery = true, value = """
+    SELECT
+    l.uuid AS uuid,
+    l.name AS name,
+    l.description AS description,
+    l.currency AS currency,
+    l.price AS price,
+    l.image_key AS image,
+    l.category AS category
+    FROM product_listing l
+    WHERE l.currency = :#{#currency.name()} AND l.in_stock = TRUE AND l.is_visible = TRUE
+    ORDER BY l.product_id
+    """, countQuery = """
+    SELECT COUNT(*)
+    FROM product_listing l
+    WHERE l.currency = :#{#currency.name()} AND l.in_stock = TRUE AND l.is_visible = TRUE
+    """)
+    Page<ProductPojo> listingsByCurrency(@Param(value = "currency") SarreCurrency currency, Pageable page);
+
+    /**
+     * Keyset paginated equivalent of {@link #listingsByCurrency(SarreCurrency, Pageable)}.
+     * Returns at most {@code limit} {@link Product}s whose primary key is greater than
+     * {@code after}, in primary key order.
+     * */
+    @Query(nativeQuery = true, value = """
+    SELECT
+    l.product_id AS id,
+    l.uuid AS uuid,
+    l.name AS name,
+    l.description AS description,
+    l.currency AS currency,
+    l.price AS price,
+    l.image_key AS image,
+    l.category AS category
+    FROM product_listing l
+    WHERE l.currency = :#{#currency.name()} AND l.in_stock = TRUE AND l.is_visible = TRUE
+    AND l.product_id > :after
+    ORDER BY l.product_id
+    LIMIT :limit
+    """)
+    List<ProductKeysetPojo> listingsByCurrencyAfter(
+            @Param(value = "currency") SarreCurrency currency,
+            @Param(value = "after") long after,
+            @Param(value = "limit") int limit
+    );
+
+    @Query(nativeQuery = true, value = """
+    SELECT COUNT(*)
+    FROM product_listing l
+    WHERE l.currency = :#{#currency.name()} AND l.in_stock = TRUE AND l.is_visible = TRUE
+    """)
+    long countListingsByCurrency(@Param(value = "currency") SarreCurrency currency);
+
+    /**
+     * Returns a {@link Page} of in stock {@link Product}s of the category with
+     * {@code categoryId} and of its descendants, found in one indexed join through
+     * {@code category_closure} however deep the category tree is. Only categories saved
+     * through {@code WorkerCategoryService} have {@code category_closure} rows.
+     * */
+    @Query(nativeQuery = true, value = """
+    SELECT
+    l.uuid AS uuid,
+    l.name AS name,
+    l.description AS description,
+    l.image_key AS image,
+    l.currency AS currency,
+    l.price AS price
+    FROM category_closure cc
+    INNER JOIN product_listing l ON cc.descendant_id = l.category_id
+    WHERE cc.ancestor_id = :categoryId AND l.currency = :#{#currency.name()} AND l.in_stock = TRUE
+    ORDER BY l.product_id
+    """, countQuery = """
+    SELECT COUNT(*)
+    FROM category_closure cc
+    INNER JOIN product_listing l ON cc.descendant_id = l.category_id
+    WHERE cc.ancestor_id = :categoryId AND l.currency = :#{#currency.name()} AND l.in_stock = TRUE
+    """)
+    Page<ProductPojo> listingsByCategoryId(
+            @Param(value = "categoryId") long categoryId,
+            @Param(value = "currency") SarreCurrency currency,
+            Pageable page
+    );
+
+    /**
+     * Keyset paginated equivalent of
+     * {@link #listingsByCategoryId(long, SarreCurrency, Pageable)}.
+     * */
+    @Query(nativeQuery = true, value = """
+    SELECT
+    l.product_id AS id,
+    l.uuid AS uuid,
+    l.name AS name,
+    l.description AS description,
+    l.image_key AS image,
+    l.currency AS currency,
+    l.price AS price
+    FROM category_closure cc
+    INNER JOIN product_listing l ON cc.descendant_id = l.category_id
+    WHERE cc.ancestor_id = :categoryId AND l.currency = :#{#currency.name()} AND l.in_stock = TRUE
+    AND l.product_id > :after
+    ORDER BY l.product_id
+    LIMIT :limit
+    """)
+    List<ProductKeysetPojo> listingsByCategoryIdAfter(
+            @Param(value = "categoryId") long categoryId,
+            @Param(value = "currency") SarreCurrency currency,
+            @Param(value = "after") long after,
+            @Param(value = "limit") int limit
+    );
+
+    @Query(nativeQuery = true, value = """
+    SELECT COUNT(*)
+    FROM category_closure cc
+    INNER JOIN product_listing l ON cc.descendant_id = l.category_id
+    WHERE cc.ancestor_id = :categoryId AND l.currency = :#{#currency.name()} AND l.in_stock = TRUE
+    """)
+    long countListingsByCategoryId(
+            @Param(value = "categoryId") long categoryId,
+            @Param(value = "currency") SarreCurrency currency
+    );
+
+}
@@ -3,8 +3,11 @@ package dev.webserver.product.repository;
 import dev.webserver.category.entity.ProductCategory;
 import dev.webserver.enumeration.SarreCurrency;
 import dev.webserver.product.entity.Product;
+import dev.webserver.product.entity.ProductSku;
 import dev.webserver.product.projection.ImagePojo;
 import dev.webserver.product.projection.ProductPojo;
+import dev.webserver.product.projection.ProductSearchPojo;
+import dev.webserver.product.projection.ProductStockPojo;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -14,6 +17,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -57,30 +61,6 @@ public interface ProductRepo extends JpaRepository<Product, Long> {
     """)
     Page<ProductPojo> allProductsForAdminFront(SarreCurrency currency, Pageable pageable);
 
-    /**
-     * Returns a Product based non default currency
-     * */
-    @Query(value = """
-    SELECT
-    p.uuid AS uuid,
-    p.name AS name,
-    p.description AS description,
-    c.currency AS currency,
-    c.price AS price,
-    p.defaultKey AS image,
-    p.weight AS weight,
-    p.weightType AS weightType,
-    cat.name AS category
-    FROM Product p
-    INNER JOIN ProductCategory cat ON cat.categoryId = p.productCategory.categoryId
-    INNER JOIN ProductDetail pd ON pd.product.productId = p.productId
-    INNER JOIN PriceCurrency c ON p.productId = c.product.productId
-    INNER JOIN ProductSku sku ON pd.productDetailId = sku.productDetail.productDetailId
-    WHERE cat.isVisible = TRUE AND pd.isVisible = TRUE AND sku.inventory > 0 AND c.currency = :currency
-    GROUP BY p.uuid, p.name, p.description, p.defaultKey, c.currency, c.price, cat.name
-    """)
-    Page<ProductPojo> allProductsByCurrencyClient(SarreCurrency currency, Pageable pageable);
-
     @Transactional
     @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query(value = """
@@ -109,25 +89,58 @@ public interface ProductRepo extends JpaRepository<Product, Long> {
     """)
     List<ImagePojo> productImagesByProductUuid(@Param(value = "uuid") String uuid);
 
-    // https://www.w3schools.com/sql/sql_like.asp
+    /**
+     * Returns a row per price of every {@link Product}, or of the {@link Product} with
+     * {@code uuid} if it is not null, as indexed for search.
+     * */
     @Query("""
     SELECT
     p.uuid AS uuid,
     p.name AS name,
     p.defaultKey AS image,
-    p.weight AS weight,
-    p.weightType AS weightType,
-    c.price AS price,
+    cat.name AS category,
     c.currency AS currency,
-    cat.name AS category
+    c.price AS price,
+    (
+        SELECT COALESCE(MAX(sku.inventory), 0)
+        FROM ProductSku sku
+        WHERE sku.productDetail.product.productId = p.productId
+    ) AS inventory
     FROM Product p
     INNER JOIN ProductCategory cat ON p.productCategory.categoryId = cat.categoryId
     INNER JOIN PriceCurrency c ON p.productId = c.product.productId
-    INNER JOIN ProductDetail pd ON p.productId = pd.product.productId
-    INNER JOIN ProductSku sku ON pd.productDetailId = sku.productDetail.productDetailId
-    WHERE p.name LIKE :name AND sku.inventory > 0 AND c.currency = :currency
-    GROUP BY p.uuid, p.name, p.defaultKey, p.weight, p.weightType, c.currency, c.price, cat.name
+    WHERE :uuid IS NULL OR p.uuid = :uuid
+    """)
+    List<ProductSearchPojo> productSearchDocuments(@Param(value = "uuid") String uuid);
+
+    /**
+     * Returns the highest inventory of every {@link Product} of the {@link ProductSku}s
+     * whose primary key is in {@code ids}, computed as in {@link #productSearchDocuments(String)}.
+     * */
+    @Query("""
+    SELECT
+    p.uuid AS uuid,
+    (
+        SELECT COALESCE(MAX(sku.inventory), 0)
+        FROM ProductSku sku
+        WHERE sku.productDetail.product.productId = p.productId
+    ) AS inventory
+    FROM Product p
+    WHERE p.productId IN (
+        SELECT s.productDetail.product.productId
+        FROM ProductSku s
+        WHERE s.skuId IN (:ids)
+    )
+    """)
+    List<ProductStockPojo> productStockBySkuIds(@Param(value = "ids") Collection<Long> ids);
+
+    @Query("""
+    SELECT p.uuid
+    FROM ProductSku s
+    INNER JOIN ProductDetail d ON s.productDetail.productDetailId = d.productDetailId
+    INNER JOIN Product p ON d.product.productId = p.productId
+    WHERE s.sku = :sku
     """)
-    Page<ProductPojo> productsByNameAndCurrency(String name, SarreCurrency currency, Pageable page);
+    Optional<String> productUuidBySku(@Param(value = "sku") String sku);
 
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package dev.webserver.product.repository;
 
+import dev.webserver.payment.projection.SkuInventoryPojo;
 import dev.webserver.product.entity.Product;
 import dev.webserver.product.entity.ProductSku;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -24,20 +27,73 @@ public interface ProductSkuRepo extends JpaRepository<ProductSku, Long> {
     Optional<ProductSku> productSkuBySku(String sku);
 
     /**
-     * Update a {@link ProductSku} qty property by deducting from current qty.
+     * Retrieves and locks (SELECT ... FOR UPDATE) every {@link ProductSku} whose
+     * primary key is in {@code ids}. Rows are locked in primary key order so two
+     * concurrent checkouts sharing the same {@link ProductSku}s cannot deadlock.
      *
-     * @param sku is a unique string for every {@link ProductSku}.
-     * @param qty is the number to add to an existing {@link ProductSku}.
+     * @param ids primary keys of {@link ProductSku}.
+     * @return a {@link List} of {@link SkuInventoryPojo} holding the current
+     * inventory and the name of the associated {@link Product}.
+     * */
+    @Query(nativeQuery = true, value = """
+    SELECT
+    s.sku_id AS skuId,
+    s.sku AS sku,
+    s.size AS size,
+    s.inventory AS inventory,
+    p.name AS name
+    FROM product_sku s
+    INNER JOIN product_detail d ON s.detail_id = d.detail_id
+    INNER JOIN product p ON d.product_id = p.product_id
+    WHERE s.sku_id IN (:ids)
+    ORDER BY s.sku_id
+    FOR UPDATE OF s
+    """)
+    List<SkuInventoryPojo> lockProductSkusBySkuIds(Collection<Long> ids);
+
+    /**
+     * Non-locking equivalent of {@link #lockProductSkusBySkuIds(Collection)}.
+     *
+     * @param ids primary keys of {@link ProductSku}.
+     * @return a {@link List} of {@link SkuInventoryPojo} holding the current inventory.
+     * */
+    @Query(nativeQuery = true, value = """
+    SELECT
+    s.sku_id AS skuId,
+    s.sku AS sku,
+    s.size AS size,
+    s.inventory AS inventory,
+    p.name AS name
+    FROM product_sku s
+    INNER JOIN product_detail d ON s.detail_id = d.detail_id
+    INNER JOIN product p ON d.product_id = p.product_id
+    WHERE s.sku_id IN (:ids)
+    """)
+    List<SkuInventoryPojo> productSkusBySkuIds(Collection<Long> ids);
+
+    /**
+     * Updates the inventory of multiple {@link ProductSku} in a single statement.
+     * A positive qty is deducted from the inventory and a negative qty is added
+     * back. A row is only updated if its inventory does not go below zero.
+     *
+     * @param json is a json array in the format {@code [{"id":1,"qty":2}]} where
+     *             id is a {@link ProductSku} primary key and qty is the number to
+     *             deduct. See {@code CustomUtil.toJsonArray}.
+     * @return the number of {@link ProductSku} updated.
      * */
     @Transactional
     @Modifying(flushAutomatically = true, clearAutomatically = true)
-    @Query("""
-    UPDATE ProductSku s
+    @Query(nativeQuery = true, value = """
+    UPDATE product_sku s
+    INNER JOIN JSON_TABLE(
+        :json,
+        '$[*]' COLUMNS (id BIGINT PATH '$.id', qty INT PATH '$.qty')
+    ) AS j ON s.sku_id = j.id
     SET
-    s.inventory = (s.inventory - :qty)
-    WHERE s.sku = :sku
+    s.inventory = (s.inventory - j.qty)
+    WHERE (s.inventory - j.qty) >= 0
     """)
-    void updateProductSkuInventoryBySubtractingFromExistingInventory(String sku, int qty);
+    int batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(String json);
 
     /**
      * Updates a {@link ProductSku} inventory property by adding qty in parameter to
@@ -56,6 +112,27 @@ public interface ProductSkuRepo extends JpaRepository<ProductSku, Long> {
     """)
     void updateProductSkuInventoryByAddingToExistingInventory(String sku, int qty);
 
+    /**
+     * Adds back qty to the inventory of multiple {@link ProductSku} in a single statement.
+     *
+     * @param json is a json array in the format {@code [{"id":1,"qty":2}]} where
+     *             id is a {@link ProductSku} primary key and qty is the number to
+     *             add. See {@code CustomUtil.toJsonArray}.
+     * @return the number of {@link ProductSku} updated.
+     * */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+    UPDATE product_sku s
+    INNER JOIN JSON_TABLE(
+        :json,
+        '$[*]' COLUMNS (id BIGINT PATH '$.id', qty INT PATH '$.qty')
+    ) AS j ON s.sku_id = j.id
+    SET
+    s.inventory = (s.inventory + j.qty)
+    """)
+    int batchUpdateProductSkuInventoryByAddingToExistingInventory(String json);
+
     /**
      * Deletes a {@link ProductSku} by its property sku.
      * */
@@ -64,23 +141,4 @@ public interface ProductSkuRepo extends JpaRepository<ProductSku, Long> {
     @Query("DELETE FROM ProductSku s WHERE s.sku = :sku")
     void deleteProductSkuBySku(String sku);
 
-    /**
-     * Retrieves a {@link Product} based on a {@link ProductSku} sku property.
-     * <p>
-     * This method returns a {@link Product} entity by querying
-     * its relationship with a {@link ProductSku}. It filters
-     * products based on the sku associated with the {@link ProductSku}.
-     *
-     * @param sku The property of a {@link ProductSku}.
-     * @return An {@link Optional} containing the matching {@link Product},
-     *         or empty if no {@link Product} is found with the provided sku.
-     */
-    @Query("""
-    SELECT p FROM Product p
-    INNER JOIN ProductDetail d ON p.productId = d.product.productId
-    INNER JOIN ProductSku s ON d.productDetailId = s.productDetail.productDetailId
-    WHERE s.sku = :sku
-    """)
-    Optional<Product> productByProductSku(String sku);
-
 }
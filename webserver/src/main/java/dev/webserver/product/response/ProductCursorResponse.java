@@ -0,0 +1,22 @@
+package dev.webserver.product.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * A slice of a keyset paginated listing of {@link ProductResponse}s.
+ *
+ * @param content the products of this slice.
+ * @param next opaque token requesting the following slice, null on the last slice.
+ * @param total number of products in the listing, omitted when requested as a slice.
+ */
+public record ProductCursorResponse(
+        List<ProductResponse> content,
+        @JsonProperty(value = "next_cursor")
+        String next,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        @JsonProperty(value = "total_elements")
+        Long total
+) { }
@@ -2,14 +2,15 @@ package dev.webserver.product.service;
 
 import dev.webserver.aws.S3Service;
 import dev.webserver.enumeration.SarreCurrency;
-import dev.webserver.product.projection.PriceCurrencyPojo;
+import dev.webserver.product.entity.Product;
+import dev.webserver.product.projection.ProductKeysetPojo;
 import dev.webserver.product.projection.ProductPojo;
-import dev.webserver.product.repository.PriceCurrencyRepo;
-import dev.webserver.product.repository.ProductDetailRepo;
-import dev.webserver.product.repository.ProductRepo;
+import dev.webserver.product.repository.ProductListingRepo;
 import dev.webserver.product.response.DetailResponse;
+import dev.webserver.product.response.ProductCursorResponse;
 import dev.webserver.product.response.ProductResponse;
-import dev.webserver.util.CustomUtil;
+import dev.webserver.util.AsynchronousTasks;
+import dev.webserver.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
@@ -17,13 +18,11 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
-import static java.math.RoundingMode.FLOOR;
-
 @Service
 @RequiredArgsConstructor
 public class ClientProductService {
@@ -31,10 +30,11 @@ public class ClientProductService {
     @Value(value = "${aws.bucket}")
     private String BUCKET;
 
-    private final ProductRepo productRepo;
-    private final ProductDetailRepo productDetailRepo;
-    private final PriceCurrencyRepo priceCurrencyRepo;
     private final S3Service s3Service;
+    private final AsynchronousTasks asynchronousTasks;
+    private final ProductSearchIndex searchIndex;
+    private final ProductListingRepo listingRepo;
+    private final ProductDetailCache detailCache;
 
     /**
      * Returns a {@link Page} of {@link ProductResponse}
@@ -45,20 +45,49 @@ public class ClientProductService {
      * @return a Page of {@link ProductResponse}.
      */
     public CompletableFuture<Page<ProductResponse>> allProductsByCurrency(SarreCurrency currency, int page, int size) {
-        var pageOfProducts = productRepo
-                .allProductsByCurrencyClient(currency, PageRequest.of(page, size));
+        var pageOfProducts = listingRepo
+                .listingsByCurrency(currency, PageRequest.of(page, size));
 
-        var futures = createPageTasks(pageOfProducts);
+        var futures = createPageTasks(pageOfProducts.getContent());
 
-        return CustomUtil.asynchronousTasks(futures, ClientProductService.class)
+        return asynchronousTasks.all(futures, ClientProductService.class)
                 .thenApply(v -> new PageImpl<>(
-                        v.stream().map(Supplier::get).toList(),
+                        v,
                         pageOfProducts.getPageable(),
                         pageOfProducts.getTotalElements()
                 ));
     }
 
-    private List<Supplier<ProductResponse>> createPageTasks(Page<ProductPojo> page) {
+    /**
+     * Returns a slice of {@link ProductResponse} continuing after {@code cursor}. Unlike
+     * {@link #allProductsByCurrency(SarreCurrency, int, int)}, the cost of a slice does not
+     * grow with how deep into the listing it is.
+     *
+     * @param currency of type {@link SarreCurrency}
+     * @param cursor token returned with the previous slice, null or blank for the first.
+     * @param size number of ProductResponse for each slice.
+     * @param slice if true, the total number of products is not counted.
+     * @return a {@link ProductCursorResponse}.
+     */
+    public CompletableFuture<ProductCursorResponse> allProductsByCurrency(
+            SarreCurrency currency,
+            String cursor,
+            int size,
+            boolean slice
+    ) {
+        // one more row than requested tells if there is a next slice
+        var rows = listingRepo
+                .listingsByCurrencyAfter(currency, KeysetCursor.decode(cursor), size + 1);
+
+        var content = rows.size() > size ? rows.subList(0, size) : rows;
+        var next = rows.size() > size ? KeysetCursor.encode(content.getLast().getId()) : null;
+        var total = slice ? null : listingRepo.countListingsByCurrency(currency);
+
+        return asynchronousTasks.all(createPageTasks(content), ClientProductService.class)
+                .thenApply(v -> new ProductCursorResponse(v, next, total));
+    }
+
+    private List<Supplier<ProductResponse>> createPageTasks(List<? extends ProductPojo> page) {
         return page.stream()
                 .map(p -> (Supplier<ProductResponse>) () -> new ProductResponse(
                         p.getUuid(),
@@ -72,53 +101,58 @@ public class ClientProductService {
                 .toList();
     }
 
+    /**
+     * Returns the {@link DetailResponse}s of the {@link Product} with {@code uuid} from the
+     * {@link ProductDetailCache}. Only the image urls are pre-signed per request.
+     *
+     * @param uuid is the uuid of a {@link Product}.
+     * @param currency is of type {@link SarreCurrency}.
+     * @return A {@link CompletableFuture} of an empty {@link List} if the {@link Product}
+     * has no price in {@code currency}.
+     * */
     public CompletableFuture<List<DetailResponse>> productDetailsByProductUuid(
             String uuid,
             SarreCurrency currency
     ) {
-        var optional = this.priceCurrencyRepo
-                .priceCurrencyByProductUuidAndCurrency(uuid, currency);
+        var details = detailCache.get(uuid, currency);
 
-        if (optional.isEmpty())
+        if (details.colours().isEmpty())
             return CompletableFuture.completedFuture(List.of());
 
-        PriceCurrencyPojo object = optional.get();
-
-        var futures = productDetailRepo
-                .productDetailsByProductUuidClientFront(uuid)
-                .stream()
-                .map(pojo -> (Supplier<DetailResponse>) () -> {
-                    var suppliers = Arrays
-                            .stream(pojo.getImage().split(","))
-                            .map(key -> (Supplier<String>) () -> s3Service.preSignedUrl(BUCKET, key))
-                            .toList();
-
-                    var urls = CustomUtil
-                            .asynchronousTasks(suppliers, ClientProductService.class)
-                            .thenApply(v -> v.stream().map(Supplier::get).toList())
-                            .join();
-
-                    var variants = CustomUtil
-                            .toVariantArray(pojo.getVariants(), ClientProductService.class);
-
-                    return new DetailResponse(
-                            object.getName(),
-                            object.getCurrency().name(),
-                            object.getPrice().setScale(2, FLOOR),
-                            object.getDescription(),
-                            pojo.getColour(),
-                            urls,
-                            variants
-                    );
-                })
+        // a single task per image across all details instead of a nested task per detail
+        var futures = details.colours().stream()
+                .flatMap(colour -> colour.imageKeys().stream())
+                .map(key -> (Supplier<String>) () -> s3Service.preSignedUrl(BUCKET, key))
                 .toList();
 
-        return CustomUtil.asynchronousTasks(futures, ClientProductService.class)
-                .thenApply(v -> v.stream().map(Supplier::get).toList());
+        return asynchronousTasks.all(futures, ClientProductService.class)
+                .thenApply(urls -> {
+                    final List<DetailResponse> list = new ArrayList<>(details.colours().size());
+                    int offset = 0;
+
+                    for (var colour : details.colours()) {
+                        int count = colour.imageKeys().size();
+
+                        list.add(new DetailResponse(
+                                details.name(),
+                                details.currency().name(),
+                                details.price(),
+                                details.description(),
+                                colour.colour(),
+                                urls.subList(offset, offset + count),
+                                colour.variants()
+                        ));
+
+                        offset += count;
+                    }
+
+                    return list;
+                });
     }
 
     /**
-     * Returns a {@link Page} of {@link ProductResponse} asynchronously.
+     * Returns a {@link Page} of {@link ProductResponse} asynchronously, matched from the
+     * {@link ProductSearchIndex} without querying the db.
      *
      * @param param is the user input.
      * @param currency is of type {@link SarreCurrency}.
@@ -126,30 +160,27 @@ public class ClientProductService {
      * {@link ProductResponse}.
      * */
     public CompletableFuture<Page<ProductResponse>> search(String param, SarreCurrency currency, int size) {
-        // SQL LIKE Operator
-        // https://www.w3schools.com/sql/sql_like.asp
-        var pageOfProducts = productRepo
-                .productsByNameAndCurrency(param + "%", currency, PageRequest.of(0, size));
+        var pageOfProducts = searchIndex.search(param, currency, size);
 
         var futures = createTasks(pageOfProducts);
 
-        return CustomUtil.asynchronousTasks(futures, ClientProductService.class)
+        return asynchronousTasks.all(futures, ClientProductService.class)
                 .thenApply(v -> new PageImpl<>(
-                        v.stream().map(Supplier::get).toList(),
+                        v,
                         pageOfProducts.getPageable(),
                         pageOfProducts.getTotalElements()
                 ));
     }
 
-    private List<Supplier<ProductResponse>> createTasks(Page<ProductPojo> page) {
+    private List<Supplier<ProductResponse>> createTasks(Page<ProductSearchIndex.Hit> page) {
         return page.stream()
-                .map(p -> (Supplier<ProductResponse>) () -> new ProductResponse(
-                        p.getUuid(),
-                        p.getName(),
-                        p.getPrice(),
-                        p.getCurrency(),
-                        s3Service.preSignedUrl(BUCKET, p.getImage()),
-                        p.getCategory()
+                .map(hit -> (Supplier<ProductResponse>) () -> new ProductResponse(
+                        hit.uuid(),
+                        hit.name(),
+                        hit.price(),
+                        hit.currency().name(),
+                        s3Service.preSignedUrl(BUCKET, hit.image()),
+                        hit.category()
                 ))
                 .toList();
     }
@@ -6,7 +6,7 @@ import dev.webserver.product.entity.ProductDetail;
 import dev.webserver.product.entity.ProductImage;
 import dev.webserver.product.repository.ProductImageRepo;
 import dev.webserver.product.response.CustomMultiPart;
-import dev.webserver.util.CustomUtil;
+import dev.webserver.util.AsynchronousTasks;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -24,6 +24,7 @@ class HelperService {
 
     private final ProductImageRepo repository;
     private final S3Service service;
+    private final AsynchronousTasks asynchronousTasks;
 
     public String preSignedUrl(@NotNull String bucket, @NotNull String key) {
         return this.service.preSignedUrl(bucket, key);
@@ -55,10 +56,8 @@ class HelperService {
                 .toList();
 
         // save all images as long as we have successfully saved to s3
-        CustomUtil.asynchronousTasks(future, HelperService.class)
-                .join()
-                .forEach(e -> {
-                    CustomMultiPart obj = e.get();
+        asynchronousTasks.join(future, HelperService.class)
+                .forEach(obj -> {
                     this.repository.save(new ProductImage(obj.key(), obj.file().getAbsolutePath(), detail));
                 });
     }
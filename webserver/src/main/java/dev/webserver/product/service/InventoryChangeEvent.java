@@ -0,0 +1,31 @@
+package dev.webserver.product.service;
+
+import dev.webserver.product.entity.ProductSku;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when only the inventory of {@link ProductSku}s changes, e.g. when a checkout
+ * deducts it or an expired reservation restores it. Listeners are expected to be
+ * {@code TransactionalEventListener}s with fallback execution, like those of a
+ * {@link dev.webserver.util.CacheInvalidationEvent}.
+ */
+public final class InventoryChangeEvent extends ApplicationEvent {
+
+    private final List<Long> skuIds;
+
+    public InventoryChangeEvent(Object source, Collection<Long> skuIds) {
+        super(source);
+        this.skuIds = List.copyOf(skuIds);
+    }
+
+    /**
+     * Primary keys of the {@link ProductSku}s whose inventory changed.
+     */
+    public List<Long> skuIds() {
+        return skuIds;
+    }
+
+}
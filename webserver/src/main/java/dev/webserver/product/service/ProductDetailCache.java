@@ -0,0 +1,271 @@
+package dev.webserver.product.service;
+
+import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.payment.projection.SkuInventoryPojo;
+import dev.webserver.product.entity.Product;
+import dev.webserver.product.entity.ProductSku;
+import dev.webserver.product.projection.DetailPojo;
+import dev.webserver.product.projection.PriceCurrencyPojo;
+import dev.webserver.product.repository.PriceCurrencyRepo;
+import dev.webserver.product.repository.ProductDetailRepo;
+import dev.webserver.product.repository.ProductSkuRepo;
+import dev.webserver.product.response.Variant;
+import dev.webserver.util.CacheInvalidationEvent;
+import dev.webserver.util.CustomUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.math.RoundingMode.FLOOR;
+
+/**
+ * In-memory cache of the product detail page of a {@link Product} in a currency.
+ * <p>
+ * An entry holds the price, the visible colours, their image keys and their parsed
+ * {@link Variant}s, so a hit skips both queries and the json parsing. Image keys are
+ * cached instead of pre-signed urls as {@code S3Service} already caches urls until they
+ * are close to expiring.
+ * <p>
+ * An entry is dropped once a change to its {@link Product}, details or skus commits,
+ * signalled by a {@link CacheInvalidationEvent} for {@link #CACHE} keyed by the
+ * {@link Product} uuid, or by an event without a key. A checkout or an expired reservation
+ * only changes inventory, so an {@link InventoryChangeEvent} re-reads the in stock flag of
+ * the {@link ProductSku}s it names and patches the cached {@link Variant}s in place.
+ * Entries expire after {@code product.detail.cache.ttl} minutes, which bounds how long
+ * another node serves a stale page. When the cache holds more than
+ * {@code product.detail.cache.max-size} entries the oldest are removed first.
+ */
+@Component
+public class ProductDetailCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductDetailCache.class);
+
+    public static final String CACHE = "product-detail";
+
+    record Key(String uuid, SarreCurrency currency) { }
+
+    record Colour(String colour, List<String> imageKeys, Variant[] variants) { }
+
+    record Details(
+            String name,
+            SarreCurrency currency,
+            BigDecimal price,
+            String description,
+            List<Colour> colours
+    ) {
+        static final Details EMPTY = new Details(null, null, null, null, List.of());
+    }
+
+    private record Entry(Details details, Instant expiresAt) { }
+
+    private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final PriceCurrencyRepo priceCurrencyRepo;
+    private final ProductDetailRepo detailRepo;
+    private final ProductSkuRepo skuRepo;
+    private final Duration ttl;
+    private final int maxSize;
+    private final Clock clock;
+
+    @Autowired
+    ProductDetailCache(
+            PriceCurrencyRepo priceCurrencyRepo,
+            ProductDetailRepo detailRepo,
+            ProductSkuRepo skuRepo,
+            @Value(value = "${product.detail.cache.ttl:10}") long ttl,
+            @Value(value = "${product.detail.cache.max-size:1000}") int maxSize
+    ) {
+        this(priceCurrencyRepo, detailRepo, skuRepo, Duration.ofMinutes(ttl), maxSize, Clock.systemUTC());
+    }
+
+    ProductDetailCache(
+            PriceCurrencyRepo priceCurrencyRepo,
+            ProductDetailRepo detailRepo,
+            ProductSkuRepo skuRepo,
+            Duration ttl,
+            int maxSize,
+            Clock clock
+    ) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be greater than 0");
+        }
+        this.priceCurrencyRepo = priceCurrencyRepo;
+        this.detailRepo = detailRepo;
+        this.skuRepo = skuRepo;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the detail page of the {@link Product} with {@code uuid} in {@code currency},
+     * loading it on a miss. {@link Details#EMPTY} is returned if the {@link Product} has
+     * no price in {@code currency}.
+     */
+    Details get(final String uuid, final SarreCurrency currency) {
+        final Key key = new Key(uuid, currency);
+        final Entry entry = cache.get(key);
+
+        if (entry != null && clock.instant().isBefore(entry.expiresAt())) {
+            return entry.details();
+        }
+
+        // a load that raced a change is returned to its caller but never cached
+        final long gen = generation.get();
+        final Details details = load(uuid, currency);
+
+        if (gen == generation.get()) {
+            cache.put(key, new Entry(details, clock.instant().plus(ttl)));
+            if (cache.size() > maxSize) {
+                evict();
+            }
+        }
+
+        return details;
+    }
+
+    /**
+     * Drops the entries of the {@link Product} keyed by {@code event} once its change
+     * commits, or every entry if {@code event} has no key.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCacheInvalidation(final CacheInvalidationEvent event) {
+        if (!CACHE.equals(event.cache())) {
+            return;
+        }
+
+        generation.incrementAndGet();
+
+        if (event.key() == null) {
+            cache.clear();
+        } else {
+            cache.keySet().removeIf(key -> key.uuid().equals(event.key()));
+        }
+    }
+
+    /**
+     * Patches the in stock flag of the cached {@link Variant}s of the {@link ProductSku}s
+     * named by {@code event} once the inventory change commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(final InventoryChangeEvent event) {
+        if (event.skuIds().isEmpty()) {
+            return;
+        }
+
+        generation.incrementAndGet();
+
+        if (cache.isEmpty()) {
+            return;
+        }
+
+        final Map<String, String> flags;
+        try {
+            flags = skuRepo.productSkusBySkuIds(event.skuIds())
+                    .stream()
+                    .collect(Collectors.toMap(SkuInventoryPojo::getSku, pojo -> flag(pojo.getInventory())));
+        } catch (RuntimeException e) {
+            // entries cannot be trusted without the new flags
+            log.error("error reading inventory for product detail cache {}", e.getMessage());
+            cache.clear();
+            return;
+        }
+
+        cache.replaceAll((key, entry) -> new Entry(patch(entry.details(), flags), entry.expiresAt()));
+    }
+
+    private Details load(final String uuid, final SarreCurrency currency) {
+        final Optional<PriceCurrencyPojo> optional = priceCurrencyRepo
+                .priceCurrencyByProductUuidAndCurrency(uuid, currency);
+
+        if (optional.isEmpty()) {
+            return Details.EMPTY;
+        }
+
+        final PriceCurrencyPojo price = optional.get();
+
+        final List<Colour> colours = detailRepo.productDetailsByProductUuidClientFront(uuid)
+                .stream()
+                .map(ProductDetailCache::colour)
+                .toList();
+
+        return new Details(
+                price.getName(),
+                price.getCurrency(),
+                price.getPrice().setScale(2, FLOOR),
+                price.getDescription(),
+                colours
+        );
+    }
+
+    private static Colour colour(final DetailPojo pojo) {
+        return new Colour(
+                pojo.getColour(),
+                List.of(pojo.getImage().split(",")),
+                CustomUtil.toVariantArray(pojo.getVariants(), ProductDetailCache.class)
+        );
+    }
+
+    /**
+     * Returns {@code details} with the inventory of each {@link Variant} in {@code flags}
+     * replaced, or {@code details} itself if none of its {@link Variant}s changed.
+     */
+    private static Details patch(final Details details, final Map<String, String> flags) {
+        boolean changed = false;
+        final List<Colour> colours = new ArrayList<>(details.colours().size());
+
+        for (final Colour colour : details.colours()) {
+            final Variant[] variants = colour.variants();
+            Variant[] patched = variants;
+
+            for (int i = 0; variants != null && i < variants.length; i++) {
+                final String flag = flags.get(variants[i].sku());
+                if (flag != null && !flag.equals(variants[i].inventory())) {
+                    if (patched == variants) {
+                        patched = variants.clone();
+                    }
+                    patched[i] = new Variant(variants[i].sku(), flag, variants[i].size());
+                }
+            }
+
+            changed |= patched != variants;
+            colours.add(patched == variants ? colour : new Colour(colour.colour(), colour.imageKeys(), patched));
+        }
+
+        return changed
+                ? new Details(details.name(), details.currency(), details.price(), details.description(), colours)
+                : details;
+    }
+
+    /**
+     * Mirrors the inventory flag of
+     * {@link ProductDetailRepo#productDetailsByProductUuidClientFront(String)}.
+     */
+    private static String flag(final Integer inventory) {
+        return inventory != null && inventory > 0 ? "0" : "-1";
+    }
+
+    private void evict() {
+        cache.entrySet()
+                .stream()
+                .sorted(Comparator.comparing(e -> e.getValue().expiresAt()))
+                .limit(Math.max(0, cache.size() - maxSize))
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(cache::remove);
+    }
+
+}
@@ -0,0 +1,60 @@
+package dev.webserver.product.service;
+
+import dev.webserver.product.entity.Product;
+import dev.webserver.product.entity.ProductListing;
+import dev.webserver.product.entity.ProductSku;
+import dev.webserver.product.repository.ProductListingRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Keeps the {@link ProductListing} read model current. Every write to a {@link Product},
+ * its prices, details, skus or the category tree calls one of these methods in the same
+ * transaction, so a listing never sees a change the write rolled back.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductListingService {
+
+    private final ProductListingRepo repository;
+    private final ApplicationEventPublisher publisher;
+
+    /**
+     * Re-computes the {@link ProductListing}s of the {@link Product} with {@code uuid}. A
+     * deleted {@link Product} needs no call, its rows are deleted by the foreign key.
+     */
+    @Transactional
+    public void refresh(final String uuid) {
+        repository.deleteListingsByProductUuid(uuid);
+        repository.saveListingsByProductUuid(uuid);
+    }
+
+    /**
+     * Re-computes the {@link ProductListing}s of the category with {@code categoryId} and
+     * of its descendants, e.g. after it is renamed, moved or hidden, which changes the rows
+     * of every {@link Product} below it. Rows of other categories are not touched.
+     */
+    @Transactional
+    public void refreshByCategory(final long categoryId) {
+        repository.deleteListingsByCategoryId(categoryId);
+        repository.saveListingsByCategoryId(categoryId);
+    }
+
+    /**
+     * Re-computes whether the {@link Product}s of the {@link ProductSku}s whose primary key
+     * is in {@code skuIds} are in stock, after their inventory is deducted or restored, and
+     * publishes an {@link InventoryChangeEvent} for them.
+     */
+    @Transactional
+    public void refreshStock(final Collection<Long> skuIds) {
+        if (!skuIds.isEmpty()) {
+            repository.updateListingStockBySkuIds(skuIds);
+            publisher.publishEvent(new InventoryChangeEvent(this, skuIds));
+        }
+    }
+
+}
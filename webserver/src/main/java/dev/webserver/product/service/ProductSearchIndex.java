@@ -0,0 +1,333 @@
+package dev.webserver.product.service;
+
+import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.product.entity.Product;
+import dev.webserver.product.entity.ProductSku;
+import dev.webserver.product.projection.ProductSearchPojo;
+import dev.webserver.product.projection.ProductStockPojo;
+import dev.webserver.product.repository.ProductRepo;
+import dev.webserver.util.CacheInvalidationEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of the {@link Product}s searched by clients.
+ * <p>
+ * A {@link Product} is indexed by the words of its name and of its category name. A
+ * search matches the {@link Product}s where every word of the query is the prefix of
+ * one of their words, so {@code "air ma"} and {@code "max"} both match "Nike Air Max".
+ * Only {@link Product}s with a price in the requested currency and at least one sku in
+ * stock are returned, those whose name starts with the query first and then by name.
+ * <p>
+ * The index is built on the first search. A {@link Product} is re-read from the db once
+ * a change to it, its details or its skus commits, signalled by a
+ * {@link CacheInvalidationEvent} for {@link #CACHE} keyed by the {@link Product} uuid.
+ * An event without a key, e.g. after a category is renamed, rebuilds the whole index.
+ * A checkout or an expired reservation only changes inventory, so an
+ * {@link InventoryChangeEvent} re-reads whether the {@link Product}s of the
+ * {@link ProductSku}s it names are in stock. The index is also rebuilt every
+ * {@code product.search.refresh} minutes, which bounds how long another node serves a
+ * stale result.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    public static final String CACHE = "product-search";
+
+    record Document(
+            String uuid,
+            String name,
+            String lowerCaseName,
+            String image,
+            String category,
+            Map<SarreCurrency, BigDecimal> prices,
+            boolean inStock,
+            Set<String> words
+    ) { }
+
+    public record Hit(
+            String uuid,
+            String name,
+            BigDecimal price,
+            SarreCurrency currency,
+            String image,
+            String category
+    ) { }
+
+    /**
+     * Documents by uuid, and the uuids of the documents containing each word. Words are
+     * sorted so every word starting with a prefix is a contiguous range.
+     */
+    private static final class Index {
+        private final Map<String, Document> documents = new ConcurrentHashMap<>();
+        private final NavigableMap<String, Set<String>> words = new ConcurrentSkipListMap<>();
+
+        /**
+         * Adds or replaces {@code document}. A concurrent search sees either the previous
+         * or the new document, as a match is always checked against the document itself.
+         */
+        void put(final Document document) {
+            for (final String word : document.words()) {
+                words.computeIfAbsent(word, k -> ConcurrentHashMap.newKeySet()).add(document.uuid());
+            }
+
+            final Document previous = documents.put(document.uuid(), document);
+            if (previous != null) {
+                unlink(previous, document.words());
+            }
+        }
+
+        void remove(final String uuid) {
+            final Document previous = documents.remove(uuid);
+            if (previous != null) {
+                unlink(previous, Set.of());
+            }
+        }
+
+        private void unlink(final Document previous, final Set<String> kept) {
+            for (final String word : previous.words()) {
+                if (!kept.contains(word)) {
+                    words.computeIfPresent(word, (k, uuids) -> {
+                        uuids.remove(previous.uuid());
+                        return uuids.isEmpty() ? null : uuids;
+                    });
+                }
+            }
+        }
+
+        Set<String> startingWith(final String prefix) {
+            final Set<String> uuids = new HashSet<>();
+            words.subMap(prefix, true, prefix + Character.MAX_VALUE, true)
+                    .values()
+                    .forEach(uuids::addAll);
+            return uuids;
+        }
+    }
+
+    private final ProductRepo repository;
+    private final AtomicReference<Index> index = new AtomicReference<>();
+
+    ProductSearchIndex(ProductRepo repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Returns the first {@code size} {@link Product}s matching {@code query}.
+     *
+     * @param query words typed by the client.
+     * @param currency the price of each {@link Hit} is in.
+     * @param size max number of {@link Hit}s returned.
+     * @return A {@link Page} whose total is the number of matching {@link Product}s.
+     */
+    public Page<Hit> search(final String query, final SarreCurrency currency, final int size) {
+        final PageRequest pageable = PageRequest.of(0, Math.max(1, size));
+        final List<String> terms = words(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        final Index current = index();
+        final String prefix = query.trim().toLowerCase(Locale.ROOT);
+
+        // the longest term usually narrows the candidates the most
+        final String narrowest = Collections.max(terms, Comparator.comparingInt(String::length));
+
+        final List<Document> matches = current.startingWith(narrowest)
+                .stream()
+                .map(current.documents::get)
+                .filter(Objects::nonNull)
+                .filter(document -> document.inStock() && document.prices().containsKey(currency))
+                .filter(document -> terms.stream()
+                        .allMatch(term -> document.words().stream().anyMatch(word -> word.startsWith(term))))
+                .sorted(Comparator
+                        .comparing((Document document) -> !document.lowerCaseName().startsWith(prefix))
+                        .thenComparing(Document::lowerCaseName))
+                .toList();
+
+        final List<Hit> hits = matches.stream()
+                .limit(pageable.getPageSize())
+                .map(document -> new Hit(
+                        document.uuid(),
+                        document.name(),
+                        document.prices().get(currency),
+                        currency,
+                        document.image(),
+                        document.category()
+                ))
+                .toList();
+
+        return new PageImpl<>(hits, pageable, matches.size());
+    }
+
+    /**
+     * Re-reads the {@link Product} keyed by {@code event} once its change commits, or
+     * rebuilds the index if {@code event} has no key. Nothing is done until the index is
+     * first built.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCacheInvalidation(final CacheInvalidationEvent event) {
+        if (!CACHE.equals(event.cache()) || index.get() == null) {
+            return;
+        }
+
+        try {
+            if (event.key() == null) {
+                rebuild();
+            } else {
+                reindex(event.key());
+            }
+        } catch (RuntimeException e) {
+            // caught up by the next refresh
+            log.error("error updating product search index {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads whether the {@link Product}s of the {@link ProductSku}s named by
+     * {@code event} are in stock once the inventory change commits. Nothing is done until
+     * the index is first built.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(final InventoryChangeEvent event) {
+        if (event.skuIds().isEmpty() || index.get() == null) {
+            return;
+        }
+
+        try {
+            restock(event.skuIds());
+        } catch (RuntimeException e) {
+            // caught up by the next refresh
+            log.error("error updating product search index stock {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${product.search.refresh:5}",
+            fixedDelayString = "${product.search.refresh:5}",
+            timeUnit = TimeUnit.MINUTES
+    )
+    public void refresh() {
+        if (index.get() != null) {
+            rebuild();
+        }
+    }
+
+    private Index index() {
+        final Index current = index.get();
+        return current != null ? current : initialise();
+    }
+
+    private synchronized Index initialise() {
+        if (index.get() == null) {
+            rebuild();
+        }
+        return index.get();
+    }
+
+    /**
+     * Builds a new index aside and swaps it in. Synchronized with {@link #reindex(String)}
+     * so a product re-read during a rebuild is not overwritten by the older rebuild.
+     */
+    synchronized void rebuild() {
+        final Index next = new Index();
+        documents(null).forEach(next::put);
+        index.set(next);
+    }
+
+    synchronized void reindex(final String uuid) {
+        final Index current = index.get();
+        if (current == null) {
+            return;
+        }
+
+        documents(uuid).stream()
+                .findFirst()
+                .ifPresentOrElse(current::put, () -> current.remove(uuid));
+    }
+
+    synchronized void restock(final Collection<Long> skuIds) {
+        final Index current = index.get();
+        if (current == null) {
+            return;
+        }
+
+        for (final ProductStockPojo pojo : repository.productStockBySkuIds(skuIds)) {
+            final Document document = current.documents.get(pojo.getUuid());
+            final boolean inStock = pojo.getInventory() != null && pojo.getInventory() > 0;
+
+            if (document != null && document.inStock() != inStock) {
+                current.put(new Document(
+                        document.uuid(),
+                        document.name(),
+                        document.lowerCaseName(),
+                        document.image(),
+                        document.category(),
+                        document.prices(),
+                        inStock,
+                        document.words()
+                ));
+            }
+        }
+    }
+
+    private List<Document> documents(final String uuid) {
+        return repository.productSearchDocuments(uuid)
+                .stream()
+                .collect(Collectors.groupingBy(ProductSearchPojo::getUuid, LinkedHashMap::new, Collectors.toList()))
+                .values()
+                .stream()
+                .map(ProductSearchIndex::document)
+                .toList();
+    }
+
+    private static Document document(final List<ProductSearchPojo> rows) {
+        final ProductSearchPojo first = rows.getFirst();
+
+        final Map<SarreCurrency, BigDecimal> prices = new EnumMap<>(SarreCurrency.class);
+        rows.forEach(row -> prices.put(row.getCurrency(), row.getPrice()));
+
+        final Set<String> words = new HashSet<>(words(first.getName()));
+        words.addAll(words(first.getCategory()));
+
+        return new Document(
+                first.getUuid(),
+                first.getName(),
+                first.getName().toLowerCase(Locale.ROOT),
+                first.getImage(),
+                first.getCategory(),
+                Collections.unmodifiableMap(prices),
+                first.getInventory() != null && first.getInventory() > 0,
+                Set.copyOf(words)
+        );
+    }
+
+    /**
+     * Splits {@code text} into lower case words of letters and digits.
+     */
+    static List<String> words(final String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+
+}
@@ -6,9 +6,11 @@ import dev.webserver.product.dto.SizeInventoryDTO;
 import dev.webserver.product.entity.ProductDetail;
 import dev.webserver.product.entity.ProductSku;
 import dev.webserver.product.repository.ProductSkuRepo;
+import dev.webserver.util.CacheInvalidationEvent;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +26,8 @@ public class ProductSkuService {
     private static final Logger log = LoggerFactory.getLogger(ProductSkuService.class);
 
     private final ProductSkuRepo repository;
+    private final ApplicationEventPublisher publisher;
+    private final ProductListingService listingService;
 
     /**
      * Saves {@link ProductSku} based on {@link SizeInventoryDTO} array.
@@ -51,12 +55,21 @@ public class ProductSkuService {
      * has children entities attached to it.
      * */
     public void delete(final String sku) {
+        final var uuid = this.repository.productSkuBySku(sku)
+                .map(s -> s.getProductDetail().getProduct().getUuid());
+
         try {
             this.repository.deleteProductSkuBySku(sku);
         } catch (DataIntegrityViolationException e) {
             log.error("resources attached to ProductSku {}", e.getMessage());
             throw new ResourceAttachedException("resource(s) attached to product");
         }
+
+        uuid.ifPresent(u -> {
+            listingService.refresh(u);
+            publisher.publishEvent(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, u));
+            publisher.publishEvent(new CacheInvalidationEvent(this, ProductDetailCache.CACHE, u));
+        });
     }
 
     public ProductSku productSkuBySku(final String sku) {
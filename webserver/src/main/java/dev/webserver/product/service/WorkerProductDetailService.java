@@ -13,10 +13,13 @@ import dev.webserver.product.repository.ProductDetailRepo;
 import dev.webserver.product.repository.ProductImageRepo;
 import dev.webserver.product.repository.ProductRepo;
 import dev.webserver.product.response.DetailResponse;
+import dev.webserver.util.AsynchronousTasks;
+import dev.webserver.util.CacheInvalidationEvent;
 import dev.webserver.util.CustomUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -41,6 +44,9 @@ public class WorkerProductDetailService {
     private final ProductImageRepo imageRepo;
     private final ProductRepo productRepo;
     private final HelperService helperService;
+    private final AsynchronousTasks asynchronousTasks;
+    private final ApplicationEventPublisher publisher;
+    private final ProductListingService listingService;
 
     /**
      * Retrieves {@link ProductDetail} asynchronously by the specified {@link Product} uuid.
@@ -54,29 +60,37 @@ public class WorkerProductDetailService {
      * @throws CustomServerError if an error occurs during the asynchronous processing.
      */
     public CompletableFuture<List<DetailResponse>> productDetailsByProductUuid(String uuid) {
-        var futures = detailRepo
-                .productDetailsByProductUuidAdminFront(uuid)
-                .stream()
-                .map(pojo -> (Supplier<DetailResponse>) () -> {
-                    var req = Arrays
-                            .stream(pojo.getImage().split(","))
-                            .map(key -> (Supplier<String>) () -> helperService.preSignedUrl(BUCKET, key))
-                            .toList();
-
-                    var urls = CustomUtil
-                            .asynchronousTasks(req, WorkerProductDetailService.class)
-                            .thenApply(v -> v.stream().map(Supplier::get).toList())
-                            .join();
-
-                    var variants = CustomUtil
-                            .toVariantArray(pojo.getVariants(), WorkerProductDetailService.class);
-
-                    return new DetailResponse(pojo.getVisible(), pojo.getColour(), urls, variants);
-                })
+        var details = detailRepo.productDetailsByProductUuidAdminFront(uuid);
+
+        // a single task per image across all details instead of a nested task per detail
+        var futures = details.stream()
+                .flatMap(pojo -> Arrays.stream(pojo.getImage().split(",")))
+                .map(key -> (Supplier<String>) () -> helperService.preSignedUrl(BUCKET, key))
                 .toList();
 
-        return CustomUtil.asynchronousTasks(futures, WorkerProductDetailService.class)
-                .thenApply(v -> v.stream().map(Supplier::get).toList());
+        return asynchronousTasks.all(futures, WorkerProductDetailService.class)
+                .thenApply(urls -> {
+                    final List<DetailResponse> list = new ArrayList<>(details.size());
+                    int offset = 0;
+
+                    for (var pojo : details) {
+                        int count = pojo.getImage().split(",").length;
+
+                        var variants = CustomUtil
+                                .toVariantArray(pojo.getVariants(), WorkerProductDetailService.class);
+
+                        list.add(new DetailResponse(
+                                pojo.getVisible(),
+                                pojo.getColour(),
+                                urls.subList(offset, offset + count),
+                                variants
+                        ));
+
+                        offset += count;
+                    }
+
+                    return list;
+                });
     }
 
     /**
@@ -95,6 +109,9 @@ public class WorkerProductDetailService {
 
         if (exist.isPresent()) {
             this.skuService.save(dto.sizeInventory(), exist.get());
+            listingService.refresh(product.getUuid());
+            publisher.publishEvent(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, product.getUuid()));
+            publisher.publishEvent(new CacheInvalidationEvent(this, ProductDetailCache.CACHE, product.getUuid()));
             return;
         }
 
@@ -117,6 +134,10 @@ public class WorkerProductDetailService {
         this.skuService.save(dto.sizeInventory(), saved);
 
         this.helperService.saveProductImages(detail, files, BUCKET);
+
+        listingService.refresh(product.getUuid());
+        publisher.publishEvent(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, product.getUuid()));
+        publisher.publishEvent(new CacheInvalidationEvent(this, ProductDetailCache.CACHE, product.getUuid()));
     }
 
     /**
@@ -132,6 +153,13 @@ public class WorkerProductDetailService {
                 dto.qty(),
                 dto.size()
         );
+
+        this.productRepo.productUuidBySku(dto.sku())
+                .ifPresent(uuid -> {
+                    listingService.refresh(uuid);
+                    publisher.publishEvent(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, uuid));
+                    publisher.publishEvent(new CacheInvalidationEvent(this, ProductDetailCache.CACHE, uuid));
+                });
     }
 
     /**
@@ -159,6 +187,14 @@ public class WorkerProductDetailService {
 
         // permanently delete
         this.detailRepo.delete(detail);
+
+        listingService.refresh(detail.getProduct().getUuid());
+        publisher.publishEvent(
+                new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, detail.getProduct().getUuid())
+        );
+        publisher.publishEvent(
+                new CacheInvalidationEvent(this, ProductDetailCache.CACHE, detail.getProduct().getUuid())
+        );
     }
 
     /**
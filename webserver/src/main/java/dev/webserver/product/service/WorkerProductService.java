@@ -13,12 +13,15 @@ import dev.webserver.product.repository.PriceCurrencyRepo;
 import dev.webserver.product.repository.ProductRepo;
 import dev.webserver.product.response.CustomMultiPart;
 import dev.webserver.product.response.ProductResponse;
+import dev.webserver.util.AsynchronousTasks;
+import dev.webserver.util.CacheInvalidationEvent;
 import dev.webserver.util.CustomUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -56,6 +59,9 @@ public class WorkerProductService {
     private final ProductSkuService skuService;
     private final WorkerCategoryService categoryService;
     private final HelperService helperService;
+    private final AsynchronousTasks asynchronousTasks;
+    private final ApplicationEventPublisher publisher;
+    private final ProductListingService listingService;
 
     /**
      * Sample issue
@@ -98,9 +104,9 @@ public class WorkerProductService {
 
         var futures = createTasks(pageOfProducts);
 
-        return CustomUtil.asynchronousTasks(futures, WorkerProductService.class)
+        return asynchronousTasks.all(futures, WorkerProductService.class)
                 .thenApply(v -> new PageImpl<>(
-                        v.stream().map(Supplier::get).toList(),
+                        v,
                         pageOfProducts.getPageable(),
                         pageOfProducts.getTotalElements()
                 ));
@@ -188,6 +194,9 @@ public class WorkerProductService {
 
         // build and save ProductImages (save to s3)
         this.helperService.saveProductImages(detail, files, BUCKET);
+
+        listingService.refresh(p.getUuid());
+        publisher.publishEvent(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, p.getUuid()));
     }
 
     /**
@@ -227,6 +236,10 @@ public class WorkerProductService {
         var currency = SarreCurrency.valueOf(dto.currency().toUpperCase());
         this.currencyRepo
                 .updateProductPriceByProductUuidAndCurrency(dto.uuid(), price, currency);
+
+        listingService.refresh(dto.uuid().trim());
+        publisher.publishEvent(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, dto.uuid().trim()));
+        publisher.publishEvent(new CacheInvalidationEvent(this, ProductDetailCache.CACHE, dto.uuid().trim()));
     }
 
     /**
@@ -253,6 +266,9 @@ public class WorkerProductService {
         if (!keys.isEmpty()) {
             this.helperService.deleteFromS3(keys, BUCKET);
         }
+
+        publisher.publishEvent(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, uuid));
+        publisher.publishEvent(new CacheInvalidationEvent(this, ProductDetailCache.CACHE, uuid));
     }
 
     /**
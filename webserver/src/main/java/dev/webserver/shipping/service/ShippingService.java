@@ -7,26 +7,49 @@ import dev.webserver.shipping.ShippingDto;
 import dev.webserver.shipping.ShippingMapper;
 import dev.webserver.shipping.entity.ShipSetting;
 import dev.webserver.shipping.repository.ShippingRepo;
-import lombok.RequiredArgsConstructor;
+import dev.webserver.util.CacheInvalidationEvent;
+import dev.webserver.util.ReadThroughCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Defines the logic for countries we are allowed to ship to.
  * */
 @Service
-@RequiredArgsConstructor
 @Transactional(rollbackFor = Exception.class)
 public class ShippingService {
 
     private static final Logger log = LoggerFactory.getLogger(ShippingService.class);
 
+    static final String CACHE = "shipping";
+
     private final ShippingRepo repository;
+    private final ApplicationEventPublisher publisher;
+    private final ReadThroughCache<Map<String, ShipSetting>> cache;
+
+    public ShippingService(ShippingRepo repository, ApplicationEventPublisher publisher, Environment env) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.cache = new ReadThroughCache<>(
+                () -> repository.findAll()
+                        .stream()
+                        .collect(Collectors.toUnmodifiableMap(ShipSetting::country, Function.identity())),
+                Duration.ofMinutes(env.getProperty("cache.configuration.ttl", Long.class, 10L))
+        );
+    }
 
     /**
      * Returns all {@code ShipSetting} from the db and
@@ -53,6 +76,7 @@ public class ShippingService {
         } catch (DataIntegrityViolationException e) {
             throw new DuplicateException("%s exists".formatted(dto.country()));
         }
+        publisher.publishEvent(new CacheInvalidationEvent(this, CACHE));
     }
 
     /**
@@ -74,6 +98,7 @@ public class ShippingService {
         } catch (DataIntegrityViolationException e) {
             throw new DuplicateException("%s exists".formatted(dto.country()));
         }
+        publisher.publishEvent(new CacheInvalidationEvent(this, CACHE));
     }
 
     /**
@@ -86,17 +111,48 @@ public class ShippingService {
         if (id == 1)
             throw new ResourceAttachedException("cannot delete default country.");
         repository.deleteShipSettingById(id);
+        publisher.publishEvent(new CacheInvalidationEvent(this, CACHE));
     }
 
+    /**
+     * Returns the {@link ShipSetting} of {@code country} else the default
+     * {@link ShipSetting}. Every {@link ShipSetting} is held in memory as the table
+     * is small and only changes through this class.
+     *
+     * @param country the user is shipping to.
+     * @return a cached {@link ShipSetting} which must not be modified.
+     * @throws CustomNotFoundException if neither {@code country} nor the default exists.
+     * */
     public ShipSetting shippingByCountryElseReturnDefault(String country) {
-        return repository
-                .shippingByCountryElseReturnDefault(country)
-                .orElseThrow(() -> {
-                    log.error("shipping country does not exist");
-                    return new CustomNotFoundException(
-                            "country to ship to is not allowed. Please reach out to our customer service."
-                    );
-                });
+        final Map<String, ShipSetting> map = cache.get();
+        final ShipSetting ship = country == null ? null : map.get(country.toLowerCase().trim());
+
+        if (ship != null) {
+            return ship;
+        }
+
+        final ShipSetting fallback = map.get("default");
+
+        if (fallback == null) {
+            log.error("shipping country does not exist");
+            throw new CustomNotFoundException(
+                    "country to ship to is not allowed. Please reach out to our customer service."
+            );
+        }
+
+        return fallback;
+    }
+
+    /**
+     * Clears cached {@link ShipSetting}s once a change made on this or, through a
+     * relay, another node commits.
+     * */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onCacheInvalidation(final CacheInvalidationEvent event) {
+        if (CACHE.equals(event.cache())) {
+            cache.invalidate();
+        }
     }
 
 }
@@ -1,23 +1,46 @@
 package dev.webserver.tax;
 
 import dev.webserver.exception.CustomNotFoundException;
-import lombok.RequiredArgsConstructor;
+import dev.webserver.util.CacheInvalidationEvent;
+import dev.webserver.util.ReadThroughCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Transactional(rollbackFor = Exception.class)
 public class TaxService {
 
     private static final Logger log = LoggerFactory.getLogger(TaxService.class);
 
+    static final String CACHE = "tax";
+
     private final TaxRepository repository;
+    private final ApplicationEventPublisher publisher;
+    private final ReadThroughCache<Map<Long, Tax>> cache;
+
+    public TaxService(TaxRepository repository, ApplicationEventPublisher publisher, Environment env) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.cache = new ReadThroughCache<>(
+                () -> repository.findAll()
+                        .stream()
+                        .collect(Collectors.toUnmodifiableMap(Tax::taxId, Function.identity())),
+                Duration.ofMinutes(env.getProperty("cache.configuration.ttl", Long.class, 10L))
+        );
+    }
 
     public List<TaxDto> taxes() {
         return repository
@@ -48,11 +71,34 @@ public class TaxService {
                     """;
             throw new CustomNotFoundException(error);
         }
+        publisher.publishEvent(new CacheInvalidationEvent(this, CACHE));
     }
 
+    /**
+     * Returns a {@link Tax} from memory, reading every {@link Tax} from the db
+     * when the cache is empty or stale.
+     *
+     * @return a cached {@link Tax} which must not be modified.
+     * @throws CustomNotFoundException if {@link Tax} does not exist.
+     */
     public Tax taxById(long id) {
-        return repository.findById(id)
-                .orElseThrow(() -> new CustomNotFoundException("cannot find tax information"));
+        final Tax tax = cache.get().get(id);
+        if (tax == null) {
+            throw new CustomNotFoundException("cannot find tax information");
+        }
+        return tax;
+    }
+
+    /**
+     * Clears cached {@link Tax}es once a change made on this or, through a
+     * relay, another node commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onCacheInvalidation(final CacheInvalidationEvent event) {
+        if (CACHE.equals(event.cache())) {
+            cache.invalidate();
+        }
     }
 
 }
\ No newline at end of file
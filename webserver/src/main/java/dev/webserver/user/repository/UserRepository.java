@@ -4,9 +4,11 @@ import dev.webserver.user.entity.SarreBrandUser;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -24,6 +26,15 @@ public interface UserRepository extends JpaRepository<SarreBrandUser, Long> {
     @Query(value = "SELECT c FROM SarreBrandUser c WHERE c.email = :principal")
     Optional<SarreBrandUser> userByPrincipal(@Param(value = "principal") String principal);
 
+    /**
+     * Replaces the password hash of a {@link SarreBrandUser}, e.g. after it is re-hashed
+     * with a stronger cost on login.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE SarreBrandUser u SET u.password = :password WHERE u.email = :principal")
+    void updatePasswordByPrincipal(String principal, String password);
+
     /**
      * Returns a {@link Page} of {@link SarreBrandUser}.
      */
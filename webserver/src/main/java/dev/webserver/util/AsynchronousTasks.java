@@ -0,0 +1,220 @@
+package dev.webserver.util;
+
+import dev.webserver.exception.CustomServerError;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Application wide executor used to run a list of tasks concurrently.
+ * <p>
+ * Every task is executed on a virtual thread of a single shared executor. The number of
+ * tasks running at the same time across the application is bounded by
+ * {@code async.tasks.max-concurrency} so a burst of requests cannot exhaust downstream
+ * resources such as the database connection pool or aws api limits. Tasks waiting for a
+ * permit park their virtual thread.
+ * <p>
+ * The first task to fail completes the returned {@link CompletableFuture} exceptionally
+ * with the exception thrown by the task and cancels the remaining tasks. Cancelling the
+ * returned {@link CompletableFuture} or exceeding {@code async.tasks.timeout} does the same.
+ * <p>
+ * Tasks submitted from a task already running on this executor are executed on the
+ * calling thread, as a task waiting on nested tasks whilst holding a permit can deadlock
+ * once all permits are held.
+ */
+@Component
+public class AsynchronousTasks {
+
+    private static final Logger log = LoggerFactory.getLogger(AsynchronousTasks.class);
+
+    private static final ThreadLocal<Boolean> WORKER = ThreadLocal.withInitial(() -> false);
+
+    private final ExecutorService executor = Executors
+            .newThreadPerTaskExecutor(Thread.ofVirtual().name("async-task-", 0).factory());
+    private final Semaphore permits;
+    private final Duration timeout;
+    private final MeterRegistry registry;
+
+    @Autowired
+    public AsynchronousTasks(Environment env, MeterRegistry registry) {
+        this(
+                env.getProperty("async.tasks.max-concurrency", Integer.class, 64),
+                Duration.ofSeconds(env.getProperty("async.tasks.timeout", Long.class, 30L)),
+                registry
+        );
+    }
+
+    public AsynchronousTasks(int maxConcurrency, Duration timeout, MeterRegistry registry) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("max concurrency must be greater than 0");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.timeout = timeout;
+        this.registry = registry;
+
+        Gauge.builder("async.tasks.active", permits, p -> maxConcurrency - p.availablePermits())
+                .description("number of tasks currently running")
+                .register(registry);
+        Gauge.builder("async.tasks.waiting", permits, Semaphore::getQueueLength)
+                .description("number of tasks waiting for a permit")
+                .register(registry);
+    }
+
+    /**
+     * Executes {@code tasks} concurrently and returns a {@link CompletableFuture} that
+     * completes when all tasks complete. The order of the results matches the order
+     * of {@code tasks}.
+     *
+     * @param tasks The list of tasks to execute asynchronously.
+     * @param clazz The class that called this method. Used to tag metrics and logs.
+     * @return A {@link CompletableFuture} holding a list of results from all completed
+     * tasks.
+     */
+    public <T, C> CompletableFuture<List<T>> all(final List<Supplier<T>> tasks, final Class<C> clazz) {
+        if (tasks.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        if (WORKER.get()) {
+            return inline(tasks, clazz);
+        }
+
+        final List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (final Supplier<T> task : tasks) {
+            futures.add(submit(task, clazz));
+        }
+
+        final CompletableFuture<List<T>> result = new CompletableFuture<>();
+
+        for (final CompletableFuture<T> future : futures) {
+            future.whenComplete((v, e) -> {
+                if (e != null && !(e instanceof CancellationException)) {
+                    log.error("{} thrown {}", clazz.getName(), e.getMessage());
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenRun(() -> result.complete(futures.stream().map(CompletableFuture::join).toList()));
+
+        // cancel pending tasks on failure, timeout or cancellation by the caller
+        result.whenComplete((v, e) -> {
+            if (e != null) {
+                futures.forEach(f -> f.cancel(true));
+            }
+        });
+
+        return result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Executes {@code tasks} concurrently and blocks until all tasks complete.
+     *
+     * @param tasks The list of tasks to execute asynchronously.
+     * @param clazz The class that called this method.
+     * @return A list of results from all completed tasks in the order of {@code tasks}.
+     * @throws CustomServerError if a task throws a checked exception or tasks do not
+     * complete within {@code async.tasks.timeout}. A {@link RuntimeException} thrown
+     * by a task is rethrown as is.
+     */
+    public <T, C> List<T> join(final List<Supplier<T>> tasks, final Class<C> clazz) {
+        try {
+            return all(tasks, clazz).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException ex) {
+                throw ex;
+            }
+            log.error("{} timed out or was interrupted {}", clazz.getName(), e.getMessage());
+            throw new CustomServerError("an error occurred, please try again later");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T, C> CompletableFuture<T> submit(final Supplier<T> task, final Class<C> clazz) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        final Future<?> handle = executor.submit(() -> {
+            final long start = System.nanoTime();
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                timer(clazz, "cancelled").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                future.cancel(false);
+                return;
+            }
+
+            T value = null;
+            Throwable error = null;
+            try {
+                WORKER.set(true);
+                value = task.get();
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                WORKER.remove();
+                permits.release();
+            }
+
+            if (error == null) {
+                timer(clazz, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                future.complete(value);
+            } else {
+                String outcome = future.isCancelled() ? "cancelled" : "failure";
+                timer(clazz, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                future.completeExceptionally(error);
+            }
+        });
+
+        // CompletableFuture#cancel does not interrupt the thread executing the task
+        future.whenComplete((v, e) -> {
+            if (future.isCancelled()) {
+                handle.cancel(true);
+            }
+        });
+
+        return future;
+    }
+
+    private <T, C> CompletableFuture<List<T>> inline(final List<Supplier<T>> tasks, final Class<C> clazz) {
+        final List<T> list = new ArrayList<>(tasks.size());
+        for (final Supplier<T> task : tasks) {
+            final long start = System.nanoTime();
+            try {
+                list.add(task.get());
+                timer(clazz, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                timer(clazz, "failure").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.error("{} thrown {}", clazz.getName(), e.getMessage());
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.completedFuture(list);
+    }
+
+    private Timer timer(final Class<?> clazz, final String outcome) {
+        return Timer.builder("async.tasks.duration")
+                .description("time taken to wait for a permit and execute a task")
+                .tag("caller", clazz.getSimpleName())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,54 @@
+package dev.webserver.util;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when data held in an in-process {@link ReadThroughCache} changes.
+ * <p>
+ * Listeners are expected to be {@code TransactionalEventListener}s with fallback
+ * execution so a cache is cleared after the write commits, or straight away when
+ * published outside a transaction. In a multi-node deployment, a relay forwards this
+ * event to other nodes and re-publishes what it receives with {@link #remote()} set to
+ * true, which stops the event bouncing back across the cluster.
+ * <p>
+ * A cache that can refresh a single entry reads {@link #key()}, which is null when the
+ * whole cache is stale.
+ */
+public final class CacheInvalidationEvent extends ApplicationEvent {
+
+    private final String cache;
+    private final String key;
+    private final boolean remote;
+
+    public CacheInvalidationEvent(Object source, String cache) {
+        this(source, cache, null, false);
+    }
+
+    public CacheInvalidationEvent(Object source, String cache, String key) {
+        this(source, cache, key, false);
+    }
+
+    public CacheInvalidationEvent(Object source, String cache, boolean remote) {
+        this(source, cache, null, remote);
+    }
+
+    public CacheInvalidationEvent(Object source, String cache, String key, boolean remote) {
+        super(source);
+        this.cache = cache;
+        this.key = key;
+        this.remote = remote;
+    }
+
+    public String cache() {
+        return cache;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public boolean remote() {
+        return remote;
+    }
+
+}
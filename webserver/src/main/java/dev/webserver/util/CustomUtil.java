@@ -24,8 +24,6 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
 import java.util.function.BiFunction;
 
 import static dev.webserver.enumeration.SarreCurrency.NGN;
@@ -234,18 +232,24 @@ public class CustomUtil {
      * This method takes a lis of {@link TotalPojo} objects,
      * where each object represents an item in the shopping
      * cart with information about quantity, price, and weight.
+     * An item without a price in the currency of the checkout is
+     * excluded.
      *
      * @param list The list of {@link TotalPojo} items for which
      *             to calculate the total price and weights.
      * @return A {@link CheckoutPair} object containing the total
      * of weight and the total price of the {@code list}.
      */
-    public static CheckoutPair cartItemsTotalAndTotalWeight(final List<TotalPojo> list) {
-        final double sumOfWeight = list.stream()
+    public static CheckoutPair cartItemsTotalAndTotalWeight(final List<? extends TotalPojo> list) {
+        final List<? extends TotalPojo> priced = list.stream()
+                .filter(p -> p.getPrice() != null)
+                .toList();
+
+        final double sumOfWeight = priced.stream()
                 .mapToDouble(TotalPojo::getWeight)
                 .sum();
 
-        final BigDecimal total = list.stream()
+        final BigDecimal total = priced.stream()
                 .map(p -> p.getPrice().multiply(BigDecimal.valueOf(p.getQty())))
                 .reduce(ZERO, BigDecimal::add)
                 .setScale(2, FLOOR);
@@ -254,34 +258,17 @@ public class CustomUtil {
     }
 
     /**
-     * Executes a list of tasks asynchronously and returns a {@link CompletableFuture}
-     * where all the tasks are complete. Each task is executed independently and
-     * concurrently, leveraging the new Virtual Thread.
+     * Converts a {@link Map} of primary key to qty into a json array in the format
+     * {@code [{"id":1,"qty":2}]}. The output is consumed by MySQL JSON_TABLE in native
+     * queries that update or insert multiple rows in a single statement.
      *
-     * @param schedules The list of tasks to execute asynchronously.
-     * @param clazz The class that called this method.
-     * @return A {@link CompletableFuture} holding a list of results from all completed
-     * tasks.
-     * @throws CustomServerError if an error occurs when performing an asynchronous
-     * task.
+     * @param map key is a primary key and value is a qty.
+     * @return a json array as a {@link String}.
      */
-    public static <T, C> CompletableFuture<List<T>> asynchronousTasks(
-            final List<T> schedules, final Class<C> clazz
-    ) {
-        final List<CompletableFuture<T>> futures = new ArrayList<>();
-        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            for (final T s : schedules) {
-                futures.add(CompletableFuture
-                        .supplyAsync(() -> s, executor)
-                        .exceptionally(e -> {
-                            log.error("%s thrown %s".formatted(clazz.getName(), e.getMessage()));
-                            throw new CustomServerError(e.getMessage());
-                        })
-                );
-            }
-        }
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> futures.stream().map(CompletableFuture::join).toList());
+    public static String toJsonArray(final Map<Long, Integer> map) {
+        final StringJoiner joiner = new StringJoiner(",", "[", "]");
+        map.forEach((id, qty) -> joiner.add("{\"id\":%d,\"qty\":%d}".formatted(id, qty)));
+        return joiner.toString();
     }
 
     /**
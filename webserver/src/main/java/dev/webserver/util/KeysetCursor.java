@@ -0,0 +1,59 @@
+package dev.webserver.util;
+
+import dev.webserver.exception.CustomInvalidFormatException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token of a keyset paginated listing.
+ * <p>
+ * A token wraps the primary key of the last row returned, so the next slice is read with
+ * {@code WHERE id > :after ORDER BY id} from the index instead of skipping an OFFSET of
+ * rows. Clients must treat the token as opaque; its format may change between versions.
+ */
+public final class KeysetCursor {
+
+    private static final String VERSION = "v1:";
+
+    private KeysetCursor() { }
+
+    /**
+     * Returns a token continuing after the row with primary key {@code id}.
+     */
+    public static String encode(final long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((VERSION + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the primary key {@code cursor} continues after, or 0 if {@code cursor} is
+     * null or blank, i.e. the first slice.
+     *
+     * @throws CustomInvalidFormatException if {@code cursor} was not returned by
+     * {@link #encode(long)}.
+     */
+    public static long decode(final String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(VERSION)) {
+                throw new CustomInvalidFormatException("invalid cursor");
+            }
+
+            final long id = Long.parseLong(decoded.substring(VERSION.length()));
+            if (id < 0) {
+                throw new CustomInvalidFormatException("invalid cursor");
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and malformed base64
+            throw new CustomInvalidFormatException("invalid cursor");
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package dev.webserver.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Holds a single value loaded on first read and reused until it is invalidated or
+ * older than {@link #ttl}. Intended for small, rarely changing tables that are read on
+ * every request, e.g. shipping and tax settings.
+ * <p>
+ * Concurrent readers of an empty or stale cache wait on a single load. A load that
+ * started before {@link #invalidate()} is returned to its caller but never cached, so
+ * a value read before a write commits cannot outlive the invalidation. The {@link #ttl}
+ * bounds how long a node that missed an invalidation serves a stale value.
+ *
+ * @param <T> the type of the cached value.
+ */
+public final class ReadThroughCache<T> {
+
+    private record Snapshot<T>(T value, Instant expiresAt) { }
+
+    private final Supplier<T> loader;
+    private final Duration ttl;
+    private final Clock clock;
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Snapshot<T> snapshot;
+
+    public ReadThroughCache(Supplier<T> loader, Duration ttl) {
+        this(loader, ttl, Clock.systemUTC());
+    }
+
+    public ReadThroughCache(Supplier<T> loader, Duration ttl, Clock clock) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be greater than 0");
+        }
+        this.loader = loader;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached value, loading it if the cache is empty or stale.
+     */
+    public T get() {
+        final Snapshot<T> current = snapshot;
+        if (current != null && clock.instant().isBefore(current.expiresAt())) {
+            return current.value();
+        }
+        return load();
+    }
+
+    /**
+     * Discards the cached value. The next {@link #get()} reads through to the loader.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private synchronized T load() {
+        final Snapshot<T> current = snapshot;
+        if (current != null && clock.instant().isBefore(current.expiresAt())) {
+            return current.value();
+        }
+
+        final long gen = generation.get();
+        final T value = loader.get();
+
+        if (gen == generation.get()) {
+            snapshot = new Snapshot<>(value, clock.instant().plus(ttl));
+        }
+
+        return value;
+    }
+
+}
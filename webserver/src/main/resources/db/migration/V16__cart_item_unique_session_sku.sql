@@ -0,0 +1,8 @@
+# keep the latest line when a ProductSku was added to the same cart more than once
+DELETE c
+FROM cart_item c
+         INNER JOIN cart_item d
+                    ON c.session_id = d.session_id AND c.sku_id = d.sku_id AND c.cart_id < d.cart_id;
+
+ALTER TABLE cart_item
+    ADD CONSTRAINT `cart_item_session_sku_uk` UNIQUE (session_id, sku_id);
@@ -0,0 +1,17 @@
+# paystack webhooks stored on receipt and processed in the background
+CREATE TABLE IF NOT EXISTS webhook_inbox
+(
+    inbox_id        BIGINT       NOT NULL UNIQUE AUTO_INCREMENT,
+    reference       VARCHAR(255) NOT NULL UNIQUE,
+    event           VARCHAR(50)  NOT NULL,
+    payload         MEDIUMTEXT   NOT NULL,
+    status          VARCHAR(10)  NOT NULL,
+    attempts        INTEGER      NOT NULL,
+    received_at     DATETIME     NOT NULL,
+    next_attempt_at DATETIME     NOT NULL,
+    processed_at    DATETIME,
+    last_error      VARCHAR(255),
+    PRIMARY KEY (inbox_id)
+);
+
+CREATE INDEX IX_webhook_inbox_status_next_attempt_at ON webhook_inbox (status, next_attempt_at);
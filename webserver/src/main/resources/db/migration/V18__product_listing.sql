@@ -0,0 +1,57 @@
+# storefront listing read model, one row per product and currency, kept current on write
+CREATE TABLE IF NOT EXISTS product_listing
+(
+    product_id    BIGINT         NOT NULL,
+    currency      VARCHAR(10)    NOT NULL,
+    uuid          VARCHAR(36)    NOT NULL,
+    name          VARCHAR(50)    NOT NULL,
+    description   VARCHAR(1000)  NOT NULL,
+    price         DECIMAL(20, 2) NOT NULL,
+    image_key     VARCHAR(255)   NOT NULL,
+    category_id   BIGINT         NOT NULL,
+    category_path VARCHAR(255)   NOT NULL,
+    category      VARCHAR(50)    NOT NULL,
+    is_visible    BOOLEAN        NOT NULL,
+    in_stock      BOOLEAN        NOT NULL,
+    PRIMARY KEY (product_id, currency),
+    CONSTRAINT `product_listing_product_fk` FOREIGN KEY (product_id) REFERENCES product (product_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IX_product_listing_currency_stock_visible_product ON product_listing (currency, in_stock, is_visible, product_id);
+CREATE INDEX IX_product_listing_currency_stock_path ON product_listing (currency, in_stock, category_path);
+
+# backfill
+INSERT INTO product_listing
+(product_id, currency, uuid, name, description, price, image_key, category_id, category_path, category, is_visible, in_stock)
+WITH RECURSIVE category_path (id, path) AS
+(
+    SELECT c.category_id, CAST(CONCAT('/', c.category_id, '/') AS CHAR(255))
+    FROM product_category c
+    WHERE c.parent_category_id IS NULL
+    UNION ALL
+    SELECT c.category_id, CONCAT(cp.path, c.category_id, '/')
+    FROM category_path cp
+    INNER JOIN product_category c ON cp.id = c.parent_category_id
+)
+SELECT
+p.product_id,
+pr.currency,
+p.uuid,
+p.name,
+COALESCE(p.description, ''),
+pr.price,
+p.default_image_key,
+cat.category_id,
+cp.path,
+cat.name,
+COALESCE(cat.is_visible, FALSE),
+EXISTS (
+    SELECT 1
+    FROM product_detail d
+    INNER JOIN product_sku s ON d.detail_id = s.detail_id
+    WHERE d.product_id = p.product_id AND d.is_visible = TRUE AND s.inventory > 0
+)
+FROM product p
+INNER JOIN product_category cat ON p.category_id = cat.category_id
+INNER JOIN category_path cp ON cat.category_id = cp.id
+INNER JOIN price_currency pr ON p.product_id = pr.product_id;
@@ -0,0 +1,31 @@
+# every (ancestor, descendant) pair of the category tree, a category being its own ancestor at depth 0
+CREATE TABLE IF NOT EXISTS category_closure
+(
+    ancestor_id   BIGINT  NOT NULL,
+    descendant_id BIGINT  NOT NULL,
+    depth         INTEGER NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id),
+    CONSTRAINT `category_closure_ancestor_fk` FOREIGN KEY (ancestor_id) REFERENCES product_category (category_id) ON DELETE CASCADE,
+    CONSTRAINT `category_closure_descendant_fk` FOREIGN KEY (descendant_id) REFERENCES product_category (category_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IX_category_closure_descendant_depth ON category_closure (descendant_id, depth);
+
+# backfill
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE closure (ancestor_id, descendant_id, depth) AS
+(
+    SELECT c.category_id, c.category_id, 0 FROM product_category c
+    UNION ALL
+    SELECT cl.ancestor_id, c.category_id, cl.depth + 1
+    FROM closure cl
+    INNER JOIN product_category c ON cl.descendant_id = c.parent_category_id
+)
+SELECT cl.ancestor_id, cl.descendant_id, cl.depth FROM closure cl;
+
+# subtree listings join category_closure instead of matching a category path prefix
+ALTER TABLE product_listing
+    DROP INDEX IX_product_listing_currency_stock_path,
+    DROP COLUMN category_path;
+
+CREATE INDEX IX_product_listing_category_currency_stock_product ON product_listing (category_id, currency, in_stock, product_id);
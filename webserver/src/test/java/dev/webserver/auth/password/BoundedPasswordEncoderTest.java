@@ -0,0 +1,86 @@
+package dev.webserver.auth.password;
+
+import dev.webserver.AbstractUnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest extends AbstractUnitTest {
+
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new PasswordHashingExecutor(1, 4, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldPrefixNewHashesWithAlgorithm() {
+        // given
+        var encoder = new BoundedPasswordEncoder(BoundedPasswordEncoder.delegating("bcrypt", 4), executor);
+
+        // when
+        var hash = encoder.encode("password");
+
+        // then
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void shouldMatchAndUpgradeHashesStoredWithoutPrefix() {
+        // given
+        var legacy = new BCryptPasswordEncoder(4).encode("password");
+        var encoder = new BoundedPasswordEncoder(BoundedPasswordEncoder.delegating("bcrypt", 4), executor);
+
+        // then
+        assertTrue(encoder.matches("password", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void shouldUpgradeWeakerBcryptCost() {
+        // given
+        var weak = new BoundedPasswordEncoder(BoundedPasswordEncoder.delegating("bcrypt", 4), executor)
+                .encode("password");
+        var encoder = new BoundedPasswordEncoder(BoundedPasswordEncoder.delegating("bcrypt", 5), executor);
+
+        // then
+        assertTrue(encoder.matches("password", weak));
+        assertTrue(encoder.upgradeEncoding(weak));
+    }
+
+    @Test
+    void shouldUpgradeToConfiguredAlgorithm() {
+        // given
+        var bcrypt = new BoundedPasswordEncoder(BoundedPasswordEncoder.delegating("bcrypt", 4), executor)
+                .encode("password");
+        var encoder = new BoundedPasswordEncoder(BoundedPasswordEncoder.delegating("pbkdf2", 4), executor);
+
+        // when
+        var pbkdf2 = encoder.encode("password");
+
+        // then
+        assertTrue(encoder.matches("password", bcrypt));
+        assertTrue(encoder.upgradeEncoding(bcrypt));
+        assertTrue(pbkdf2.startsWith("{pbkdf2}"));
+        assertFalse(encoder.upgradeEncoding(pbkdf2));
+    }
+
+    @Test
+    void shouldRejectUnsupportedAlgorithm() {
+        assertThrows(IllegalArgumentException.class, () -> BoundedPasswordEncoder.delegating("md5", 4));
+    }
+
+}
@@ -0,0 +1,85 @@
+package dev.webserver.auth.password;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest extends AbstractUnitTest {
+
+    private PasswordHashingExecutor executor;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(1, 1, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldReturnResultOfTask() {
+        assertEquals("hash", executor.execute(() -> "hash"));
+        assertTrue(executor.execute(() -> Thread.currentThread().getName().startsWith("password-hash-")));
+    }
+
+    @Test
+    void shouldRethrowExceptionOfTask() {
+        var ex = assertThrows(IllegalStateException.class, () -> executor.execute(() -> {
+            throw new IllegalStateException("bad hash");
+        }));
+        assertEquals("bad hash", ex.getMessage());
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // given
+        var running = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (var callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            // occupies the only thread
+            var first = callers.submit(() -> executor.execute(() -> {
+                running.countDown();
+                await(release);
+                return 1;
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            // occupies the only queue slot
+            var second = callers.submit(() -> executor.execute(() -> 2));
+            while (registry.get("auth.password.hash.queued").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            // then
+            assertThrows(TooManyRequestsException.class, () -> executor.execute(() -> 3));
+            assertEquals(1, registry.get("auth.password.hash.rejected").counter().count());
+
+            release.countDown();
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(2, second.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
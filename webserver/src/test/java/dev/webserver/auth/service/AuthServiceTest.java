@@ -11,12 +11,14 @@ import dev.webserver.user.entity.ClientRole;
 import dev.webserver.user.entity.SarreBrandUser;
 import dev.webserver.user.repository.UserRepository;
 import dev.webserver.user.repository.UserRoleRepository;
+import dev.webserver.util.CacheInvalidationEvent;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -43,6 +45,7 @@ class AuthServiceTest extends AbstractUnitTest {
     @Mock private AuthenticationManager manager;
     @Mock private JwtService tokenService;
     @Mock private ILogEventPublisher publisher;
+    @Mock private ApplicationEventPublisher eventPublisher;
 
     @BeforeEach
     void setUp() {
@@ -52,7 +55,8 @@ class AuthServiceTest extends AbstractUnitTest {
                 this.passwordEncoder,
                 this.manager,
                 this.tokenService,
-                publisher
+                publisher,
+                eventPublisher
         );
 
         this.authService.setJsessionid("JSESSIONID");
@@ -129,6 +133,7 @@ class AuthServiceTest extends AbstractUnitTest {
         this.authService.workerRegister(dto);
         verify(this.userRepository, times(0)).save(any(SarreBrandUser.class));
         verify(this.roleRepository, times(1)).save(any(ClientRole.class));
+        verify(this.eventPublisher, times(1)).publishEvent(any(CacheInvalidationEvent.class));
     }
 
     @Test
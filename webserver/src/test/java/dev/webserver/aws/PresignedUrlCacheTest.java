@@ -0,0 +1,130 @@
+package dev.webserver.aws;
+
+import dev.webserver.AbstractUnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresignedUrlCacheTest extends AbstractUnitTest {
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @Test
+    void shouldReuseUrlUntilCloseToExpiry() {
+        // given
+        var clock = new MutableClock();
+        var cache = new PresignedUrlCache(Duration.ofMinutes(30), Duration.ofMinutes(5), 10, clock);
+        var counter = new AtomicInteger();
+
+        // when
+        var first = cache.get("bucket", "key", () -> "url-" + counter.incrementAndGet());
+        clock.advance(Duration.ofMinutes(24));
+        var second = cache.get("bucket", "key", () -> "url-" + counter.incrementAndGet());
+        clock.advance(Duration.ofMinutes(1));
+        var third = cache.get("bucket", "key", () -> "url-" + counter.incrementAndGet());
+
+        // then
+        assertEquals("url-1", first);
+        assertEquals("url-1", second);
+        assertEquals("url-2", third);
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void shouldNotCacheBlankUrl() {
+        // given
+        var cache = new PresignedUrlCache(Duration.ofMinutes(30), Duration.ofMinutes(5), 10, new MutableClock());
+
+        // when
+        cache.get("bucket", "key", () -> "");
+
+        // then
+        assertEquals(0, cache.size());
+        assertEquals("url", cache.get("bucket", "key", () -> "url"));
+    }
+
+    @Test
+    void shouldInvalidateDeletedKeys() {
+        // given
+        var cache = new PresignedUrlCache(Duration.ofMinutes(30), Duration.ofMinutes(5), 10, new MutableClock());
+        cache.get("bucket", "key-1", () -> "url-1");
+        cache.get("bucket", "key-2", () -> "url-2");
+        cache.get("other", "key-1", () -> "url-3");
+
+        // when
+        cache.invalidate("bucket", List.of("key-1"));
+
+        // then
+        assertEquals(2, cache.size());
+        assertEquals("new", cache.get("bucket", "key-1", () -> "new"));
+        assertEquals("url-3", cache.get("other", "key-1", () -> "new"));
+    }
+
+    @Test
+    void shouldEvictOldestEntriesWhenOverCapacity() {
+        // given
+        var clock = new MutableClock();
+        var cache = new PresignedUrlCache(Duration.ofMinutes(30), Duration.ofMinutes(5), 10, clock);
+
+        // when
+        for (int i = 0; i < 11; i++) {
+            cache.get("bucket", "key-" + i, () -> "url");
+            clock.advance(Duration.ofSeconds(1));
+        }
+
+        // then
+        assertEquals(9, cache.size());
+        assertEquals(2, cache.evictions());
+        assertEquals("new", cache.get("bucket", "key-0", () -> "new"));
+        assertEquals("url", cache.get("bucket", "key-10", () -> "new"));
+    }
+
+    @Test
+    void shouldRegisterMetrics() {
+        // given
+        var registry = new SimpleMeterRegistry();
+        var cache = new PresignedUrlCache(Duration.ofMinutes(30), Duration.ofMinutes(5), 10, new MutableClock());
+        cache.bindTo(registry);
+
+        // when
+        cache.get("bucket", "key", () -> "url");
+        cache.get("bucket", "key", () -> "url");
+
+        // then
+        assertEquals(1, registry.get("s3.presigned.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("s3.presigned.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("s3.presigned.cache.size").gauge().value());
+    }
+
+}
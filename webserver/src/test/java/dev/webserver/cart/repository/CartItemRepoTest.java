@@ -8,20 +8,18 @@ import dev.webserver.category.repository.CategoryRepository;
 import dev.webserver.data.RepositoryTestData;
 import dev.webserver.enumeration.ReservationStatus;
 import dev.webserver.payment.entity.OrderReservation;
-import dev.webserver.payment.projection.TotalPojo;
 import dev.webserver.payment.repository.OrderReservationRepo;
 import dev.webserver.product.entity.ProductSku;
 import dev.webserver.product.repository.*;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Optional;
 
-import static dev.webserver.enumeration.SarreCurrency.NGN;
-import static dev.webserver.enumeration.SarreCurrency.USD;
 import static java.time.temporal.ChronoUnit.HOURS;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -47,7 +45,7 @@ class CartItemRepoTest extends AbstractRepositoryTest {
     private OrderReservationRepo orderReservationRepo;
 
     @Test
-    void updateCartQtyByCartId() {
+    void upsertCartItem() {
         // given
         var cat = categoryRepo
                 .save(ProductCategory.builder()
@@ -58,7 +56,6 @@ class CartItemRepoTest extends AbstractRepositoryTest {
                         .build()
                 );
 
-        // create 2 ProductSku objects
         RepositoryTestData
                 .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
 
@@ -77,19 +74,19 @@ class CartItemRepoTest extends AbstractRepositoryTest {
                         )
                 );
 
-        CartItem cart = cartItemRepo.save(new CartItem(sku.getInventory() - 1, session, sku));
-
         // when
-        cartItemRepo.updateCartItemQtyByCartId(cart.getCartId(), 1);
-
-        Optional<CartItem> optional = cartItemRepo.findById(cart.getCartId());
-        assertFalse(optional.isEmpty());
+        assertEquals(1, cartItemRepo.upsertCartItem(session.shoppingSessionId(), sku.getSkuId(), 3));
+        cartItemRepo.upsertCartItem(session.shoppingSessionId(), sku.getSkuId(), 1);
 
-        assertEquals(1, optional.get().getQty());
+        // then
+        var items = cartItemRepo.findAll();
+        assertEquals(1, items.size());
+        assertEquals(1, items.getFirst().getQty());
+        assertEquals(0, cartItemRepo.upsertCartItem(-1, sku.getSkuId(), 1));
     }
 
     @Test
-    void deleteCartItemByCookieAndSku() {
+    void upsertCartItemByCookieForNewShoppingSession() {
         // given
         var cat = categoryRepo
                 .save(ProductCategory.builder()
@@ -100,139 +97,27 @@ class CartItemRepoTest extends AbstractRepositoryTest {
                         .build()
                 );
 
-        // create 2 ProductSku objects
         RepositoryTestData
                 .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
 
-        var skus = skuRepo.findAll();
-        assertEquals(2, skus.size());
-        ProductSku sku = skus.getFirst();
-
-        var session = this.sessionRepo
-                .save(
-                        new ShoppingSession(
-                                "cookie",
-                                new Date(),
-                                new Date(Instant.now().plus(1, HOURS).toEpochMilli()),
-                                new HashSet<>(),
-                                new HashSet<>()
-                        )
-                );
-
-        CartItem cart = cartItemRepo.save(new CartItem(sku.getInventory() - 1, session, sku));
+        ProductSku sku = skuRepo.findAll().getFirst();
+        var expiry = new Date(Instant.now().plus(1, HOURS).toEpochMilli());
 
         // when
-        cartItemRepo.deleteCartItemByCookieAndSku(session.cookie(), sku.getSku());
-
-        Optional<CartItem> optional = cartItemRepo.findById(cart.getCartId());
-        assertTrue(optional.isEmpty());
-    }
-
-    @Test
-    void totalAmountInDefaultCurrency() {
-        // given
-        var cat = categoryRepo
-                .save(ProductCategory.builder()
-                        .name("category")
-                        .isVisible(true)
-                        .categories(new HashSet<>())
-                        .product(new HashSet<>())
-                        .build()
-                );
-
-        RepositoryTestData
-                .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
-
-        var skus = skuRepo.findAll();
-        assertEquals(3, skus.size());
-
-        var saved = this.sessionRepo
-                .save(
-                        new ShoppingSession(
-                                "cookie",
-                                new Date(),
-                                new Date(Instant.now().plus(1, HOURS).toEpochMilli()),
-                                new HashSet<>(),
-                                new HashSet<>()
-                        )
-                );
-
-        for (ProductSku sku : skus) {
-            cartItemRepo.save(new CartItem(sku.getInventory(), saved, sku));
-        }
-
-        // when
-        var usd = cartItemRepo.amountToPayForAllCartItemsForShoppingSession(saved.shoppingSessionId(), USD);
-        var ngn = cartItemRepo.amountToPayForAllCartItemsForShoppingSession(saved.shoppingSessionId(), NGN);
-
-        assertFalse(ngn.isEmpty());
-        assertFalse(usd.isEmpty());
-
-        for (TotalPojo pojo : usd) {
-            assertNotNull(pojo.getQty());
-            assertNotNull(pojo.getPrice());
-            assertNotNull(pojo.getWeight());
-        }
-
-        for (TotalPojo pojo : ngn) {
-            assertNotNull(pojo.getQty());
-            assertNotNull(pojo.getPrice());
-            assertNotNull(pojo.getWeight());
-        }
-    }
-
-    @Test
-    void deleteCartItemsByShoppingSessionId() {
-        // given
-        var cat = categoryRepo
-                .save(ProductCategory.builder()
-                        .name("category")
-                        .isVisible(true)
-                        .categories(new HashSet<>())
-                        .product(new HashSet<>())
-                        .build()
-                );
-
-        RepositoryTestData
-                .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
-
-        var skus = skuRepo.findAll();
-        assertEquals(3, skus.size());
-        ProductSku first = skus.getFirst();
-        ProductSku second = skus.get(1);
-        ProductSku third = skus.get(2);
-
-        var session = this.sessionRepo
-                .save(
-                        new ShoppingSession(
-                                "cookie",
-                                new Date(),
-                                new Date(Instant.now().plus(1, HOURS).toEpochMilli()),
-                                new HashSet<>(),
-                                new HashSet<>()
-                        )
-                );
-
-        cartItemRepo.save(new CartItem(3, session, first));
-        cartItemRepo.save(new CartItem(5, session, second));
-        cartItemRepo.save(new CartItem(7, session, third));
-
-        assertEquals(3, cartItemRepo
-                .cartItemsByShoppingSessionId(session.shoppingSessionId()).size()
-        );
-
-        // when
-        cartItemRepo
-                .deleteCartItemsByShoppingSessionId(session.shoppingSessionId());
+        sessionRepo.upsertShoppingSession("cookie", new Date(), expiry);
+        sessionRepo.upsertShoppingSession("cookie", new Date(), expiry);
+        cartItemRepo.upsertCartItemByCookie("cookie", sku.getSkuId(), 2);
+        cartItemRepo.upsertCartItemByCookie("cookie", sku.getSkuId(), 4);
 
         // then
-        assertTrue(cartItemRepo
-                .cartItemsByShoppingSessionId(session.shoppingSessionId()).isEmpty()
-        );
+        assertEquals(1, sessionRepo.findAll().size());
+        var items = cartItemRepo.findAll();
+        assertEquals(1, items.size());
+        assertEquals(4, items.getFirst().getQty());
     }
 
     @Test
-    void cartItemsByShoppingSessionId() {
+    void shouldRejectDuplicateProductSkuInTheSameCart() {
         // given
         var cat = categoryRepo
                 .save(ProductCategory.builder()
@@ -244,13 +129,9 @@ class CartItemRepoTest extends AbstractRepositoryTest {
                 );
 
         RepositoryTestData
-                .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+                .createProduct(1, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
 
-        var skus = skuRepo.findAll();
-        assertEquals(3, skus.size());
-        ProductSku first = skus.getFirst();
-        ProductSku second = skus.get(1);
-        ProductSku third = skus.get(2);
+        ProductSku sku = skuRepo.findAll().getFirst();
 
         var session = this.sessionRepo
                 .save(
@@ -263,20 +144,15 @@ class CartItemRepoTest extends AbstractRepositoryTest {
                         )
                 );
 
-        cartItemRepo.save(new CartItem(3, session, first));
-        cartItemRepo.save(new CartItem(5, session, second));
-        cartItemRepo.save(new CartItem(7, session, third));
+        cartItemRepo.save(new CartItem(1, session, sku));
 
-        // when
-        assertEquals(3,
-                cartItemRepo
-                        .cartItemsByShoppingSessionId(session.shoppingSessionId())
-                        .size()
-        );
+        // then
+        assertThrows(DataIntegrityViolationException.class,
+                () -> cartItemRepo.saveAndFlush(new CartItem(1, session, sku)));
     }
 
     @Test
-    void cartItemByShoppingSessionIdAndProductSkuSku() {
+    void deleteCartItemByShoppingSessionIdAndSku() {
         // given
         var cat = categoryRepo
                 .save(ProductCategory.builder()
@@ -287,13 +163,13 @@ class CartItemRepoTest extends AbstractRepositoryTest {
                         .build()
                 );
 
+        // create 2 ProductSku objects
         RepositoryTestData
                 .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
 
         var skus = skuRepo.findAll();
         assertEquals(2, skus.size());
-        ProductSku first = skus.getFirst();
-        ProductSku second = skus.get(1);
+        ProductSku sku = skus.getFirst();
 
         var session = this.sessionRepo
                 .save(
@@ -306,29 +182,17 @@ class CartItemRepoTest extends AbstractRepositoryTest {
                         )
                 );
 
-        cartItemRepo.save(new CartItem(3, session, first));
-        cartItemRepo.save(new CartItem(3, session, second));
+        CartItem cart = cartItemRepo.save(new CartItem(sku.getInventory() - 1, session, sku));
 
         // when
-        assertFalse(cartItemRepo
-                .cartItemByShoppingSessionIdAndProductSkuSku(
-                        session.shoppingSessionId(),
-                        first.getSku()
-                )
-                .isEmpty()
-        );
-
-        assertFalse(cartItemRepo
-                .cartItemByShoppingSessionIdAndProductSkuSku(
-                        session.shoppingSessionId(),
-                        second.getSku()
-                )
-                .isEmpty()
-        );
+        cartItemRepo.deleteCartItemByShoppingSessionIdAndSku(session.shoppingSessionId(), sku.getSku());
+
+        Optional<CartItem> optional = cartItemRepo.findById(cart.getCartId());
+        assertTrue(optional.isEmpty());
     }
 
     @Test
-    void shouldSuccessfullyRetrieveRaceConditionCartPojo() {
+    void deleteCartItemsByShoppingSessionId() {
         // given
         var cat = categoryRepo
                 .save(ProductCategory.builder()
@@ -363,20 +227,14 @@ class CartItemRepoTest extends AbstractRepositoryTest {
         cartItemRepo.save(new CartItem(5, session, second));
         cartItemRepo.save(new CartItem(7, session, third));
 
+        assertEquals(3, cartItemRepo.findAll().size());
+
         // when
-        var list = cartItemRepo
-                .cartItemsByShoppingSessionId(session.shoppingSessionId());
-        assertEquals(3, list.size());
-
-        for (var pojo : list) {
-            assertTrue(pojo.getProductSkuId() > 0);
-            assertFalse(pojo.getProductSkuSku().isEmpty());
-            assertFalse(pojo.getProductSkuSize().isEmpty());
-            assertTrue(pojo.getProductSkuInventory() > 0);
-            assertTrue(pojo.getCartItemId() > 0);
-            assertTrue(pojo.getCartItemQty() > 0);
-            assertTrue(pojo.getShoppingSessionId() > 0);
-        }
+        cartItemRepo
+                .deleteCartItemsByShoppingSessionId(session.shoppingSessionId());
+
+        // then
+        assertTrue(cartItemRepo.findAll().isEmpty());
     }
 
     @Test
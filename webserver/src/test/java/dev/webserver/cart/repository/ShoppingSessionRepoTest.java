@@ -7,6 +7,7 @@ import dev.webserver.cart.projection.CartPojo;
 import dev.webserver.category.entity.ProductCategory;
 import dev.webserver.category.repository.CategoryRepository;
 import dev.webserver.data.RepositoryTestData;
+import dev.webserver.payment.projection.CheckoutSnapshotPojo;
 import dev.webserver.product.entity.ProductSku;
 import dev.webserver.product.repository.*;
 import dev.webserver.util.CustomUtil;
@@ -15,8 +16,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 
 import static dev.webserver.enumeration.SarreCurrency.NGN;
 import static dev.webserver.enumeration.SarreCurrency.USD;
@@ -76,16 +79,20 @@ class ShoppingSessionRepoTest extends AbstractRepositoryTest {
 
         var instant = Instant.now().plus(2, HOURS);
         var expired = Date.from(instant);
-        sessionRepo.updateShoppingSessionExpiry("cookie", expired);
+        int updated = sessionRepo.updateShoppingSessionsExpiry(List.of(saved.shoppingSessionId()), expired);
+        int earlier = sessionRepo
+                .updateShoppingSessionsExpiry(List.of(saved.shoppingSessionId()), new Date());
 
         // when
         var session = this.sessionRepo.findById(saved.shoppingSessionId());
         assertFalse(session.isEmpty());
+        assertEquals(1, updated);
+        assertEquals(0, earlier);
         Assertions.assertNotEquals(CustomUtil.toUTC(saved.createAt()), CustomUtil.toUTC(expired));
     }
 
     @Test
-    void cartItemsByCookieValue() {
+    void cartItemsByShoppingSessionId() {
         // given
         var cat = categoryRepo
                 .save(ProductCategory.builder()
@@ -118,8 +125,8 @@ class ShoppingSessionRepoTest extends AbstractRepositoryTest {
         }
 
         // when
-        var usd = sessionRepo.cartItemsByCookieValue(USD, "cookie");
-        var ngn = sessionRepo.cartItemsByCookieValue(NGN, "cookie");
+        var usd = sessionRepo.cartItemsByShoppingSessionId(USD, saved.shoppingSessionId());
+        var ngn = sessionRepo.cartItemsByShoppingSessionId(NGN, saved.shoppingSessionId());
 
         assertEquals(3, usd.size());
         assertEquals(3, ngn.size());
@@ -158,28 +165,106 @@ class ShoppingSessionRepoTest extends AbstractRepositoryTest {
     }
 
     @Test
-    void allExpiredShoppingSession() {
+    void checkoutSnapshotByShoppingSessionId() {
+        // given
+        var cat = categoryRepo
+                .save(ProductCategory.builder()
+                        .name("category")
+                        .isVisible(true)
+                        .categories(new HashSet<>())
+                        .product(new HashSet<>())
+                        .build()
+                );
+
+        RepositoryTestData
+                .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+
+        var skus = skuRepo.findAll();
+        assertEquals(3, skus.size());
+
+        var saved = this.sessionRepo
+                .save(
+                        new ShoppingSession(
+                                "cookie",
+                                new Date(),
+                                new Date(Instant.now().plus(1, HOURS).toEpochMilli()),
+                                new HashSet<>(),
+                                new HashSet<>()
+                        )
+                );
+
+        var emptySession = this.sessionRepo
+                .save(
+                        new ShoppingSession(
+                                "empty",
+                                new Date(),
+                                new Date(Instant.now().plus(1, HOURS).toEpochMilli()),
+                                new HashSet<>(),
+                                new HashSet<>()
+                        )
+                );
+
+        for (ProductSku sku : skus) {
+            cartItemRepo.save(new CartItem(sku.getInventory() - 1, saved, sku));
+        }
+
+        // when
+        var usd = sessionRepo.checkoutSnapshotByShoppingSessionId(saved.shoppingSessionId(), USD);
+        var empty = sessionRepo.checkoutSnapshotByShoppingSessionId(emptySession.shoppingSessionId(), USD);
+        var none = sessionRepo.checkoutSnapshotByShoppingSessionId(-1, USD);
+
+        // then
+        assertEquals(3, usd.size());
+        for (CheckoutSnapshotPojo p : usd) {
+            assertEquals(saved.shoppingSessionId(), p.getSession().shoppingSessionId());
+            assertEquals(saved.shoppingSessionId(), p.getShoppingSessionId());
+            assertNotNull(p.getCartItemId());
+            assertNotNull(p.getProductSkuId());
+            assertNotNull(p.getProductSkuSku());
+            assertNotNull(p.getProductSkuSize());
+            assertNotNull(p.getProductSkuInventory());
+            assertEquals(p.getCartItemQty(), p.getQty());
+            assertNotNull(p.getPrice());
+            assertNotNull(p.getWeight());
+        }
+
+        assertEquals(1, empty.size());
+        assertNotNull(empty.getFirst().getSession());
+        assertNull(empty.getFirst().getCartItemId());
+
+        assertTrue(none.isEmpty());
+    }
+
+    @Test
+    void shouldReturnExpiredShoppingSessionIdsAfterLastIdAndDeleteThemInBatch() {
         // given
         var createExpired = new Date(Instant.now().minus(2, HOURS).toEpochMilli());
         var toExpire = new Date(Instant.now().minus(1, HOURS).toEpochMilli());
+        var notExpired = new Date(Instant.now().plus(1, HOURS).toEpochMilli());
 
-        int num = 5;
-
-        for (int i = 0; i < num; i++) {
+        for (int i = 0; i < 5; i++) {
             this.sessionRepo
-                    .save(
-                            new ShoppingSession(
-                                    "cookie" + i,
-                                    createExpired,
-                                    toExpire,
-                                    new HashSet<>(),
-                                    new HashSet<>()
-                            )
-                    );
+                    .save(new ShoppingSession("cookie" + i, createExpired, toExpire, new HashSet<>(), new HashSet<>()));
         }
 
+        this.sessionRepo
+                .save(new ShoppingSession("active", createExpired, notExpired, new HashSet<>(), new HashSet<>()));
+
         // when
-        assertEquals(num, sessionRepo.allExpiredShoppingSession(new Date()).size());
+        var first = sessionRepo.lockExpiredShoppingSessionIds(new Date(), 0, 3);
+        var second = sessionRepo.lockExpiredShoppingSessionIds(new Date(), first.getLast(), 3);
+
+        // then
+        assertEquals(3, first.size());
+        assertEquals(2, second.size());
+        assertTrue(first.getLast() < second.getFirst());
+
+        var ids = new ArrayList<>(first);
+        ids.addAll(second);
+
+        assertEquals(5, sessionRepo.deleteShoppingSessionsByIds(ids));
+        assertEquals(1, sessionRepo.count());
+        assertTrue(sessionRepo.shoppingSessionByCookie("active").isPresent());
     }
 
 }
\ No newline at end of file
@@ -2,22 +2,29 @@ package dev.webserver.cart.service;
 
 import dev.webserver.AbstractUnitTest;
 import dev.webserver.aws.S3Service;
+import dev.webserver.cart.dto.CartDTO;
 import dev.webserver.cart.repository.CartItemRepo;
 import dev.webserver.cart.repository.ShoppingSessionRepo;
+import dev.webserver.cart.session.CartSession;
+import dev.webserver.cart.session.ShoppingSessionExpiryExtender;
+import dev.webserver.product.entity.ProductSku;
 import dev.webserver.product.service.ProductSkuService;
+import dev.webserver.util.AsynchronousTasks;
 import dev.webserver.util.CustomUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
 
 import static java.time.temporal.ChronoUnit.HOURS;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class CartServiceTest extends AbstractUnitTest {
@@ -34,6 +41,8 @@ class CartServiceTest extends AbstractUnitTest {
     private ProductSkuService productSKUService;
     @Mock
     private S3Service s3Service;
+    @Mock
+    private ShoppingSessionExpiryExtender expiryExtender;
 
     @BeforeEach
     void setUp() {
@@ -41,7 +50,9 @@ class CartServiceTest extends AbstractUnitTest {
                 this.shoppingSessionRepo,
                 this.cartItemRepo,
                 this.productSKUService,
-                this.s3Service
+                this.s3Service,
+                new AsynchronousTasks(4, Duration.ofSeconds(5), new SimpleMeterRegistry()),
+                this.expiryExtender
         );
 
         this.cartService.setSplit("%");
@@ -64,11 +75,11 @@ class CartServiceTest extends AbstractUnitTest {
         HttpServletResponse res = mock(HttpServletResponse.class);
 
         // method to test
-        cartService.validateCookieExpiration(res, cookie);
+        cartService.validateCookieExpiration(res, new CartSession(cookie, "cookie", 1L));
 
         // then
-        verify(this.shoppingSessionRepo, times(1))
-                .updateShoppingSessionExpiry(anyString(), any(Date.class));
+        verify(this.expiryExtender, times(1)).extend(anyLong(), any(Instant.class));
+        verifyNoInteractions(this.shoppingSessionRepo);
     }
 
     /**
@@ -89,11 +100,62 @@ class CartServiceTest extends AbstractUnitTest {
         HttpServletResponse res = mock(HttpServletResponse.class);
 
         // method to test
-        cartService.validateCookieExpiration(res, cookie);
+        cartService.validateCookieExpiration(res, new CartSession(cookie, "cookie", 1L));
+
+        // then
+        verify(expiryExtender, times(0)).extend(anyLong(), any(Instant.class));
+    }
+
+    @Test
+    void shouldUpsertCartItemOfExistingShoppingSession() {
+        // given
+        var sku = ProductSku.builder().skuId(3L).sku("sku").inventory(5).build();
+        var cookie = new Cookie(CARTCOOKIE, "cookie%" + Instant.now().plus(10, HOURS).getEpochSecond());
+
+        // when
+        when(productSKUService.productSkuBySku("sku")).thenReturn(sku);
+        when(cartItemRepo.upsertCartItem(1L, 3L, 2)).thenReturn(1);
+
+        cartService.create(new CartDTO("sku", 2), new CartSession(cookie, "cookie", 1L));
+
+        // then
+        verify(cartItemRepo, times(1)).upsertCartItem(1L, 3L, 2);
+        verify(cartItemRepo, never()).upsertCartItemByCookie(anyString(), anyLong(), anyInt());
+        verifyNoInteractions(shoppingSessionRepo);
+    }
+
+    @Test
+    void shouldCreateShoppingSessionWhenNoneExists() {
+        // given
+        var sku = ProductSku.builder().skuId(3L).sku("sku").inventory(5).build();
+        var cookie = new Cookie(CARTCOOKIE, "cookie%" + Instant.now().plus(10, HOURS).getEpochSecond());
+
+        // when
+        when(productSKUService.productSkuBySku("sku")).thenReturn(sku);
+
+        cartService.create(new CartDTO("sku", 2), new CartSession(cookie, "cookie", null));
+
+        // then
+        verify(shoppingSessionRepo, times(1)).upsertShoppingSession(eq("cookie"), any(Date.class), any(Date.class));
+        verify(cartItemRepo, times(1)).upsertCartItemByCookie("cookie", 3L, 2);
+        verify(cartItemRepo, never()).upsertCartItem(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldCreateShoppingSessionWhenCachedOneWasDeleted() {
+        // given
+        var sku = ProductSku.builder().skuId(3L).sku("sku").inventory(5).build();
+        var cookie = new Cookie(CARTCOOKIE, "cookie%" + Instant.now().plus(10, HOURS).getEpochSecond());
+
+        // when
+        when(productSKUService.productSkuBySku("sku")).thenReturn(sku);
+        when(cartItemRepo.upsertCartItem(1L, 3L, 2)).thenReturn(0);
+
+        cartService.create(new CartDTO("sku", 2), new CartSession(cookie, "cookie", 1L));
 
         // then
-        verify(shoppingSessionRepo, times(0))
-                .updateShoppingSessionExpiry(anyString(), any(Date.class));
+        verify(shoppingSessionRepo, times(1)).upsertShoppingSession(eq("cookie"), any(Date.class), any(Date.class));
+        verify(cartItemRepo, times(1)).upsertCartItemByCookie("cookie", 3L, 2);
     }
 
-}
\ No newline at end of file
+}
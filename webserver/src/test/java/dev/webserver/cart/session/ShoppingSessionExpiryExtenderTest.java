@@ -0,0 +1,126 @@
+package dev.webserver.cart.session;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.cart.repository.ShoppingSessionRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ShoppingSessionExpiryExtenderTest extends AbstractUnitTest {
+
+    private ShoppingSessionExpiryExtender extender;
+    private SimpleMeterRegistry registry;
+
+    @Mock
+    private ShoppingSessionRepo repository;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        extender = new ShoppingSessionExpiryExtender(repository, registry);
+    }
+
+    @Test
+    void shouldNotWriteUntilFlushed() {
+        // when
+        extender.extend(1L, Instant.parse("2024-01-03T10:15:30Z"));
+
+        // then
+        assertEquals(1, extender.pending());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldCollapseRepeatedExtensionsIntoOneUpdate() {
+        // given
+        var first = Instant.parse("2024-01-03T10:15:10Z");
+        var second = Instant.parse("2024-01-03T10:15:50Z");
+
+        // when
+        extender.extend(1L, first);
+        extender.extend(1L, second);
+        extender.extend(2L, first);
+        extender.flush();
+
+        // then
+        verify(repository, times(1)).updateShoppingSessionsExpiry(
+                argThat(ids -> Set.copyOf(ids).equals(Set.of(1L, 2L))),
+                eq(Date.from(Instant.parse("2024-01-03T10:16:00Z")))
+        );
+        assertEquals(0, extender.pending());
+        assertEquals(3, registry.get("cart.session.expiry.extensions").counter().count());
+        assertEquals(1, registry.get("cart.session.expiry.writes").counter().count());
+    }
+
+    @Test
+    void shouldKeepLatestExpiryPerSession() {
+        // when
+        extender.extend(1L, Instant.parse("2024-01-03T11:00:00Z"));
+        extender.extend(1L, Instant.parse("2024-01-03T10:00:00Z"));
+        extender.flush();
+
+        // then
+        verify(repository, times(1))
+                .updateShoppingSessionsExpiry(List.of(1L), Date.from(Instant.parse("2024-01-03T11:00:00Z")));
+    }
+
+    @Test
+    void shouldSplitLargeFlushIntoChunks() {
+        // given
+        var expiry = Instant.parse("2024-01-03T10:00:00Z");
+        int sessions = ShoppingSessionExpiryExtender.MAX_IDS_PER_UPDATE + 1;
+
+        // when
+        LongStream.range(0, sessions).forEach(id -> extender.extend(id, expiry));
+        extender.flush();
+
+        // then
+        verify(repository, times(2)).updateShoppingSessionsExpiry(anyCollection(), any(Date.class));
+    }
+
+    @Test
+    void shouldRequeueExtensionsThatFailedToWrite() {
+        // given
+        var expiry = Instant.parse("2024-01-03T10:00:00Z");
+
+        // when
+        when(repository.updateShoppingSessionsExpiry(anyCollection(), any(Date.class)))
+                .thenThrow(new RuntimeException("db unavailable"))
+                .thenReturn(1);
+
+        extender.extend(1L, expiry);
+        extender.flush();
+
+        // then
+        assertEquals(1, extender.pending());
+
+        // when
+        extender.flush();
+
+        // then
+        assertEquals(0, extender.pending());
+        verify(repository, times(2)).updateShoppingSessionsExpiry(List.of(1L), Date.from(expiry));
+    }
+
+    @Test
+    void shouldFlushOnShutdown() {
+        // when
+        extender.extend(1L, Instant.parse("2024-01-03T10:00:00Z"));
+        extender.shutdown();
+
+        // then
+        verify(repository, times(1)).updateShoppingSessionsExpiry(anyCollection(), any(Date.class));
+    }
+
+}
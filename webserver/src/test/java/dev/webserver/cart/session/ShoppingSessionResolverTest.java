@@ -0,0 +1,160 @@
+package dev.webserver.cart.session;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.cart.repository.ShoppingSessionRepo;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ShoppingSessionResolverTest extends AbstractUnitTest {
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private ShoppingSessionResolver resolver;
+    private MutableClock clock;
+
+    @Mock
+    private ShoppingSessionRepo repository;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        resolver = new ShoppingSessionResolver(repository, "CARTCOOKIE", "%", Duration.ofSeconds(60), 2, clock);
+    }
+
+    private static MockHttpServletRequest request(String value) {
+        var req = new MockHttpServletRequest();
+        if (value != null) {
+            req.setCookies(new Cookie("CARTCOOKIE", value));
+        }
+        return req;
+    }
+
+    @Test
+    void shouldResolveRequestWithoutCookieToNone() {
+        // when
+        var session = resolver.resolve(request(null));
+
+        // then
+        assertFalse(session.hasCookie());
+        assertFalse(session.hasSession());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldResolveCookieOncePerRequest() {
+        // given
+        var req = request("cookie%1700000000");
+
+        // when
+        when(repository.shoppingSessionIdByCookie("cookie")).thenReturn(Optional.of(5L));
+
+        var first = resolver.resolve(req);
+        var second = resolver.resolve(req);
+
+        // then
+        assertSame(first, second);
+        assertEquals("cookie", first.value());
+        assertEquals(5L, first.sessionId());
+        verify(repository, times(1)).shoppingSessionIdByCookie("cookie");
+    }
+
+    @Test
+    void shouldReuseCachedSessionIdUntilTtlElapses() {
+        // when
+        when(repository.shoppingSessionIdByCookie("cookie")).thenReturn(Optional.of(5L));
+
+        resolver.resolve(request("cookie%1"));
+        clock.now = clock.now.plusSeconds(59);
+        resolver.resolve(request("cookie%1"));
+
+        // then
+        verify(repository, times(1)).shoppingSessionIdByCookie("cookie");
+
+        // when
+        clock.now = clock.now.plusSeconds(1);
+        resolver.resolve(request("cookie%1"));
+
+        // then
+        verify(repository, times(2)).shoppingSessionIdByCookie("cookie");
+    }
+
+    @Test
+    void shouldNotCacheUnknownCookie() {
+        // when
+        when(repository.shoppingSessionIdByCookie("unknown")).thenReturn(Optional.empty());
+
+        var session = resolver.resolve(request("unknown%1"));
+        resolver.resolve(request("unknown%1"));
+
+        // then
+        assertTrue(session.hasCookie());
+        assertFalse(session.hasSession());
+        assertEquals(0, resolver.size());
+        verify(repository, times(2)).shoppingSessionIdByCookie("unknown");
+    }
+
+    @Test
+    void shouldEvictDeletedSessions() {
+        // given
+        when(repository.shoppingSessionIdByCookie("first")).thenReturn(Optional.of(1L), Optional.empty());
+        when(repository.shoppingSessionIdByCookie("second")).thenReturn(Optional.of(2L));
+
+        resolver.resolve(request("first%1"));
+        resolver.resolve(request("second%1"));
+
+        // when
+        resolver.evict(List.of(1L));
+        var session = resolver.resolve(request("first%1"));
+
+        // then
+        assertFalse(session.hasSession());
+        assertEquals(1, resolver.size());
+    }
+
+    @Test
+    void shouldNotExceedMaxSize() {
+        // given
+        when(repository.shoppingSessionIdByCookie(anyString())).thenReturn(Optional.of(1L), Optional.of(2L), Optional.of(3L));
+
+        // when
+        resolver.resolve(request("first%1"));
+        resolver.resolve(request("second%1"));
+        resolver.resolve(request("third%1"));
+
+        // then
+        assertTrue(resolver.size() <= 2);
+    }
+
+}
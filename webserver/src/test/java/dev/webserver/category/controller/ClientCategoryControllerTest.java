@@ -1,8 +1,11 @@
 package dev.webserver.category.controller;
 
 import dev.webserver.AbstractIntegration;
+import dev.webserver.category.dto.CategoryDTO;
+import dev.webserver.category.dto.UpdateCategoryDTO;
 import dev.webserver.category.entity.ProductCategory;
 import dev.webserver.category.repository.CategoryRepository;
+import dev.webserver.category.service.WorkerCategoryService;
 import dev.webserver.data.TestData;
 import dev.webserver.product.service.WorkerProductService;
 import org.junit.jupiter.api.Test;
@@ -27,6 +30,8 @@ class ClientCategoryControllerTest extends AbstractIntegration {
     private WorkerProductService service;
     @Autowired
     private CategoryRepository repository;
+    @Autowired
+    private WorkerCategoryService categoryService;
 
     @Test
     void allCategories() throws Exception {
@@ -63,18 +68,31 @@ class ClientCategoryControllerTest extends AbstractIntegration {
                 .andExpect(jsonPath("$[*].category_id", notNullValue()));
     }
 
+    private ProductCategory category(String name, ProductCategory parent) {
+        categoryService.create(new CategoryDTO(name, true, parent == null ? null : parent.getCategoryId()));
+        return repository.findByName(name).orElseThrow();
+    }
+
+    private void expectProducts(ProductCategory category, int size) throws Exception {
+        MvcResult result = super.mockMvc
+                .perform(get(path + "/products")
+                        .param("category_id", String.valueOf(category.getCategoryId()))
+                )
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk())
+                .andReturn();
+
+        super.mockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(content().contentType("application/json"))
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content.size()").value(size))
+                .andExpect(jsonPath("$.page.totalElements").value(size));
+    }
+
     @Test
     void allProductsByCategoryId() throws Exception {
-        var category = repository
-                .save(
-                        ProductCategory.builder()
-                                .name("category")
-                                .isVisible(true)
-                                .parentCategory(null)
-                                .categories(new HashSet<>())
-                                .product(new HashSet<>())
-                                .build()
-                );
+        var category = category("category", null);
 
         TestData.dummyProducts(category, 10, service);
 
@@ -94,4 +112,42 @@ class ClientCategoryControllerTest extends AbstractIntegration {
                 .andExpect(jsonPath("$.content.size()").value(10));
     }
 
-}
\ No newline at end of file
+    @Test
+    void allProductsByCategoryIdIncludesDescendants() throws Exception {
+        var category = category("category", null);
+        var clothes = category("clothes", category);
+        var shirts = category("shirts", clothes);
+
+        TestData.dummyProducts(category, 2, service);
+        TestData.dummyProducts(clothes, 3, service);
+        TestData.dummyProducts(shirts, 4, service);
+
+        expectProducts(category, 9);
+        expectProducts(clothes, 7);
+        expectProducts(shirts, 4);
+    }
+
+    @Test
+    void allProductsByCategoryIdAfterCategoryIsMoved() throws Exception {
+        var category = category("category", null);
+        var collection = category("collection", null);
+        var clothes = category("clothes", category);
+        var shirts = category("shirts", clothes);
+
+        TestData.dummyProducts(clothes, 3, service);
+        TestData.dummyProducts(shirts, 2, service);
+
+        expectProducts(category, 5);
+        expectProducts(collection, 0);
+
+        categoryService.update(
+                new UpdateCategoryDTO(clothes.getCategoryId(), collection.getCategoryId(), "clothes", true)
+        );
+
+        expectProducts(category, 0);
+        expectProducts(collection, 5);
+        expectProducts(clothes, 5);
+        expectProducts(shirts, 2);
+    }
+
+}
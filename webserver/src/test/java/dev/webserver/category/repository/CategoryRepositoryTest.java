@@ -150,7 +150,7 @@ class CategoryRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
-    void allProductsByCategoryIdWhereInStockAndIsVisible() {
+    void saveCategoryClosure() {
         // given
         var category = categoryRepo
                 .save(
@@ -173,33 +173,91 @@ class CategoryRepositoryTest extends AbstractRepositoryTest {
                                 .build()
                 );
 
-        for (int i = 0; i < 5; i++) {
-            RepositoryTestData
-                    .createProduct(3, category, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
-        }
+        var shirts = categoryRepo
+                .save(
+                        ProductCategory.builder()
+                                .name("shirts")
+                                .isVisible(true)
+                                .parentCategory(clothes)
+                                .categories(new HashSet<>())
+                                .product(new HashSet<>())
+                                .build()
+                );
 
-        for (int i = 0; i < 3; i++) {
-            RepositoryTestData
-                    .createProduct(3, clothes, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
-        }
+        // when
+        categoryRepo.saveCategoryClosure(category.getCategoryId());
+        categoryRepo.saveCategoryClosure(clothes.getCategoryId());
+        categoryRepo.saveCategoryClosure(shirts.getCategoryId());
 
-        var page = categoryRepo
-                .allProductsByCategoryIdWhereInStockAndIsVisible(
-                        category.getCategoryId(),
-                        SarreCurrency.USD,
-                        PageRequest.of(0, 20)
+        // then
+        assertEquals(1, categoryRepo.isDescendant(category.getCategoryId(), category.getCategoryId()));
+        assertEquals(1, categoryRepo.isDescendant(category.getCategoryId(), clothes.getCategoryId()));
+        assertEquals(1, categoryRepo.isDescendant(category.getCategoryId(), shirts.getCategoryId()));
+        assertEquals(1, categoryRepo.isDescendant(clothes.getCategoryId(), shirts.getCategoryId()));
+        assertEquals(0, categoryRepo.isDescendant(shirts.getCategoryId(), category.getCategoryId()));
+    }
+
+    @Test
+    void moveCategoryClosure() {
+        // given
+        var category = categoryRepo
+                .save(
+                        ProductCategory.builder()
+                                .name("category")
+                                .isVisible(true)
+                                .categories(new HashSet<>())
+                                .product(new HashSet<>())
+                                .build()
+                );
+
+        var clothes = categoryRepo
+                .save(
+                        ProductCategory.builder()
+                                .name("clothes")
+                                .isVisible(true)
+                                .parentCategory(category)
+                                .categories(new HashSet<>())
+                                .product(new HashSet<>())
+                                .build()
                 );
 
-        assertEquals(8, page.getNumberOfElements());
+        var shirts = categoryRepo
+                .save(
+                        ProductCategory.builder()
+                                .name("shirts")
+                                .isVisible(true)
+                                .parentCategory(clothes)
+                                .categories(new HashSet<>())
+                                .product(new HashSet<>())
+                                .build()
+                );
 
-        var page1 = categoryRepo
-                .allProductsByCategoryIdWhereInStockAndIsVisible(
-                        clothes.getCategoryId(),
-                        SarreCurrency.USD,
-                        PageRequest.of(0, 20)
+        var collection = categoryRepo
+                .save(
+                        ProductCategory.builder()
+                                .name("collection")
+                                .isVisible(true)
+                                .categories(new HashSet<>())
+                                .product(new HashSet<>())
+                                .build()
                 );
 
-        assertEquals(3, page1.getNumberOfElements());
+        categoryRepo.saveCategoryClosure(category.getCategoryId());
+        categoryRepo.saveCategoryClosure(clothes.getCategoryId());
+        categoryRepo.saveCategoryClosure(shirts.getCategoryId());
+        categoryRepo.saveCategoryClosure(collection.getCategoryId());
+
+        // when
+        categoryRepo.deleteCategoryClosureAncestors(clothes.getCategoryId());
+        categoryRepo.saveCategoryClosureAncestors(clothes.getCategoryId(), collection.getCategoryId());
+
+        // then
+        assertEquals(0, categoryRepo.isDescendant(category.getCategoryId(), clothes.getCategoryId()));
+        assertEquals(0, categoryRepo.isDescendant(category.getCategoryId(), shirts.getCategoryId()));
+        assertEquals(1, categoryRepo.isDescendant(collection.getCategoryId(), clothes.getCategoryId()));
+        assertEquals(1, categoryRepo.isDescendant(collection.getCategoryId(), shirts.getCategoryId()));
+        assertEquals(1, categoryRepo.isDescendant(clothes.getCategoryId(), shirts.getCategoryId()));
+        assertEquals(1, categoryRepo.isDescendant(category.getCategoryId(), category.getCategoryId()));
     }
 
     @Test
@@ -236,6 +294,10 @@ class CategoryRepositoryTest extends AbstractRepositoryTest {
                                 .build()
                 );
 
+        categoryRepo.saveCategoryClosure(category.getCategoryId());
+        categoryRepo.saveCategoryClosure(clothes.getCategoryId());
+        categoryRepo.saveCategoryClosure(furniture.getCategoryId());
+
         // when
         categoryRepo.updateAllChildrenVisibilityToFalse(category.getCategoryId());
 
@@ -0,0 +1,200 @@
+package dev.webserver.category.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.category.projection.CategoryPojo;
+import dev.webserver.category.repository.CategoryRepository;
+import dev.webserver.category.response.CategoryResponse;
+import dev.webserver.util.CacheInvalidationEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CategoryTreeTest extends AbstractUnitTest {
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final MutableClock clock = new MutableClock();
+
+    private CategoryTree tree;
+
+    @Mock
+    private CategoryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        tree = new CategoryTree(repository, new ObjectMapper(), Duration.ofMinutes(5), clock);
+    }
+
+    private static CategoryPojo pojo(long id, Long parent, String name, boolean visible) {
+        return new CategoryPojo() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Object getStatus() {
+                return visible;
+            }
+
+            @Override
+            public Long getParent() {
+                return parent;
+            }
+        };
+    }
+
+    @Test
+    void shouldBuildVisibleAndFullTreeOnceAndReuseSnapshot() throws Exception {
+        // given
+        when(repository.allCategories()).thenReturn(List.of(
+                pojo(1, null, "clothes", true),
+                pojo(2, 1L, "shirts", true),
+                pojo(3, 1L, "hidden", false)
+        ));
+
+        // when
+        var first = tree.snapshot();
+        var second = tree.snapshot();
+
+        // then
+        assertSame(first, second);
+        verify(repository, times(1)).allCategories();
+
+        assertEquals(1, first.visible().size());
+        assertEquals(1, first.visible().getFirst().children().size());
+        assertEquals(3, first.all().table().size());
+        assertEquals(2, first.all().hierarchy().getFirst().children().size());
+
+        var json = new ObjectMapper().readTree(first.visibleJson());
+        assertEquals("shirts", json.get(0).get("children").get(0).get("name").asText());
+        assertTrue(new ObjectMapper().readTree(first.allJson()).has("hierarchy"));
+    }
+
+    @Test
+    void snapshotShouldBeImmutable() {
+        // given
+        when(repository.allCategories()).thenReturn(List.of(pojo(1, null, "clothes", true)));
+
+        // when
+        var snapshot = tree.snapshot();
+
+        // then
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.visible().add(new CategoryResponse("root")));
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.visible().getFirst().addToChildren(new CategoryResponse("child")));
+    }
+
+    @Test
+    void shouldSwapInNewSnapshotOnInvalidation() {
+        // given
+        when(repository.allCategories())
+                .thenReturn(List.of(pojo(1, null, "clothes", true)))
+                .thenReturn(List.of(pojo(1, null, "clothes", true), pojo(2, null, "shoes", true)));
+
+        var before = tree.snapshot();
+
+        // when
+        tree.onCacheInvalidation(new CacheInvalidationEvent(this, "shipping"));
+        assertSame(before, tree.snapshot());
+
+        tree.onCacheInvalidation(new CacheInvalidationEvent(this, CategoryTree.CACHE));
+
+        // then
+        assertEquals(1, before.visible().size());
+        assertEquals(2, tree.snapshot().visible().size());
+        verify(repository, times(2)).allCategories();
+    }
+
+    @Test
+    void shouldRebuildSnapshotOnceExpired() {
+        // given
+        when(repository.allCategories())
+                .thenReturn(List.of(pojo(1, null, "clothes", true)))
+                .thenReturn(List.of(pojo(1, null, "clothes", false)));
+
+        var before = tree.snapshot();
+
+        // when
+        clock.now = clock.now.plus(Duration.ofMinutes(4));
+        assertSame(before, tree.snapshot());
+
+        clock.now = clock.now.plus(Duration.ofMinutes(2));
+        var after = tree.snapshot();
+
+        // then
+        assertEquals(1, before.visible().size());
+        assertTrue(after.visible().isEmpty());
+        assertSame(after, tree.snapshot());
+        verify(repository, times(2)).allCategories();
+    }
+
+    @Test
+    void shouldServeExpiredSnapshotWhileAnotherReadRebuildsIt() throws Exception {
+        // given
+        var building = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        when(repository.allCategories())
+                .thenReturn(List.of(pojo(1, null, "clothes", true)))
+                .thenAnswer(invocation -> {
+                    building.countDown();
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                    return List.of(pojo(1, null, "clothes", false));
+                });
+
+        var before = tree.snapshot();
+        clock.now = clock.now.plus(Duration.ofMinutes(6));
+
+        // when
+        var rebuild = CompletableFuture.supplyAsync(tree::snapshot);
+        assertTrue(building.await(5, TimeUnit.SECONDS));
+        var stale = tree.snapshot();
+        release.countDown();
+        var after = rebuild.get(5, TimeUnit.SECONDS);
+
+        // then
+        assertSame(before, stale);
+        assertTrue(after.visible().isEmpty());
+        assertSame(after, tree.snapshot());
+        verify(repository, times(2)).allCategories();
+    }
+
+}
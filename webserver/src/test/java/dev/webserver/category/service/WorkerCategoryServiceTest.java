@@ -7,11 +7,18 @@ import dev.webserver.category.dto.CategoryDTO;
 import dev.webserver.category.dto.UpdateCategoryDTO;
 import dev.webserver.category.entity.ProductCategory;
 import dev.webserver.category.repository.CategoryRepository;
+import dev.webserver.exception.CustomInvalidFormatException;
 import dev.webserver.exception.DuplicateException;
+import dev.webserver.util.AsynchronousTasks;
+import dev.webserver.util.CacheInvalidationEvent;
+import dev.webserver.product.service.ProductListingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.Optional;
 
@@ -25,10 +32,20 @@ class WorkerCategoryServiceTest extends AbstractUnitTest {
 
     @Mock private CategoryRepository categoryRepository;
     @Mock private S3Service s3Service;
+    @Mock private CategoryTree tree;
+    @Mock private ApplicationEventPublisher publisher;
+    @Mock private ProductListingService listingService;
 
     @BeforeEach
     void setUp() {
-        this.categoryService = new WorkerCategoryService(this.categoryRepository, this.s3Service);
+        this.categoryService = new WorkerCategoryService(
+                this.categoryRepository,
+                this.s3Service,
+                new AsynchronousTasks(4, Duration.ofSeconds(5), new SimpleMeterRegistry()),
+                this.tree,
+                this.publisher,
+                this.listingService
+        );
     }
 
     /** Simulates creating a new ProductCategory when CategoryDTO param parentId is empty */
@@ -38,6 +55,7 @@ class WorkerCategoryServiceTest extends AbstractUnitTest {
         var dto = new CategoryDTO(new Faker().commerce().department(), true, null);
 
         var category = ProductCategory.builder()
+                .categoryId(1L)
                 .name(dto.name().trim())
                 .categories(new HashSet<>())
                 .product(new HashSet<>())
@@ -50,6 +68,8 @@ class WorkerCategoryServiceTest extends AbstractUnitTest {
         // Then
         this.categoryService.create(dto);
         verify(this.categoryRepository, times(1)).save(any(ProductCategory.class));
+        verify(this.categoryRepository, times(1)).saveCategoryClosure(1L);
+        verify(this.publisher, times(1)).publishEvent(any(CacheInvalidationEvent.class));
     }
 
     /** Simulates creating a new ProductCategory when CategoryDTO param parentId is non-empty */
@@ -59,6 +79,7 @@ class WorkerCategoryServiceTest extends AbstractUnitTest {
         var dto = new CategoryDTO(new Faker().commerce().department(), true, 1L);
 
         var category = ProductCategory.builder()
+                .categoryId(2L)
                 .name(new Faker().commerce().department())
                 .categories(new HashSet<>())
                 .product(new HashSet<>())
@@ -71,6 +92,7 @@ class WorkerCategoryServiceTest extends AbstractUnitTest {
         // Then
         this.categoryService.create(dto);
         verify(this.categoryRepository, times(1)).save(any(ProductCategory.class));
+        verify(this.categoryRepository, times(1)).saveCategoryClosure(2L);
     }
 
     @Test
@@ -122,6 +144,40 @@ class WorkerCategoryServiceTest extends AbstractUnitTest {
         this.categoryService.update(dto);
         verify(this.categoryRepository, times(1))
                 .update(anyString(), anyBoolean(), anyLong());
+        verify(this.listingService, times(1)).refreshByCategory(1L);
+    }
+
+    @Test
+    void update_moves_category_closure_below_new_parent() {
+        // Given
+        var dto = new UpdateCategoryDTO(1L, 3L, "update categoryId name", true);
+
+        // When
+        doReturn(0).when(this.categoryRepository)
+                .onDuplicateCategoryName(anyLong(), anyString());
+        doReturn(0).when(this.categoryRepository).isDescendant(1L, 3L);
+
+        // Then
+        this.categoryService.update(dto);
+        verify(this.categoryRepository, times(1)).updateCategoryParentIdBasedOnCategoryId(1L, 3L);
+        verify(this.categoryRepository, times(1)).deleteCategoryClosureAncestors(1L);
+        verify(this.categoryRepository, times(1)).saveCategoryClosureAncestors(1L, 3L);
+    }
+
+    @Test
+    void update_category_parent_to_its_descendant() {
+        // Given
+        var dto = new UpdateCategoryDTO(1L, 3L, "update categoryId name", true);
+
+        // When
+        doReturn(0).when(this.categoryRepository)
+                .onDuplicateCategoryName(anyLong(), anyString());
+        doReturn(1).when(this.categoryRepository).isDescendant(1L, 3L);
+
+        // Then
+        assertThrows(CustomInvalidFormatException.class, () -> this.categoryService.update(dto));
+        verify(this.categoryRepository, never()).updateCategoryParentIdBasedOnCategoryId(anyLong(), anyLong());
+        verify(this.categoryRepository, never()).deleteCategoryClosureAncestors(anyLong());
     }
 
     @Test
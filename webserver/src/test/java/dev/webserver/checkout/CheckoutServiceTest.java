@@ -2,27 +2,30 @@ package dev.webserver.checkout;
 
 import dev.webserver.AbstractUnitTest;
 import dev.webserver.cart.entity.ShoppingSession;
-import dev.webserver.cart.repository.CartItemRepo;
 import dev.webserver.cart.repository.ShoppingSessionRepo;
-import dev.webserver.payment.projection.RaceConditionCartPojo;
+import dev.webserver.cart.session.CartSession;
+import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.exception.CustomNotFoundException;
+import dev.webserver.payment.projection.CheckoutSnapshotPojo;
 import dev.webserver.shipping.entity.ShipSetting;
 import dev.webserver.shipping.service.ShippingService;
 import dev.webserver.tax.Tax;
 import dev.webserver.tax.TaxService;
 import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -37,19 +40,14 @@ class CheckoutServiceTest extends AbstractUnitTest {
     private TaxService taxService;
     @Mock
     private ShoppingSessionRepo sessionRepo;
-    @Mock
-    private CartItemRepo cartItemRepo;
 
     @BeforeEach
     void setUp() {
         checkoutService = new CheckoutService(
                 shippingService,
                 taxService,
-                sessionRepo,
-                cartItemRepo
+                sessionRepo
         );
-        checkoutService.setCARTCOOKIE("cartcookie");
-        checkoutService.setSPLIT("%");
     }
 
     @Test
@@ -60,20 +58,17 @@ class CheckoutServiceTest extends AbstractUnitTest {
         ShipSetting ship = new ShipSetting();
         ship.setCountry("nigeria");
         Tax tax = new Tax(1L, "vat", 0.075);
-        Cookie[] cookies = {new Cookie("cartcookie", "this is custom cookie")};
-        HttpServletRequest req = mock(HttpServletRequest.class);
+        var cartSession = new CartSession(new Cookie("cartcookie", "this is custom cookie"), "this is custom cookie", 1L);
         var cartItems = items.apply(3, session);
 
         // when
-        when(req.getCookies()).thenReturn(cookies);
-        when(sessionRepo.shoppingSessionByCookie(anyString())).thenReturn(Optional.of(session));
-        when(cartItemRepo.cartItemsByShoppingSessionId(anyLong())).thenReturn(cartItems);
+        when(sessionRepo.checkoutSnapshotByShoppingSessionId(anyLong(), any(SarreCurrency.class))).thenReturn(cartItems);
         when(shippingService.shippingByCountryElseReturnDefault(anyString())).thenReturn(ship);
         when(taxService.taxById(anyLong())).thenReturn(tax);
 
         // method to test
         CustomObject obj = checkoutService
-                .validateCurrentShoppingSession(req, "nigeria");
+                .validateCurrentShoppingSession(cartSession, "nigeria", SarreCurrency.NGN);
 
         // then
         Assertions.assertEquals(obj.session(), session);
@@ -81,15 +76,58 @@ class CheckoutServiceTest extends AbstractUnitTest {
         Assertions.assertEquals(obj.ship(), ship);
         Assertions.assertEquals(obj.tax(), tax);
 
-        verify(sessionRepo, times(1)).shoppingSessionByCookie(anyString());
-        verify(cartItemRepo, times(1)).cartItemsByShoppingSessionId(anyLong());
+        verify(sessionRepo, times(1)).checkoutSnapshotByShoppingSessionId(anyLong(), any(SarreCurrency.class));
         verify(shippingService, times(1)).shippingByCountryElseReturnDefault(anyString());
         verify(taxService, times(1)).taxById(anyLong());
     }
 
-    static final BiFunction<Integer, ShoppingSession, List<RaceConditionCartPojo>> items = (num, session) -> IntStream
+    @Test
+    void shouldDifferentiateInvalidShoppingSessionFromEmptyCart() {
+        // given
+        var session = new ShoppingSession();
+        session.setShoppingSessionId(1L);
+        var cookie = new Cookie("cartcookie", "this is custom cookie");
+        var unknown = new CartSession(cookie, "this is custom cookie", null);
+        var cartSession = new CartSession(cookie, "this is custom cookie", 1L);
+        CheckoutSnapshotPojo empty = mock(CheckoutSnapshotPojo.class);
+
+        // when
+        when(empty.getSession()).thenReturn(session);
+        when(empty.getCartItemId()).thenReturn(null);
+        when(sessionRepo.checkoutSnapshotByShoppingSessionId(anyLong(), any(SarreCurrency.class)))
+                .thenReturn(List.of(empty));
+
+        // then
+        var invalid = assertThrows(CustomNotFoundException.class,
+                () -> checkoutService.validateCurrentShoppingSession(unknown, "nigeria", SarreCurrency.NGN));
+        assertEquals("invalid shopping session", invalid.getMessage());
+
+        var cart = assertThrows(CustomNotFoundException.class,
+                () -> checkoutService.validateCurrentShoppingSession(cartSession, "nigeria", SarreCurrency.NGN));
+        assertEquals("cart is empty", cart.getMessage());
+
+        verify(sessionRepo, times(1)).checkoutSnapshotByShoppingSessionId(anyLong(), any(SarreCurrency.class));
+        verifyNoInteractions(shippingService, taxService);
+    }
+
+    @Test
+    void shouldRejectRequestWithoutCartCookie() {
+        // then
+        var ex = assertThrows(CustomNotFoundException.class,
+                () -> checkoutService.validateCurrentShoppingSession(
+                        new CartSession(null, null, null), "nigeria", SarreCurrency.NGN));
+        assertEquals("no cookie found. kindly refresh window", ex.getMessage());
+        verifyNoInteractions(sessionRepo);
+    }
+
+    static final BiFunction<Integer, ShoppingSession, List<CheckoutSnapshotPojo>> items = (num, session) -> IntStream
             .range(0, num)
-            .mapToObj(op -> new RaceConditionCartPojo() {
+            .mapToObj(op -> (CheckoutSnapshotPojo) new CheckoutSnapshotPojo() {
+
+                @Override
+                public ShoppingSession getSession() {
+                    return session;
+                }
 
                 @Override
                 public Long getProductSkuId() {
@@ -125,6 +163,21 @@ class CheckoutServiceTest extends AbstractUnitTest {
                 public Long getShoppingSessionId() {
                     return session.shoppingSessionId();
                 }
+
+                @Override
+                public Integer getQty() {
+                    return num * 2;
+                }
+
+                @Override
+                public BigDecimal getPrice() {
+                    return new BigDecimal("10.00");
+                }
+
+                @Override
+                public Double getWeight() {
+                    return 1.5;
+                }
             })
             .collect(Collectors.toUnmodifiableList());
 
@@ -0,0 +1,145 @@
+package dev.webserver.cron;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.external.PaymentCredentialObj;
+import dev.webserver.external.ThirdPartyPaymentService;
+import dev.webserver.payment.entity.OrderReservation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpStatus.*;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+class PaystackVerifierTest extends AbstractUnitTest {
+
+    private PaystackVerifier verifier;
+    private MockRestServiceServer server;
+
+    @Mock
+    private ThirdPartyPaymentService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        var builder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(builder).ignoreExpectOrder(true).build();
+
+        verifier = new PaystackVerifier(
+                builder,
+                paymentService,
+                new MockEnvironment()
+                        .withProperty("paystack.verify.max-concurrency", "2")
+                        .withProperty("paystack.verify.rate-per-second", "1000")
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifier.shutdown();
+    }
+
+    private static List<OrderReservation> reservations(String reference, int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> {
+                    var reservation = new OrderReservation();
+                    reservation.setReservationId((long) i);
+                    reservation.setReference(reference);
+                    return reservation;
+                })
+                .toList();
+    }
+
+    @Test
+    void shouldVerifyEveryReferenceOnce() {
+        // given
+        var url = "https://api.paystack.co/transaction/verify/";
+
+        server.expect(once(), requestTo(url + "success"))
+                .andExpect(header("Authorization", "Bearer secret"))
+                .andRespond(withSuccess("""
+                        {"message":"Verification successful","data":{"status":"success"}}
+                        """, MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(url + "not-found")).andRespond(withResourceNotFound());
+        server.expect(once(), requestTo(url + "bad-request")).andRespond(withBadRequest());
+        server.expect(once(), requestTo(url + "error")).andRespond(withServerError());
+
+        // when
+        when(paymentService.payStackCredentials()).thenReturn(new PaymentCredentialObj("pub", "secret"));
+
+        var map = new LinkedHashMap<String, List<OrderReservation>>();
+        map.put("success", reservations("success", 10));
+        map.put("not-found", reservations("not-found", 2));
+        map.put("bad-request", reservations("bad-request", 1));
+        map.put("error", reservations("error", 3));
+
+        var result = new ArrayList<CustomCronJobObject>();
+        verifier.verify(map, result::add);
+
+        // then
+        server.verify();
+        var byReference = result.stream()
+                .collect(Collectors.toMap(CustomCronJobObject::reference, Function.identity()));
+
+        assertEquals(4, result.size());
+        assertEquals(OK, byReference.get("success").status());
+        assertEquals(NOT_FOUND, byReference.get("not-found").status());
+        assertEquals(BAD_REQUEST, byReference.get("bad-request").status());
+        assertEquals(INTERNAL_SERVER_ERROR, byReference.get("error").status());
+        assertEquals("success", byReference.get("success").node().get("data").get("status").textValue());
+        assertEquals(10, byReference.get("success").reservations().size());
+    }
+
+    @Test
+    void shouldHandEveryOutcomeOfALargeBacklogToTheCaller() {
+        // given
+        var url = "https://api.paystack.co/transaction/verify/";
+        var map = new LinkedHashMap<String, List<OrderReservation>>();
+
+        for (int i = 0; i < 500; i++) {
+            map.put("reference-" + i, reservations("reference-" + i, 1));
+            server.expect(once(), requestTo(url + "reference-" + i)).andRespond(withResourceNotFound());
+        }
+
+        // when
+        when(paymentService.payStackCredentials()).thenReturn(new PaymentCredentialObj("pub", "secret"));
+
+        var result = new ArrayList<CustomCronJobObject>();
+        verifier.verify(map, result::add);
+
+        // then
+        server.verify();
+        assertEquals(500, result.size());
+        assertEquals(map.keySet(), result.stream().map(CustomCronJobObject::reference).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void shouldNotCallPaystackWhenThereIsNothingToVerify() {
+        // when
+        var result = new ArrayList<CustomCronJobObject>();
+        verifier.verify(Map.of(), result::add);
+
+        // then
+        assertTrue(result.isEmpty());
+        verify(paymentService, times(0)).payStackCredentials();
+    }
+
+}
@@ -0,0 +1,97 @@
+package dev.webserver.cron;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.cart.repository.CartItemRepo;
+import dev.webserver.cart.repository.ShoppingSessionRepo;
+import dev.webserver.cart.session.ShoppingSessionResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ShoppingSessionSweeperTest extends AbstractUnitTest {
+
+    private ShoppingSessionSweeper sweeper;
+    private SimpleMeterRegistry registry;
+
+    @Mock
+    private ShoppingSessionRepo sessionRepo;
+    @Mock
+    private CartItemRepo cartItemRepo;
+    @Mock
+    private ShoppingSessionResolver resolver;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        sweeper = new ShoppingSessionSweeper(
+                sessionRepo,
+                cartItemRepo,
+                resolver,
+                transactionManager,
+                new MockEnvironment().withProperty("cron.shopping-session.batch-size", "2"),
+                registry
+        );
+    }
+
+    @Test
+    void shouldDeleteExpiredSessionsInBatchesEachInItsOwnTransaction() {
+        // given
+        var date = new Date();
+
+        // when
+        when(transactionManager.getTransaction(any(TransactionDefinition.class)))
+                .thenReturn(new SimpleTransactionStatus());
+        when(sessionRepo.lockExpiredShoppingSessionIds(date, 0, 2)).thenReturn(List.of(1L, 4L));
+        when(sessionRepo.lockExpiredShoppingSessionIds(date, 4, 2)).thenReturn(List.of(7L));
+        when(cartItemRepo.deleteCartItemsByShoppingSessionIds(anyCollection())).thenReturn(3, 1);
+
+        long deleted = sweeper.sweep(date);
+
+        // then
+        assertEquals(3, deleted);
+        verify(sessionRepo, times(1)).deleteShoppingSessionsByIds(List.of(1L, 4L));
+        verify(sessionRepo, times(1)).deleteShoppingSessionsByIds(List.of(7L));
+        verify(transactionManager, times(2)).commit(any());
+        verify(resolver, times(1)).evict(List.of(1L, 4L));
+        verify(resolver, times(1)).evict(List.of(7L));
+        assertEquals(3, registry.get("cron.shopping.sessions.deleted").counter().count());
+        assertEquals(4, registry.get("cron.cart.items.deleted").counter().count());
+        assertEquals(2, registry.get("cron.shopping.sessions.sweep.batch").timer().count());
+        assertEquals(3, registry.get("cron.shopping.sessions.sweep.progress").gauge().value());
+    }
+
+    @Test
+    void shouldStopWhenNoExpiredSessionIsLeft() {
+        // given
+        var date = new Date();
+
+        // when
+        when(transactionManager.getTransaction(any(TransactionDefinition.class)))
+                .thenReturn(new SimpleTransactionStatus());
+        when(sessionRepo.lockExpiredShoppingSessionIds(date, 0, 2)).thenReturn(List.of(1L, 2L));
+        when(sessionRepo.lockExpiredShoppingSessionIds(date, 2, 2)).thenReturn(List.of());
+        when(cartItemRepo.deleteCartItemsByShoppingSessionIds(anyCollection())).thenReturn(0);
+
+        long deleted = sweeper.sweep(date);
+
+        // then
+        assertEquals(2, deleted);
+        verify(sessionRepo, times(2)).lockExpiredShoppingSessionIds(eq(date), anyLong(), eq(2));
+        verify(sessionRepo, times(1)).deleteShoppingSessionsByIds(anyCollection());
+    }
+
+}
@@ -0,0 +1,51 @@
+package dev.webserver.cron;
+
+import dev.webserver.AbstractUnitTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenBucketTest extends AbstractUnitTest {
+
+    @Test
+    void shouldAllowBurstUpToCapacity() {
+        // given
+        var bucket = new TokenBucket(2, 3, () -> 0L);
+
+        // then
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.reserve());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), bucket.reserve());
+    }
+
+    @Test
+    void shouldRefillAtRateWithoutExceedingCapacity() {
+        // given
+        var clock = new AtomicLong();
+        var bucket = new TokenBucket(10, 2, clock::get);
+
+        bucket.reserve();
+        bucket.reserve();
+
+        // when a long idle period
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        // then only capacity tokens are available
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve());
+    }
+
+    @Test
+    void shouldRejectInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+
+}
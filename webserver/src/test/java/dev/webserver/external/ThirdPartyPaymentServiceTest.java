@@ -0,0 +1,120 @@
+package dev.webserver.external;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.webserver.AbstractUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.mock.env.MockEnvironment;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ThirdPartyPaymentServiceTest extends AbstractUnitTest {
+
+    private ThirdPartyPaymentService service;
+
+    @Mock
+    private SecretsManagerClient managerClient;
+
+    @BeforeEach
+    void setUp() {
+        var env = new MockEnvironment()
+                .withProperty("spring.profiles.active", "aws")
+                .withProperty("paystack.pub.key", "")
+                .withProperty("paystack.secret.key", "");
+        service = new ThirdPartyPaymentService(managerClient, new ObjectMapper(), env);
+    }
+
+    private static GetSecretValueResponse secret(String pubKey, String secretKey) {
+        return GetSecretValueResponse.builder()
+                .secretString("""
+                        {"pubKey":"%s","secretKey":"%s"}
+                        """.formatted(pubKey, secretKey))
+                .build();
+    }
+
+    @Test
+    void shouldRetrieveCredentialsFromSecretsManagerOnce() {
+        // given
+        when(managerClient.getSecretValue(any(GetSecretValueRequest.class)))
+                .thenReturn(secret("pub", "secret"));
+
+        // when
+        service.payStackCredentials();
+        var credentials = service.payStackCredentials();
+
+        // then
+        assertEquals("pub", credentials.pubKey());
+        assertEquals("secret", credentials.secretKey());
+        verify(managerClient, times(1)).getSecretValue(any(GetSecretValueRequest.class));
+    }
+
+    @Test
+    void shouldNotRefreshOnDemandWithinInterval() {
+        // given
+        when(managerClient.getSecretValue(any(GetSecretValueRequest.class)))
+                .thenReturn(secret("pub", "secret"), secret("pub", "rotated"));
+
+        // when
+        service.payStackCredentials();
+        var credentials = service.refreshPayStackCredentials();
+
+        // then
+        assertEquals("secret", credentials.secretKey());
+        verify(managerClient, times(1)).getSecretValue(any(GetSecretValueRequest.class));
+    }
+
+    @Test
+    void shouldReplaceCredentialsOnScheduledRefresh() {
+        // given
+        when(managerClient.getSecretValue(any(GetSecretValueRequest.class)))
+                .thenReturn(secret("pub", "secret"), secret("pub", "rotated"));
+
+        // when
+        service.payStackCredentials();
+        service.scheduledRefresh();
+
+        // then
+        assertEquals("rotated", service.payStackCredentials().secretKey());
+        verify(managerClient, times(2)).getSecretValue(any(GetSecretValueRequest.class));
+    }
+
+    @Test
+    void shouldKeepCachedCredentialsWhenScheduledRefreshFails() {
+        // given
+        when(managerClient.getSecretValue(any(GetSecretValueRequest.class)))
+                .thenReturn(secret("pub", "secret"))
+                .thenThrow(new RuntimeException("throttled"));
+
+        // when
+        service.payStackCredentials();
+        service.scheduledRefresh();
+
+        // then
+        assertEquals("secret", service.payStackCredentials().secretKey());
+    }
+
+    @Test
+    void shouldNotCallSecretsManagerWhenCredentialsAreSetAsProperties() {
+        // given
+        var env = new MockEnvironment()
+                .withProperty("spring.profiles.active", "aws")
+                .withProperty("paystack.pub.key", "pub")
+                .withProperty("paystack.secret.key", "secret");
+        var local = new ThirdPartyPaymentService(managerClient, new ObjectMapper(), env);
+
+        // when
+        local.payStackCredentials();
+        local.refreshPayStackCredentials();
+        local.scheduledRefresh();
+
+        // then
+        verify(managerClient, times(0)).getSecretValue(any(GetSecretValueRequest.class));
+    }
+
+}
@@ -0,0 +1,145 @@
+package dev.webserver.external.log;
+
+import dev.webserver.AbstractUnitTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class AlertDispatcherTest extends AbstractUnitTest {
+
+    private MockRestServiceServer server;
+    private SimpleMeterRegistry registry;
+    private AlertDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        var builder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(builder).build();
+        registry = new SimpleMeterRegistry();
+        // a long interval so only the test flushes
+        dispatcher = new AlertDispatcher(builder.build(), "https://discord.test/hook", true, 3, Duration.ofHours(1), registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void shouldMergeDuplicatesAndSendOneBatchedMessage() {
+        // given
+        server.expect(once(), requestTo("https://discord.test/hook"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.content").value("first\n### occurred 3 times\nsecond"))
+                .andRespond(withSuccess());
+
+        // when
+        dispatcher.offer("a", () -> "first");
+        dispatcher.offer("b", () -> "second");
+        dispatcher.offer("a", () -> "first");
+        dispatcher.offer("a", () -> "first");
+        dispatcher.flush();
+
+        // then
+        server.verify();
+        assertEquals(0, dispatcher.pending());
+        assertEquals(2, registry.get("log.alerts.deduplicated").counter().count());
+        assertEquals(1, registry.get("log.alerts.sent").counter().count());
+    }
+
+    @Test
+    void shouldDropAlertsWhenQueueIsFull() {
+        // given alerts still pending are sent on shutdown
+        server.expect(once(), requestTo("https://discord.test/hook"))
+                .andExpect(jsonPath("$.content").value("a\nb\nc"))
+                .andRespond(withSuccess());
+
+        // when
+        assertTrue(dispatcher.offer("a", () -> "a"));
+        assertTrue(dispatcher.offer("b", () -> "b"));
+        assertTrue(dispatcher.offer("c", () -> "c"));
+        assertFalse(dispatcher.offer("d", () -> "d"));
+
+        // then
+        assertEquals(3, dispatcher.pending());
+        assertEquals(1, registry.get("log.alerts.dropped").counter().count());
+        assertEquals(3, registry.get("log.alerts.pending").gauge().value());
+    }
+
+    @Test
+    void shouldStartNewAlertForFingerprintAlreadySent() {
+        // given
+        server.expect(once(), requestTo("https://discord.test/hook"))
+                .andExpect(jsonPath("$.content").value("first"))
+                .andRespond(withSuccess());
+        server.expect(once(), requestTo("https://discord.test/hook"))
+                .andExpect(jsonPath("$.content").value("again"))
+                .andRespond(withSuccess());
+
+        // when
+        dispatcher.offer("a", () -> "first");
+        dispatcher.flush();
+        dispatcher.offer("a", () -> "again");
+        dispatcher.flush();
+
+        // then
+        server.verify();
+        assertEquals(0, registry.get("log.alerts.deduplicated").counter().count());
+    }
+
+    @Test
+    void shouldCountFailedPostsWithoutThrowing() {
+        // given
+        server.expect(once(), requestTo("https://discord.test/hook")).andRespond(withServerError());
+
+        // when
+        dispatcher.offer("a", () -> "first");
+
+        // then
+        assertDoesNotThrow(dispatcher::flush);
+        assertEquals(1, registry.get("log.alerts.failed").counter().count());
+    }
+
+    @Test
+    void shouldCoalesceMessagesWithinDiscordLimit() {
+        // given
+        var half = "x".repeat(AlertDispatcher.MAX_LENGTH / 2);
+
+        // when
+        var batches = AlertDispatcher.coalesce(List.of(half, half, "y", "z"));
+
+        // then
+        assertEquals(List.of(half, half + "\ny\nz"), batches);
+        assertTrue(batches.stream().allMatch(b -> b.length() <= AlertDispatcher.MAX_LENGTH));
+    }
+
+    @Test
+    void shouldTruncateMessageLongerThanDiscordLimit() {
+        // given
+        var stackTrace = "x".repeat(AlertDispatcher.MAX_LENGTH * 3);
+
+        // when
+        var batches = AlertDispatcher.coalesce(List.of("y", stackTrace, "z"));
+
+        // then
+        assertEquals(3, batches.size());
+        assertEquals("y", batches.getFirst());
+        assertEquals(AlertDispatcher.MAX_LENGTH, batches.get(1).length());
+        assertTrue(batches.get(1).endsWith("..."));
+        assertEquals("z", batches.get(2));
+    }
+
+}
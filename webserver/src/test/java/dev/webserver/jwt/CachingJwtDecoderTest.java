@@ -0,0 +1,125 @@
+package dev.webserver.jwt;
+
+import dev.webserver.AbstractUnitTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingJwtDecoderTest extends AbstractUnitTest {
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("subject")
+                .issuedAt(expiresAt.minusSeconds(3600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    @Test
+    void shouldVerifyTokenOnceUntilItExpires() {
+        // given
+        var clock = new MutableClock();
+        var calls = new AtomicInteger();
+        JwtDecoder delegate = token -> {
+            calls.incrementAndGet();
+            return jwt(token, Instant.parse("2024-01-01T01:00:00Z"));
+        };
+        var decoder = new CachingJwtDecoder(delegate, 8, clock);
+
+        // when
+        var first = decoder.decode("token");
+        var second = decoder.decode("token");
+
+        // then
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+
+        // when
+        clock.now = Instant.parse("2024-01-01T01:00:00Z");
+        decoder.decode("token");
+
+        // then
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldNotCacheInvalidToken() {
+        // given
+        var calls = new AtomicInteger();
+        JwtDecoder delegate = token -> {
+            calls.incrementAndGet();
+            throw new BadJwtException("invalid");
+        };
+        var decoder = new CachingJwtDecoder(delegate, 8, new MutableClock());
+
+        // then
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+        assertEquals(2, calls.get());
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void shouldStayWithinMaxSize() {
+        // given
+        JwtDecoder delegate = token -> jwt(token, Instant.parse("2024-01-01T01:00:00Z"));
+        var decoder = new CachingJwtDecoder(delegate, 2, new MutableClock());
+
+        // when
+        decoder.decode("first");
+        decoder.decode("second");
+        decoder.decode("third");
+
+        // then
+        assertTrue(decoder.size() <= 2);
+    }
+
+    @Test
+    void shouldVerifyAgainAfterClear() {
+        // given
+        var calls = new AtomicInteger();
+        JwtDecoder delegate = token -> {
+            calls.incrementAndGet();
+            return jwt(token, Instant.parse("2024-01-01T01:00:00Z"));
+        };
+        var decoder = new CachingJwtDecoder(delegate, 8, new MutableClock());
+
+        // when
+        decoder.decode("token");
+        decoder.clear();
+        decoder.decode("token");
+
+        // then
+        assertEquals(2, calls.get());
+    }
+
+}
@@ -0,0 +1,82 @@
+package dev.webserver.jwt;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of signing and verifying a jwt for each algorithm in
+ * {@link JwtKeyStore#ALGORITHMS}, using the claims {@link JwtService} puts in the jwt of
+ * a worker. Verification bypasses {@link CachingJwtDecoder} to measure the signature check
+ * a first request pays. Not run by surefire, run with
+ * <pre>
+ * ./mvnw -pl webserver test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp webserver/target/test-classes:webserver/target/classes:$(cat webserver/target/cp.txt) \
+ *     dev.webserver.jwt.JwtAlgorithmBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAlgorithmBenchmark {
+
+    @Param({ "RS256", "ES256" })
+    private String algorithm;
+
+    private JwtService service;
+    private JwtDecoder verifier;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        var store = new JwtKeyStore(() -> null, "", SignatureAlgorithm.valueOf(algorithm), JwtUtil::GENERATEKEY);
+        var config = new JwtConfig();
+
+        verifier = JwtConfig.verifier(store);
+        service = new JwtService(
+                config.jwtEncoder(store),
+                new CachingJwtDecoder(verifier, 1, Clock.systemUTC()),
+                store
+        );
+        service.setMaxage(18000);
+        service.setClaim("role");
+        service.setApplication("Capstone Api");
+
+        authentication = UsernamePasswordAuthenticationToken.authenticated(
+                "admin@admin.com",
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_CLIENT"), new SimpleGrantedAuthority("ROLE_WORKER"))
+        );
+        token = service.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String generate() {
+        return service.generateToken(authentication);
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return verifier.decode(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtAlgorithmBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
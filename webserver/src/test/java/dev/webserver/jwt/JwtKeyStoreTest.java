@@ -0,0 +1,231 @@
+package dev.webserver.jwt;
+
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import dev.webserver.AbstractUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyStoreTest extends AbstractUnitTest {
+
+    private RSAKey oldKey;
+    private RSAKey newKey;
+    private AtomicReference<String> json;
+    private AtomicInteger generated;
+
+    @BeforeEach
+    void setUp() {
+        oldKey = JwtUtil.GENERATERSAKEY();
+        newKey = JwtUtil.GENERATERSAKEY();
+        json = new AtomicReference<>();
+        generated = new AtomicInteger();
+    }
+
+    private JwtKeyStore store(String activeKid) {
+        return store(activeKid, SignatureAlgorithm.RS256);
+    }
+
+    private JwtKeyStore store(String activeKid, SignatureAlgorithm algorithm) {
+        return new JwtKeyStore(json::get, activeKid, algorithm, alg -> {
+            generated.incrementAndGet();
+            return JwtUtil.GENERATEKEY(alg);
+        });
+    }
+
+    private static String set(JWK... keys) {
+        return new JWKSet(List.of(keys)).toString(false);
+    }
+
+    private static String sign(JwtEncoder encoder) {
+        return sign(encoder, SignatureAlgorithm.RS256);
+    }
+
+    private static String sign(JwtEncoder encoder, SignatureAlgorithm algorithm) {
+        var claims = JwtClaimsSet.builder()
+                .subject("admin@admin.com")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+        return encoder.encode(JwtEncoderParameters.from(JwsHeader.with(algorithm).build(), claims)).getTokenValue();
+    }
+
+    @Test
+    void shouldSignWithActiveKeyAndVerifyWithAnyKeyInTheSet() {
+        // given
+        json.set(set(oldKey));
+        var before = store("");
+        var beforeConfig = new JwtConfig();
+        var oldToken = sign(beforeConfig.jwtEncoder(before));
+
+        json.set(set(newKey, oldKey));
+        var after = store(newKey.getKeyID());
+        var afterConfig = new JwtConfig();
+        JwtDecoder decoder = afterConfig.jwtDecoder(after);
+
+        // when
+        var newToken = sign(afterConfig.jwtEncoder(after));
+
+        // then
+        assertEquals(newKey.getKeyID(), decoder.decode(newToken).getHeaders().get("kid"));
+        assertEquals(oldKey.getKeyID(), decoder.decode(oldToken).getHeaders().get("kid"));
+        assertEquals(0, generated.get());
+    }
+
+    @Test
+    void shouldRejectTokensOfRemovedKeyOnceReloaded() {
+        // given
+        json.set(set(oldKey));
+        var store = store("");
+        var config = new JwtConfig();
+        JwtDecoder decoder = config.jwtDecoder(store);
+        var oldToken = sign(config.jwtEncoder(store));
+        assertNotNull(decoder.decode(oldToken));
+
+        // when
+        json.set(set(newKey));
+        store.reload();
+
+        // then
+        assertThrows(JwtException.class, () -> decoder.decode(oldToken));
+        assertNotNull(decoder.decode(sign(config.jwtEncoder(store))));
+    }
+
+    @Test
+    void shouldNotifyListenersOnlyWhenKeysChange() {
+        // given
+        json.set(set(oldKey));
+        var store = store("");
+        var rotations = new AtomicInteger();
+        store.onRotation(rotations::incrementAndGet);
+        store.keys();
+
+        // when
+        store.reload();
+
+        // then
+        assertEquals(0, rotations.get());
+
+        // when
+        json.set(set(newKey, oldKey));
+        store.reload();
+
+        // then
+        assertEquals(1, rotations.get());
+        assertEquals(newKey.getKeyID(), store.keys().signing().getKeyID());
+    }
+
+    @Test
+    void shouldKeepCurrentKeysWhenReloadFails() {
+        // given
+        json.set(set(oldKey));
+        var store = store("");
+        store.keys();
+
+        // when
+        json.set("not a jwk set");
+        store.reload();
+
+        // then
+        assertEquals(oldKey.getKeyID(), store.keys().signing().getKeyID());
+    }
+
+    @Test
+    void shouldVerifyWithPublicKeysOnly() {
+        // given
+        json.set(set(oldKey));
+
+        // when
+        var keys = store("").keys();
+
+        // then
+        assertTrue(keys.signing().isPrivate());
+        assertTrue(keys.verification().getKeys().stream().noneMatch(JWK::isPrivate));
+    }
+
+    @Test
+    void shouldRejectInvalidSets() {
+        // given
+        json.set(set(oldKey.toPublicJWK()));
+
+        // then
+        assertThrows(IllegalStateException.class, () -> store("").keys());
+        json.set(set(oldKey));
+        assertThrows(IllegalStateException.class, () -> store("missing").keys());
+        json.set(set(new RSAKey.Builder(oldKey).keyID(null).build()));
+        assertThrows(IllegalStateException.class, () -> store("").keys());
+    }
+
+    @Test
+    void shouldGenerateKeyOnceWhenNoneConfigured() {
+        // given
+        var store = store("");
+        assertEquals(0, generated.get());
+
+        // when
+        var config = new JwtConfig();
+        var token = sign(config.jwtEncoder(store));
+        config.jwtDecoder(store).decode(token);
+        store.reload();
+
+        // then
+        assertEquals(1, generated.get());
+    }
+
+    @Test
+    void shouldVerifyRs256TokensAfterSwitchingToEs256() {
+        // given
+        json.set(set(oldKey));
+        var before = store("");
+        var rs256 = sign(new JwtConfig().jwtEncoder(before));
+
+        var ecKey = (ECKey) JwtUtil.GENERATEKEY(SignatureAlgorithm.ES256);
+        json.set(set(ecKey, oldKey));
+        var after = store(ecKey.getKeyID(), SignatureAlgorithm.ES256);
+        var config = new JwtConfig();
+        JwtDecoder decoder = config.jwtDecoder(after);
+
+        // when
+        var es256 = sign(config.jwtEncoder(after), after.algorithm());
+
+        // then
+        assertEquals("ES256", decoder.decode(es256).getHeaders().get("alg").toString());
+        assertEquals("RS256", decoder.decode(rs256).getHeaders().get("alg").toString());
+        assertTrue(es256.length() < rs256.length());
+    }
+
+    @Test
+    void shouldRejectKeyThatCannotSignAlgorithm() {
+        // given
+        json.set(set(oldKey));
+
+        // then
+        assertThrows(IllegalStateException.class, () -> store("", SignatureAlgorithm.ES256).keys());
+        assertThrows(IllegalArgumentException.class, () -> store("", SignatureAlgorithm.PS256));
+    }
+
+    @Test
+    void shouldGenerateKeyForAlgorithm() {
+        // when
+        var keys = store("", SignatureAlgorithm.ES256).keys();
+
+        // then
+        assertInstanceOf(ECKey.class, keys.signing());
+    }
+
+}
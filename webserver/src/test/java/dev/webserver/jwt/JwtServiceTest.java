@@ -0,0 +1,139 @@
+package dev.webserver.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import dev.webserver.AbstractUnitTest;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.webserver.enumeration.RoleEnum.CLIENT;
+import static dev.webserver.enumeration.RoleEnum.WORKER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest extends AbstractUnitTest {
+
+    private JwtService service;
+    private AtomicInteger verifications;
+
+    @BeforeEach
+    void setUp() throws JOSEException {
+        RSAKey key = JwtUtil.GENERATERSAKEY();
+        JwtDecoder nimbus = NimbusJwtDecoder.withPublicKey(key.toRSAPublicKey()).build();
+        verifications = new AtomicInteger();
+
+        JwtDecoder counting = token -> {
+            verifications.incrementAndGet();
+            return nimbus.decode(token);
+        };
+
+        service = new JwtService(
+                new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key))),
+                new CachingJwtDecoder(counting, 16, Clock.systemUTC()),
+                new JwtKeyStore(() -> null, "", SignatureAlgorithm.RS256, algorithm -> key)
+        );
+        service.setMaxage(3600);
+        service.setClaim("role");
+        service.setApplication("webserver");
+        service.setJsessionid("JSESSIONID");
+    }
+
+    private String token() {
+        return service.generateToken(UsernamePasswordAuthenticationToken.authenticated(
+                "admin@admin.com",
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_WORKER"))
+        ));
+    }
+
+    @Test
+    void shouldVerifyJwtCookieOncePerRequest() {
+        // given
+        var req = new MockHttpServletRequest();
+        req.setCookies(new Cookie("JSESSIONID", token()));
+
+        // when
+        var first = service.jwt(req);
+        var second = service.jwt(req);
+
+        // then
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        assertEquals("admin@admin.com", first.get().getSubject());
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void shouldNotVerifyTheSameJwtAgainOnLaterRequests() {
+        // given
+        var token = token();
+        var first = new MockHttpServletRequest();
+        first.setCookies(new Cookie("JSESSIONID", token));
+        var second = new MockHttpServletRequest();
+        second.setCookies(new Cookie("JSESSIONID", token));
+
+        // when
+        service.jwt(first);
+        service.jwt(second);
+
+        // then
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void shouldReturnEmptyForMissingOrInvalidJwt() {
+        // given
+        var none = new MockHttpServletRequest();
+        var invalid = new MockHttpServletRequest();
+        invalid.setCookies(new Cookie("JSESSIONID", "invalid"));
+
+        // then
+        assertTrue(service.jwt(none).isEmpty());
+        assertTrue(service.jwt(invalid).isEmpty());
+        assertTrue(service.jwt(invalid).isEmpty());
+        assertEquals(1, verifications.get());
+    }
+
+    @Test
+    void shouldMatchRole() {
+        // given
+        var req = new MockHttpServletRequest();
+        req.setCookies(new Cookie("JSESSIONID", token()));
+
+        // when
+        Jwt jwt = service.jwt(req).orElseThrow();
+
+        // then
+        assertTrue(service.matchesRole(jwt, WORKER));
+        assertFalse(service.matchesRole(jwt, CLIENT));
+    }
+
+    @Test
+    void shouldOnlyRefreshJwtCloseToExpiry() {
+        // given
+        var req = new MockHttpServletRequest();
+        req.setCookies(new Cookie("JSESSIONID", token()));
+        service.setMaxage(600);
+        var soon = new MockHttpServletRequest();
+        soon.setCookies(new Cookie("JSESSIONID", token()));
+
+        // then
+        assertFalse(service.refreshTokenNeeded(service.jwt(req).orElseThrow()));
+        assertTrue(service.refreshTokenNeeded(service.jwt(soon).orElseThrow()));
+    }
+
+}
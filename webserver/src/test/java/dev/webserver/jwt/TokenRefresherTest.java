@@ -0,0 +1,189 @@
+package dev.webserver.jwt;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.util.CacheInvalidationEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRefresherTest extends AbstractUnitTest {
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private TokenRefresher refresher;
+    private MutableClock clock;
+    private AtomicInteger minted;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+    @Mock
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        minted = new AtomicInteger();
+        refresher = new TokenRefresher(userDetailsService, jwtService, Duration.ofSeconds(60), 16, clock);
+
+        lenient().when(jwtService.getMaxage()).thenReturn(3600);
+        lenient().when(jwtService.getBoundToSendRefreshToken()).thenReturn(15);
+        lenient().when(jwtService.generateToken(any(Authentication.class)))
+                .thenAnswer(invocation -> "jwt-" + minted.incrementAndGet());
+        lenient().when(userDetailsService.loadUserByUsername("admin@admin.com"))
+                .thenReturn(new User("admin@admin.com", "", List.of(new SimpleGrantedAuthority("ROLE_WORKER"))));
+    }
+
+    @Test
+    void shouldMintOneJwtPerRefreshWindow() {
+        // when
+        var first = refresher.refresh("admin@admin.com");
+        clock.now = clock.now.plus(Duration.ofMinutes(44));
+        var second = refresher.refresh("admin@admin.com");
+
+        // then
+        assertEquals(first, second);
+        assertEquals(1, minted.get());
+        verify(userDetailsService, times(1)).loadUserByUsername("admin@admin.com");
+
+        // when the minted jwt is itself due a refresh
+        clock.now = clock.now.plus(Duration.ofMinutes(1));
+        var third = refresher.refresh("admin@admin.com");
+
+        // then
+        assertNotEquals(first, third);
+        assertEquals(2, minted.get());
+    }
+
+    @Test
+    void shouldReuseCachedAuthoritiesWithinTtl() {
+        // given
+        when(jwtService.getMaxage()).thenReturn(60 * 15);
+
+        // when
+        refresher.refresh("admin@admin.com");
+        clock.now = clock.now.plusSeconds(30);
+        refresher.refresh("admin@admin.com");
+
+        // then
+        assertEquals(2, minted.get());
+        verify(userDetailsService, times(1)).loadUserByUsername("admin@admin.com");
+
+        // when
+        clock.now = clock.now.plusSeconds(30);
+        refresher.refresh("admin@admin.com");
+
+        // then
+        verify(userDetailsService, times(2)).loadUserByUsername("admin@admin.com");
+    }
+
+    @Test
+    void shouldClearCachesWhenRolesChange() {
+        // when
+        var first = refresher.refresh("admin@admin.com");
+        refresher.onCacheInvalidation(new CacheInvalidationEvent(this, TokenRefresher.CACHE));
+        var second = refresher.refresh("admin@admin.com");
+
+        // then
+        assertNotEquals(first, second);
+        verify(userDetailsService, times(2)).loadUserByUsername("admin@admin.com");
+    }
+
+    @Test
+    void shouldIgnoreOtherCaches() {
+        // when
+        var first = refresher.refresh("admin@admin.com");
+        refresher.onCacheInvalidation(new CacheInvalidationEvent(this, "category"));
+        var second = refresher.refresh("admin@admin.com");
+
+        // then
+        assertEquals(first, second);
+    }
+
+    @Test
+    void shouldPropagateMissingUser() {
+        // given
+        when(userDetailsService.loadUserByUsername("missing")).thenThrow(new UsernameNotFoundException("missing"));
+
+        // then
+        assertThrows(UsernameNotFoundException.class, () -> refresher.refresh("missing"));
+    }
+
+    @Test
+    void shouldMintOnceForConcurrentRefreshesOfTheSamePrincipal() throws Exception {
+        // given
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(userDetailsService.loadUserByUsername("admin@admin.com")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new User("admin@admin.com", "", List.of(new SimpleGrantedAuthority("ROLE_WORKER")));
+        });
+
+        int threads = 8;
+        Set<String> tokens = new HashSet<>();
+
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            // when
+            Future<String> leader = executor.submit(() -> refresher.refresh("admin@admin.com"));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            var followers = new ArrayList<Future<String>>();
+            for (int i = 1; i < threads; i++) {
+                followers.add(executor.submit(() -> refresher.refresh("admin@admin.com")));
+            }
+
+            release.countDown();
+
+            tokens.add(leader.get(5, TimeUnit.SECONDS));
+            for (var follower : followers) {
+                tokens.add(follower.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        // then
+        assertEquals(1, tokens.size());
+        assertEquals(1, minted.get());
+    }
+
+}
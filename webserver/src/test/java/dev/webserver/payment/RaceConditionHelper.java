@@ -2,6 +2,7 @@ package dev.webserver.payment;
 
 import dev.webserver.payment.projection.OrderReservationPojo;
 import dev.webserver.payment.projection.RaceConditionCartPojo;
+import dev.webserver.payment.projection.SkuInventoryPojo;
 
 public record RaceConditionHelper() {
 
@@ -53,6 +54,10 @@ public record RaceConditionHelper() {
     }
 
     public static OrderReservationPojo reservationPojo (long reservationId, int qty, String sku) {
+        return reservationPojo(reservationId, qty, reservationId, sku);
+    }
+
+    public static OrderReservationPojo reservationPojo (long reservationId, int qty, long skuId, String sku) {
         return new OrderReservationPojo() {
             @Override
             public Long getReservationId() {
@@ -64,6 +69,11 @@ public record RaceConditionHelper() {
                 return qty;
             }
 
+            @Override
+            public Long getProductSkuId() {
+                return skuId;
+            }
+
             @Override
             public String getProductSkuSku() {
                 return sku;
@@ -71,4 +81,33 @@ public record RaceConditionHelper() {
         };
     }
 
+    public static SkuInventoryPojo skuInventoryPojo(long skuId, String sku, String size, int inventory, String name) {
+        return new SkuInventoryPojo() {
+            @Override
+            public Long getSkuId() {
+                return skuId;
+            }
+
+            @Override
+            public String getSku() {
+                return sku;
+            }
+
+            @Override
+            public String getSize() {
+                return size;
+            }
+
+            @Override
+            public Integer getInventory() {
+                return inventory;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
 }
@@ -12,6 +12,7 @@ import dev.webserver.product.repository.ProductSkuRepo;
 import dev.webserver.product.service.WorkerProductService;
 import dev.webserver.shipping.entity.ShipSetting;
 import dev.webserver.shipping.repository.ShippingRepo;
+import dev.webserver.util.AsynchronousTasks;
 import dev.webserver.util.CustomUtil;
 import jakarta.servlet.http.Cookie;
 import org.jetbrains.annotations.NotNull;
@@ -58,6 +59,8 @@ class PaymentControllerTest extends AbstractIntegration {
     private CategoryRepository categoryRepository;
     @Autowired
     private ShippingRepo shippingRepo;
+    @Autowired
+    private AsynchronousTasks asynchronousTasks;
 
     private void preSaveNecessaryData() {
         shippingRepo
@@ -305,11 +308,9 @@ class PaymentControllerTest extends AbstractIntegration {
         // numOfUsers add last item to their cart
         Cookie[] cookies = impl(numOfUsers);
 
-        List<Integer> results = CustomUtil
-                .asynchronousTasks(getSuppliers(cookies), PaymentControllerTest.class)
-                .join()
+        List<Integer> results = asynchronousTasks
+                .join(getSuppliers(cookies), PaymentControllerTest.class)
                 .stream()
-                .map(Supplier::get)
                 .map(result -> result.getResponse().getStatus())
                 .toList();
 
@@ -16,7 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashSet;
-import java.util.Optional;
+import java.util.LinkedHashMap;
 import java.util.UUID;
 
 import static dev.webserver.enumeration.ReservationStatus.PENDING;
@@ -43,155 +43,6 @@ class OrderReservationRepoTest extends AbstractRepositoryTest {
     @Autowired
     private ProductSkuRepo skuRepo;
 
-    @Test
-    void testUpdateQueryForWhenAUserIncreasesTheQtyInTheirOrderReservation() {
-        // given
-        var cat = categoryRepo
-                .save(ProductCategory.builder()
-                        .name("category")
-                        .isVisible(true)
-                        .categories(new HashSet<>())
-                        .product(new HashSet<>())
-                        .build()
-                );
-
-        RepositoryTestData
-                .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
-
-        var skus = skuRepo.findAll();
-        assertEquals(2, skus.size());
-
-        var session = this.sessionRepo
-                .save(
-                        new ShoppingSession(
-                                "cookie",
-                                new Date(),
-                                CustomUtil.toUTC(Date.from(Instant.now().plus(1, HOURS))),
-                                new HashSet<>(),
-                                new HashSet<>()
-                        )
-                );
-
-        Date current = new Date();
-        ProductSku first = skus.getFirst();
-        var reservation = reservationRepo
-                .save(
-                        new OrderReservation(
-                                UUID.randomUUID().toString(),
-                                first.getInventory() - 1,
-                                PENDING,
-                                CustomUtil.toUTC(
-                                        Date.from(current
-                                                .toInstant()
-                                                .plus(15, MINUTES)
-                                        )
-                                ),
-                                first,
-                                session
-                        )
-                );
-
-        // when
-        reservationRepo
-                .deductFromProductSkuInventoryAndReplaceReservationQty(
-                        reservation.getQty(),
-                        2,
-                        "update",
-                        CustomUtil.toUTC(
-                                Date.from(current
-                                        .toInstant()
-                                        .plus(20, MINUTES)
-                                )
-                        ),
-                        "cookie",
-                        first.getSku(),
-                        PENDING
-                );
-
-        // when
-        Optional<ProductSku> sku = skuRepo.findById(first.getSkuId());
-        assertFalse(sku.isEmpty());
-        assertEquals(1, sku.get().getInventory());
-
-        Optional<OrderReservation> res = reservationRepo.findById(reservation.getReservationId());
-        assertFalse(res.isEmpty());
-        assertEquals(2, res.get().getQty());
-    }
-
-    @Test
-    void testUpdateQueryForWhenAUserDecreasesTheQtyInTheirOrderReservation() {
-        // given
-        var cat = categoryRepo
-                .save(ProductCategory.builder()
-                        .name("category")
-                        .isVisible(true)
-                        .categories(new HashSet<>())
-                        .product(new HashSet<>())
-                        .build()
-                );
-
-        // create 2 ProductSku objects
-        RepositoryTestData
-                .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
-
-        var skus = skuRepo.findAll();
-        assertEquals(2, skus.size());
-
-        var session = this.sessionRepo
-                .save(new ShoppingSession(
-                        "cookie",
-                        new Date(),
-                        CustomUtil.toUTC(Date.from(Instant.now().plus(1, HOURS))),
-                        new HashSet<>(),
-                        new HashSet<>()
-                ));
-
-        Date current = new Date();
-        ProductSku first = skus.getFirst();
-        var reservation = reservationRepo
-                .save(
-                        new OrderReservation(
-                                UUID.randomUUID().toString(),
-                                first.getInventory() - 1,
-                                PENDING,
-                                CustomUtil.toUTC(
-                                        Date.from(current
-                                                .toInstant()
-                                                .plus(15, MINUTES)
-                                        )
-                                ),
-                                first,
-                                session
-                        )
-                );
-
-        // when
-        reservationRepo
-                .addToProductSkuInventoryAndReplaceReservationQty(
-                        reservation.getQty(),
-                        5,
-                        "new-reference",
-                        CustomUtil.toUTC(
-                                Date.from(current
-                                        .toInstant()
-                                        .plus(20, MINUTES)
-                                )
-                        ),
-                        "cookie",
-                        first.getSku(),
-                        PENDING
-                );
-
-        // when
-        Optional<ProductSku> sku = skuRepo.findById(first.getSkuId());
-        assertFalse(sku.isEmpty());
-        assertTrue(sku.get().getInventory() > first.getInventory());
-
-        Optional<OrderReservation> res = reservationRepo.findById(reservation.getReservationId());
-        assertFalse(res.isEmpty());
-        assertEquals(5, res.get().getQty());
-    }
-
     @Test
     void allPendingExpiredReservations() {
         // given
@@ -396,7 +247,7 @@ class OrderReservationRepoTest extends AbstractRepositoryTest {
     }
 
     @Test
-    void shouldSaveOrderReservation() {
+    void shouldSaveUpdateAndDeleteOrderReservationsInBatch() {
         // given
         var cat = categoryRepo
                 .save(ProductCategory.builder()
@@ -423,27 +274,42 @@ class OrderReservationRepoTest extends AbstractRepositoryTest {
                         new HashSet<>()
                 ));
 
-        String reference = UUID.randomUUID().toString();
+        var create = new LinkedHashMap<Long, Integer>();
+        skus.forEach(sku -> create.put(sku.getSkuId(), 1));
 
-        reservationRepo.saveOrderReservation(
-                reference,
-                skus.getFirst().getInventory() - 1,
+        // when
+        reservationRepo.batchSaveOrderReservation(
+                "reference",
                 PENDING,
-                new Date(),
-                skus.getFirst().getSkuId(),
-                session.shoppingSessionId()
+                CustomUtil.toUTC(Date.from(Instant.now().plus(15, MINUTES))),
+                session.shoppingSessionId(),
+                CustomUtil.toJsonArray(create)
         );
 
-        reservationRepo.saveOrderReservation(
-                reference,
-                skus.getFirst().getInventory() - 1,
-                PENDING,
-                new Date(),
-                skus.getFirst().getSkuId(),
-                session.shoppingSessionId()
+        // then
+        var reservations = reservationRepo.allReservationsByReference("reference");
+        assertEquals(3, reservations.size());
+
+        // when
+        var update = new LinkedHashMap<Long, Integer>();
+        reservations.forEach(r -> update.put(r.getReservationId(), 2));
+        reservationRepo.batchUpdateOrderReservation(
+                "new-reference",
+                CustomUtil.toUTC(Date.from(Instant.now().plus(20, MINUTES))),
+                CustomUtil.toJsonArray(update)
         );
 
-        assertEquals(2, reservationRepo.findAll().size());
+        // then
+        assertTrue(reservationRepo.allReservationsByReference("reference").isEmpty());
+        var updated = reservationRepo.allReservationsByReference("new-reference");
+        assertEquals(3, updated.size());
+        updated.forEach(r -> assertEquals(2, r.getReservationQty()));
+
+        // when
+        reservationRepo.deleteOrderReservationsByIds(update.keySet());
+
+        // then
+        assertTrue(reservationRepo.findAll().isEmpty());
     }
 
 }
\ No newline at end of file
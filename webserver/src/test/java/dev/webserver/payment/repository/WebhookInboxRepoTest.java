@@ -0,0 +1,94 @@
+package dev.webserver.payment.repository;
+
+import dev.webserver.AbstractRepositoryTest;
+import dev.webserver.enumeration.WebhookInboxStatus;
+import dev.webserver.payment.entity.WebhookInbox;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookInboxRepoTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private WebhookInboxRepo inboxRepo;
+
+    @Test
+    void shouldStoreWebhookOncePerReference() {
+        // given
+        var now = new Date();
+
+        // when
+        int first = inboxRepo.saveWebhookIfAbsent("ref-inbox", "charge.success", "{}", now);
+        int second = inboxRepo.saveWebhookIfAbsent("ref-inbox", "charge.success", "{\"retry\":true}", now);
+
+        // then
+        assertEquals(1, first);
+        assertEquals(0, second);
+
+        var all = inboxRepo.findAll();
+        assertEquals(1, all.size());
+        assertEquals("{}", all.getFirst().getPayload());
+        assertEquals(WebhookInboxStatus.PENDING, all.getFirst().getStatus());
+    }
+
+    @Test
+    void shouldReturnDueWebhooksOldestFirst() {
+        // given
+        var now = Instant.now();
+        inboxRepo.saveWebhookIfAbsent("ref-later", "charge.success", "{}", Date.from(now.minusSeconds(10)));
+        inboxRepo.saveWebhookIfAbsent("ref-earlier", "charge.success", "{}", Date.from(now.minusSeconds(20)));
+        inboxRepo.saveWebhookIfAbsent("ref-future", "charge.success", "{}", Date.from(now.plusSeconds(60)));
+
+        // when
+        var due = inboxRepo.dueWebhooks(Date.from(now), 10);
+
+        // then
+        assertEquals(List.of("ref-earlier", "ref-later"), due.stream().map(WebhookInbox::getReference).toList());
+    }
+
+    @Test
+    void shouldHideLeasedWebhooksUntilLeaseRunsOut() {
+        // given
+        var now = Instant.now();
+        inboxRepo.saveWebhookIfAbsent("ref-leased", "charge.success", "{}", Date.from(now.minusSeconds(10)));
+        var id = inboxRepo.dueWebhooks(Date.from(now), 10).getFirst().getInboxId();
+
+        // when
+        inboxRepo.leaseWebhooks(List.of(id), Date.from(now.plusSeconds(300)));
+
+        // then
+        assertTrue(inboxRepo.dueWebhooks(Date.from(now), 10).isEmpty());
+        assertEquals(1, inboxRepo.dueWebhooks(Date.from(now.plusSeconds(301)), 10).size());
+    }
+
+    @Test
+    void shouldExcludeProcessedAndFailedWebhooksFromBacklog() {
+        // given
+        var now = Instant.now();
+        inboxRepo.saveWebhookIfAbsent("ref-processed", "charge.success", "{}", Date.from(now.minusSeconds(30)));
+        inboxRepo.saveWebhookIfAbsent("ref-failed", "charge.success", "{}", Date.from(now.minusSeconds(20)));
+        inboxRepo.saveWebhookIfAbsent("ref-pending", "charge.success", "{}", Date.from(now.minusSeconds(10)));
+
+        var byReference = inboxRepo.findAll();
+        var processed = byReference.stream().filter(w -> w.getReference().equals("ref-processed")).findFirst().orElseThrow();
+        var failed = byReference.stream().filter(w -> w.getReference().equals("ref-failed")).findFirst().orElseThrow();
+
+        // when
+        inboxRepo.updateWebhookProcessed(processed.getInboxId(), new Date(), WebhookInboxStatus.PROCESSED);
+        inboxRepo.updateWebhookAttempt(failed.getInboxId(), 10, new Date(), WebhookInboxStatus.FAILED, "error");
+
+        // then
+        assertEquals(1, inboxRepo.webhookCountByStatus(WebhookInboxStatus.PENDING));
+        assertEquals(
+                Date.from(now.minusSeconds(10)).getTime() / 1000,
+                inboxRepo.oldestWebhookReceivedAt(WebhookInboxStatus.PENDING).orElseThrow().getTime() / 1000
+        );
+        assertEquals(1, inboxRepo.dueWebhooks(new Date(), 10).size());
+    }
+
+}
@@ -2,7 +2,6 @@ package dev.webserver.payment.service;
 
 import dev.webserver.AbstractUnitTest;
 import dev.webserver.cart.entity.ShoppingSession;
-import dev.webserver.cart.repository.CartItemRepo;
 import dev.webserver.checkout.CheckoutService;
 import dev.webserver.enumeration.ReservationStatus;
 import dev.webserver.exception.OutOfStockException;
@@ -13,6 +12,7 @@ import dev.webserver.payment.repository.OrderReservationRepo;
 import dev.webserver.product.entity.ProductSku;
 import dev.webserver.product.repository.ProductSkuRepo;
 import dev.webserver.external.ThirdPartyPaymentService;
+import dev.webserver.product.service.ProductListingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -23,10 +23,10 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.time.temporal.ChronoUnit.HOURS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.*;
 
 class RaceConditionServiceTest extends AbstractUnitTest {
 
@@ -35,7 +35,7 @@ class RaceConditionServiceTest extends AbstractUnitTest {
     @Mock
     private ProductSkuRepo skuRepo;
     @Mock
-    private CartItemRepo cartItemRepo;
+    private ProductListingService listingService;
     @Mock
     private OrderReservationRepo reservationRepo;
     @Mock
@@ -47,7 +47,7 @@ class RaceConditionServiceTest extends AbstractUnitTest {
     void setUp() {
         raceConditionService = new RaceConditionService(
                 skuRepo,
-                cartItemRepo,
+                listingService,
                 reservationRepo,
                 thirdPartyService,
                 checkoutService
@@ -93,7 +93,13 @@ class RaceConditionServiceTest extends AbstractUnitTest {
         Map<String, OrderReservationPojo> map = list.stream()
                 .collect(Collectors.toMap(RaceConditionCartPojo::getProductSkuSku,
                         pojo -> RaceConditionHelper.reservationPojo(
-                                1L, pojo.getCartItemQty(), pojo.getProductSkuSku())));
+                                1L, 2, pojo.getProductSkuSku())));
+
+        // when
+        when(skuRepo.lockProductSkusBySkuIds(anyCollection()))
+                .thenReturn(List.of(RaceConditionHelper
+                        .skuInventoryPojo(1L, sku.getSku(), sku.getSize(), sku.getInventory(), "product")));
+
         // then
         assertThrows(OutOfStockException.class,
                 () -> raceConditionService
@@ -105,6 +111,132 @@ class RaceConditionServiceTest extends AbstractUnitTest {
                                 list
                         )
         );
+        verify(skuRepo, times(0))
+                .batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(anyString());
+    }
+
+    @Test
+    void errorContainsEveryProductSkuThatIsOutOfStock() {
+        // given
+        var date = new Date();
+        var session = new ShoppingSession(
+                1L,
+                "cookie",
+                date,
+                new Date(Instant.now().plus(1, HOURS).toEpochMilli()),
+                new HashSet<>(),
+                new HashSet<>()
+        );
+
+        var cartItems = List.of(
+                RaceConditionHelper.raceConditionCartPojo(1L, "sku-0", 10, "medium", 1L, 11, 1L),
+                RaceConditionHelper.raceConditionCartPojo(2L, "sku-1", 5, "large", 2L, 3, 1L),
+                RaceConditionHelper.raceConditionCartPojo(3L, "sku-2", 1, "small", 3L, 2, 1L)
+        );
+
+        // when
+        when(skuRepo.lockProductSkusBySkuIds(anyCollection()))
+                .thenReturn(List.of(
+                        RaceConditionHelper.skuInventoryPojo(1L, "sku-0", "medium", 10, "shirt"),
+                        RaceConditionHelper.skuInventoryPojo(2L, "sku-1", "large", 5, "trouser"),
+                        RaceConditionHelper.skuInventoryPojo(3L, "sku-2", "small", 1, "sock")
+                ));
+
+        // then
+        var ex = assertThrows(OutOfStockException.class,
+                () -> raceConditionService
+                        .onPendingReservationsNotEmpty("", session, date, new HashMap<>(), cartItems));
+
+        assertEquals("shirt medium, sock small are out of stock", ex.getMessage());
+        verify(listingService, times(0)).refreshStock(anyCollection());
+        verify(skuRepo, times(0))
+                .batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(anyString());
+        verify(reservationRepo, times(0))
+                .batchSaveOrderReservation(anyString(), any(ReservationStatus.class), any(Date.class), anyLong(), anyString());
+    }
+
+    @Test
+    void allItemsInCartAreReservedInASingleBatch() {
+        // given
+        var date = new Date();
+        var session = new ShoppingSession(
+                1L,
+                "cookie",
+                date,
+                new Date(Instant.now().plus(1, HOURS).toEpochMilli()),
+                new HashSet<>(),
+                new HashSet<>()
+        );
+
+        var cartItems = List.of(
+                RaceConditionHelper.raceConditionCartPojo(1L, "sku-0", 10, "medium", 1L, 3, 1L),
+                RaceConditionHelper.raceConditionCartPojo(2L, "sku-1", 5, "large", 2L, 4, 1L),
+                RaceConditionHelper.raceConditionCartPojo(3L, "sku-2", 7, "small", 3L, 1, 1L)
+        );
+
+        // when
+        when(skuRepo.lockProductSkusBySkuIds(anyCollection()))
+                .thenReturn(List.of(
+                        RaceConditionHelper.skuInventoryPojo(1L, "sku-0", "medium", 10, "shirt"),
+                        RaceConditionHelper.skuInventoryPojo(2L, "sku-1", "large", 5, "trouser"),
+                        RaceConditionHelper.skuInventoryPojo(3L, "sku-2", "small", 7, "sock")
+                ));
+        when(skuRepo.batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(anyString()))
+                .thenReturn(3);
+
+        // method to test
+        raceConditionService.raceConditionImpl("reference", List.of(), cartItems, date, session);
+
+        // then
+        verify(skuRepo, times(1)).lockProductSkusBySkuIds(anyCollection());
+        verify(skuRepo, times(1))
+                .batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(
+                        "[{\"id\":1,\"qty\":3},{\"id\":2,\"qty\":4},{\"id\":3,\"qty\":1}]");
+        verify(listingService, times(1)).refreshStock(Set.of(1L, 2L, 3L));
+        verify(reservationRepo, times(1))
+                .batchSaveOrderReservation(
+                        eq("reference"),
+                        eq(ReservationStatus.PENDING),
+                        eq(date),
+                        eq(1L),
+                        eq("[{\"id\":1,\"qty\":3},{\"id\":2,\"qty\":4},{\"id\":3,\"qty\":1}]")
+                );
+        verify(reservationRepo, times(0)).batchUpdateOrderReservation(anyString(), any(Date.class), anyString());
+        verify(reservationRepo, times(0)).deleteOrderReservationsByIds(anyCollection());
+    }
+
+    @Test
+    void errorThrownWhenBatchUpdateDoesNotUpdateEveryProductSku() {
+        // given
+        var date = new Date();
+        var session = new ShoppingSession(
+                1L,
+                "cookie",
+                date,
+                new Date(Instant.now().plus(1, HOURS).toEpochMilli()),
+                new HashSet<>(),
+                new HashSet<>()
+        );
+
+        var cartItems = List.of(
+                RaceConditionHelper.raceConditionCartPojo(1L, "sku-0", 10, "medium", 1L, 3, 1L),
+                RaceConditionHelper.raceConditionCartPojo(2L, "sku-1", 5, "large", 2L, 4, 1L)
+        );
+
+        // when
+        when(skuRepo.lockProductSkusBySkuIds(anyCollection()))
+                .thenReturn(List.of(
+                        RaceConditionHelper.skuInventoryPojo(1L, "sku-0", "medium", 10, "shirt"),
+                        RaceConditionHelper.skuInventoryPojo(2L, "sku-1", "large", 5, "trouser")
+                ));
+        when(skuRepo.batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(anyString()))
+                .thenReturn(1);
+
+        // then
+        assertThrows(OutOfStockException.class,
+                () -> raceConditionService.raceConditionImpl("reference", List.of(), cartItems, date, session));
+        verify(reservationRepo, times(0))
+                .batchSaveOrderReservation(anyString(), any(ReservationStatus.class), any(Date.class), anyLong(), anyString());
     }
 
     @Test
@@ -177,36 +309,15 @@ class RaceConditionServiceTest extends AbstractUnitTest {
                 );
 
         // then
-        verify(reservationRepo, times(0))
-                .addToProductSkuInventoryAndReplaceReservationQty(
-                        anyInt(),
-                        anyInt(),
-                        anyString(),
-                        any(Date.class),
-                        anyString(),
-                        anyString(),
-                        any(ReservationStatus.class)
-                );
-        verify(reservationRepo, times(0))
-                .deductFromProductSkuInventoryAndReplaceReservationQty(
-                        anyInt(),
-                        anyInt(),
-                        anyString(),
-                        any(Date.class),
-                        anyString(),
-                        anyString(),
-                        any(ReservationStatus.class)
-                );
-
+        verify(skuRepo, times(0)).lockProductSkusBySkuIds(anyCollection());
         verify(skuRepo, times(0))
-                .updateProductSkuInventoryBySubtractingFromExistingInventory(anyString(), anyInt());
+                .batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(anyString());
         verify(reservationRepo, times(0))
-                .saveOrderReservation(anyString(), anyInt(), any(ReservationStatus.class), any(Date.class), anyLong(), anyLong());
-
-        verify(skuRepo, times(0))
-                .updateProductSkuInventoryByAddingToExistingInventory(anyString(), anyInt());
+                .batchSaveOrderReservation(anyString(), any(ReservationStatus.class), any(Date.class), anyLong(), anyString());
 
-        verify(reservationRepo, times(0)).deleteById(anyLong());
+        // reservations point to the new reference
+        verify(reservationRepo, times(1)).batchUpdateOrderReservation(anyString(), any(Date.class), anyString());
+        verify(reservationRepo, times(0)).deleteOrderReservationsByIds(anyCollection());
     }
 
     @Test
@@ -266,7 +377,16 @@ class RaceConditionServiceTest extends AbstractUnitTest {
 
         var reservation = Stream.of(sku)
                 .collect(Collectors.toMap(ProductSku::getSku,
-                        s -> RaceConditionHelper.reservationPojo(1L, 7, s.getSku())));
+                        s -> RaceConditionHelper.reservationPojo(1L, 7, s.getSkuId(), s.getSku())));
+
+        // when
+        when(skuRepo.lockProductSkusBySkuIds(anyCollection()))
+                .thenReturn(List.of(
+                        RaceConditionHelper.skuInventoryPojo(sku.getSkuId(), sku.getSku(), sku.getSize(), sku.getInventory(), "shirt"),
+                        RaceConditionHelper.skuInventoryPojo(sku1.getSkuId(), sku1.getSku(), sku1.getSize(), sku1.getInventory(), "shirt")
+                ));
+        when(skuRepo.batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(anyString()))
+                .thenReturn(2);
 
         // method to test
         raceConditionService
@@ -279,35 +399,14 @@ class RaceConditionServiceTest extends AbstractUnitTest {
                 );
 
         // then
-        verify(reservationRepo, times(1))
-                .addToProductSkuInventoryAndReplaceReservationQty(
-                        anyInt(),
-                        anyInt(),
-                        anyString(),
-                        any(Date.class),
-                        anyString(),
-                        anyString(),
-                        any(ReservationStatus.class)
-                );
-        verify(reservationRepo, times(0))
-                .deductFromProductSkuInventoryAndReplaceReservationQty(
-                        anyInt(),
-                        anyInt(),
-                        anyString(),
-                        any(Date.class),
-                        anyString(),
-                        anyString(),
-                        any(ReservationStatus.class)
-                );
-
         verify(skuRepo, times(1))
-                .updateProductSkuInventoryBySubtractingFromExistingInventory(anyString(), anyInt());
+                .batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(
+                        "[{\"id\":1,\"qty\":-4},{\"id\":2,\"qty\":4}]");
         verify(reservationRepo, times(1))
-                .saveOrderReservation(anyString(), anyInt(), any(ReservationStatus.class), any(Date.class), anyLong(), anyLong());
-
-        verify(skuRepo, times(0))
-                .updateProductSkuInventoryByAddingToExistingInventory(anyString(), anyInt());
-        verify(reservationRepo, times(0)).deleteById(anyLong());
+                .batchUpdateOrderReservation("", date, "[{\"id\":1,\"qty\":3}]");
+        verify(reservationRepo, times(1))
+                .batchSaveOrderReservation("", ReservationStatus.PENDING, date, 1L, "[{\"id\":2,\"qty\":4}]");
+        verify(reservationRepo, times(0)).deleteOrderReservationsByIds(anyCollection());
     }
 
     @Test
@@ -368,7 +467,16 @@ class RaceConditionServiceTest extends AbstractUnitTest {
 
         var reservation = Stream.of(sku)
                 .collect(Collectors.toMap(ProductSku::getSku,
-                        s -> RaceConditionHelper.reservationPojo(1L, 3, s.getSku())));
+                        s -> RaceConditionHelper.reservationPojo(1L, 3, s.getSkuId(), s.getSku())));
+
+        // when
+        when(skuRepo.lockProductSkusBySkuIds(anyCollection()))
+                .thenReturn(List.of(
+                        RaceConditionHelper.skuInventoryPojo(sku.getSkuId(), sku.getSku(), sku.getSize(), sku.getInventory(), "shirt"),
+                        RaceConditionHelper.skuInventoryPojo(sku1.getSkuId(), sku1.getSku(), sku1.getSize(), sku1.getInventory(), "shirt")
+                ));
+        when(skuRepo.batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(anyString()))
+                .thenReturn(2);
 
         // then
         raceConditionService
@@ -380,35 +488,14 @@ class RaceConditionServiceTest extends AbstractUnitTest {
                         cartItems
                 );
 
-        verify(reservationRepo, times(0))
-                .addToProductSkuInventoryAndReplaceReservationQty(
-                        anyInt(),
-                        anyInt(),
-                        anyString(),
-                        any(Date.class),
-                        anyString(),
-                        anyString(),
-                        any(ReservationStatus.class)
-                );
-        verify(reservationRepo, times(1))
-                .deductFromProductSkuInventoryAndReplaceReservationQty(
-                        anyInt(),
-                        anyInt(),
-                        anyString(),
-                        any(Date.class),
-                        anyString(),
-                        anyString(),
-                        any(ReservationStatus.class)
-                );
-
         verify(skuRepo, times(1))
-                .updateProductSkuInventoryBySubtractingFromExistingInventory(anyString(), anyInt());
+                .batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(
+                        "[{\"id\":1,\"qty\":4},{\"id\":2,\"qty\":4}]");
         verify(reservationRepo, times(1))
-                .saveOrderReservation(anyString(), anyInt(), any(ReservationStatus.class), any(Date.class), anyLong(), anyLong());
-
-        verify(skuRepo, times(0))
-                .updateProductSkuInventoryByAddingToExistingInventory(anyString(), anyInt());
-        verify(reservationRepo, times(0)).deleteById(anyLong());
+                .batchUpdateOrderReservation("", date, "[{\"id\":1,\"qty\":7}]");
+        verify(reservationRepo, times(1))
+                .batchSaveOrderReservation("", ReservationStatus.PENDING, date, 1L, "[{\"id\":2,\"qty\":4}]");
+        verify(reservationRepo, times(0)).deleteOrderReservationsByIds(anyCollection());
     }
 
     @Test
@@ -447,7 +534,11 @@ class RaceConditionServiceTest extends AbstractUnitTest {
 
         var reservations = Stream.of(sku, sku1)
                 .collect(Collectors.toMap(ProductSku::getSku,
-                        s -> RaceConditionHelper.reservationPojo(1L, s.getInventory(), s.getSku())));
+                        s -> RaceConditionHelper.reservationPojo(s.getSkuId(), s.getInventory(), s.getSkuId(), s.getSku())));
+
+        // when
+        when(skuRepo.batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(anyString()))
+                .thenReturn(2);
 
         // method to test
         raceConditionService
@@ -460,35 +551,12 @@ class RaceConditionServiceTest extends AbstractUnitTest {
                 );
 
         // then
+        verify(skuRepo, times(1))
+                .batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(anyString());
         verify(reservationRepo, times(0))
-                .addToProductSkuInventoryAndReplaceReservationQty(
-                        anyInt(),
-                        anyInt(),
-                        anyString(),
-                        any(Date.class),
-                        anyString(),
-                        anyString(),
-                        any(ReservationStatus.class)
-                );
-        verify(reservationRepo, times(0))
-                .deductFromProductSkuInventoryAndReplaceReservationQty(
-                        anyInt(),
-                        anyInt(),
-                        anyString(),
-                        any(Date.class),
-                        anyString(),
-                        anyString(),
-                        any(ReservationStatus.class)
-                );
-
-        verify(skuRepo, times(0))
-                .updateProductSkuInventoryBySubtractingFromExistingInventory(anyString(), anyInt());
-        verify(reservationRepo, times(0))
-                .saveOrderReservation(anyString(), anyInt(), any(ReservationStatus.class), any(Date.class), anyLong(), anyLong());
-
-        verify(skuRepo, times(2))
-                .updateProductSkuInventoryByAddingToExistingInventory(anyString(), anyInt());
-        verify(reservationRepo, times(2)).deleteById(anyLong());
+                .batchSaveOrderReservation(anyString(), any(ReservationStatus.class), any(Date.class), anyLong(), anyString());
+        verify(reservationRepo, times(0)).batchUpdateOrderReservation(anyString(), any(Date.class), anyString());
+        verify(reservationRepo, times(1)).deleteOrderReservationsByIds(argThat(ids -> ids.size() == 2));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package dev.webserver.payment.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.enumeration.WebhookInboxStatus;
+import dev.webserver.exception.CustomServerError;
+import dev.webserver.external.log.ILogEventPublisher;
+import dev.webserver.payment.entity.WebhookInbox;
+import dev.webserver.payment.repository.WebhookInboxRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static dev.webserver.payment.service.WebhookServiceTest.dummyPaystackWebhook;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WebhookInboxProcessorTest extends AbstractUnitTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private WebhookInboxProcessor processor;
+    private SimpleMeterRegistry registry;
+
+    @Mock
+    private WebhookInboxRepo inboxRepo;
+    @Mock
+    private PaymentDetailService paymentDetailService;
+    @Mock
+    private ILogEventPublisher publisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        processor = new WebhookInboxProcessor(
+                inboxRepo,
+                paymentDetailService,
+                publisher,
+                transactionManager,
+                registry,
+                2,
+                3,
+                Duration.ofSeconds(30),
+                Duration.ofMinutes(5),
+                Clock.fixed(NOW, ZoneOffset.UTC)
+        );
+    }
+
+    private static WebhookInbox inbox(long id, int attempts) {
+        return WebhookInbox.builder()
+                .inboxId(id)
+                .reference("ref-dummy-reference")
+                .event("charge.success")
+                .payload(dummyPaystackWebhook)
+                .status(WebhookInboxStatus.PENDING)
+                .attempts(attempts)
+                .receivedAt(Date.from(NOW))
+                .nextAttemptAt(Date.from(NOW))
+                .build();
+    }
+
+    @Test
+    void shouldRecordPurchaseAndMarkProcessed() {
+        // given
+        when(paymentDetailService.paymentDetailExists("dummyclient@client.com", "ref-dummy-reference"))
+                .thenReturn(false);
+
+        // when
+        processor.process(inbox(1L, 0));
+
+        // then
+        verify(paymentDetailService, times(1)).onSuccessfulPayment(any(JsonNode.class));
+        verify(inboxRepo, times(1)).updateWebhookProcessed(1L, Date.from(NOW), WebhookInboxStatus.PROCESSED);
+        verify(publisher, times(1)).publishPurchase("E-commerce Application", "dummyclient@client.com");
+        assertEquals(1, registry.counter("payment.webhook.inbox.processed").count());
+    }
+
+    @Test
+    void shouldNotRecordPurchaseTwice() {
+        // given
+        when(paymentDetailService.paymentDetailExists("dummyclient@client.com", "ref-dummy-reference"))
+                .thenReturn(true);
+
+        // when
+        processor.process(inbox(1L, 0));
+
+        // then
+        verify(paymentDetailService, times(0)).onSuccessfulPayment(any(JsonNode.class));
+        verify(inboxRepo, times(1)).updateWebhookProcessed(1L, Date.from(NOW), WebhookInboxStatus.PROCESSED);
+        verify(publisher, times(0)).publishPurchase(anyString(), anyString());
+    }
+
+    @Test
+    void shouldRetryFailedWebhookWithBackoff() {
+        // given
+        doThrow(new CustomServerError("error saving a PaymentDetail"))
+                .when(paymentDetailService).onSuccessfulPayment(any(JsonNode.class));
+
+        // when
+        processor.process(inbox(1L, 1));
+
+        // then
+        verify(inboxRepo, times(1)).updateWebhookAttempt(
+                1L,
+                2,
+                Date.from(NOW.plusSeconds(60)),
+                WebhookInboxStatus.PENDING,
+                "error saving a PaymentDetail"
+        );
+        verify(inboxRepo, times(0)).updateWebhookProcessed(anyLong(), any(), any());
+        verify(publisher, times(0)).publishPurchase(anyString(), anyString());
+        assertEquals(1, registry.counter("payment.webhook.inbox.retried").count());
+    }
+
+    @Test
+    void shouldMarkFailedOnceAttemptsAreExhausted() {
+        // given
+        doThrow(new CustomServerError("error saving a PaymentDetail"))
+                .when(paymentDetailService).onSuccessfulPayment(any(JsonNode.class));
+
+        // when
+        processor.process(inbox(1L, 2));
+
+        // then
+        verify(inboxRepo, times(1))
+                .updateWebhookAttempt(eq(1L), eq(3), any(), eq(WebhookInboxStatus.FAILED), anyString());
+        assertEquals(1, registry.counter("payment.webhook.inbox.failed").count());
+    }
+
+    @Test
+    void shouldDoubleBackoffUpToAnHour() {
+        assertEquals(Duration.ofSeconds(30), processor.backoff(1));
+        assertEquals(Duration.ofSeconds(120), processor.backoff(3));
+        assertEquals(WebhookInboxProcessor.MAX_BACKOFF, processor.backoff(8));
+        assertEquals(WebhookInboxProcessor.MAX_BACKOFF, processor.backoff(100));
+    }
+
+    @Test
+    void shouldClaimUntilNoFullBatchIsLeftAndRecordLag() {
+        // given
+        when(inboxRepo.dueWebhooks(Date.from(NOW), 2))
+                .thenReturn(List.of(inbox(1L, 0), inbox(2L, 0)))
+                .thenReturn(List.of(inbox(3L, 0)));
+        when(paymentDetailService.paymentDetailExists(anyString(), anyString())).thenReturn(true);
+        when(inboxRepo.webhookCountByStatus(WebhookInboxStatus.PENDING)).thenReturn(4L);
+        when(inboxRepo.oldestWebhookReceivedAt(WebhookInboxStatus.PENDING))
+                .thenReturn(Optional.of(Date.from(NOW.minusSeconds(90))));
+
+        // when
+        processor.drain();
+
+        // then
+        verify(inboxRepo, times(2)).dueWebhooks(Date.from(NOW), 2);
+        verify(inboxRepo, times(1)).leaseWebhooks(List.of(1L, 2L), Date.from(NOW.plus(Duration.ofMinutes(5))));
+        verify(inboxRepo, times(1)).leaseWebhooks(List.of(3L), Date.from(NOW.plus(Duration.ofMinutes(5))));
+        verify(inboxRepo, times(3)).updateWebhookProcessed(anyLong(), any(), eq(WebhookInboxStatus.PROCESSED));
+        assertEquals(4, registry.get("payment.webhook.inbox.pending").gauge().value());
+        assertEquals(90, registry.get("payment.webhook.inbox.lag").gauge().value());
+    }
+
+}
@@ -1,14 +1,22 @@
 package dev.webserver.payment.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.webserver.AbstractUnitTest;
+import dev.webserver.exception.CustomServerError;
+import dev.webserver.external.PaymentCredentialObj;
 import dev.webserver.external.ThirdPartyPaymentService;
-import dev.webserver.external.log.ILogEventPublisher;
+import dev.webserver.payment.repository.WebhookInboxRepo;
+import dev.webserver.payment.util.WebHookUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 class WebhookServiceTest extends AbstractUnitTest {
 
@@ -17,22 +25,78 @@ class WebhookServiceTest extends AbstractUnitTest {
     @Mock
     private ThirdPartyPaymentService thirdPartyPaymentService;
     @Mock
-    private PaymentDetailService paymentDetailService;
-    @Mock
-    private ILogEventPublisher publisher;
+    private WebhookInboxRepo inboxRepo;
 
     @BeforeEach
     void setUpWebHookService() {
-        webhookService = new WebhookService(thirdPartyPaymentService, paymentDetailService, publisher);
+        webhookService = new WebhookService(thirdPartyPaymentService, inboxRepo);
+    }
+
+    @Test
+    void shouldStoreVerifiedWebhookInInbox() throws Exception {
+        // given
+        var req = new MockHttpServletRequest();
+        req.setContent(dummyPaystackWebhook.getBytes(UTF_8));
+        req.addHeader("x-paystack-signature", WebHookUtil
+                .validateRequestFromPayStack("secret", dummyPaystackWebhook).validate().toLowerCase());
+
+        // when
+        when(thirdPartyPaymentService.payStackCredentials())
+                .thenReturn(new PaymentCredentialObj("pub", "secret"));
+        when(inboxRepo.saveWebhookIfAbsent(anyString(), anyString(), anyString(), any())).thenReturn(0);
+
+        // method to test
+        webhookService.webhook(req);
+
+        // then
+        verify(inboxRepo, times(1)).saveWebhookIfAbsent(
+                eq("ref-dummy-reference"),
+                eq("charge.success"),
+                eq(dummyPaystackWebhook.replace("\n", "")),
+                any()
+        );
+        verify(thirdPartyPaymentService, times(0)).refreshPayStackCredentials();
     }
 
     @Test
-    void shouldSuccessfullyProcessWebHookBasedOnMockData() throws JsonProcessingException {
+    void shouldRefreshCredentialsWhenSignatureDoesNotMatchCachedSecretKey() throws Exception {
         // given
-        JsonNode node = new ObjectMapper().readValue(dummyPaystackWebhook, JsonNode.class);
+        var req = new MockHttpServletRequest();
+        req.setContent(dummyPaystackWebhook.getBytes(UTF_8));
+        req.addHeader("x-paystack-signature", WebHookUtil
+                .validateRequestFromPayStack("rotated", dummyPaystackWebhook).validate().toLowerCase());
+
+        // when
+        when(thirdPartyPaymentService.payStackCredentials())
+                .thenReturn(new PaymentCredentialObj("pub", "secret"));
+        when(thirdPartyPaymentService.refreshPayStackCredentials())
+                .thenReturn(new PaymentCredentialObj("pub", "rotated"));
 
         // method to test
-        webhookService.onSuccessWebHook(node.get("data"));
+        webhookService.webhook(req);
+
+        // then
+        verify(thirdPartyPaymentService, times(1)).refreshPayStackCredentials();
+        verify(inboxRepo, times(1)).saveWebhookIfAbsent(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void shouldThrowWhenSignatureDoesNotMatchRefreshedSecretKey() throws Exception {
+        // given
+        var req = new MockHttpServletRequest();
+        req.setContent(dummyPaystackWebhook.getBytes(UTF_8));
+        req.addHeader("x-paystack-signature", WebHookUtil
+                .validateRequestFromPayStack("unknown", dummyPaystackWebhook).validate().toLowerCase());
+
+        // when
+        when(thirdPartyPaymentService.payStackCredentials())
+                .thenReturn(new PaymentCredentialObj("pub", "secret"));
+        when(thirdPartyPaymentService.refreshPayStackCredentials())
+                .thenReturn(new PaymentCredentialObj("pub", "secret"));
+
+        // then
+        assertThrows(CustomServerError.class, () -> webhookService.webhook(req));
+        verify(inboxRepo, times(0)).saveWebhookIfAbsent(anyString(), anyString(), anyString(), any());
     }
 
     static final String dummyPaystackWebhook = """
@@ -0,0 +1,253 @@
+package dev.webserver.product.repository;
+
+import dev.webserver.AbstractRepositoryTest;
+import dev.webserver.category.entity.ProductCategory;
+import dev.webserver.category.repository.CategoryRepository;
+import dev.webserver.data.RepositoryTestData;
+import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.product.entity.ProductListing;
+import dev.webserver.product.entity.ProductSku;
+import dev.webserver.product.projection.ProductKeysetPojo;
+import dev.webserver.product.projection.ProductPojo;
+import dev.webserver.util.CustomUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductListingRepoTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private ProductListingRepo listingRepo;
+    @Autowired
+    private CategoryRepository categoryRepo;
+    @Autowired
+    private ProductRepo productRepo;
+    @Autowired
+    private ProductDetailRepo detailRepo;
+    @Autowired
+    private PriceCurrencyRepo priceCurrencyRepo;
+    @Autowired
+    private ProductSkuRepo skuRepo;
+    @Autowired
+    private ProductImageRepo imageRepo;
+
+    private ProductCategory category(String name, ProductCategory parent) {
+        var category = categoryRepo
+                .save(ProductCategory.builder()
+                        .name(name)
+                        .isVisible(true)
+                        .parentCategory(parent)
+                        .categories(new HashSet<>())
+                        .product(new HashSet<>())
+                        .build());
+        categoryRepo.saveCategoryClosure(category.getCategoryId());
+        return category;
+    }
+
+    @Test
+    void saveListingsByCategoryId() {
+        // given
+        var cat = category("category", null);
+        var clothes = category("clothes", cat);
+        RepositoryTestData
+                .createProduct(2, clothes, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+
+        // when
+        listingRepo.saveListingsByCategoryId(cat.getCategoryId());
+
+        // then
+        var product = productRepo.findAll().getFirst();
+        List<ProductListing> listings = listingRepo.findAll();
+        assertEquals(SarreCurrency.values().length, listings.size());
+
+        for (ProductListing listing : listings) {
+            assertEquals(product.getProductId(), listing.getProductId());
+            assertEquals(product.getUuid(), listing.getUuid());
+            assertEquals(product.getName(), listing.getName());
+            assertEquals(product.getDefaultKey(), listing.getImageKey());
+            assertEquals("clothes", listing.getCategory());
+            assertEquals(clothes.getCategoryId(), listing.getCategoryId());
+            assertTrue(listing.isVisible());
+            assertTrue(listing.isInStock());
+            assertNotNull(listing.getPrice());
+        }
+    }
+
+    @Test
+    void refreshListingsByCategoryIdOnlyTouchesItsSubtree() {
+        // given
+        var cat = category("category", null);
+        var clothes = category("clothes", cat);
+        var other = category("other", null);
+        RepositoryTestData
+                .createProduct(2, clothes, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+        RepositoryTestData
+                .createProduct(2, other, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+        listingRepo.saveListingsByCategoryId(cat.getCategoryId());
+        listingRepo.saveListingsByCategoryId(other.getCategoryId());
+
+        categoryRepo.update("shirts", true, clothes.getCategoryId());
+        categoryRepo.update("renamed", true, other.getCategoryId());
+
+        // when
+        listingRepo.deleteListingsByCategoryId(cat.getCategoryId());
+        listingRepo.saveListingsByCategoryId(cat.getCategoryId());
+
+        // then
+        var listings = listingRepo.findAll();
+        assertEquals(SarreCurrency.values().length * 2, listings.size());
+        for (ProductListing listing : listings) {
+            assertEquals(
+                    listing.getCategoryId().equals(clothes.getCategoryId()) ? "shirts" : "other",
+                    listing.getCategory()
+            );
+        }
+    }
+
+    @Test
+    void saveListingsOfProductWithoutDescription() {
+        // given
+        var cat = category("category", null);
+        RepositoryTestData
+                .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+        var product = productRepo.findAll().getFirst();
+        productRepo.updateProduct(product.getUuid(), product.getName(), null, 2, cat);
+
+        // when
+        listingRepo.saveListingsByProductUuid(product.getUuid());
+
+        // then
+        var listings = listingRepo.findAll();
+        assertEquals(SarreCurrency.values().length, listings.size());
+        listings.forEach(listing -> assertEquals("", listing.getDescription()));
+    }
+
+    @Test
+    void refreshListingsByProductUuid() {
+        // given
+        var cat = category("category", null);
+        RepositoryTestData
+                .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+        var product = productRepo.findAll().getFirst();
+        listingRepo.saveListingsByCategoryId(cat.getCategoryId());
+
+        productRepo.updateProduct(product.getUuid(), "renamed", "desc", 2, cat);
+
+        // when
+        listingRepo.deleteListingsByProductUuid(product.getUuid());
+        listingRepo.saveListingsByProductUuid(product.getUuid());
+
+        // then
+        var listings = listingRepo.findAll();
+        assertEquals(SarreCurrency.values().length, listings.size());
+        listings.forEach(listing -> assertEquals("renamed", listing.getName()));
+    }
+
+    @Test
+    void updateListingStockBySkuIds() {
+        // given
+        var cat = category("category", null);
+        RepositoryTestData
+                .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+        listingRepo.saveListingsByCategoryId(cat.getCategoryId());
+
+        var skus = skuRepo.findAll();
+        var map = new LinkedHashMap<Long, Integer>();
+        for (ProductSku sku : skus) {
+            map.put(sku.getSkuId(), sku.getInventory());
+        }
+        skuRepo.batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(CustomUtil.toJsonArray(map));
+        var ids = skus.stream().map(ProductSku::getSkuId).toList();
+
+        // when
+        int out = listingRepo.updateListingStockBySkuIds(ids);
+        int unchanged = listingRepo.updateListingStockBySkuIds(ids);
+
+        // then
+        assertEquals(SarreCurrency.values().length, out);
+        assertEquals(0, unchanged);
+        listingRepo.findAll().forEach(listing -> assertFalse(listing.isInStock()));
+        assertEquals(0, listingRepo.countListingsByCurrency(SarreCurrency.NGN));
+    }
+
+    @Test
+    void listingsByCurrency() {
+        // given
+        var cat = category("category", null);
+        for (int i = 0; i < 5; i++) {
+            RepositoryTestData
+                    .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+        }
+        listingRepo.saveListingsByCategoryId(cat.getCategoryId());
+
+        // when
+        var page = listingRepo.listingsByCurrency(SarreCurrency.NGN, PageRequest.of(0, 3));
+        var first = listingRepo.listingsByCurrencyAfter(SarreCurrency.NGN, 0, 3);
+        var second = listingRepo.listingsByCurrencyAfter(SarreCurrency.NGN, first.getLast().getId(), 3);
+
+        // then
+        assertEquals(5, page.getTotalElements());
+        assertEquals(3, page.getNumberOfElements());
+        for (ProductPojo pojo : page) {
+            assertNotNull(pojo.getUuid());
+            assertNotNull(pojo.getName());
+            assertNotNull(pojo.getDescription());
+            assertNotNull(pojo.getPrice());
+            assertEquals("NGN", pojo.getCurrency());
+            assertNotNull(pojo.getImage());
+            assertEquals("category", pojo.getCategory());
+        }
+
+        assertEquals(3, first.size());
+        assertEquals(2, second.size());
+        assertTrue(first.getLast().getId() < second.getFirst().getId());
+        assertEquals(5, listingRepo.countListingsByCurrency(SarreCurrency.NGN));
+    }
+
+    @Test
+    void listingsByCategoryId() {
+        // given
+        var cat = category("category", null);
+        var clothes = category("clothes", cat);
+
+        for (int i = 0; i < 3; i++) {
+            RepositoryTestData
+                    .createProduct(2, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+            RepositoryTestData
+                    .createProduct(2, clothes, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+        }
+        listingRepo.saveListingsByCategoryId(cat.getCategoryId());
+
+        long root = cat.getCategoryId();
+        long child = clothes.getCategoryId();
+
+        // when
+        var page = listingRepo.listingsByCategoryId(root, SarreCurrency.USD, PageRequest.of(0, 20));
+        var first = listingRepo.listingsByCategoryIdAfter(root, SarreCurrency.USD, 0, 4);
+        var second = listingRepo
+                .listingsByCategoryIdAfter(root, SarreCurrency.USD, first.getLast().getId(), 4);
+
+        // then
+        assertEquals(6, page.getTotalElements());
+        assertEquals(3, listingRepo.listingsByCategoryId(child, SarreCurrency.USD, PageRequest.of(0, 20))
+                .getTotalElements());
+
+        assertEquals(4, first.size());
+        assertEquals(2, second.size());
+        var ids = new ArrayList<Long>();
+        first.stream().map(ProductKeysetPojo::getId).forEach(ids::add);
+        second.stream().map(ProductKeysetPojo::getId).forEach(ids::add);
+        assertEquals(ids.stream().sorted().distinct().toList(), ids);
+
+        assertEquals(6, listingRepo.countListingsByCategoryId(root, SarreCurrency.USD));
+        assertEquals(3, listingRepo.countListingsByCategoryId(child, SarreCurrency.USD));
+    }
+
+}
@@ -10,6 +10,7 @@ import dev.webserver.product.entity.PriceCurrency;
 import dev.webserver.product.entity.Product;
 import dev.webserver.product.projection.ImagePojo;
 import dev.webserver.product.projection.ProductPojo;
+import dev.webserver.product.projection.ProductSearchPojo;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -107,43 +108,6 @@ class ProductRepoTest extends AbstractRepositoryTest {
         }
     }
 
-    @Test
-    void allProductsByCurrencyClient() {
-        // given
-        var cat = categoryRepo
-                .save(ProductCategory.builder()
-                        .name("category")
-                        .isVisible(true)
-                        .categories(new HashSet<>())
-                        .product(new HashSet<>())
-                        .build());
-
-        RepositoryTestData
-                .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
-
-        // when
-        var products = productRepo.findAll();
-        assertFalse(products.isEmpty());
-
-        // then
-        Page<ProductPojo> page = productRepo
-                .allProductsByCurrencyClient(SarreCurrency.NGN, PageRequest.of(0, 20));
-
-        assertNotEquals(0, page.getTotalElements());
-
-        for (ProductPojo pojo : page) {
-            assertNotNull(pojo.getUuid());
-            assertNotNull(pojo.getName());
-            assertNotNull(pojo.getDescription());
-            assertNotNull(pojo.getPrice());
-            assertNotNull(pojo.getCurrency());
-            assertNotNull(pojo.getImage());
-            assertNotNull(pojo.getWeight());
-            assertNotNull(pojo.getWeightType());
-            assertNotNull(pojo.getCategory());
-        }
-    }
-
     @Test
     void updateProductAndItsCategoryId() {
         // given
@@ -219,7 +183,7 @@ class ProductRepoTest extends AbstractRepositoryTest {
     }
 
     @Test
-    void productsByNameAndCurrency() {
+    void productSearchDocuments() {
         // given
         var cat = categoryRepo
                 .save(ProductCategory.builder()
@@ -232,33 +196,57 @@ class ProductRepoTest extends AbstractRepositoryTest {
         RepositoryTestData
                 .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
 
-        // when
         var products = productRepo.findAll();
         assertFalse(products.isEmpty());
+        var uuid = products.getFirst().getUuid();
 
-        // then
-        Page<ProductPojo> page = productRepo
-                .productsByNameAndCurrency(
-                        products.getFirst().getName(),
-                        SarreCurrency.USD,
-                        PageRequest.of(0, 20)
-                );
+        // when
+        List<ProductSearchPojo> all = productRepo.productSearchDocuments(null);
+        List<ProductSearchPojo> one = productRepo.productSearchDocuments(uuid);
 
-        assertNotEquals(0, page.getTotalElements());
+        // then
+        assertEquals(products.size() * SarreCurrency.values().length, all.size());
+        assertEquals(SarreCurrency.values().length, one.size());
 
-        for (ProductPojo pojo : page) {
-            assertNotNull(pojo.getUuid());
+        for (ProductSearchPojo pojo : one) {
+            assertEquals(uuid, pojo.getUuid());
             assertNotNull(pojo.getName());
-            assertNull(pojo.getDescription());
-            assertNotNull(pojo.getPrice());
-            assertNotNull(pojo.getCurrency());
             assertNotNull(pojo.getImage());
-            assertNotNull(pojo.getWeight());
-            assertNotNull(pojo.getWeightType());
-            assertNotNull(pojo.getCategory());
+            assertEquals("category", pojo.getCategory());
+            assertNotNull(pojo.getCurrency());
+            assertNotNull(pojo.getPrice());
+            assertTrue(pojo.getInventory() > 0);
         }
     }
 
+    @Test
+    void productStockBySkuIds() {
+        // given
+        var cat = categoryRepo
+                .save(ProductCategory.builder()
+                        .name("category")
+                        .isVisible(true)
+                        .categories(new HashSet<>())
+                        .product(new HashSet<>())
+                        .build());
+
+        RepositoryTestData
+                .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+        RepositoryTestData
+                .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+
+        var sku = skuRepo.findAll().getFirst();
+        var uuid = sku.getProductDetail().getProduct().getUuid();
+
+        // when
+        var list = productRepo.productStockBySkuIds(List.of(sku.getSkuId()));
+
+        // then
+        assertEquals(1, list.size());
+        assertEquals(uuid, list.getFirst().getUuid());
+        assertTrue(list.getFirst().getInventory() > 0);
+    }
+
     @Test
     void validateOnDeleteNoActionConstraintWhenDeletingAProductByUuid() {
         // given
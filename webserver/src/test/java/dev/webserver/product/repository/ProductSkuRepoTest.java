@@ -29,6 +29,8 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.UUID;
 
 import static java.time.temporal.ChronoUnit.HOURS;
@@ -60,7 +62,7 @@ class ProductSkuRepoTest extends AbstractRepositoryTest {
     private CartItemRepo cartItemRepo;
 
     @Test
-    void updateInventoryOnMakingReservation() {
+    void batchUpdateInventoryOnlyUpdatesProductSkusWithEnoughInventory() {
         var cat = categoryRepo
                 .save(ProductCategory.builder()
                         .name("category")
@@ -74,16 +76,57 @@ class ProductSkuRepoTest extends AbstractRepositoryTest {
                 .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
 
         var skus = skuRepo.findAll();
-        assertFalse(skus.isEmpty());
-        var sku = skus.getFirst();
+        assertEquals(3, skus.size());
 
-        Assertions.assertNotEquals(0, sku.getInventory());
+        var locked = skuRepo.lockProductSkusBySkuIds(skus.stream().map(ProductSku::getSkuId).toList());
+        assertEquals(3, locked.size());
 
-        skuRepo.updateProductSkuInventoryBySubtractingFromExistingInventory(sku.getSku(), sku.getInventory());
+        var first = skus.getFirst();
+        var second = skus.get(1);
+        var third = skus.get(2);
 
-        var optional = skuRepo.productSkuBySku(sku.getSku());
-        assertFalse(optional.isEmpty());
-        Assertions.assertEquals(0, optional.get().getInventory());
+        var map = new LinkedHashMap<Long, Integer>();
+        map.put(first.getSkuId(), first.getInventory());
+        map.put(second.getSkuId(), -1);
+        map.put(third.getSkuId(), third.getInventory() + 1);
+
+        int updated = skuRepo
+                .batchUpdateProductSkuInventoryBySubtractingFromExistingInventory(CustomUtil.toJsonArray(map));
+
+        assertEquals(2, updated);
+        assertEquals(0, skuRepo.findById(first.getSkuId()).orElseThrow().getInventory());
+        assertEquals(second.getInventory() + 1, skuRepo.findById(second.getSkuId()).orElseThrow().getInventory());
+        assertEquals(third.getInventory(), skuRepo.findById(third.getSkuId()).orElseThrow().getInventory());
+    }
+
+    @Test
+    void batchUpdateInventoryAddsBackQtyToEveryProductSku() {
+        var cat = categoryRepo
+                .save(ProductCategory.builder()
+                        .name("category")
+                        .isVisible(true)
+                        .categories(new HashSet<>())
+                        .product(new HashSet<>())
+                        .build()
+                );
+
+        RepositoryTestData
+                .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
+
+        var skus = skuRepo.findAll();
+        assertEquals(3, skus.size());
+
+        var map = new LinkedHashMap<Long, Integer>();
+        skus.forEach(sku -> map.put(sku.getSkuId(), 2));
+
+        int updated = skuRepo
+                .batchUpdateProductSkuInventoryByAddingToExistingInventory(CustomUtil.toJsonArray(map));
+
+        assertEquals(3, updated);
+        skus.forEach(sku -> assertEquals(
+                sku.getInventory() + 2,
+                skuRepo.findById(sku.getSkuId()).orElseThrow().getInventory())
+        );
     }
 
     @Test
@@ -215,7 +258,7 @@ class ProductSkuRepoTest extends AbstractRepositoryTest {
     }
 
     @Test
-    void shouldReturnAProductByProductSku() {
+    void productSkusBySkuIds() {
         // given
         var cat = categoryRepo
                 .save(ProductCategory.builder()
@@ -223,19 +266,21 @@ class ProductSkuRepoTest extends AbstractRepositoryTest {
                         .isVisible(true)
                         .categories(new HashSet<>())
                         .product(new HashSet<>())
-                        .build());
+                        .build()
+                );
 
         RepositoryTestData
                 .createProduct(3, cat, productRepo, detailRepo, priceCurrencyRepo, imageRepo, skuRepo);
 
-        var skus = skuRepo.findAll();
-        assertFalse(skus.isEmpty());
+        var first = skuRepo.findAll().getFirst();
 
         // when
-        var optional = skuRepo.productByProductSku(skus.getFirst().getSku());
+        var list = skuRepo.productSkusBySkuIds(List.of(first.getSkuId()));
 
         // then
-        assertTrue(optional.isPresent());
+        assertEquals(1, list.size());
+        assertEquals(first.getSku(), list.getFirst().getSku());
+        assertEquals(first.getInventory(), list.getFirst().getInventory());
     }
 
 }
\ No newline at end of file
@@ -7,11 +7,14 @@ import dev.webserver.product.entity.ProductDetail;
 import dev.webserver.product.entity.ProductImage;
 import dev.webserver.product.repository.ProductImageRepo;
 import dev.webserver.product.response.CustomMultiPart;
+import dev.webserver.util.AsynchronousTasks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -30,7 +33,11 @@ class HelperServiceTest extends AbstractUnitTest {
 
     @BeforeEach
     void createInstance() {
-        service = new HelperService(repository, s3Service);
+        service = new HelperService(
+                repository,
+                s3Service,
+                new AsynchronousTasks(4, Duration.ofSeconds(5), new SimpleMeterRegistry())
+        );
     }
 
     private static final CustomMultiPart[] files = {
@@ -0,0 +1,273 @@
+package dev.webserver.product.service;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.payment.projection.SkuInventoryPojo;
+import dev.webserver.product.projection.DetailPojo;
+import dev.webserver.product.projection.PriceCurrencyPojo;
+import dev.webserver.product.repository.PriceCurrencyRepo;
+import dev.webserver.product.repository.ProductDetailRepo;
+import dev.webserver.product.repository.ProductSkuRepo;
+import dev.webserver.util.CacheInvalidationEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ProductDetailCacheTest extends AbstractUnitTest {
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final MutableClock clock = new MutableClock();
+
+    private ProductDetailCache cache;
+
+    @Mock
+    private PriceCurrencyRepo priceCurrencyRepo;
+    @Mock
+    private ProductDetailRepo detailRepo;
+    @Mock
+    private ProductSkuRepo skuRepo;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductDetailCache(priceCurrencyRepo, detailRepo, skuRepo, Duration.ofMinutes(10), 2, clock);
+    }
+
+    private static PriceCurrencyPojo price(SarreCurrency currency) {
+        return new PriceCurrencyPojo() {
+            @Override
+            public String getName() {
+                return "product";
+            }
+
+            @Override
+            public String getDescription() {
+                return "description";
+            }
+
+            @Override
+            public SarreCurrency getCurrency() {
+                return currency;
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return new BigDecimal("10.559");
+            }
+        };
+    }
+
+    private static DetailPojo detail(String colour, String sku, int inventory) {
+        return new DetailPojo() {
+            @Override
+            public String getColour() {
+                return colour;
+            }
+
+            @Override
+            public Boolean getVisible() {
+                return true;
+            }
+
+            @Override
+            public String getImage() {
+                return colour + "-1," + colour + "-2";
+            }
+
+            @Override
+            public String getVariants() {
+                return "[{\"sku\":\"%s\",\"inventory\":%d,\"size\":\"medium\"}]".formatted(sku, inventory);
+            }
+        };
+    }
+
+    private static SkuInventoryPojo inventory(String sku, int inventory) {
+        return new SkuInventoryPojo() {
+            @Override
+            public Long getSkuId() {
+                return 1L;
+            }
+
+            @Override
+            public String getSku() {
+                return sku;
+            }
+
+            @Override
+            public String getSize() {
+                return "medium";
+            }
+
+            @Override
+            public Integer getInventory() {
+                return inventory;
+            }
+
+            @Override
+            public String getName() {
+                return "product";
+            }
+        };
+    }
+
+    private void stub(String uuid, SarreCurrency currency) {
+        when(priceCurrencyRepo.priceCurrencyByProductUuidAndCurrency(uuid, currency))
+                .thenReturn(Optional.of(price(currency)));
+        when(detailRepo.productDetailsByProductUuidClientFront(uuid))
+                .thenReturn(List.of(detail("red", "sku-red", 0), detail("blue", "sku-blue", -1)));
+    }
+
+    @Test
+    void shouldLoadOnceAndParseDetails() {
+        // given
+        stub("uuid", SarreCurrency.NGN);
+
+        // when
+        cache.get("uuid", SarreCurrency.NGN);
+        var details = cache.get("uuid", SarreCurrency.NGN);
+
+        // then
+        verify(priceCurrencyRepo, times(1)).priceCurrencyByProductUuidAndCurrency("uuid", SarreCurrency.NGN);
+        verify(detailRepo, times(1)).productDetailsByProductUuidClientFront("uuid");
+
+        assertEquals("product", details.name());
+        assertEquals(new BigDecimal("10.55"), details.price());
+        assertEquals(2, details.colours().size());
+
+        var red = details.colours().getFirst();
+        assertEquals(List.of("red-1", "red-2"), red.imageKeys());
+        assertEquals("sku-red", red.variants()[0].sku());
+        assertEquals("0", red.variants()[0].inventory());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenProductHasNoPriceInCurrency() {
+        // given
+        when(priceCurrencyRepo.priceCurrencyByProductUuidAndCurrency(anyString(), any(SarreCurrency.class)))
+                .thenReturn(Optional.empty());
+
+        // when
+        var details = cache.get("uuid", SarreCurrency.USD);
+
+        // then
+        assertTrue(details.colours().isEmpty());
+        verify(detailRepo, never()).productDetailsByProductUuidClientFront(anyString());
+    }
+
+    @Test
+    void shouldDropEveryCurrencyOfAnInvalidatedProduct() {
+        // given
+        stub("uuid", SarreCurrency.NGN);
+        stub("uuid", SarreCurrency.USD);
+        cache.get("uuid", SarreCurrency.NGN);
+        cache.get("uuid", SarreCurrency.USD);
+
+        // when
+        cache.onCacheInvalidation(new CacheInvalidationEvent(this, ProductDetailCache.CACHE, "uuid"));
+        cache.onCacheInvalidation(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, "uuid"));
+        cache.get("uuid", SarreCurrency.NGN);
+        cache.get("uuid", SarreCurrency.USD);
+
+        // then
+        verify(detailRepo, times(4)).productDetailsByProductUuidClientFront("uuid");
+    }
+
+    @Test
+    void shouldReloadAfterTtl() {
+        // given
+        stub("uuid", SarreCurrency.NGN);
+        cache.get("uuid", SarreCurrency.NGN);
+
+        // when
+        clock.now = clock.now.plus(Duration.ofMinutes(11));
+        cache.get("uuid", SarreCurrency.NGN);
+
+        // then
+        verify(detailRepo, times(2)).productDetailsByProductUuidClientFront("uuid");
+    }
+
+    @Test
+    void shouldPatchStockFlagsOnInventoryChange() {
+        // given
+        stub("uuid", SarreCurrency.NGN);
+        cache.get("uuid", SarreCurrency.NGN);
+
+        when(skuRepo.productSkusBySkuIds(List.of(1L, 2L)))
+                .thenReturn(List.of(inventory("sku-red", 0), inventory("sku-blue", 5)));
+
+        // when
+        cache.onInventoryChange(new InventoryChangeEvent(this, List.of(1L, 2L)));
+        var details = cache.get("uuid", SarreCurrency.NGN);
+
+        // then
+        verify(detailRepo, times(1)).productDetailsByProductUuidClientFront("uuid");
+        assertEquals("-1", details.colours().getFirst().variants()[0].inventory());
+        assertEquals("0", details.colours().get(1).variants()[0].inventory());
+        assertEquals(List.of("red-1", "red-2"), details.colours().getFirst().imageKeys());
+    }
+
+    @Test
+    void shouldNotReadInventoryWhenCacheIsEmpty() {
+        // when
+        cache.onInventoryChange(new InventoryChangeEvent(this, List.of(1L)));
+
+        // then
+        verify(skuRepo, never()).productSkusBySkuIds(any());
+    }
+
+    @Test
+    void shouldEvictOldestEntriesWhenFull() {
+        // given
+        stub("first", SarreCurrency.NGN);
+        stub("second", SarreCurrency.NGN);
+        stub("third", SarreCurrency.NGN);
+
+        // when
+        cache.get("first", SarreCurrency.NGN);
+        clock.now = clock.now.plusSeconds(1);
+        cache.get("second", SarreCurrency.NGN);
+        clock.now = clock.now.plusSeconds(1);
+        cache.get("third", SarreCurrency.NGN);
+
+        cache.get("second", SarreCurrency.NGN);
+        cache.get("third", SarreCurrency.NGN);
+        cache.get("first", SarreCurrency.NGN);
+
+        // then
+        verify(detailRepo, times(2)).productDetailsByProductUuidClientFront("first");
+        verify(detailRepo, times(1)).productDetailsByProductUuidClientFront("second");
+        verify(detailRepo, times(1)).productDetailsByProductUuidClientFront("third");
+    }
+
+}
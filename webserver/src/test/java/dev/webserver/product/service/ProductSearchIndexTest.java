@@ -0,0 +1,241 @@
+package dev.webserver.product.service;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.enumeration.SarreCurrency;
+import dev.webserver.product.projection.ProductSearchPojo;
+import dev.webserver.product.projection.ProductStockPojo;
+import dev.webserver.product.repository.ProductRepo;
+import dev.webserver.util.CacheInvalidationEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest extends AbstractUnitTest {
+
+    private ProductSearchIndex index;
+
+    @Mock
+    private ProductRepo repository;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(repository);
+    }
+
+    private static ProductSearchPojo pojo(
+            String uuid,
+            String name,
+            String category,
+            SarreCurrency currency,
+            String price,
+            int inventory
+    ) {
+        return new ProductSearchPojo() {
+            @Override
+            public String getUuid() {
+                return uuid;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getImage() {
+                return uuid + "-image";
+            }
+
+            @Override
+            public String getCategory() {
+                return category;
+            }
+
+            @Override
+            public SarreCurrency getCurrency() {
+                return currency;
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return new BigDecimal(price);
+            }
+
+            @Override
+            public Integer getInventory() {
+                return inventory;
+            }
+        };
+    }
+
+    private static List<String> uuids(ProductSearchIndex index, String query, SarreCurrency currency) {
+        return index.search(query, currency, 20)
+                .stream()
+                .map(ProductSearchIndex.Hit::uuid)
+                .toList();
+    }
+
+    @Test
+    void shouldMatchEveryTermAsAPrefixOfNameOrCategory() {
+        // given
+        when(repository.productSearchDocuments(null)).thenReturn(List.of(
+                pojo("1", "Nike Air Max", "shoes", SarreCurrency.USD, "120", 5),
+                pojo("2", "Air Jordan", "shoes", SarreCurrency.USD, "150", 5),
+                pojo("3", "Linen Shirt", "clothes", SarreCurrency.USD, "40", 5)
+        ));
+
+        // then
+        assertEquals(List.of("1"), uuids(index, "air ma", SarreCurrency.USD));
+        assertEquals(List.of("1"), uuids(index, "MAX", SarreCurrency.USD));
+        assertEquals(List.of("2", "1"), uuids(index, "air", SarreCurrency.USD));
+        assertEquals(List.of("2", "1"), uuids(index, "sho", SarreCurrency.USD));
+        assertEquals(List.of("3"), uuids(index, "shirt cloth", SarreCurrency.USD));
+        assertTrue(uuids(index, "boots", SarreCurrency.USD).isEmpty());
+        assertTrue(uuids(index, "  ", SarreCurrency.USD).isEmpty());
+
+        // built once
+        verify(repository, times(1)).productSearchDocuments(null);
+    }
+
+    @Test
+    void shouldOnlyReturnProductsInStockWithAPriceInCurrency() {
+        // given
+        when(repository.productSearchDocuments(null)).thenReturn(List.of(
+                pojo("1", "shirt one", "clothes", SarreCurrency.USD, "10", 5),
+                pojo("1", "shirt one", "clothes", SarreCurrency.NGN, "15000", 5),
+                pojo("2", "shirt two", "clothes", SarreCurrency.NGN, "20000", 5),
+                pojo("3", "shirt three", "clothes", SarreCurrency.USD, "30", 0)
+        ));
+
+        // when
+        var page = index.search("shirt", SarreCurrency.NGN, 20);
+
+        // then
+        assertEquals(List.of("1", "2"), page.stream().map(ProductSearchIndex.Hit::uuid).toList());
+        assertEquals(new BigDecimal("15000"), page.getContent().getFirst().price());
+        assertEquals(SarreCurrency.NGN, page.getContent().getFirst().currency());
+        assertEquals(List.of("1"), uuids(index, "shirt", SarreCurrency.USD));
+    }
+
+    @Test
+    void shouldLimitHitsAndReportTotal() {
+        // given
+        when(repository.productSearchDocuments(null)).thenReturn(List.of(
+                pojo("1", "shirt a", "clothes", SarreCurrency.USD, "10", 5),
+                pojo("2", "shirt b", "clothes", SarreCurrency.USD, "10", 5),
+                pojo("3", "shirt c", "clothes", SarreCurrency.USD, "10", 5)
+        ));
+
+        // when
+        var page = index.search("shirt", SarreCurrency.USD, 2);
+
+        // then
+        assertEquals(2, page.getContent().size());
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    void shouldReindexProductKeyedByEvent() {
+        // given
+        when(repository.productSearchDocuments(null)).thenReturn(List.of(
+                pojo("1", "linen shirt", "clothes", SarreCurrency.USD, "10", 5),
+                pojo("2", "cotton shirt", "clothes", SarreCurrency.USD, "10", 5)
+        ));
+        assertEquals(List.of("1"), uuids(index, "linen", SarreCurrency.USD));
+
+        when(repository.productSearchDocuments("1")).thenReturn(List.of(
+                pojo("1", "silk shirt", "clothes", SarreCurrency.USD, "10", 5)
+        ));
+        when(repository.productSearchDocuments("2")).thenReturn(List.of());
+
+        // when
+        index.onCacheInvalidation(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, "1"));
+        index.onCacheInvalidation(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, "2"));
+
+        // then
+        assertTrue(uuids(index, "linen", SarreCurrency.USD).isEmpty());
+        assertEquals(List.of("1"), uuids(index, "silk", SarreCurrency.USD));
+        assertEquals(List.of("1"), uuids(index, "shirt", SarreCurrency.USD));
+        verify(repository, times(1)).productSearchDocuments(null);
+    }
+
+    @Test
+    void shouldRebuildOnEventWithoutKey() {
+        // given
+        when(repository.productSearchDocuments(null))
+                .thenReturn(List.of(pojo("1", "linen shirt", "clothes", SarreCurrency.USD, "10", 5)))
+                .thenReturn(List.of(pojo("1", "linen shirt", "apparel", SarreCurrency.USD, "10", 5)));
+        assertEquals(List.of("1"), uuids(index, "clothes", SarreCurrency.USD));
+
+        // when
+        index.onCacheInvalidation(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE));
+
+        // then
+        assertTrue(uuids(index, "clothes", SarreCurrency.USD).isEmpty());
+        assertEquals(List.of("1"), uuids(index, "apparel", SarreCurrency.USD));
+    }
+
+    @Test
+    void shouldIgnoreEventsBeforeFirstSearchAndForOtherCaches() {
+        // when
+        index.onCacheInvalidation(new CacheInvalidationEvent(this, ProductSearchIndex.CACHE, "1"));
+        index.onCacheInvalidation(new CacheInvalidationEvent(this, "category-tree"));
+        index.onInventoryChange(new InventoryChangeEvent(this, List.of(1L)));
+        index.refresh();
+
+        // then
+        verify(repository, times(0)).productSearchDocuments(any());
+        verify(repository, times(0)).productSearchDocuments(null);
+        verify(repository, times(0)).productStockBySkuIds(any());
+    }
+
+    private static ProductStockPojo stock(String uuid, int inventory) {
+        return new ProductStockPojo() {
+            @Override
+            public String getUuid() {
+                return uuid;
+            }
+
+            @Override
+            public Integer getInventory() {
+                return inventory;
+            }
+        };
+    }
+
+    @Test
+    void shouldUpdateStockOnInventoryChange() {
+        // given
+        when(repository.productSearchDocuments(null)).thenReturn(List.of(
+                pojo("1", "shirt one", "clothes", SarreCurrency.USD, "10", 5),
+                pojo("2", "shirt two", "clothes", SarreCurrency.USD, "20", 0)
+        ));
+        assertEquals(List.of("1"), uuids(index, "shirt", SarreCurrency.USD));
+
+        when(repository.productStockBySkuIds(List.of(10L, 20L)))
+                .thenReturn(List.of(stock("1", 0), stock("2", 3)));
+
+        // when
+        index.onInventoryChange(new InventoryChangeEvent(this, List.of(10L, 20L)));
+
+        // then
+        assertEquals(List.of("2"), uuids(index, "shirt", SarreCurrency.USD));
+        assertEquals(List.of("2"), uuids(index, "two", SarreCurrency.USD));
+        verify(repository, times(1)).productSearchDocuments(null);
+    }
+
+    @Test
+    void shouldSplitIntoLowerCaseWords() {
+        assertEquals(List.of("t", "shirt", "2024"), ProductSearchIndex.words("T-Shirt (2024)"));
+        assertEquals(List.of("café"), ProductSearchIndex.words(" Café "));
+        assertTrue(ProductSearchIndex.words(null).isEmpty());
+    }
+
+}
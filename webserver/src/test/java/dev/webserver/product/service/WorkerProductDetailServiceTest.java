@@ -9,12 +9,16 @@ import dev.webserver.product.entity.ProductDetail;
 import dev.webserver.product.repository.ProductDetailRepo;
 import dev.webserver.product.repository.ProductImageRepo;
 import dev.webserver.product.repository.ProductRepo;
+import dev.webserver.util.AsynchronousTasks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +37,8 @@ class WorkerProductDetailServiceTest extends AbstractUnitTest {
     @Mock private ProductImageRepo imageRepo;
     @Mock private ProductDetailRepo detailRepo;
     @Mock private HelperService helperService;
+    @Mock private ApplicationEventPublisher publisher;
+    @Mock private ProductListingService listingService;
 
     @BeforeEach
     void setUp() {
@@ -41,7 +47,10 @@ class WorkerProductDetailServiceTest extends AbstractUnitTest {
                 this.skuService,
                 this.imageRepo,
                 this.productRepo,
-                this.helperService
+                this.helperService,
+                new AsynchronousTasks(4, Duration.ofSeconds(5), new SimpleMeterRegistry()),
+                this.publisher,
+                this.listingService
         );
         this.detailService.setBUCKET(BUCKET);
     }
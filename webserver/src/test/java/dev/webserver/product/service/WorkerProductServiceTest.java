@@ -8,12 +8,16 @@ import dev.webserver.exception.DuplicateException;
 import dev.webserver.product.entity.Product;
 import dev.webserver.product.repository.PriceCurrencyRepo;
 import dev.webserver.product.repository.ProductRepo;
+import dev.webserver.util.AsynchronousTasks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -34,6 +38,8 @@ class WorkerProductServiceTest extends AbstractUnitTest {
     @Mock private HelperService helperService;
     @Mock private ProductSkuService skuService;
     @Mock private WorkerCategoryService categoryService;
+    @Mock private ApplicationEventPublisher publisher;
+    @Mock private ProductListingService listingService;
 
     @BeforeEach
     void setUp() {
@@ -43,7 +49,10 @@ class WorkerProductServiceTest extends AbstractUnitTest {
                 this.detailService,
                 this.skuService,
                 this.categoryService,
-                this.helperService
+                this.helperService,
+                new AsynchronousTasks(4, Duration.ofSeconds(5), new SimpleMeterRegistry()),
+                this.publisher,
+                this.listingService
         );
         this.productService.setBUCKET(BUCKET);
     }
@@ -0,0 +1,83 @@
+package dev.webserver.shipping.service;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.exception.CustomNotFoundException;
+import dev.webserver.shipping.ShippingMapper;
+import dev.webserver.shipping.entity.ShipSetting;
+import dev.webserver.shipping.repository.ShippingRepo;
+import dev.webserver.util.CacheInvalidationEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ShippingServiceTest extends AbstractUnitTest {
+
+    private ShippingService service;
+
+    @Mock
+    private ShippingRepo repository;
+    @Mock
+    private ApplicationEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        service = new ShippingService(repository, publisher, new MockEnvironment());
+    }
+
+    @Test
+    void shouldReturnCountryElseDefaultWithOneDbRead() {
+        // given
+        var nigeria = new ShipSetting("nigeria", new BigDecimal("20000"), new BigDecimal("20"));
+        var fallback = new ShipSetting("default", new BigDecimal("30000"), new BigDecimal("30"));
+
+        // when
+        when(repository.findAll()).thenReturn(List.of(nigeria, fallback));
+
+        // then
+        assertEquals(nigeria, service.shippingByCountryElseReturnDefault("Nigeria "));
+        assertEquals(fallback, service.shippingByCountryElseReturnDefault("france"));
+        assertEquals(fallback, service.shippingByCountryElseReturnDefault(null));
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldThrowWhenDefaultDoesNotExist() {
+        // when
+        when(repository.findAll()).thenReturn(List.of());
+
+        // then
+        assertThrows(CustomNotFoundException.class, () -> service.shippingByCountryElseReturnDefault("france"));
+    }
+
+    @Test
+    void shouldReadFromDbAfterUpdateInvalidatesCache() {
+        // given
+        var before = new ShipSetting("default", new BigDecimal("30000"), new BigDecimal("30"));
+        var after = new ShipSetting("default", new BigDecimal("40000"), new BigDecimal("40"));
+
+        // when
+        when(repository.findAll()).thenReturn(List.of(before), List.of(after));
+        doAnswer(invocation -> {
+            service.onCacheInvalidation(invocation.getArgument(0));
+            return null;
+        }).when(publisher).publishEvent(any(CacheInvalidationEvent.class));
+
+        service.shippingByCountryElseReturnDefault("france");
+        service.update(new ShippingMapper(1L, "default", after.ngnPrice(), after.usdPrice()));
+
+        // then
+        assertEquals(after, service.shippingByCountryElseReturnDefault("france"));
+        verify(repository, times(2)).findAll();
+    }
+
+}
@@ -0,0 +1,170 @@
+package dev.webserver.util;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.exception.CustomNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsynchronousTasksTest extends AbstractUnitTest {
+
+    @Test
+    void shouldReturnResultsInOrderOfTasks() {
+        // given
+        var tasks = new AsynchronousTasks(4, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        var suppliers = IntStream.range(0, 20)
+                .mapToObj(i -> (Supplier<Integer>) () -> i)
+                .toList();
+
+        // when
+        var results = tasks.all(suppliers, AsynchronousTasksTest.class).join();
+
+        // then
+        assertEquals(IntStream.range(0, 20).boxed().toList(), results);
+    }
+
+    @Test
+    void shouldRunTasksOffTheCallerThread() {
+        // given
+        var tasks = new AsynchronousTasks(4, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        var caller = Thread.currentThread();
+
+        // when
+        List<Supplier<Thread>> suppliers = List.of(Thread::currentThread, Thread::currentThread);
+        var threads = tasks.join(suppliers, AsynchronousTasksTest.class);
+
+        // then
+        assertTrue(threads.stream().noneMatch(t -> t.equals(caller)));
+        assertTrue(threads.stream().allMatch(Thread::isVirtual));
+    }
+
+    @Test
+    void shouldNotExceedMaxConcurrency() {
+        // given
+        var tasks = new AsynchronousTasks(3, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        var running = new AtomicInteger();
+        var max = new AtomicInteger();
+
+        var suppliers = IntStream.range(0, 30)
+                .mapToObj(i -> (Supplier<Integer>) () -> {
+                    max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return i;
+                })
+                .toList();
+
+        // when
+        tasks.join(suppliers, AsynchronousTasksTest.class);
+
+        // then
+        assertTrue(max.get() <= 3);
+    }
+
+    @Test
+    void shouldRethrowExceptionOfFailedTaskAndCancelTheRest() throws InterruptedException {
+        // given
+        var tasks = new AsynchronousTasks(4, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        var interrupted = new CountDownLatch(1);
+        var finished = new AtomicBoolean(false);
+
+        List<Supplier<String>> suppliers = List.of(
+                () -> {
+                    try {
+                        Thread.sleep(Duration.ofSeconds(5));
+                        finished.set(true);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return "slow";
+                },
+                () -> {
+                    throw new CustomNotFoundException("not found");
+                }
+        );
+
+        // then
+        assertThrows(CustomNotFoundException.class, () -> tasks.join(suppliers, AsynchronousTasksTest.class));
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        assertFalse(finished.get());
+    }
+
+    @Test
+    void shouldExecuteNestedTasksOnCallingThread() {
+        // given a single permit, a nested fan out would deadlock if it waited for a permit
+        var tasks = new AsynchronousTasks(1, Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+        List<Supplier<List<Integer>>> suppliers = List.of(
+                () -> tasks.join(List.of(() -> 1, () -> 2), AsynchronousTasksTest.class),
+                () -> tasks.join(List.of(() -> 3), AsynchronousTasksTest.class)
+        );
+
+        // when
+        var results = tasks.join(suppliers, AsynchronousTasksTest.class);
+
+        // then
+        assertEquals(List.of(List.of(1, 2), List.of(3)), results);
+    }
+
+    @Test
+    void shouldTimeoutWhenTasksTakeTooLong() {
+        // given
+        var tasks = new AsynchronousTasks(2, Duration.ofMillis(50), new SimpleMeterRegistry());
+
+        List<Supplier<String>> suppliers = List.of(() -> {
+            try {
+                Thread.sleep(Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "slow";
+        });
+
+        // when
+        var future = tasks.all(suppliers, AsynchronousTasksTest.class);
+
+        // then
+        var ex = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(TimeoutException.class, ex.getCause());
+    }
+
+    @Test
+    void shouldRecordMetricsPerCaller() {
+        // given
+        var registry = new SimpleMeterRegistry();
+        var tasks = new AsynchronousTasks(2, Duration.ofSeconds(5), registry);
+
+        // when
+        tasks.join(List.of(() -> 1, () -> 2), AsynchronousTasksTest.class);
+        tasks.join(List.of(() -> 3), String.class);
+
+        // then
+        assertEquals(2, registry.get("async.tasks.duration")
+                .tag("caller", "AsynchronousTasksTest")
+                .tag("outcome", "success")
+                .timer()
+                .count());
+        assertEquals(1, registry.get("async.tasks.duration")
+                .tag("caller", "String")
+                .timer()
+                .count());
+        assertEquals(0, registry.get("async.tasks.active").gauge().value());
+    }
+
+}
@@ -0,0 +1,42 @@
+package dev.webserver.util;
+
+import dev.webserver.AbstractUnitTest;
+import dev.webserver.exception.CustomInvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest extends AbstractUnitTest {
+
+    @Test
+    void shouldDecodeWhatWasEncoded() {
+        assertEquals(42L, KeysetCursor.decode(KeysetCursor.encode(42L)));
+        assertEquals(Long.MAX_VALUE, KeysetCursor.decode(KeysetCursor.encode(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void shouldStartFromTheFirstSliceWithoutCursor() {
+        assertEquals(0L, KeysetCursor.decode(null));
+        assertEquals(0L, KeysetCursor.decode(" "));
+    }
+
+    @Test
+    void shouldBeUrlSafe() {
+        var cursor = KeysetCursor.encode(1234567890123L);
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void shouldRejectTamperedCursor() {
+        var raw = Base64.getUrlEncoder().encodeToString("42".getBytes(StandardCharsets.UTF_8));
+        var negative = Base64.getUrlEncoder().encodeToString("v1:-1".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(CustomInvalidFormatException.class, () -> KeysetCursor.decode("not a cursor!"));
+        assertThrows(CustomInvalidFormatException.class, () -> KeysetCursor.decode(raw));
+        assertThrows(CustomInvalidFormatException.class, () -> KeysetCursor.decode(negative));
+    }
+
+}
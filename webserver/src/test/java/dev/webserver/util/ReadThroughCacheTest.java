@@ -0,0 +1,102 @@
+package dev.webserver.util;
+
+import dev.webserver.AbstractUnitTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReadThroughCacheTest extends AbstractUnitTest {
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    void shouldLoadOnceUntilInvalidated() {
+        // given
+        var loads = new AtomicInteger();
+        var cache = new ReadThroughCache<>(loads::incrementAndGet, Duration.ofMinutes(10));
+
+        // when
+        cache.get();
+        cache.get();
+        cache.invalidate();
+        int value = cache.get();
+
+        // then
+        assertEquals(2, value);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldReloadWhenTtlElapses() {
+        // given
+        var clock = new MutableClock();
+        var loads = new AtomicInteger();
+        var cache = new ReadThroughCache<>(loads::incrementAndGet, Duration.ofMinutes(10), clock);
+
+        // when
+        cache.get();
+        clock.now = clock.now.plus(Duration.ofMinutes(9));
+        cache.get();
+        clock.now = clock.now.plus(Duration.ofMinutes(1));
+        cache.get();
+
+        // then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheValueLoadedBeforeInvalidation() {
+        // given a load that is invalidated whilst it reads
+        var holder = new AtomicReference<ReadThroughCache<Integer>>();
+        var loads = new AtomicInteger();
+        holder.set(new ReadThroughCache<>(() -> {
+            int i = loads.incrementAndGet();
+            if (i == 1) {
+                holder.get().invalidate();
+            }
+            return i;
+        }, Duration.ofMinutes(10)));
+
+        // when
+        int first = holder.get().get();
+        int second = holder.get().get();
+        int third = holder.get().get();
+
+        // then
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(2, third);
+    }
+
+    @Test
+    void shouldRejectNonPositiveTtl() {
+        assertThrows(IllegalArgumentException.class, () -> new ReadThroughCache<>(() -> 1, Duration.ZERO));
+    }
+
+}